@@ -0,0 +1,252 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.ast.ADeclaration;
+import org.sosy_lab.cpachecker.core.CPAchecker;
+import org.sosy_lab.cpachecker.util.Pair;
+
+/**
+ * Persistent cache for fully created CFAs, such that repeated analyses of the same program can
+ * skip parsing and post-processing.
+ *
+ * <p>A CFA is identified by a hash of the program files, of all options that may influence the
+ * CFA creation, and of the version of CPAchecker. It is stored in the format of {@link
+ * CFACacheFormat}, which contains the CFA after all post-processings together with its loop
+ * structure and the global declarations. The variable classification, live variables, and
+ * dependence graph are computed again after loading. CFA nodes keep their numbers if no CFA node
+ * with the same numbers was created before in the same run, otherwise they are renumbered.
+ */
+@Options(prefix = "cfa.cache")
+final class CFACache {
+
+  /** Increase this number for incompatible changes of the file format. */
+  private static final int FORMAT_VERSION = 2;
+
+  private static final String FILE_SUFFIX = ".cfa.gz";
+
+  /**
+   * Options with these prefixes might change the CFA. This is an over-approximation, because we
+   * cannot determine the options that are used during CFA creation.
+   */
+  private static final ImmutableList<String> RELEVANT_OPTION_PREFIXES =
+      ImmutableList.of(
+          "analysis.",
+          "cfa.",
+          "dependenceGraph.",
+          "dependencegraph.",
+          "java.",
+          "language",
+          "liveVar.",
+          "parser.");
+
+  /** Options with these prefixes do not change the CFA although they match the above. */
+  private static final ImmutableList<String> IRRELEVANT_OPTION_PREFIXES =
+      ImmutableList.of("cfa.cache.", "cfa.parallelThreads");
+
+  @Option(
+    secure = true,
+    name = "directory",
+    description =
+        "directory for caching CFAs between runs. If a CFA for the same program files and "
+            + "the same configuration exists in the directory, it is loaded instead of parsing "
+            + "the program, otherwise the created CFA is written to the directory. "
+            + "Relative paths are resolved against the output directory, so use an absolute "
+            + "path to share the cache between runs. "
+            + "Only supported for C programs without external preprocessor."
+  )
+  @FileOption(FileOption.Type.OUTPUT_DIRECTORY)
+  private @Nullable Path cacheDirectory = null;
+
+  private final LogManager logger;
+
+  CFACache(Configuration pConfig, LogManager pLogger) throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+  }
+
+  boolean isEnabled() {
+    return cacheDirectory != null;
+  }
+
+  /** Compute the key of the CFA for the given program files and configuration. */
+  static HashCode computeKey(List<String> pSourceFiles, Configuration pConfig)
+      throws IOException {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putInt(FORMAT_VERSION);
+    hasher.putString(CPAchecker.getCPAcheckerVersion(), StandardCharsets.UTF_8);
+
+    for (String sourceFile : pSourceFiles) {
+      hasher.putString(sourceFile, StandardCharsets.UTF_8);
+      hasher.putBytes(Files.readAllBytes(Paths.get(sourceFile)));
+    }
+
+    // the properties string is sorted and contains one option per line
+    for (String line : Splitter.on('\n').split(pConfig.asPropertiesString())) {
+      if (RELEVANT_OPTION_PREFIXES.stream().anyMatch(line::startsWith)
+          && IRRELEVANT_OPTION_PREFIXES.stream().noneMatch(line::startsWith)) {
+        hasher.putString(line, StandardCharsets.UTF_8);
+      }
+    }
+    return hasher.hash();
+  }
+
+  private Path getFile(HashCode pKey) {
+    return cacheDirectory.resolve(pKey + FILE_SUFFIX);
+  }
+
+  /** A CFA from the cache, which still needs the information computed after post-processing. */
+  static final class CachedCFA {
+
+    private final MutableCFA cfa;
+    private final List<Pair<ADeclaration, String>> globalDeclarations;
+
+    private CachedCFA(MutableCFA pCfa, List<Pair<ADeclaration, String>> pGlobalDeclarations) {
+      cfa = pCfa;
+      globalDeclarations = pGlobalDeclarations;
+    }
+
+    MutableCFA getCfa() {
+      return cfa;
+    }
+
+    List<Pair<ADeclaration, String>> getGlobalDeclarations() {
+      return globalDeclarations;
+    }
+  }
+
+  /**
+   * Load the CFA with the given key from the cache.
+   *
+   * @return the CFA, or NULL if it is not cached or cannot be read.
+   */
+  @Nullable
+  CachedCFA load(HashCode pKey) {
+    Path file = getFile(pKey);
+    if (!Files.isReadable(file)) {
+      logger.log(Level.FINE, "No cached CFA found in", file);
+      return null;
+    }
+
+    CFACacheFormat.Reader reader;
+    MutableCFA cfa;
+    try (InputStream fis = Files.newInputStream(file);
+        DataInputStream in = new DataInputStream(new GZIPInputStream(fis))) {
+      if (in.readInt() != FORMAT_VERSION || !Arrays.equals(readBytes(in), pKey.asBytes())) {
+        logger.log(Level.INFO, "Ignoring incompatible cached CFA in", file);
+        return null;
+      }
+      reader = new CFACacheFormat.Reader(in);
+      cfa = reader.readCFA();
+    } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+      // the constructors of the CFA and the AST throw unchecked exceptions for invalid data
+      logger.logUserException(Level.WARNING, e, "Could not read cached CFA");
+      return null;
+    }
+
+    if (!reader.hasOriginalNodeNumbers()) {
+      logger.log(
+          Level.FINE, "Renumbered nodes of cached CFA, because other CFA nodes already exist");
+    }
+    logger.log(Level.FINE, "Loaded CFA from", file);
+    return new CachedCFA(cfa, reader.getGlobalDeclarations());
+  }
+
+  private static byte[] readBytes(DataInputStream pIn) throws IOException {
+    int length = pIn.readInt();
+    if (length < 0) {
+      throw new IOException("Invalid length " + length);
+    }
+    byte[] bytes = new byte[length];
+    pIn.readFully(bytes);
+    return bytes;
+  }
+
+  /**
+   * Write the CFA with the given key into the cache, replacing an existing entry.
+   *
+   * @param pCfa A C CFA.
+   * @param pGlobalDeclarations The global declarations of the program.
+   */
+  void store(HashCode pKey, CFA pCfa, List<Pair<ADeclaration, String>> pGlobalDeclarations) {
+    Path file = getFile(pKey);
+    Path tmpFile = null;
+    try {
+      Files.createDirectories(cacheDirectory);
+      // write to a temporary file first, such that concurrent runs never read a partial file
+      tmpFile = Files.createTempFile(cacheDirectory, pKey.toString(), ".tmp");
+      try (OutputStream fos = Files.newOutputStream(tmpFile);
+          DataOutputStream out = new DataOutputStream(new GZIPOutputStream(fos))) {
+        out.writeInt(FORMAT_VERSION);
+        byte[] key = pKey.asBytes();
+        out.writeInt(key.length);
+        out.write(key);
+        new CFACacheFormat.Writer(out).writeCFA(pCfa, pGlobalDeclarations);
+      }
+      Files.move(
+          tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      tmpFile = null;
+      logger.log(Level.FINE, "Wrote CFA to", file);
+
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write CFA to cache");
+
+    } finally {
+      if (tmpFile != null) {
+        try {
+          Files.deleteIfExists(tmpFile);
+        } catch (IOException e) {
+          logger.logDebugException(e, "Could not delete temporary file of CFA cache");
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,1823 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.SortedSetMultimap;
+import com.google.common.collect.TreeMultimap;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cfa.ast.ADeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CAddressOfLabelExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArrayDesignator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArrayRangeDesignator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArraySubscriptExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CAssignment;
+import org.sosy_lab.cpachecker.cfa.ast.c.CAstNode;
+import org.sosy_lab.cpachecker.cfa.ast.c.CAstNodeVisitor;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CCastExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CCharLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CComplexCastExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CComplexTypeDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDesignatedInitializer;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDesignator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpressionAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpressionStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFieldDesignator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFieldReference;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFloatLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCall;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CImaginaryLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializer;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializerList;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CLeftHandSide;
+import org.sosy_lab.cpachecker.cfa.ast.c.CLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CParameterDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CPointerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CReturnStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CSimpleDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CStringLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CThreadOperationStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CTypeDefDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CTypeIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CTypeIdExpression.TypeIdOperator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression.UnaryOperator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.CFATerminationNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionSummaryEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CAssumeEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CDeclarationEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionCallEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionReturnEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionSummaryEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionSummaryStatementEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CLabelNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CReturnStatementEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CStatementEdge;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CArrayType;
+import org.sosy_lab.cpachecker.cfa.types.c.CBasicType;
+import org.sosy_lab.cpachecker.cfa.types.c.CBitFieldType;
+import org.sosy_lab.cpachecker.cfa.types.c.CComplexType;
+import org.sosy_lab.cpachecker.cfa.types.c.CComplexType.ComplexTypeKind;
+import org.sosy_lab.cpachecker.cfa.types.c.CCompositeType;
+import org.sosy_lab.cpachecker.cfa.types.c.CCompositeType.CCompositeTypeMemberDeclaration;
+import org.sosy_lab.cpachecker.cfa.types.c.CElaboratedType;
+import org.sosy_lab.cpachecker.cfa.types.c.CEnumType;
+import org.sosy_lab.cpachecker.cfa.types.c.CEnumType.CEnumerator;
+import org.sosy_lab.cpachecker.cfa.types.c.CFunctionType;
+import org.sosy_lab.cpachecker.cfa.types.c.CFunctionTypeWithNames;
+import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
+import org.sosy_lab.cpachecker.cfa.types.c.CProblemType;
+import org.sosy_lab.cpachecker.cfa.types.c.CSimpleType;
+import org.sosy_lab.cpachecker.cfa.types.c.CStorageClass;
+import org.sosy_lab.cpachecker.cfa.types.c.CType;
+import org.sosy_lab.cpachecker.cfa.types.c.CTypeVisitor;
+import org.sosy_lab.cpachecker.cfa.types.c.CTypedefType;
+import org.sosy_lab.cpachecker.cfa.types.c.CVoidType;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.LoopStructure;
+import org.sosy_lab.cpachecker.util.LoopStructure.Loop;
+import org.sosy_lab.cpachecker.util.Pair;
+
+/**
+ * Binary format of the entries of {@link CFACache}.
+ *
+ * <p>An entry contains the nodes and edges of a C CFA with their AST, the loop structure, and the
+ * global declarations, i.e., everything that is needed to compute the remaining information about
+ * the CFA like after parsing. Types and declarations are written once and referenced afterwards,
+ * such that they are shared like in the original CFA, including cyclic references between types.
+ * Enum constants are written by name, thus renaming one requires a new format version.
+ */
+final class CFACacheFormat {
+
+  // markers for references to strings, types, and declarations
+  private static final int NULL = -1;
+  private static final int NEW = -2;
+  private static final int ENUMERATOR_OF_TYPE = -3;
+
+  // markers for file locations
+  private static final byte LOCATION = 0;
+  private static final byte DUMMY_LOCATION = 1;
+  private static final byte MULTIPLE_FILES_LOCATION = 2;
+  private static final byte NULL_LOCATION = 3;
+
+  private enum NodeKind {
+    NODE,
+    LABEL,
+    TERMINATION,
+    FUNCTION_ENTRY,
+    FUNCTION_EXIT
+  }
+
+  private enum EdgeKind {
+    BLANK,
+    ASSUME,
+    DECLARATION,
+    STATEMENT,
+    SUMMARY_STATEMENT,
+    RETURN_STATEMENT,
+    FUNCTION_CALL,
+    FUNCTION_RETURN
+  }
+
+  private enum AstKind {
+    NULL,
+    ADDRESS_OF_LABEL,
+    ARRAY_DESIGNATOR,
+    ARRAY_RANGE_DESIGNATOR,
+    ARRAY_SUBSCRIPT,
+    BINARY,
+    CAST,
+    CHAR_LITERAL,
+    COMPLEX_CAST,
+    DESIGNATED_INITIALIZER,
+    EXPRESSION_ASSIGNMENT,
+    EXPRESSION_STATEMENT,
+    FIELD_DESIGNATOR,
+    FIELD_REFERENCE,
+    FLOAT_LITERAL,
+    FUNCTION_CALL_ASSIGNMENT,
+    FUNCTION_CALL_EXPRESSION,
+    FUNCTION_CALL_STATEMENT,
+    ID_EXPRESSION,
+    IMAGINARY_LITERAL,
+    INITIALIZER_EXPRESSION,
+    INITIALIZER_LIST,
+    INTEGER_LITERAL,
+    POINTER,
+    RETURN_STATEMENT,
+    STRING_LITERAL,
+    THREAD_OPERATION,
+    TYPE_ID,
+    UNARY
+  }
+
+  private enum TypeKind {
+    ARRAY,
+    BIT_FIELD,
+    COMPOSITE,
+    ELABORATED,
+    ENUM,
+    FUNCTION,
+    FUNCTION_WITH_NAMES,
+    POINTER,
+    PROBLEM,
+    SIMPLE,
+    TYPEDEF,
+    VOID
+  }
+
+  private enum DeclarationKind {
+    COMPLEX_TYPE,
+    ENUMERATOR,
+    FUNCTION,
+    PARAMETER,
+    TYPEDEF,
+    VARIABLE
+  }
+
+  private CFACacheFormat() {}
+
+  /**
+   * Writes a CFA. Everything that is reachable from the CFA is written with it, e.g., the exit
+   * nodes of functions whose end is not reachable.
+   */
+  static final class Writer
+      implements CAstNodeVisitor<Void, IOException>, CTypeVisitor<Void, IOException> {
+
+    private final DataOutputStream out;
+
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final Map<Object, Integer> sharedObjects = new IdentityHashMap<>();
+    private int sharedObjectCount = 0;
+    private final Set<CEnumType> enumsInProgress =
+        Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<CFAEdge, Integer> edges = new IdentityHashMap<>();
+
+    Writer(DataOutputStream pOut) {
+      out = pOut;
+    }
+
+    void writeCFA(CFA pCfa, List<Pair<ADeclaration, String>> pGlobalDeclarations)
+        throws IOException {
+      checkArgument(pCfa.getLanguage() == Language.C, "Only C programs are supported");
+
+      writeEnum(pCfa.getMachineModel());
+      out.writeInt(pCfa.getFileNames().size());
+      for (Path file : pCfa.getFileNames()) {
+        writeString(file.toString());
+      }
+
+      Set<CFANode> cfaNodes = new TreeSet<>(pCfa.getAllNodes());
+      NavigableSet<CFANode> nodes = collectReferencedNodes(cfaNodes);
+      out.writeInt(nodes.size());
+      for (CFANode node : nodes) {
+        writeNode(node, cfaNodes.contains(node));
+      }
+
+      out.writeInt(pCfa.getNumberOfFunctions());
+      for (FunctionEntryNode function : pCfa.getAllFunctionHeads()) {
+        out.writeInt(function.getNodeNumber());
+      }
+      out.writeInt(pCfa.getMainFunction().getNodeNumber());
+
+      // summary edges first, because call and return edges reference them
+      List<FunctionSummaryEdge> summaryEdges = new ArrayList<>();
+      List<CFAEdge> otherEdges = new ArrayList<>();
+      for (CFANode node : nodes) {
+        if (node.getLeavingSummaryEdge() != null) {
+          summaryEdges.add(node.getLeavingSummaryEdge());
+        }
+        CFAUtils.leavingEdges(node).copyInto(otherEdges);
+      }
+      out.writeInt(summaryEdges.size());
+      for (FunctionSummaryEdge edge : summaryEdges) {
+        writeSummaryEdge(edge);
+        edges.put(edge, edges.size());
+      }
+      out.writeInt(otherEdges.size());
+      for (CFAEdge edge : otherEdges) {
+        writeEdge(edge);
+        edges.put(edge, edges.size());
+      }
+      // the order of entering edges is not necessarily the order of leaving edges
+      for (CFANode node : nodes) {
+        out.writeInt(node.getNumEnteringEdges());
+        for (CFAEdge edge : CFAUtils.enteringEdges(node)) {
+          out.writeInt(getEdgeIndex(edge));
+        }
+      }
+
+      out.writeBoolean(pCfa.getLoopStructure().isPresent());
+      if (pCfa.getLoopStructure().isPresent()) {
+        Collection<Loop> loops = pCfa.getLoopStructure().get().getAllLoops();
+        out.writeInt(loops.size());
+        for (Loop loop : loops) {
+          writeNodeNumbers(loop.getLoopHeads());
+          writeNodeNumbers(loop.getLoopNodes());
+        }
+      }
+
+      out.writeInt(pGlobalDeclarations.size());
+      for (Pair<ADeclaration, String> declaration : pGlobalDeclarations) {
+        writeDeclaration((CDeclaration) declaration.getFirst());
+        writeString(declaration.getSecond());
+      }
+    }
+
+    private static NavigableSet<CFANode> collectReferencedNodes(Set<CFANode> pCfaNodes) {
+      NavigableSet<CFANode> nodes = new TreeSet<>(pCfaNodes);
+      Deque<CFANode> waitlist = new ArrayDeque<>(pCfaNodes);
+      while (!waitlist.isEmpty()) {
+        CFANode node = waitlist.pop();
+        List<CFANode> neighbors = new ArrayList<>();
+        CFAUtils.allSuccessorsOf(node).copyInto(neighbors);
+        CFAUtils.allPredecessorsOf(node).copyInto(neighbors);
+        if (node instanceof FunctionEntryNode) {
+          neighbors.add(((FunctionEntryNode) node).getExitNode());
+        }
+        for (CFANode neighbor : neighbors) {
+          if (nodes.add(neighbor)) {
+            waitlist.push(neighbor);
+          }
+        }
+      }
+      return nodes;
+    }
+
+    private void writeNode(CFANode pNode, boolean pIsPartOfCfa) throws IOException {
+      final NodeKind kind;
+      if (pNode.getClass() == CFANode.class) {
+        kind = NodeKind.NODE;
+      } else if (pNode.getClass() == CLabelNode.class) {
+        kind = NodeKind.LABEL;
+      } else if (pNode.getClass() == CFATerminationNode.class) {
+        kind = NodeKind.TERMINATION;
+      } else if (pNode.getClass() == CFunctionEntryNode.class) {
+        kind = NodeKind.FUNCTION_ENTRY;
+      } else if (pNode.getClass() == FunctionExitNode.class) {
+        kind = NodeKind.FUNCTION_EXIT;
+      } else {
+        throw new IOException("Unsupported CFA node " + pNode.getClass().getSimpleName());
+      }
+
+      writeEnum(kind);
+      out.writeInt(pNode.getNodeNumber());
+      writeString(pNode.getFunctionName());
+      out.writeBoolean(pIsPartOfCfa);
+      out.writeBoolean(pNode.isLoopStart());
+      out.writeInt(pNode.getReversePostorderId());
+
+      switch (kind) {
+        case LABEL:
+          writeString(((CLabelNode) pNode).getLabel());
+          break;
+        case FUNCTION_ENTRY:
+          CFunctionEntryNode entryNode = (CFunctionEntryNode) pNode;
+          writeFileLocation(entryNode.getFileLocation());
+          writeDeclaration(entryNode.getFunctionDefinition());
+          writeDeclaration(entryNode.getReturnVariable().orNull());
+          out.writeInt(entryNode.getExitNode().getNodeNumber());
+          break;
+        default:
+          break;
+      }
+    }
+
+    private void writeNodeNumbers(Collection<CFANode> pNodes) throws IOException {
+      out.writeInt(pNodes.size());
+      for (CFANode node : pNodes) {
+        out.writeInt(node.getNodeNumber());
+      }
+    }
+
+    private int getEdgeIndex(CFAEdge pEdge) throws IOException {
+      Integer index = edges.get(pEdge);
+      if (index == null) {
+        throw new IOException("Edge " + pEdge + " is not a leaving edge of its predecessor");
+      }
+      return index;
+    }
+
+    private void writeSummaryEdge(FunctionSummaryEdge pEdge) throws IOException {
+      if (pEdge.getClass() != CFunctionSummaryEdge.class) {
+        throw new IOException("Unsupported CFA edge " + pEdge.getClass().getSimpleName());
+      }
+      CFunctionSummaryEdge edge = (CFunctionSummaryEdge) pEdge;
+      writeString(edge.getRawStatement());
+      writeFileLocation(edge.getFileLocation());
+      out.writeInt(edge.getPredecessor().getNodeNumber());
+      out.writeInt(edge.getSuccessor().getNodeNumber());
+      writeAst(edge.getExpression());
+      out.writeInt(edge.getFunctionEntry().getNodeNumber());
+    }
+
+    private void writeEdge(CFAEdge pEdge) throws IOException {
+      final EdgeKind kind;
+      if (pEdge.getClass() == BlankEdge.class) {
+        kind = EdgeKind.BLANK;
+      } else if (pEdge.getClass() == CAssumeEdge.class) {
+        kind = EdgeKind.ASSUME;
+      } else if (pEdge.getClass() == CDeclarationEdge.class) {
+        kind = EdgeKind.DECLARATION;
+      } else if (pEdge.getClass() == CStatementEdge.class) {
+        kind = EdgeKind.STATEMENT;
+      } else if (pEdge.getClass() == CFunctionSummaryStatementEdge.class) {
+        kind = EdgeKind.SUMMARY_STATEMENT;
+      } else if (pEdge.getClass() == CReturnStatementEdge.class) {
+        kind = EdgeKind.RETURN_STATEMENT;
+      } else if (pEdge.getClass() == CFunctionCallEdge.class) {
+        kind = EdgeKind.FUNCTION_CALL;
+      } else if (pEdge.getClass() == CFunctionReturnEdge.class) {
+        kind = EdgeKind.FUNCTION_RETURN;
+      } else {
+        throw new IOException("Unsupported CFA edge " + pEdge.getClass().getSimpleName());
+      }
+
+      writeEnum(kind);
+      if (kind == EdgeKind.ASSUME) {
+        // the constructor adds brackets around the raw statement
+        String rawStatement = pEdge.getRawStatement();
+        writeString(rawStatement.substring(1, rawStatement.length() - 1));
+      } else {
+        writeString(pEdge.getRawStatement());
+      }
+      writeFileLocation(pEdge.getFileLocation());
+      out.writeInt(pEdge.getPredecessor().getNodeNumber());
+      out.writeInt(pEdge.getSuccessor().getNodeNumber());
+
+      switch (kind) {
+        case BLANK:
+          writeString(pEdge.getDescription());
+          break;
+        case ASSUME:
+          CAssumeEdge assumeEdge = (CAssumeEdge) pEdge;
+          writeAst(assumeEdge.getExpression());
+          out.writeBoolean(assumeEdge.getTruthAssumption());
+          out.writeBoolean(assumeEdge.isSwapped());
+          out.writeBoolean(assumeEdge.isArtificialIntermediate());
+          break;
+        case DECLARATION:
+          writeDeclaration(((CDeclarationEdge) pEdge).getDeclaration());
+          break;
+        case STATEMENT:
+          writeAst(((CStatementEdge) pEdge).getStatement());
+          break;
+        case SUMMARY_STATEMENT:
+          CFunctionSummaryStatementEdge summaryStatementEdge =
+              (CFunctionSummaryStatementEdge) pEdge;
+          writeAst(summaryStatementEdge.getStatement());
+          writeAst(summaryStatementEdge.getFunctionCall());
+          writeString(summaryStatementEdge.getFunctionName());
+          break;
+        case RETURN_STATEMENT:
+          writeAst(((CReturnStatementEdge) pEdge).getRawAST().get());
+          break;
+        case FUNCTION_CALL:
+          CFunctionCallEdge callEdge = (CFunctionCallEdge) pEdge;
+          writeAst(callEdge.getRawAST().get());
+          out.writeInt(getEdgeIndex(callEdge.getSummaryEdge()));
+          break;
+        case FUNCTION_RETURN:
+          out.writeInt(getEdgeIndex(((CFunctionReturnEdge) pEdge).getSummaryEdge()));
+          break;
+        default:
+          throw new AssertionError();
+      }
+    }
+
+    private void writeString(@Nullable String pString) throws IOException {
+      if (pString == null) {
+        out.writeInt(NULL);
+      } else if (strings.containsKey(pString)) {
+        out.writeInt(strings.get(pString));
+      } else {
+        // writeUTF() is limited to 64 KiB, which is not enough for string literals
+        byte[] bytes = pString.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(NEW);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        strings.put(pString, strings.size());
+      }
+    }
+
+    private void writeEnum(Enum<?> pValue) throws IOException {
+      writeString(pValue.name());
+    }
+
+    private void writeFileLocation(@Nullable FileLocation pLocation) throws IOException {
+      if (pLocation == null) {
+        out.writeByte(NULL_LOCATION);
+      } else if (pLocation == FileLocation.DUMMY) {
+        out.writeByte(DUMMY_LOCATION);
+      } else if (pLocation == FileLocation.MULTIPLE_FILES) {
+        out.writeByte(MULTIPLE_FILES_LOCATION);
+      } else {
+        out.writeByte(LOCATION);
+        writeString(pLocation.getFileName());
+        writeString(pLocation.getNiceFileName());
+        out.writeInt(pLocation.getNodeOffset());
+        out.writeInt(pLocation.getNodeLength());
+        out.writeInt(pLocation.getStartingLineNumber());
+        out.writeInt(pLocation.getEndingLineNumber());
+        out.writeInt(pLocation.getStartingLineInOrigin());
+        out.writeInt(pLocation.getEndingLineInOrigin());
+      }
+    }
+
+    /**
+     * Write a reference to a type or declaration if it was already written and return true,
+     * otherwise announce a new object and return false.
+     */
+    private boolean writeReference(@Nullable Object pObject) throws IOException {
+      if (pObject == null) {
+        out.writeInt(NULL);
+        return true;
+      }
+      Integer index = sharedObjects.get(pObject);
+      if (index != null) {
+        out.writeInt(index);
+        return true;
+      }
+      out.writeInt(NEW);
+      return false;
+    }
+
+    /** Make a type or declaration available for references, at the same point as the reader. */
+    private void register(Object pObject) {
+      // A type that is reached again through a cycle before it is registered is written twice,
+      // thus the same object may be registered twice and the indices must not be map sizes.
+      sharedObjects.put(pObject, sharedObjectCount++);
+    }
+
+    private void writeType(@Nullable CType pType) throws IOException {
+      if (!writeReference(pType)) {
+        pType.accept(this);
+      }
+    }
+
+    private void writeTypes(List<CType> pTypes) throws IOException {
+      out.writeInt(pTypes.size());
+      for (CType type : pTypes) {
+        writeType(type);
+      }
+    }
+
+    private void writeDeclaration(@Nullable CSimpleDeclaration pDeclaration) throws IOException {
+      if (pDeclaration instanceof CEnumerator) {
+        CEnumType enumType = ((CEnumerator) pDeclaration).getEnum();
+        if (enumType != null
+            && !sharedObjects.containsKey(pDeclaration)
+            && !sharedObjects.containsKey(enumType)
+            && !enumsInProgress.contains(enumType)) {
+          // enumerators are written as part of their type, which sets their type when reading
+          out.writeInt(ENUMERATOR_OF_TYPE);
+          writeType(enumType);
+          if (!writeReference(pDeclaration)) {
+            throw new IOException("Enumerator " + pDeclaration + " is not part of its type");
+          }
+          return;
+        }
+      }
+      if (!writeReference(pDeclaration)) {
+        pDeclaration.accept(this);
+      }
+    }
+
+    private void writeAst(@Nullable CAstNode pNode) throws IOException {
+      if (pNode == null) {
+        writeEnum(AstKind.NULL);
+      } else {
+        pNode.accept(this);
+      }
+    }
+
+    private void writeAsts(List<? extends CAstNode> pNodes) throws IOException {
+      out.writeInt(pNodes.size());
+      for (CAstNode node : pNodes) {
+        writeAst(node);
+      }
+    }
+
+    private void writeAstHeader(AstKind pKind, CAstNode pNode) throws IOException {
+      writeEnum(pKind);
+      writeFileLocation(pNode.getFileLocation());
+    }
+
+    @Override
+    public Void visit(CArrayDesignator pNode) throws IOException {
+      writeAstHeader(AstKind.ARRAY_DESIGNATOR, pNode);
+      writeAst(pNode.getSubscriptExpression());
+      return null;
+    }
+
+    @Override
+    public Void visit(CArrayRangeDesignator pNode) throws IOException {
+      writeAstHeader(AstKind.ARRAY_RANGE_DESIGNATOR, pNode);
+      writeAst(pNode.getFloorExpression());
+      writeAst(pNode.getCeilExpression());
+      return null;
+    }
+
+    @Override
+    public Void visit(CFieldDesignator pNode) throws IOException {
+      writeAstHeader(AstKind.FIELD_DESIGNATOR, pNode);
+      writeString(pNode.getFieldName());
+      return null;
+    }
+
+    @Override
+    public Void visit(CInitializerExpression pNode) throws IOException {
+      writeAstHeader(AstKind.INITIALIZER_EXPRESSION, pNode);
+      writeAst(pNode.getExpression());
+      return null;
+    }
+
+    @Override
+    public Void visit(CInitializerList pNode) throws IOException {
+      writeAstHeader(AstKind.INITIALIZER_LIST, pNode);
+      writeAsts(pNode.getInitializers());
+      return null;
+    }
+
+    @Override
+    public Void visit(CDesignatedInitializer pNode) throws IOException {
+      writeAstHeader(AstKind.DESIGNATED_INITIALIZER, pNode);
+      writeAsts(pNode.getDesignators());
+      writeAst(pNode.getRightHandSide());
+      return null;
+    }
+
+    @Override
+    public Void visit(CFunctionCallExpression pNode) throws IOException {
+      writeAstHeader(AstKind.FUNCTION_CALL_EXPRESSION, pNode);
+      writeType(pNode.getExpressionType());
+      writeAst(pNode.getFunctionNameExpression());
+      writeAsts(pNode.getParameterExpressions());
+      writeDeclaration(pNode.getDeclaration());
+      return null;
+    }
+
+    @Override
+    public Void visit(CBinaryExpression pNode) throws IOException {
+      writeAstHeader(AstKind.BINARY, pNode);
+      writeType(pNode.getExpressionType());
+      writeType(pNode.getCalculationType());
+      writeAst(pNode.getOperand1());
+      writeAst(pNode.getOperand2());
+      writeEnum(pNode.getOperator());
+      return null;
+    }
+
+    @Override
+    public Void visit(CCastExpression pNode) throws IOException {
+      writeAstHeader(AstKind.CAST, pNode);
+      writeType(pNode.getExpressionType());
+      writeAst(pNode.getOperand());
+      return null;
+    }
+
+    @Override
+    public Void visit(CCharLiteralExpression pNode) throws IOException {
+      writeAstHeader(AstKind.CHAR_LITERAL, pNode);
+      writeType(pNode.getExpressionType());
+      out.writeChar(pNode.getCharacter());
+      return null;
+    }
+
+    @Override
+    public Void visit(CFloatLiteralExpression pNode) throws IOException {
+      writeAstHeader(AstKind.FLOAT_LITERAL, pNode);
+      writeType(pNode.getExpressionType());
+      writeString(pNode.getValue().toString());
+      return null;
+    }
+
+    @Override
+    public Void visit(CIntegerLiteralExpression pNode) throws IOException {
+      writeAstHeader(AstKind.INTEGER_LITERAL, pNode);
+      writeType(pNode.getExpressionType());
+      writeString(pNode.getValue().toString());
+      return null;
+    }
+
+    @Override
+    public Void visit(CStringLiteralExpression pNode) throws IOException {
+      writeAstHeader(AstKind.STRING_LITERAL, pNode);
+      writeType(pNode.getExpressionType());
+      writeString(pNode.getValue());
+      return null;
+    }
+
+    @Override
+    public Void visit(CTypeIdExpression pNode) throws IOException {
+      writeAstHeader(AstKind.TYPE_ID, pNode);
+      writeType(pNode.getExpressionType());
+      writeEnum(pNode.getOperator());
+      writeType(pNode.getType());
+      return null;
+    }
+
+    @Override
+    public Void visit(CUnaryExpression pNode) throws IOException {
+      writeAstHeader(AstKind.UNARY, pNode);
+      writeType(pNode.getExpressionType());
+      writeAst(pNode.getOperand());
+      writeEnum(pNode.getOperator());
+      return null;
+    }
+
+    @Override
+    public Void visit(CImaginaryLiteralExpression pNode) throws IOException {
+      writeAstHeader(AstKind.IMAGINARY_LITERAL, pNode);
+      writeType(pNode.getExpressionType());
+      writeAst(pNode.getValue());
+      return null;
+    }
+
+    @Override
+    public Void visit(CAddressOfLabelExpression pNode) throws IOException {
+      writeAstHeader(AstKind.ADDRESS_OF_LABEL, pNode);
+      writeType(pNode.getExpressionType());
+      writeString(pNode.getLabelName());
+      return null;
+    }
+
+    @Override
+    public Void visit(CArraySubscriptExpression pNode) throws IOException {
+      writeAstHeader(AstKind.ARRAY_SUBSCRIPT, pNode);
+      writeType(pNode.getExpressionType());
+      writeAst(pNode.getArrayExpression());
+      writeAst(pNode.getSubscriptExpression());
+      return null;
+    }
+
+    @Override
+    public Void visit(CFieldReference pNode) throws IOException {
+      writeAstHeader(AstKind.FIELD_REFERENCE, pNode);
+      writeType(pNode.getExpressionType());
+      writeString(pNode.getFieldName());
+      writeAst(pNode.getFieldOwner());
+      out.writeBoolean(pNode.isPointerDereference());
+      return null;
+    }
+
+    @Override
+    public Void visit(CIdExpression pNode) throws IOException {
+      writeAstHeader(AstKind.ID_EXPRESSION, pNode);
+      writeType(pNode.getExpressionType());
+      writeString(pNode.getName());
+      writeDeclaration(pNode.getDeclaration());
+      return null;
+    }
+
+    @Override
+    public Void visit(CPointerExpression pNode) throws IOException {
+      writeAstHeader(AstKind.POINTER, pNode);
+      writeType(pNode.getExpressionType());
+      writeAst(pNode.getOperand());
+      return null;
+    }
+
+    @Override
+    public Void visit(CComplexCastExpression pNode) throws IOException {
+      writeAstHeader(AstKind.COMPLEX_CAST, pNode);
+      writeType(pNode.getExpressionType());
+      writeAst(pNode.getOperand());
+      writeType(pNode.getType());
+      out.writeBoolean(pNode.isRealCast());
+      return null;
+    }
+
+    @Override
+    public Void visit(CExpressionStatement pNode) throws IOException {
+      writeAstHeader(AstKind.EXPRESSION_STATEMENT, pNode);
+      writeAst(pNode.getExpression());
+      return null;
+    }
+
+    @Override
+    public Void visit(CExpressionAssignmentStatement pNode) throws IOException {
+      writeAstHeader(AstKind.EXPRESSION_ASSIGNMENT, pNode);
+      writeAst(pNode.getLeftHandSide());
+      writeAst(pNode.getRightHandSide());
+      return null;
+    }
+
+    @Override
+    public Void visit(CFunctionCallAssignmentStatement pNode) throws IOException {
+      writeAstHeader(AstKind.FUNCTION_CALL_ASSIGNMENT, pNode);
+      writeAst(pNode.getLeftHandSide());
+      writeAst(pNode.getRightHandSide());
+      return null;
+    }
+
+    @Override
+    public Void visit(CFunctionCallStatement pNode) throws IOException {
+      if (pNode instanceof CThreadOperationStatement) {
+        CThreadOperationStatement threadOperation = (CThreadOperationStatement) pNode;
+        writeAstHeader(AstKind.THREAD_OPERATION, pNode);
+        writeAst(pNode.getFunctionCallExpression());
+        out.writeBoolean(threadOperation.isSelfParallel());
+        writeString(threadOperation.getVariableName());
+      } else {
+        writeAstHeader(AstKind.FUNCTION_CALL_STATEMENT, pNode);
+        writeAst(pNode.getFunctionCallExpression());
+      }
+      return null;
+    }
+
+    @Override
+    public Void visit(CReturnStatement pNode) throws IOException {
+      writeAstHeader(AstKind.RETURN_STATEMENT, pNode);
+      writeAst(pNode.getReturnValue().orNull());
+      writeAst(pNode.asAssignment().orNull());
+      return null;
+    }
+
+    @Override
+    public Void visit(CFunctionDeclaration pDecl) throws IOException {
+      writeEnum(DeclarationKind.FUNCTION);
+      writeFileLocation(pDecl.getFileLocation());
+      writeType(pDecl.getType());
+      writeString(pDecl.getName());
+      out.writeInt(pDecl.getParameters().size());
+      for (CParameterDeclaration parameter : pDecl.getParameters()) {
+        writeDeclaration(parameter);
+      }
+      register(pDecl);
+      return null;
+    }
+
+    @Override
+    public Void visit(CComplexTypeDeclaration pDecl) throws IOException {
+      writeEnum(DeclarationKind.COMPLEX_TYPE);
+      writeFileLocation(pDecl.getFileLocation());
+      out.writeBoolean(pDecl.isGlobal());
+      writeType(pDecl.getType());
+      register(pDecl);
+      return null;
+    }
+
+    @Override
+    public Void visit(CTypeDefDeclaration pDecl) throws IOException {
+      writeEnum(DeclarationKind.TYPEDEF);
+      writeFileLocation(pDecl.getFileLocation());
+      out.writeBoolean(pDecl.isGlobal());
+      writeType(pDecl.getType());
+      writeString(pDecl.getName());
+      writeString(pDecl.getQualifiedName());
+      register(pDecl);
+      return null;
+    }
+
+    @Override
+    public Void visit(CVariableDeclaration pDecl) throws IOException {
+      writeEnum(DeclarationKind.VARIABLE);
+      writeFileLocation(pDecl.getFileLocation());
+      out.writeBoolean(pDecl.isGlobal());
+      writeEnum(pDecl.getCStorageClass());
+      writeType(pDecl.getType());
+      writeString(pDecl.getName());
+      writeString(pDecl.getOrigName());
+      writeString(pDecl.getQualifiedName());
+      // the initializer may reference the declaration
+      register(pDecl);
+      writeAst(pDecl.getInitializer());
+      return null;
+    }
+
+    @Override
+    public Void visit(CParameterDeclaration pDecl) throws IOException {
+      writeEnum(DeclarationKind.PARAMETER);
+      writeFileLocation(pDecl.getFileLocation());
+      writeType(pDecl.getType());
+      writeString(pDecl.getName());
+      writeString(pDecl.getQualifiedName());
+      register(pDecl);
+      return null;
+    }
+
+    @Override
+    public Void visit(CEnumerator pDecl) throws IOException {
+      writeEnum(DeclarationKind.ENUMERATOR);
+      writeFileLocation(pDecl.getFileLocation());
+      writeString(pDecl.getName());
+      writeString(pDecl.getQualifiedName());
+      out.writeBoolean(pDecl.hasValue());
+      if (pDecl.hasValue()) {
+        out.writeLong(pDecl.getValue());
+      }
+      register(pDecl);
+      return null;
+    }
+
+    @Override
+    public Void visit(CArrayType pArrayType) throws IOException {
+      writeEnum(TypeKind.ARRAY);
+      out.writeBoolean(pArrayType.isConst());
+      out.writeBoolean(pArrayType.isVolatile());
+      writeType(pArrayType.getType());
+      writeAst(pArrayType.getLength());
+      register(pArrayType);
+      return null;
+    }
+
+    @Override
+    public Void visit(CCompositeType pCompositeType) throws IOException {
+      writeEnum(TypeKind.COMPOSITE);
+      out.writeBoolean(pCompositeType.isConst());
+      out.writeBoolean(pCompositeType.isVolatile());
+      writeEnum(pCompositeType.getKind());
+      writeString(pCompositeType.getName());
+      writeString(pCompositeType.getOrigName());
+      // members may reference the type
+      register(pCompositeType);
+      out.writeInt(pCompositeType.getMembers().size());
+      for (CCompositeTypeMemberDeclaration member : pCompositeType.getMembers()) {
+        writeType(member.getType());
+        writeString(member.getName());
+      }
+      return null;
+    }
+
+    @Override
+    public Void visit(CElaboratedType pElaboratedType) throws IOException {
+      writeEnum(TypeKind.ELABORATED);
+      out.writeBoolean(pElaboratedType.isConst());
+      out.writeBoolean(pElaboratedType.isVolatile());
+      writeEnum(pElaboratedType.getKind());
+      writeString(pElaboratedType.getName());
+      writeString(pElaboratedType.getOrigName());
+      // the real type may reference this type
+      register(pElaboratedType);
+      writeType(pElaboratedType.getRealType());
+      return null;
+    }
+
+    @Override
+    public Void visit(CEnumType pEnumType) throws IOException {
+      writeEnum(TypeKind.ENUM);
+      out.writeBoolean(pEnumType.isConst());
+      out.writeBoolean(pEnumType.isVolatile());
+      writeString(pEnumType.getName());
+      writeString(pEnumType.getOrigName());
+      enumsInProgress.add(pEnumType);
+      out.writeInt(pEnumType.getEnumerators().size());
+      for (CEnumerator enumerator : pEnumType.getEnumerators()) {
+        writeDeclaration(enumerator);
+      }
+      enumsInProgress.remove(pEnumType);
+      register(pEnumType);
+      return null;
+    }
+
+    @Override
+    public Void visit(CFunctionType pFunctionType) throws IOException {
+      if (pFunctionType instanceof CFunctionTypeWithNames) {
+        writeEnum(TypeKind.FUNCTION_WITH_NAMES);
+        writeType(pFunctionType.getReturnType());
+        List<CParameterDeclaration> parameters =
+            ((CFunctionTypeWithNames) pFunctionType).getParameterDeclarations();
+        out.writeInt(parameters.size());
+        for (CParameterDeclaration parameter : parameters) {
+          writeDeclaration(parameter);
+        }
+      } else {
+        writeEnum(TypeKind.FUNCTION);
+        writeType(pFunctionType.getReturnType());
+        writeTypes(pFunctionType.getParameters());
+      }
+      out.writeBoolean(pFunctionType.takesVarArgs());
+      writeString(pFunctionType.getName());
+      register(pFunctionType);
+      return null;
+    }
+
+    @Override
+    public Void visit(CPointerType pPointerType) throws IOException {
+      writeEnum(TypeKind.POINTER);
+      out.writeBoolean(pPointerType.isConst());
+      out.writeBoolean(pPointerType.isVolatile());
+      writeType(pPointerType.getType());
+      register(pPointerType);
+      return null;
+    }
+
+    @Override
+    public Void visit(CProblemType pProblemType) throws IOException {
+      writeEnum(TypeKind.PROBLEM);
+      writeString(pProblemType.toString());
+      register(pProblemType);
+      return null;
+    }
+
+    @Override
+    public Void visit(CSimpleType pSimpleType) throws IOException {
+      writeEnum(TypeKind.SIMPLE);
+      out.writeBoolean(pSimpleType.isConst());
+      out.writeBoolean(pSimpleType.isVolatile());
+      writeEnum(pSimpleType.getType());
+      out.writeBoolean(pSimpleType.isLong());
+      out.writeBoolean(pSimpleType.isShort());
+      out.writeBoolean(pSimpleType.isSigned());
+      out.writeBoolean(pSimpleType.isUnsigned());
+      out.writeBoolean(pSimpleType.isComplex());
+      out.writeBoolean(pSimpleType.isImaginary());
+      out.writeBoolean(pSimpleType.isLongLong());
+      register(pSimpleType);
+      return null;
+    }
+
+    @Override
+    public Void visit(CTypedefType pTypedefType) throws IOException {
+      writeEnum(TypeKind.TYPEDEF);
+      out.writeBoolean(pTypedefType.isConst());
+      out.writeBoolean(pTypedefType.isVolatile());
+      writeString(pTypedefType.getName());
+      writeType(pTypedefType.getRealType());
+      register(pTypedefType);
+      return null;
+    }
+
+    @Override
+    public Void visit(CVoidType pVoidType) throws IOException {
+      writeEnum(TypeKind.VOID);
+      out.writeBoolean(pVoidType.isConst());
+      out.writeBoolean(pVoidType.isVolatile());
+      register(pVoidType);
+      return null;
+    }
+
+    @Override
+    public Void visit(CBitFieldType pCBitFieldType) throws IOException {
+      writeEnum(TypeKind.BIT_FIELD);
+      writeType(pCBitFieldType.getType());
+      out.writeInt(pCBitFieldType.getBitFieldSize());
+      register(pCBitFieldType);
+      return null;
+    }
+  }
+
+  /**
+   * Reads a CFA that was written by {@link Writer}. The nodes get their original numbers if no
+   * node with such a number exists yet, otherwise they are numbered in the original order.
+   */
+  static final class Reader {
+
+    private final DataInputStream in;
+
+    private final List<String> strings = new ArrayList<>();
+    private final List<Object> sharedObjects = new ArrayList<>();
+    private final Map<Integer, CFANode> nodes = new HashMap<>();
+    private final List<CFAEdge> edges = new ArrayList<>();
+
+    private final List<Pair<ADeclaration, String>> globalDeclarations = new ArrayList<>();
+    private boolean hasOriginalNodeNumbers = true;
+
+    Reader(DataInputStream pIn) {
+      in = pIn;
+    }
+
+    /** The global declarations of the program, available after {@link #readCFA()}. */
+    List<Pair<ADeclaration, String>> getGlobalDeclarations() {
+      return globalDeclarations;
+    }
+
+    /** Whether all nodes got their original numbers, available after {@link #readCFA()}. */
+    boolean hasOriginalNodeNumbers() {
+      return hasOriginalNodeNumbers;
+    }
+
+    MutableCFA readCFA() throws IOException {
+      MachineModel machineModel = readEnum(MachineModel.class);
+      List<Path> fileNames = new ArrayList<>();
+      for (int i = readSize(); i > 0; i--) {
+        fileNames.add(Paths.get(readString()));
+      }
+
+      SortedSetMultimap<String, CFANode> cfaNodes = TreeMultimap.create();
+      List<CFANode> allNodes = new ArrayList<>();
+      for (int i = readSize(); i > 0; i--) {
+        CFANode node = readNode(cfaNodes);
+        allNodes.add(node);
+      }
+
+      NavigableMap<String, FunctionEntryNode> functions = new TreeMap<>();
+      for (int i = readSize(); i > 0; i--) {
+        FunctionEntryNode function = readNodeReference(FunctionEntryNode.class);
+        functions.put(function.getFunctionName(), function);
+      }
+      FunctionEntryNode mainFunction = readNodeReference(FunctionEntryNode.class);
+
+      for (int i = readSize(); i > 0; i--) {
+        CFunctionSummaryEdge edge = readSummaryEdge();
+        edge.getPredecessor().addLeavingSummaryEdge(edge);
+        edge.getSuccessor().addEnteringSummaryEdge(edge);
+        edges.add(edge);
+      }
+      for (int i = readSize(); i > 0; i--) {
+        CFAEdge edge = readEdge();
+        edge.getPredecessor().addLeavingEdge(edge);
+        edges.add(edge);
+      }
+      for (CFANode node : allNodes) {
+        for (int i = readSize(); i > 0; i--) {
+          node.addEnteringEdge(readEdgeReference(CFAEdge.class));
+        }
+      }
+
+      List<Pair<Set<CFANode>, Set<CFANode>>> loops = new ArrayList<>();
+      boolean hasLoopStructure = in.readBoolean();
+      if (hasLoopStructure) {
+        for (int i = readSize(); i > 0; i--) {
+          Set<CFANode> loopHeads = readNodeReferences();
+          Set<CFANode> loopNodes = readNodeReferences();
+          if (loopHeads.isEmpty()) {
+            throw new IOException("Loop without loop head");
+          }
+          loops.add(Pair.of(loopHeads, loopNodes));
+        }
+      }
+
+      for (int i = readSize(); i > 0; i--) {
+        CSimpleDeclaration declaration = readDeclaration();
+        if (!(declaration instanceof CDeclaration)) {
+          throw new IOException("Invalid global declaration " + declaration);
+        }
+        globalDeclarations.add(Pair.of((ADeclaration) declaration, readString()));
+      }
+
+      if (!functions.keySet().equals(cfaNodes.keySet())
+          || functions.get(mainFunction.getFunctionName()) != mainFunction) {
+        throw new IOException("Inconsistent functions of CFA");
+      }
+      MutableCFA cfa =
+          new MutableCFA(machineModel, functions, cfaNodes, mainFunction, fileNames, Language.C);
+      if (hasLoopStructure) {
+        cfa.setLoopStructure(LoopStructure.restore(loops));
+      }
+      return cfa;
+    }
+
+    private CFANode readNode(SortedSetMultimap<String, CFANode> pCfaNodes) throws IOException {
+      NodeKind kind = readEnum(NodeKind.class);
+      int number = in.readInt();
+      String functionName = readNonNullString();
+      boolean isPartOfCfa = in.readBoolean();
+      boolean isLoopStart = in.readBoolean();
+      int reversePostorderId = in.readInt();
+
+      // nodes are written in ascending order, thus this keeps the original order
+      CFANode.advanceNodeNumbers(number);
+      final CFANode node;
+      switch (kind) {
+        case NODE:
+          node = new CFANode(functionName);
+          break;
+        case LABEL:
+          node = new CLabelNode(functionName, readNonNullString());
+          break;
+        case TERMINATION:
+          node = new CFATerminationNode(functionName);
+          break;
+        case FUNCTION_ENTRY:
+          FileLocation location = readFileLocation();
+          CFunctionDeclaration declaration = readDeclaration(CFunctionDeclaration.class);
+          CVariableDeclaration returnVariable = readDeclaration(CVariableDeclaration.class);
+          // exit nodes are always created before their entry node
+          FunctionExitNode exitNode = readNodeReference(FunctionExitNode.class);
+          CFunctionEntryNode entryNode =
+              new CFunctionEntryNode(
+                  location,
+                  declaration,
+                  exitNode,
+                  com.google.common.base.Optional.fromNullable(returnVariable));
+          exitNode.setEntryNode(entryNode);
+          node = entryNode;
+          break;
+        case FUNCTION_EXIT:
+          node = new FunctionExitNode(functionName);
+          break;
+        default:
+          throw new AssertionError();
+      }
+
+      hasOriginalNodeNumbers &= node.getNodeNumber() == number;
+      if (isLoopStart) {
+        node.setLoopStart();
+      }
+      node.setReversePostorderId(reversePostorderId);
+      if (nodes.put(number, node) != null) {
+        throw new IOException("Duplicate CFA node " + number);
+      }
+      if (isPartOfCfa) {
+        pCfaNodes.put(functionName, node);
+      }
+      return node;
+    }
+
+    private <T extends CFANode> T readNodeReference(Class<T> pClass) throws IOException {
+      int number = in.readInt();
+      CFANode node = nodes.get(number);
+      if (!pClass.isInstance(node)) {
+        throw new IOException("Invalid reference to CFA node " + number);
+      }
+      return pClass.cast(node);
+    }
+
+    private Set<CFANode> readNodeReferences() throws IOException {
+      Set<CFANode> result = new LinkedHashSet<>();
+      for (int i = readSize(); i > 0; i--) {
+        result.add(readNodeReference(CFANode.class));
+      }
+      return result;
+    }
+
+    private <T extends CFAEdge> T readEdgeReference(Class<T> pClass) throws IOException {
+      int index = in.readInt();
+      if (index < 0 || index >= edges.size() || !pClass.isInstance(edges.get(index))) {
+        throw new IOException("Invalid reference to CFA edge " + index);
+      }
+      return pClass.cast(edges.get(index));
+    }
+
+    private CFunctionSummaryEdge readSummaryEdge() throws IOException {
+      String rawStatement = readNonNullString();
+      FileLocation location = readFileLocation();
+      CFANode predecessor = readNodeReference(CFANode.class);
+      CFANode successor = readNodeReference(CFANode.class);
+      CFunctionCall functionCall = readAst(CFunctionCall.class);
+      CFunctionEntryNode functionEntry = readNodeReference(CFunctionEntryNode.class);
+      return new CFunctionSummaryEdge(
+          rawStatement, location, predecessor, successor, functionCall, functionEntry);
+    }
+
+    private CFAEdge readEdge() throws IOException {
+      EdgeKind kind = readEnum(EdgeKind.class);
+      String rawStatement = readNonNullString();
+      FileLocation location = readFileLocation();
+      CFANode predecessor = readNodeReference(CFANode.class);
+
+      switch (kind) {
+        case BLANK:
+          return new BlankEdge(
+              rawStatement,
+              location,
+              predecessor,
+              readNodeReference(CFANode.class),
+              readNonNullString());
+        case ASSUME:
+          return new CAssumeEdge(
+              rawStatement,
+              location,
+              predecessor,
+              readNodeReference(CFANode.class),
+              readAst(CExpression.class),
+              in.readBoolean(),
+              in.readBoolean(),
+              in.readBoolean());
+        case DECLARATION:
+          return new CDeclarationEdge(
+              rawStatement,
+              location,
+              predecessor,
+              readNodeReference(CFANode.class),
+              readDeclaration(CDeclaration.class));
+        case STATEMENT:
+          {
+            CFANode successor = readNodeReference(CFANode.class);
+            return new CStatementEdge(
+                rawStatement, readAst(CStatement.class), location, predecessor, successor);
+          }
+        case SUMMARY_STATEMENT:
+          {
+            CFANode successor = readNodeReference(CFANode.class);
+            return new CFunctionSummaryStatementEdge(
+                rawStatement,
+                readAst(CStatement.class),
+                location,
+                predecessor,
+                successor,
+                readAst(CFunctionCall.class),
+                readNonNullString());
+          }
+        case RETURN_STATEMENT:
+          {
+            FunctionExitNode successor = readNodeReference(FunctionExitNode.class);
+            return new CReturnStatementEdge(
+                rawStatement, readAst(CReturnStatement.class), location, predecessor, successor);
+          }
+        case FUNCTION_CALL:
+          return new CFunctionCallEdge(
+              rawStatement,
+              location,
+              predecessor,
+              readNodeReference(CFunctionEntryNode.class),
+              readAst(CFunctionCall.class),
+              readEdgeReference(CFunctionSummaryEdge.class));
+        case FUNCTION_RETURN:
+          if (!(predecessor instanceof FunctionExitNode)) {
+            throw new IOException("Invalid predecessor of return edge " + predecessor);
+          }
+          return new CFunctionReturnEdge(
+              location,
+              (FunctionExitNode) predecessor,
+              readNodeReference(CFANode.class),
+              readEdgeReference(CFunctionSummaryEdge.class));
+        default:
+          throw new AssertionError();
+      }
+    }
+
+    private int readSize() throws IOException {
+      int size = in.readInt();
+      if (size < 0) {
+        throw new IOException("Invalid size " + size);
+      }
+      return size;
+    }
+
+    private @Nullable String readString() throws IOException {
+      int index = in.readInt();
+      if (index == NULL) {
+        return null;
+      } else if (index == NEW) {
+        byte[] bytes = new byte[readSize()];
+        in.readFully(bytes);
+        String string = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(string);
+        return string;
+      } else if (index >= 0 && index < strings.size()) {
+        return strings.get(index);
+      }
+      throw new IOException("Invalid reference to string " + index);
+    }
+
+    private String readNonNullString() throws IOException {
+      String string = readString();
+      if (string == null) {
+        throw new IOException("Missing string");
+      }
+      return string;
+    }
+
+    private <E extends Enum<E>> E readEnum(Class<E> pClass) throws IOException {
+      String name = readNonNullString();
+      try {
+        return Enum.valueOf(pClass, name);
+      } catch (IllegalArgumentException e) {
+        throw new IOException("Invalid constant " + name + " of " + pClass.getSimpleName(), e);
+      }
+    }
+
+    private @Nullable FileLocation readFileLocation() throws IOException {
+      byte marker = in.readByte();
+      switch (marker) {
+        case LOCATION:
+          return new FileLocation(
+              readNonNullString(),
+              readNonNullString(),
+              in.readInt(),
+              in.readInt(),
+              in.readInt(),
+              in.readInt(),
+              in.readInt(),
+              in.readInt());
+        case DUMMY_LOCATION:
+          return FileLocation.DUMMY;
+        case MULTIPLE_FILES_LOCATION:
+          return FileLocation.MULTIPLE_FILES;
+        case NULL_LOCATION:
+          return null;
+        default:
+          throw new IOException("Invalid file location " + marker);
+      }
+    }
+
+
+    /** Make a type or declaration available for references, at the same point as the writer. */
+    private void register(Object pObject) {
+      sharedObjects.add(pObject);
+    }
+
+    private <T> T getSharedObject(int pIndex, Class<T> pClass) throws IOException {
+      if (pIndex < 0 || pIndex >= sharedObjects.size()) {
+        throw new IOException("Invalid reference to type or declaration " + pIndex);
+      }
+      return checkedCast(sharedObjects.get(pIndex), pClass);
+    }
+
+    private static <T> T checkedCast(@Nullable Object pObject, Class<T> pClass)
+        throws IOException {
+      if (pObject != null && !pClass.isInstance(pObject)) {
+        throw new IOException(
+            "Expected " + pClass.getSimpleName() + " instead of " + pObject.getClass().getName());
+      }
+      return pClass.cast(pObject);
+    }
+
+    private @Nullable CType readType() throws IOException {
+      return readType(CType.class);
+    }
+
+    private @Nullable <T extends CType> T readType(Class<T> pClass) throws IOException {
+      int index = in.readInt();
+      if (index == NULL) {
+        return null;
+      } else if (index == NEW) {
+        return checkedCast(readNewType(), pClass);
+      }
+      return getSharedObject(index, pClass);
+    }
+
+    private List<CType> readTypes() throws IOException {
+      List<CType> types = new ArrayList<>();
+      for (int i = readSize(); i > 0; i--) {
+        types.add(readType());
+      }
+      return types;
+    }
+
+    private CType readNewType() throws IOException {
+      TypeKind kind = readEnum(TypeKind.class);
+      final CType type;
+      switch (kind) {
+        case ARRAY:
+          type =
+              new CArrayType(
+                  in.readBoolean(), in.readBoolean(), readType(), readAst(CExpression.class));
+          break;
+        case BIT_FIELD:
+          type = new CBitFieldType(readType(), in.readInt());
+          break;
+        case COMPOSITE:
+          {
+            CCompositeType compositeType =
+                new CCompositeType(
+                    in.readBoolean(),
+                    in.readBoolean(),
+                    readEnum(ComplexTypeKind.class),
+                    readNonNullString(),
+                    readNonNullString());
+            register(compositeType);
+            List<CCompositeTypeMemberDeclaration> members = new ArrayList<>();
+            for (int i = readSize(); i > 0; i--) {
+              members.add(new CCompositeTypeMemberDeclaration(readType(), readNonNullString()));
+            }
+            compositeType.setMembers(members);
+            return compositeType;
+          }
+        case ELABORATED:
+          {
+            CElaboratedType elaboratedType =
+                new CElaboratedType(
+                    in.readBoolean(),
+                    in.readBoolean(),
+                    readEnum(ComplexTypeKind.class),
+                    readNonNullString(),
+                    readNonNullString(),
+                    null);
+            register(elaboratedType);
+            CComplexType realType = readType(CComplexType.class);
+            if (realType != null) {
+              elaboratedType.setRealType(realType);
+            }
+            return elaboratedType;
+          }
+        case ENUM:
+          {
+            boolean isConst = in.readBoolean();
+            boolean isVolatile = in.readBoolean();
+            String name = readNonNullString();
+            String origName = readNonNullString();
+            List<CEnumerator> enumerators = new ArrayList<>();
+            for (int i = readSize(); i > 0; i--) {
+              enumerators.add(readDeclaration(CEnumerator.class));
+            }
+            CEnumType enumType = new CEnumType(isConst, isVolatile, enumerators, name, origName);
+            for (CEnumerator enumerator : enumerators) {
+              if (enumerator.getEnum() == null) {
+                enumerator.setEnum(enumType);
+              }
+            }
+            type = enumType;
+            break;
+          }
+        case FUNCTION:
+        case FUNCTION_WITH_NAMES:
+          {
+            CType returnType = readType();
+            final CFunctionType functionType;
+            if (kind == TypeKind.FUNCTION_WITH_NAMES) {
+              List<CParameterDeclaration> parameters = new ArrayList<>();
+              for (int i = readSize(); i > 0; i--) {
+                parameters.add(readDeclaration(CParameterDeclaration.class));
+              }
+              functionType = new CFunctionTypeWithNames(returnType, parameters, in.readBoolean());
+            } else {
+              functionType = new CFunctionType(returnType, readTypes(), in.readBoolean());
+            }
+            String name = readString();
+            if (name != null) {
+              functionType.setName(name);
+            }
+            type = functionType;
+            break;
+          }
+        case POINTER:
+          type = new CPointerType(in.readBoolean(), in.readBoolean(), readType());
+          break;
+        case PROBLEM:
+          type = new CProblemType(readNonNullString());
+          break;
+        case SIMPLE:
+          type =
+              new CSimpleType(
+                  in.readBoolean(),
+                  in.readBoolean(),
+                  readEnum(CBasicType.class),
+                  in.readBoolean(),
+                  in.readBoolean(),
+                  in.readBoolean(),
+                  in.readBoolean(),
+                  in.readBoolean(),
+                  in.readBoolean(),
+                  in.readBoolean());
+          break;
+        case TYPEDEF:
+          type =
+              new CTypedefType(in.readBoolean(), in.readBoolean(), readNonNullString(), readType());
+          break;
+        case VOID:
+          type = CVoidType.create(in.readBoolean(), in.readBoolean());
+          break;
+        default:
+          throw new AssertionError();
+      }
+      register(type);
+      return type;
+    }
+
+    private @Nullable CSimpleDeclaration readDeclaration() throws IOException {
+      return readDeclaration(CSimpleDeclaration.class);
+    }
+
+    private @Nullable <T extends CSimpleDeclaration> T readDeclaration(Class<T> pClass)
+        throws IOException {
+      int index = in.readInt();
+      if (index == NULL) {
+        return null;
+      } else if (index == NEW) {
+        return checkedCast(readNewDeclaration(), pClass);
+      } else if (index == ENUMERATOR_OF_TYPE) {
+        // reading the type registers its enumerators
+        readType(CEnumType.class);
+        return getSharedObject(in.readInt(), pClass);
+      }
+      return getSharedObject(index, pClass);
+    }
+
+    private CSimpleDeclaration readNewDeclaration() throws IOException {
+      DeclarationKind kind = readEnum(DeclarationKind.class);
+      FileLocation location = readFileLocation();
+      final CSimpleDeclaration declaration;
+      switch (kind) {
+        case COMPLEX_TYPE:
+          declaration =
+              new CComplexTypeDeclaration(
+                  location, in.readBoolean(), readType(CComplexType.class));
+          break;
+        case ENUMERATOR:
+          {
+            String name = readNonNullString();
+            String qualifiedName = readNonNullString();
+            Long value = in.readBoolean() ? in.readLong() : null;
+            declaration = new CEnumerator(location, name, qualifiedName, value);
+            break;
+          }
+        case FUNCTION:
+          {
+            CFunctionType type = readType(CFunctionType.class);
+            String name = readNonNullString();
+            List<CParameterDeclaration> parameters = new ArrayList<>();
+            for (int i = readSize(); i > 0; i--) {
+              parameters.add(readDeclaration(CParameterDeclaration.class));
+            }
+            declaration = new CFunctionDeclaration(location, type, name, parameters);
+            break;
+          }
+        case PARAMETER:
+          {
+            CParameterDeclaration parameter =
+                new CParameterDeclaration(location, readType(), readNonNullString());
+            String qualifiedName = readString();
+            if (qualifiedName != null) {
+              parameter.setQualifiedName(qualifiedName);
+            }
+            declaration = parameter;
+            break;
+          }
+        case TYPEDEF:
+          declaration =
+              new CTypeDefDeclaration(
+                  location,
+                  in.readBoolean(),
+                  readType(),
+                  readNonNullString(),
+                  readNonNullString());
+          break;
+        case VARIABLE:
+          {
+            CVariableDeclaration variable =
+                new CVariableDeclaration(
+                    location,
+                    in.readBoolean(),
+                    readEnum(CStorageClass.class),
+                    readType(),
+                    readNonNullString(),
+                    readNonNullString(),
+                    readNonNullString(),
+                    null);
+            register(variable);
+            CInitializer initializer = readAst(CInitializer.class);
+            if (initializer != null) {
+              variable.addInitializer(initializer);
+            }
+            return variable;
+          }
+        default:
+          throw new AssertionError();
+      }
+      register(declaration);
+      return declaration;
+    }
+
+    private @Nullable <T extends CAstNode> T readAst(Class<T> pClass) throws IOException {
+      AstKind kind = readEnum(AstKind.class);
+      if (kind == AstKind.NULL) {
+        return null;
+      }
+      FileLocation location = readFileLocation();
+      final CAstNode node;
+      switch (kind) {
+        case ADDRESS_OF_LABEL:
+          node = new CAddressOfLabelExpression(location, readType(), readNonNullString());
+          break;
+        case ARRAY_DESIGNATOR:
+          node = new CArrayDesignator(location, readAst(CExpression.class));
+          break;
+        case ARRAY_RANGE_DESIGNATOR:
+          node =
+              new CArrayRangeDesignator(
+                  location, readAst(CExpression.class), readAst(CExpression.class));
+          break;
+        case ARRAY_SUBSCRIPT:
+          node =
+              new CArraySubscriptExpression(
+                  location, readType(), readAst(CExpression.class), readAst(CExpression.class));
+          break;
+        case BINARY:
+          node =
+              new CBinaryExpression(
+                  location,
+                  readType(),
+                  readType(),
+                  readAst(CExpression.class),
+                  readAst(CExpression.class),
+                  readEnum(BinaryOperator.class));
+          break;
+        case CAST:
+          node = new CCastExpression(location, readType(), readAst(CExpression.class));
+          break;
+        case CHAR_LITERAL:
+          node = new CCharLiteralExpression(location, readType(), in.readChar());
+          break;
+        case COMPLEX_CAST:
+          node =
+              new CComplexCastExpression(
+                  location,
+                  readType(),
+                  readAst(CExpression.class),
+                  readType(),
+                  in.readBoolean());
+          break;
+        case DESIGNATED_INITIALIZER:
+          node =
+              new CDesignatedInitializer(
+                  location, readAsts(CDesignator.class), readAst(CInitializer.class));
+          break;
+        case EXPRESSION_ASSIGNMENT:
+          node =
+              new CExpressionAssignmentStatement(
+                  location, readAst(CLeftHandSide.class), readAst(CExpression.class));
+          break;
+        case EXPRESSION_STATEMENT:
+          node = new CExpressionStatement(location, readAst(CExpression.class));
+          break;
+        case FIELD_DESIGNATOR:
+          node = new CFieldDesignator(location, readNonNullString());
+          break;
+        case FIELD_REFERENCE:
+          node =
+              new CFieldReference(
+                  location,
+                  readType(),
+                  readNonNullString(),
+                  readAst(CExpression.class),
+                  in.readBoolean());
+          break;
+        case FLOAT_LITERAL:
+          node =
+              new CFloatLiteralExpression(
+                  location, readType(), new BigDecimal(readNonNullString()));
+          break;
+        case FUNCTION_CALL_ASSIGNMENT:
+          node =
+              new CFunctionCallAssignmentStatement(
+                  location,
+                  readAst(CLeftHandSide.class),
+                  readAst(CFunctionCallExpression.class));
+          break;
+        case FUNCTION_CALL_EXPRESSION:
+          node =
+              new CFunctionCallExpression(
+                  location,
+                  readType(),
+                  readAst(CExpression.class),
+                  readAsts(CExpression.class),
+                  readDeclaration(CFunctionDeclaration.class));
+          break;
+        case FUNCTION_CALL_STATEMENT:
+          node = new CFunctionCallStatement(location, readAst(CFunctionCallExpression.class));
+          break;
+        case ID_EXPRESSION:
+          node = new CIdExpression(location, readType(), readNonNullString(), readDeclaration());
+          break;
+        case IMAGINARY_LITERAL:
+          node =
+              new CImaginaryLiteralExpression(
+                  location, readType(), readAst(CLiteralExpression.class));
+          break;
+        case INITIALIZER_EXPRESSION:
+          node = new CInitializerExpression(location, readAst(CExpression.class));
+          break;
+        case INITIALIZER_LIST:
+          node = new CInitializerList(location, readAsts(CInitializer.class));
+          break;
+        case INTEGER_LITERAL:
+          node =
+              new CIntegerLiteralExpression(
+                  location, readType(), new BigInteger(readNonNullString()));
+          break;
+        case POINTER:
+          node = new CPointerExpression(location, readType(), readAst(CExpression.class));
+          break;
+        case RETURN_STATEMENT:
+          node =
+              new CReturnStatement(
+                  location,
+                  com.google.common.base.Optional.fromNullable(readAst(CExpression.class)),
+                  com.google.common.base.Optional.fromNullable(readAst(CAssignment.class)));
+          break;
+        case STRING_LITERAL:
+          node = new CStringLiteralExpression(location, readType(), readNonNullString());
+          break;
+        case THREAD_OPERATION:
+          node =
+              new CThreadOperationStatement(
+                  location,
+                  readAst(CFunctionCallExpression.class),
+                  in.readBoolean(),
+                  readString());
+          break;
+        case TYPE_ID:
+          node =
+              new CTypeIdExpression(
+                  location, readType(), readEnum(TypeIdOperator.class), readType());
+          break;
+        case UNARY:
+          node =
+              new CUnaryExpression(
+                  location, readType(), readAst(CExpression.class), readEnum(UnaryOperator.class));
+          break;
+        default:
+          throw new AssertionError();
+      }
+      return checkedCast(node, pClass);
+    }
+
+    private <T extends CAstNode> List<T> readAsts(Class<T> pClass) throws IOException {
+      List<T> nodes = new ArrayList<>();
+      for (int i = readSize(); i > 0; i--) {
+        nodes.add(readAst(pClass));
+      }
+      return nodes;
+    }
+  }
+}
@@ -0,0 +1,453 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.TreeMultimap;
+import com.google.common.hash.HashCode;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.ast.ADeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CComplexTypeDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpressionAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CParameterDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CReturnStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression.UnaryOperator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CAssumeEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CDeclarationEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionCallEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionReturnEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionSummaryEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CReturnStatementEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CStatementEdge;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CComplexType.ComplexTypeKind;
+import org.sosy_lab.cpachecker.cfa.types.c.CCompositeType;
+import org.sosy_lab.cpachecker.cfa.types.c.CCompositeType.CCompositeTypeMemberDeclaration;
+import org.sosy_lab.cpachecker.cfa.types.c.CElaboratedType;
+import org.sosy_lab.cpachecker.cfa.types.c.CEnumType;
+import org.sosy_lab.cpachecker.cfa.types.c.CEnumType.CEnumerator;
+import org.sosy_lab.cpachecker.cfa.types.c.CFunctionType;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
+import org.sosy_lab.cpachecker.cfa.types.c.CStorageClass;
+import org.sosy_lab.cpachecker.cfa.types.c.CVoidType;
+import org.sosy_lab.cpachecker.exceptions.ParserException;
+import org.sosy_lab.cpachecker.util.LoopStructure;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class CFACacheTest {
+
+  private static final FileLocation LOCATION = new FileLocation("program.c", 0, 10, 1, 1);
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private List<String> program;
+
+  /** The global declarations of the program of {@link #createCFA()}. */
+  private List<Pair<ADeclaration, String>> globalDeclarations;
+
+  @Before
+  public void setUp() throws IOException {
+    Path file = tempFolder.newFile("program.c").toPath();
+    Files.write(file, "int main() { return 0; }".getBytes(StandardCharsets.UTF_8));
+    program = ImmutableList.of(file.toString());
+  }
+
+  private static Configuration config(String... pOptions) throws InvalidConfigurationException {
+    ConfigurationBuilder builder = TestDataTools.configurationForTest();
+    for (int i = 0; i < pOptions.length; i += 2) {
+      builder.setOption(pOptions[i], pOptions[i + 1]);
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void testKeyDependsOnProgram() throws Exception {
+    HashCode key = CFACache.computeKey(program, config());
+    assertThat(CFACache.computeKey(program, config())).isEqualTo(key);
+
+    Files.write(
+        Paths.get(program.get(0)), "int main() { return 1; }".getBytes(StandardCharsets.UTF_8));
+    assertThat(CFACache.computeKey(program, config())).isNotEqualTo(key);
+  }
+
+  @Test
+  public void testKeyDependsOnRelevantOptions() throws Exception {
+    HashCode key = CFACache.computeKey(program, config());
+
+    assertThat(CFACache.computeKey(program, config("cfa.simplifyCfa", "false")))
+        .isNotEqualTo(key);
+    assertThat(CFACache.computeKey(program, config("analysis.machineModel", "LINUX64")))
+        .isNotEqualTo(key);
+
+    assertThat(CFACache.computeKey(program, config("cpa.predicate.encodeBitvectorAs", "INTEGER")))
+        .isEqualTo(key);
+    assertThat(CFACache.computeKey(program, config("cfa.cache.directory", "cache")))
+        .isEqualTo(key);
+    assertThat(CFACache.computeKey(program, config("cfa.parallelThreads", "4")))
+        .isEqualTo(key);
+  }
+
+  @Test
+  public void testAdvanceNodeNumbers() {
+    int next = new CFANode("test").getNodeNumber() + 1;
+
+    // numbers of existing nodes cannot be used again, and a failed attempt changes nothing
+    assertThat(CFANode.advanceNodeNumbers(next - 1)).isFalse();
+    assertThat(new CFANode("test").getNodeNumber()).isEqualTo(next);
+
+    assertThat(CFANode.advanceNodeNumbers(next + 10)).isTrue();
+    assertThat(new CFANode("test").getNodeNumber()).isEqualTo(next + 10);
+  }
+
+  @Test
+  public void testCacheHit() throws Exception {
+    Path cacheDirectory = tempFolder.newFolder("cache").toPath();
+    Configuration config = config("cfa.cache.directory", cacheDirectory.toString());
+    CFACache cache = new CFACache(config, LogManager.createTestLogManager());
+    HashCode key = CFACache.computeKey(program, config);
+    assertThat(cache.load(key)).isNull();
+
+    MutableCFA cfa = createCFA();
+    cache.store(key, cfa, globalDeclarations);
+    try (Stream<Path> files = Files.list(cacheDirectory)) {
+      assertThat(files.map(p -> p.getFileName().toString()).collect(Collectors.toList()))
+          .containsExactly(key + ".cfa.gz");
+    }
+
+    // the stored CFA was created in this JVM, thus the loaded nodes get new numbers
+    CFACache.CachedCFA cached = cache.load(key);
+    assertThat(cached).isNotNull();
+    MutableCFA loaded = cached.getCfa();
+    assertThat(loaded.getMachineModel()).isEqualTo(cfa.getMachineModel());
+    assertThat(loaded.getFileNames()).isEqualTo(cfa.getFileNames());
+    assertThat(loaded.getAllFunctionNames()).containsExactlyElementsIn(cfa.getAllFunctionNames());
+    assertThat(loaded.getMainFunction().getFunctionName()).isEqualTo("main");
+    assertEquivalentNodes(loaded.getAllNodes(), cfa.getAllNodes());
+
+    LoopStructure loops = loaded.getLoopStructure().get();
+    assertThat(loops.getCount()).isEqualTo(1);
+    assertThat(
+            Iterables.getOnlyElement(Iterables.getOnlyElement(loops.getAllLoops()).getLoopHeads())
+                .getReversePostorderId())
+        .isEqualTo(
+            Iterables.getOnlyElement(
+                    Iterables.getOnlyElement(cfa.getLoopStructure().get().getAllLoops())
+                        .getLoopHeads())
+                .getReversePostorderId());
+
+    List<Pair<ADeclaration, String>> loadedDeclarations = cached.getGlobalDeclarations();
+    assertThat(loadedDeclarations).isEqualTo(globalDeclarations);
+
+    // shared types and declarations are shared after loading, too
+    CDeclarationEdge declarationEdge =
+        (CDeclarationEdge) loaded.getMainFunction().getLeavingEdge(0);
+    CVariableDeclaration x = (CVariableDeclaration) declarationEdge.getDeclaration();
+    CIdExpression a =
+        (CIdExpression) ((CInitializerExpression) x.getInitializer()).getExpression();
+    CEnumType enumType = ((CEnumerator) a.getDeclaration()).getEnum();
+    assertThat(enumType.getEnumerators()).contains(a.getDeclaration());
+    assertThat(loadedDeclarations.get(1).getFirst().getType()).isSameAs(enumType);
+
+    CCompositeType struct = (CCompositeType) loadedDeclarations.get(0).getFirst().getType();
+    assertThat(((CPointerType) struct.getMembers().get(1).getType()).getType()).isSameAs(struct);
+    assertThat(
+            ((CElaboratedType) loadedDeclarations.get(2).getFirst().getType()).getRealType())
+        .isSameAs(struct);
+
+    CAssumeEdge assumeEdge = (CAssumeEdge) declarationEdge.getSuccessor().getLeavingEdge(0);
+    CIdExpression xInAssumption =
+        (CIdExpression) ((CBinaryExpression) assumeEdge.getExpression()).getOperand1();
+    assertThat(xInAssumption.getDeclaration()).isSameAs(x);
+  }
+
+  @Test
+  public void testInvalidCacheEntryIsIgnored() throws Exception {
+    Path cacheDirectory = tempFolder.newFolder("cache").toPath();
+    Configuration config = config("cfa.cache.directory", cacheDirectory.toString());
+    CFACache cache = new CFACache(config, LogManager.createTestLogManager());
+    HashCode key = CFACache.computeKey(program, config);
+
+    Files.write(cacheDirectory.resolve(key + ".cfa.gz"), new byte[] {1, 2, 3});
+    assertThat(cache.load(key)).isNull();
+  }
+
+  private static void assertEquivalentNodes(
+      Collection<CFANode> pActualNodes, Collection<CFANode> pExpectedNodes) {
+    // nodes are created in the original order, thus sorting them matches them
+    List<CFANode> actualNodes = ImmutableList.copyOf(new TreeSet<>(pActualNodes));
+    List<CFANode> expectedNodes = ImmutableList.copyOf(new TreeSet<>(pExpectedNodes));
+    assertThat(actualNodes).hasSize(expectedNodes.size());
+
+    for (int i = 0; i < actualNodes.size(); i++) {
+      CFANode actual = actualNodes.get(i);
+      CFANode expected = expectedNodes.get(i);
+      assertThat(actual.getClass()).isEqualTo(expected.getClass());
+      assertThat(actual.getFunctionName()).isEqualTo(expected.getFunctionName());
+      assertThat(actual.isLoopStart()).isEqualTo(expected.isLoopStart());
+      assertThat(actual.getReversePostorderId()).isEqualTo(expected.getReversePostorderId());
+      assertThat(actual.getNumEnteringEdges()).isEqualTo(expected.getNumEnteringEdges());
+      assertThat(actual.getNumLeavingEdges()).isEqualTo(expected.getNumLeavingEdges());
+      assertThat(actual.getLeavingSummaryEdge() == null)
+          .isEqualTo(expected.getLeavingSummaryEdge() == null);
+
+      for (int j = 0; j < actual.getNumLeavingEdges(); j++) {
+        CFAEdge actualEdge = actual.getLeavingEdge(j);
+        CFAEdge expectedEdge = expected.getLeavingEdge(j);
+        assertThat(actualEdge.getClass()).isEqualTo(expectedEdge.getClass());
+        assertThat(actualEdge.getRawStatement()).isEqualTo(expectedEdge.getRawStatement());
+        assertThat(actualEdge.getDescription()).isEqualTo(expectedEdge.getDescription());
+        assertThat(actualEdge.getFileLocation()).isEqualTo(expectedEdge.getFileLocation());
+        assertThat(actualEdge.getRawAST()).isEqualTo(expectedEdge.getRawAST());
+        assertThat(actualNodes.indexOf(actualEdge.getSuccessor()))
+            .isEqualTo(expectedNodes.indexOf(expectedEdge.getSuccessor()));
+      }
+    }
+  }
+
+  /**
+   * Create the CFA of a program with a loop and a function call:
+   *
+   * <pre>
+   * struct s { int x; struct s *next; };
+   * enum e { A = 1, B };
+   * struct s g;
+   * void f(struct s *p) {}
+   * int main() { int x = A; while (x < 10) { f(&amp;g); x = x + 1; } return x; }
+   * </pre>
+   */
+  private MutableCFA createCFA() throws ParserException {
+    CCompositeType struct = new CCompositeType(false, false, ComplexTypeKind.STRUCT, "s", "s");
+    CPointerType structPointer = new CPointerType(false, false, struct);
+    struct.setMembers(
+        ImmutableList.of(
+            new CCompositeTypeMemberDeclaration(CNumericTypes.INT, "x"),
+            new CCompositeTypeMemberDeclaration(structPointer, "next")));
+    CEnumerator a = new CEnumerator(LOCATION, "A", "A", 1L);
+    CEnumerator b = new CEnumerator(LOCATION, "B", "B", 2L);
+    CEnumType enumType = new CEnumType(false, false, ImmutableList.of(a, b), "e", "e");
+    a.setEnum(enumType);
+    b.setEnum(enumType);
+    CElaboratedType structReference =
+        new CElaboratedType(false, false, ComplexTypeKind.STRUCT, "s", "s", struct);
+    CVariableDeclaration g =
+        new CVariableDeclaration(
+            LOCATION, true, CStorageClass.AUTO, structReference, "g", "g", "g", null);
+    globalDeclarations =
+        ImmutableList.of(
+            Pair.of(new CComplexTypeDeclaration(LOCATION, true, struct), "struct s;"),
+            Pair.of(new CComplexTypeDeclaration(LOCATION, true, enumType), "enum e;"),
+            Pair.of(g, "struct s g;"));
+
+    // void f(struct s *p) {}
+    CParameterDeclaration p = new CParameterDeclaration(LOCATION, structPointer, "p");
+    p.setQualifiedName("f::p");
+    CFunctionDeclaration f =
+        new CFunctionDeclaration(
+            LOCATION,
+            new CFunctionType(CVoidType.VOID, ImmutableList.of(structPointer), false),
+            "f",
+            ImmutableList.of(p));
+    FunctionExitNode fExit = new FunctionExitNode("f");
+    CFunctionEntryNode fEntry =
+        new CFunctionEntryNode(LOCATION, f, fExit, com.google.common.base.Optional.absent());
+    fExit.setEntryNode(fEntry);
+    addEdge(new BlankEdge("", LOCATION, fEntry, fExit, "default return"));
+
+    // int main() { ... }
+    CFunctionDeclaration main =
+        new CFunctionDeclaration(
+            LOCATION,
+            CFunctionType.functionTypeWithReturnType(CNumericTypes.INT),
+            "main",
+            ImmutableList.of());
+    CVariableDeclaration mainReturn =
+        new CVariableDeclaration(
+            LOCATION,
+            false,
+            CStorageClass.AUTO,
+            CNumericTypes.INT,
+            "__retval__",
+            "__retval__",
+            "main::__retval__",
+            null);
+    FunctionExitNode mainExit = new FunctionExitNode("main");
+    CFunctionEntryNode mainEntry =
+        new CFunctionEntryNode(
+            LOCATION, main, mainExit, com.google.common.base.Optional.of(mainReturn));
+    mainExit.setEntryNode(mainEntry);
+    CFANode loopHead = new CFANode("main");
+    loopHead.setLoopStart();
+    CFANode loopBody = new CFANode("main");
+    CFANode afterCall = new CFANode("main");
+    CFANode afterLoop = new CFANode("main");
+
+    CVariableDeclaration x =
+        new CVariableDeclaration(
+            LOCATION,
+            false,
+            CStorageClass.AUTO,
+            CNumericTypes.INT,
+            "x",
+            "x",
+            "main::x",
+            new CInitializerExpression(
+                LOCATION, new CIdExpression(LOCATION, CNumericTypes.INT, "A", a)));
+    CIdExpression xExpression = new CIdExpression(LOCATION, x);
+    addEdge(new CDeclarationEdge("int x = A;", LOCATION, mainEntry, loopHead, x));
+
+    CExpression condition =
+        new CBinaryExpression(
+            LOCATION,
+            CNumericTypes.INT,
+            CNumericTypes.INT,
+            xExpression,
+            CIntegerLiteralExpression.createDummyLiteral(10L, CNumericTypes.INT),
+            BinaryOperator.LESS_THAN);
+    addEdge(new CAssumeEdge("x < 10", LOCATION, loopHead, loopBody, condition, true));
+    addEdge(new CAssumeEdge("x < 10", LOCATION, loopHead, afterLoop, condition, false));
+
+    CIdExpression fName =
+        new CIdExpression(LOCATION, new CPointerType(false, false, f.getType()), "f", f);
+    CFunctionCallStatement call =
+        new CFunctionCallStatement(
+            LOCATION,
+            new CFunctionCallExpression(
+                LOCATION,
+                CVoidType.VOID,
+                fName,
+                ImmutableList.of(
+                    new CUnaryExpression(
+                        LOCATION,
+                        structPointer,
+                        new CIdExpression(LOCATION, g),
+                        UnaryOperator.AMPER)),
+                f));
+    // replaced by the interprocedural edges after computing the loop structure, like in CFACreator
+    CFAEdge callStatementEdge =
+        new CStatementEdge("f(&g);", call, LOCATION, loopBody, afterCall);
+    addEdge(callStatementEdge);
+
+    CStatement increment =
+        new CExpressionAssignmentStatement(
+            LOCATION,
+            xExpression,
+            new CBinaryExpression(
+                LOCATION,
+                CNumericTypes.INT,
+                CNumericTypes.INT,
+                xExpression,
+                CIntegerLiteralExpression.ONE,
+                BinaryOperator.PLUS));
+    addEdge(new CStatementEdge("x = x + 1;", increment, LOCATION, afterCall, loopHead));
+
+    CIdExpression returnVariable = new CIdExpression(LOCATION, mainReturn);
+    addEdge(
+        new CReturnStatementEdge(
+            "return x;",
+            new CReturnStatement(
+                LOCATION,
+                com.google.common.base.Optional.of(xExpression),
+                com.google.common.base.Optional.of(
+                    new CExpressionAssignmentStatement(LOCATION, returnVariable, xExpression))),
+            LOCATION,
+            afterLoop,
+            mainExit));
+
+    TreeMultimap<String, CFANode> nodes = TreeMultimap.create();
+    nodes.putAll("f", ImmutableList.of(fEntry, fExit));
+    nodes.putAll(
+        "main",
+        ImmutableList.of(mainEntry, loopHead, loopBody, afterCall, afterLoop, mainExit));
+    MutableCFA cfa =
+        new MutableCFA(
+            MachineModel.LINUX64,
+            new TreeMap<>(ImmutableMap.of("f", fEntry, "main", mainEntry)),
+            nodes,
+            mainEntry,
+            ImmutableList.of(Paths.get("program.c")),
+            Language.C);
+    for (FunctionEntryNode function : cfa.getAllFunctionHeads()) {
+      CFAReversePostorder sorter = new CFAReversePostorder();
+      sorter.assignSorting(function);
+    }
+    cfa.setLoopStructure(LoopStructure.getLoopStructure(cfa));
+
+    CFACreationUtils.removeEdgeFromNodes(callStatementEdge);
+    CFunctionSummaryEdge summaryEdge =
+        new CFunctionSummaryEdge("f(&g);", LOCATION, loopBody, afterCall, call, fEntry);
+    loopBody.addLeavingSummaryEdge(summaryEdge);
+    afterCall.addEnteringSummaryEdge(summaryEdge);
+    addEdge(new CFunctionCallEdge("f(&g);", LOCATION, loopBody, fEntry, call, summaryEdge));
+    addEdge(new CFunctionReturnEdge(LOCATION, fExit, afterCall, summaryEdge));
+    return cfa;
+  }
+
+  private static void addEdge(CFAEdge pEdge) {
+    pEdge.getPredecessor().addLeavingEdge(pEdge);
+    pEdge.getSuccessor().addEnteringEdge(pEdge);
+  }
+}
@@ -24,8 +24,13 @@
 package org.sosy_lab.cpachecker.cfa;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Iterables;
+import com.google.common.hash.HashCode;
 import com.google.common.io.MoreFiles;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
@@ -43,6 +48,10 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.zip.GZIPOutputStream;
 import org.sosy_lab.common.Concurrency;
@@ -262,6 +271,17 @@ public class CFACreator {
   )
   private boolean createDependenceGraph = false;
 
+  @Option(
+    secure = true,
+    name = "cfa.parallelThreads",
+    description =
+        "Number of threads for those post-processing steps of the CFA that work on each function"
+            + " independently (simplification, reverse postorder, and loop detection)."
+            + " The created CFA does not depend on this value."
+            + " Use -1 for the number of available processors."
+  )
+  private int parallelThreads = 1;
+
   @Option(secure=true, name="cfa.classifyNodes",
       description="This option enables the computation of a classification of CFA nodes.")
 private boolean classifyNodes = false;
@@ -282,6 +302,7 @@ private boolean classifyNodes = false;
     private final Timer checkTime = new Timer();
     private final Timer processingTime = new Timer();
     private final Timer exportTime = new Timer();
+    private final Timer cacheTime = new Timer();
     private final List<Statistics> statisticsCollection;
     private final LogManager logger;
 
@@ -304,6 +325,10 @@ private boolean classifyNodes = false;
       out.println("    Time for CFA sanity check:" + checkTime);
       out.println("    Time for post-processing: " + processingTime);
 
+      if (cacheTime.getNumberOfIntervals() > 0) {
+        out.println("    Time for CFA cache:       " + cacheTime);
+      }
+
       if (exportTime.getNumberOfIntervals() > 0) {
         out.println("    Time for CFA export:      " + exportTime);
       }
@@ -323,6 +348,7 @@ private boolean classifyNodes = false;
 
   private final CFACreatorStatistics stats;
   private final Configuration config;
+  private final CFACache cache;
 
   public CFACreator(Configuration config, LogManager logger, ShutdownNotifier pShutdownNotifier)
       throws InvalidConfigurationException {
@@ -333,6 +359,15 @@ private boolean classifyNodes = false;
     this.logger = logger;
     this.shutdownNotifier = pShutdownNotifier;
     this.stats = new CFACreatorStatistics(logger);
+    this.cache = new CFACache(config, logger);
+
+    if (parallelThreads == -1) {
+      parallelThreads = Runtime.getRuntime().availableProcessors();
+    }
+    if (parallelThreads < 1) {
+      throw new InvalidConfigurationException(
+          "Invalid number of threads for CFA post-processing: " + parallelThreads);
+    }
 
     stats.parserInstantiationTime.start();
 
@@ -412,6 +447,27 @@ private boolean classifyNodes = false;
 
     stats.totalTime.start();
     try {
+      // the cache cannot track files that are included by the preprocessor
+      final HashCode cacheKey;
+      if (cache.isEnabled() && language == Language.C && !usePreprocessor) {
+        checkIfValidFiles(sourceFiles);
+        final CFACache.CachedCFA cachedCfa;
+        stats.cacheTime.start();
+        try {
+          cacheKey = CFACache.computeKey(sourceFiles, config);
+          cachedCfa = cache.load(cacheKey);
+        } finally {
+          stats.cacheTime.stop();
+        }
+        if (cachedCfa != null) {
+          logger.log(Level.INFO, "Using cached CFA, skipping parsing of file(s)");
+          stats.processingTime.start();
+          return finishCFA(cachedCfa.getCfa(), cachedCfa.getGlobalDeclarations());
+        }
+      } else {
+        cacheKey = null;
+      }
+
       // FIRST, parse file(s) and create CFAs for each function
       logger.log(Level.FINE, "Starting parsing of file(s)");
 
@@ -432,14 +488,19 @@ private boolean classifyNodes = false;
         throw new AssertionError();
       }
 
-      return createCFA(c, mainFunction);
+      final ImmutableCFA cfa = createCFA(c, mainFunction);
+
+      if (cacheKey != null) {
+        storeCFAAsync(cacheKey, cfa, c.getGlobalDeclarations());
+      }
+      return cfa;
 
     } finally {
       stats.totalTime.stop();
     }
   }
 
-  private CFA createCFA(ParseResult pParseResult, FunctionEntryNode pMainFunction) throws InvalidConfigurationException, InterruptedException, ParserException {
+  private ImmutableCFA createCFA(ParseResult pParseResult, FunctionEntryNode pMainFunction) throws InvalidConfigurationException, InterruptedException, ParserException {
 
     FunctionEntryNode mainFunction = pMainFunction;
 
@@ -465,27 +526,43 @@ private boolean classifyNodes = false;
     // SECOND, do those post-processings that change the CFA by adding/removing nodes/edges
     stats.processingTime.start();
 
-    cfa = postProcessingOnMutableCFAs(cfa, pParseResult.getGlobalDeclarations());
-
-    // Check CFA again after post-processings
-    stats.checkTime.start();
-    for (String functionName : cfa.getAllFunctionNames()) {
-      assert CFACheck.check(cfa.getFunctionHead(functionName), cfa.getFunctionNodes(functionName));
+    // Some post-processings work on each function independently and run on this executor.
+    // Node numbers are global, so post-processings that create nodes are always sequential.
+    final ExecutorService executor;
+    if (parallelThreads > 1 && cfa.getNumberOfFunctions() > 1) {
+      executor =
+          Executors.newFixedThreadPool(
+              parallelThreads,
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("CFA-post-processing-worker-%d")
+                  .build());
+    } else {
+      executor = MoreExecutors.newDirectExecutorService();
     }
-    stats.checkTime.stop();
 
-    // THIRD, do read-only post-processings on each single function CFA
+    try {
+      cfa = postProcessingOnMutableCFAs(cfa, pParseResult.getGlobalDeclarations(), executor);
 
-    // Annotate CFA nodes with reverse postorder information for later use.
-    for (FunctionEntryNode function : cfa.getAllFunctionHeads()) {
-      CFAReversePostorder sorter = new CFAReversePostorder();
-      sorter.assignSorting(function);
-    }
+      // Check CFA again after post-processings
+      stats.checkTime.start();
+      for (String functionName : cfa.getAllFunctionNames()) {
+        assert CFACheck.check(cfa.getFunctionHead(functionName), cfa.getFunctionNodes(functionName));
+      }
+      stats.checkTime.stop();
+
+      // THIRD, do read-only post-processings on each single function CFA
 
-    // get loop information
-    // (needs post-order information)
-    if (useLoopStructure) {
-      addLoopStructure(cfa);
+      // Annotate CFA nodes with reverse postorder information for later use.
+      assignReversePostorder(cfa, executor);
+
+      // get loop information
+      // (needs post-order information)
+      if (useLoopStructure) {
+        addLoopStructure(cfa, executor);
+      }
+    } finally {
+      executor.shutdownNow();
     }
 
     // FOURTH, insert call and return edges and build the supergraph
@@ -501,6 +578,18 @@ private boolean classifyNodes = false;
 
     // (currently no such post-processings exist)
 
+    return finishCFA(cfa, pParseResult.getGlobalDeclarations());
+  }
+
+  /**
+   * Compute the remaining information about a complete CFA and make it immutable. This is the
+   * last step of {@link #createCFA(ParseResult, FunctionEntryNode)}, and also needed for CFAs
+   * from the {@link CFACache}. The processing timer needs to be running.
+   */
+  private ImmutableCFA finishCFA(
+      MutableCFA cfa, List<Pair<ADeclaration, String>> pGlobalDeclarations)
+      throws InvalidConfigurationException, InterruptedException, ParserException {
+
     // SIXTH, get information about the CFA,
     // the cfa should not be modified after this line.
 
@@ -522,7 +611,7 @@ private boolean classifyNodes = false;
     if (findLiveVariables &&
         (varClassification.isPresent() || cfa.getLanguage() != Language.C)) {
       cfa.setLiveVariables(LiveVariables.create(varClassification,
-                                                pParseResult.getGlobalDeclarations(),
+                                                pGlobalDeclarations,
                                                 cfa, logger, shutdownNotifier,
                                                 config));
     }
@@ -553,15 +642,10 @@ private boolean classifyNodes = false;
 
     // check the super CFA starting at the main function
     stats.checkTime.start();
-    assert CFACheck.check(mainFunction, null);
+    assert CFACheck.check(immutableCFA.getMainFunction(), null);
     stats.checkTime.stop();
 
-    if (((exportCfaFile != null) && (exportCfa || exportCfaPerFunction))
-        || ((exportFunctionCallsFile != null) && exportFunctionCalls)
-        || ((serializeCfaFile != null) && serializeCfa)
-        || (exportCfaPixelFile != null)) {
-      exportCFAAsync(immutableCFA);
-    }
+    exportCFAIfNecessary(immutableCFA);
 
     logger.log(Level.FINE, "DONE, CFA for", immutableCFA.getNumberOfFunctions(), "functions created.");
 
@@ -636,12 +720,14 @@ private boolean classifyNodes = false;
    * @return either a modified old CFA or a complete new CFA
    */
   private MutableCFA postProcessingOnMutableCFAs(
-      MutableCFA cfa, final List<Pair<ADeclaration, String>> globalDeclarations)
-      throws InvalidConfigurationException, CParserException {
+      MutableCFA cfa,
+      final List<Pair<ADeclaration, String>> globalDeclarations,
+      final ExecutorService executor)
+      throws InvalidConfigurationException, CParserException, InterruptedException {
 
     // remove all edges which don't have any effect on the program
     if (simplifyCfa) {
-      CFASimplifier.simplifyCFA(cfa);
+      CFASimplifier.simplifyCFA(cfa, executor);
     }
 
     if (moveDeclarationsToFunctionStart) {
@@ -802,9 +888,35 @@ private boolean classifyNodes = false;
     return mainFunction;
   }
 
-  private void addLoopStructure(MutableCFA cfa) {
+  /**
+   * Annotate the nodes of each function with their reverse postorder id.
+   * The functions are handled concurrently on the given executor,
+   * this is safe because the ids are assigned per function.
+   */
+  private void assignReversePostorder(MutableCFA cfa, ExecutorService executor)
+      throws InterruptedException {
+    List<Future<?>> sortings = new ArrayList<>(cfa.getNumberOfFunctions());
+    try {
+      for (FunctionEntryNode function : cfa.getAllFunctionHeads()) {
+        sortings.add(executor.submit(() -> new CFAReversePostorder().assignSorting(function)));
+      }
+      for (Future<?> sorting : sortings) {
+        try {
+          sorting.get();
+        } catch (ExecutionException e) {
+          Throwables.throwIfUnchecked(e.getCause());
+          throw new UncheckedExecutionException(e.getCause());
+        }
+      }
+    } finally {
+      sortings.forEach(f -> f.cancel(true));
+    }
+  }
+
+  private void addLoopStructure(MutableCFA cfa, ExecutorService executor)
+      throws InterruptedException {
     try {
-      cfa.setLoopStructure(LoopStructure.getLoopStructure(cfa));
+      cfa.setLoopStructure(LoopStructure.getLoopStructure(cfa, executor));
 
     } catch (ParserException e) {
       // don't abort here, because if the analysis doesn't need the loop information, we can continue
@@ -949,12 +1061,40 @@ v.addInitializer(initializer);
     }
   }
 
+  private void exportCFAIfNecessary(final CFA cfa) {
+    if (((exportCfaFile != null) && (exportCfa || exportCfaPerFunction))
+        || ((exportFunctionCallsFile != null) && exportFunctionCalls)
+        || ((serializeCfaFile != null) && serializeCfa)
+        || (exportCfaPixelFile != null)) {
+      exportCFAAsync(cfa);
+    }
+  }
+
   private void exportCFAAsync(final CFA cfa) {
     // Execute asynchronously, this may take several seconds for large programs on slow disks.
     // This is safe because we don't modify the CFA from this point on.
     Concurrency.newThread("CFA export thread", () -> exportCFA(cfa)).start();
   }
 
+  private void storeCFAAsync(
+      final HashCode cacheKey,
+      final CFA cfa,
+      final List<Pair<ADeclaration, String>> globalDeclarations) {
+    // Execute asynchronously like the export, the CFA is not modified from this point on.
+    // This is no daemon thread, otherwise short analyses would never write the cache.
+    Concurrency.newThread(
+            "CFA cache thread",
+            () -> {
+              stats.cacheTime.start();
+              try {
+                cache.store(cacheKey, cfa, globalDeclarations);
+              } finally {
+                stats.cacheTime.stop();
+              }
+            })
+        .start();
+  }
+
   private void exportCFA(final CFA cfa) {
     stats.exportTime.start();
 
@@ -0,0 +1,185 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.SortedSetMultimap;
+import com.google.common.collect.TreeMultimap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CAssumeEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.postprocessing.function.CFASimplifier;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CFunctionType;
+import org.sosy_lab.cpachecker.cfa.types.c.CVoidType;
+import org.sosy_lab.cpachecker.util.LoopStructure;
+
+public class ParallelCFAPostProcessingTest {
+
+  private static final int FUNCTIONS = 20;
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testParallelSimplificationIsDeterministic() throws Exception {
+    MutableCFA sequential = createCFA();
+    MutableCFA parallel = createCFA();
+
+    CFASimplifier.simplifyCFA(sequential);
+    CFASimplifier.simplifyCFA(parallel, executor);
+
+    assertThat(describe(parallel)).containsExactlyElementsIn(describe(sequential)).inOrder();
+    // the empty branching in each function was replaced by a single edge
+    assertThat(parallel.getFunctionNodes("f0")).hasSize(6);
+  }
+
+  @Test
+  public void testParallelLoopStructureIsDeterministic() throws Exception {
+    MutableCFA cfa = createCFA();
+    for (FunctionEntryNode function : cfa.getAllFunctionHeads()) {
+      new CFAReversePostorder().assignSorting(function);
+    }
+
+    LoopStructure sequential = LoopStructure.getLoopStructure(cfa);
+    LoopStructure parallel = LoopStructure.getLoopStructure(cfa, executor);
+
+    assertThat(parallel.getCount()).isEqualTo(FUNCTIONS);
+    for (String function : cfa.getAllFunctionNames()) {
+      assertThat(parallel.getLoopsForFunction(function).toString())
+          .isEqualTo(sequential.getLoopsForFunction(function).toString());
+    }
+  }
+
+  /** Describe the edges of the CFA independently of the node numbers. */
+  private static List<String> describe(MutableCFA cfa) {
+    List<String> result = new ArrayList<>();
+    for (String function : cfa.getAllFunctionNames()) {
+      List<CFANode> nodes = ImmutableList.copyOf(cfa.getFunctionNodes(function));
+      for (CFANode node : nodes) {
+        for (int i = 0; i < node.getNumLeavingEdges(); i++) {
+          CFAEdge edge = node.getLeavingEdge(i);
+          result.add(
+              function
+                  + ": "
+                  + nodes.indexOf(edge.getPredecessor())
+                  + " -{"
+                  + edge.getDescription()
+                  + "}-> "
+                  + nodes.indexOf(edge.getSuccessor()));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Create a CFA where each function consists of a branching with two empty branches, followed
+   * by a loop.
+   */
+  private static MutableCFA createCFA() {
+    NavigableMap<String, FunctionEntryNode> functions = new TreeMap<>();
+    SortedSetMultimap<String, CFANode> nodes = TreeMultimap.create();
+
+    for (int i = 0; i < FUNCTIONS; i++) {
+      String name = "f" + i;
+      CFunctionDeclaration declaration =
+          new CFunctionDeclaration(
+              FileLocation.DUMMY,
+              CFunctionType.functionTypeWithReturnType(CVoidType.VOID),
+              name,
+              ImmutableList.of());
+      FunctionExitNode exit = new FunctionExitNode(name);
+      CFunctionEntryNode entry =
+          new CFunctionEntryNode(
+              FileLocation.DUMMY, declaration, exit, com.google.common.base.Optional.absent());
+      exit.setEntryNode(entry);
+
+      CFANode branching = new CFANode(name);
+      CFANode thenBranch = new CFANode(name);
+      CFANode elseBranch = new CFANode(name);
+      CFANode loopHead = new CFANode(name);
+      CFANode loopBody = new CFANode(name);
+      CFANode loopExit = new CFANode(name);
+
+      addBlankEdge(entry, branching);
+      addAssumeEdges(branching, thenBranch, elseBranch);
+      addBlankEdge(thenBranch, loopHead);
+      addBlankEdge(elseBranch, loopHead);
+      addAssumeEdges(loopHead, loopBody, loopExit);
+      addBlankEdge(loopBody, loopHead);
+      addBlankEdge(loopExit, exit);
+
+      functions.put(name, entry);
+      nodes.putAll(
+          name,
+          ImmutableList.of(
+              entry, exit, branching, thenBranch, elseBranch, loopHead, loopBody, loopExit));
+    }
+
+    return new MutableCFA(
+        MachineModel.LINUX32, functions, nodes, functions.get("f0"), ImmutableList.of(), Language.C);
+  }
+
+  private static void addBlankEdge(CFANode pPredecessor, CFANode pSuccessor) {
+    CFACreationUtils.addEdgeUnconditionallyToCFA(
+        new BlankEdge("", FileLocation.DUMMY, pPredecessor, pSuccessor, "blank"));
+  }
+
+  private static void addAssumeEdges(CFANode pPredecessor, CFANode pThen, CFANode pElse) {
+    CFACreationUtils.addEdgeUnconditionallyToCFA(
+        new CAssumeEdge(
+            "1", FileLocation.DUMMY, pPredecessor, pThen, CIntegerLiteralExpression.ONE, true));
+    CFACreationUtils.addEdgeUnconditionallyToCFA(
+        new CAssumeEdge(
+            "1", FileLocation.DUMMY, pPredecessor, pElse, CIntegerLiteralExpression.ONE, false));
+  }
+}
@@ -39,9 +39,9 @@ import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -52,14 +52,15 @@ import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionCallEdge;
 import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
 import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionReturnEdge;
 import org.sosy_lab.cpachecker.util.CFATraversal;
-import org.sosy_lab.cpachecker.util.CFATraversal.CFAVisitor;
-import org.sosy_lab.cpachecker.util.CFATraversal.CompositeCFAVisitor;
 import org.sosy_lab.cpachecker.util.CFATraversal.DefaultCFAVisitor;
 import org.sosy_lab.cpachecker.util.CFATraversal.NodeCollectingCFAVisitor;
 import org.sosy_lab.cpachecker.util.CFATraversal.TraversalProcess;
+import org.sosy_lab.cpachecker.util.CFAUtils;
 
 /**
  * Generates one DOT file per function for the report.
@@ -78,17 +79,17 @@ import org.sosy_lab.cpachecker.util.CFATraversal.TraversalProcess;
 public final class DOTBuilder2 {
 
   private final CFA cfa;
-  private final CFAJSONBuilder jsoner;
+  private final Set<CFANode> nodes;
   private final DOTViewBuilder dotter;
 
   public DOTBuilder2(CFA pCfa) {
     cfa = checkNotNull(pCfa);
-    jsoner = new CFAJSONBuilder();
     dotter = new DOTViewBuilder(cfa);
-    CFAVisitor vis = new NodeCollectingCFAVisitor(new CompositeCFAVisitor(jsoner, dotter));
+    NodeCollectingCFAVisitor vis = new NodeCollectingCFAVisitor(dotter);
     for (FunctionEntryNode entryNode : cfa.getAllFunctionHeads()) {
       CFATraversal.dfs().ignoreFunctionCalls().traverse(entryNode, vis);
     }
+    nodes = vis.getVisitedNodes();
     dotter.postProcessing();
   }
 
@@ -101,11 +102,22 @@ public final class DOTBuilder2 {
     }
   }
 
+  /**
+   * Write the JSON arrays "nodes" and "edges" describing the CFA. The entries are streamed to the
+   * writer one by one, such that the JSON representation of the whole CFA is never held in memory.
+   */
   public void writeCfaInfo(Writer out) throws IOException {
-    out.write("\"nodes\":");
-    JSON.writeJSONString(jsoner.getNodes(), out);
-    out.write(",\n\"edges\":");
-    JSON.writeJSONString(jsoner.getEdges(), out);
+    CFAJSONWriter jsoner = new CFAJSONWriter(out);
+    out.write("\"nodes\":[");
+    for (CFANode node : nodes) {
+      jsoner.writeNode(node);
+    }
+    out.write("],\n\"edges\":[");
+    jsoner.resetSeparator();
+    for (CFANode node : nodes) {
+      jsoner.writeLeavingEdges(node);
+    }
+    out.write("]");
   }
 
   public void writeFunctionCallEdges(Writer out) throws IOException {
@@ -356,39 +368,58 @@ public final class DOTBuilder2 {
   /**
    * output information about CFA nodes and edges as JSON
    */
-  private static class CFAJSONBuilder extends DefaultCFAVisitor {
-    private final Map<Integer, Object> nodes = new HashMap<>();
-    private final Map<String, Object> edges = new HashMap<>();
+  private static class CFAJSONWriter {
+    private final Writer out;
+    private boolean first = true;
 
-    @Override
-    public TraversalProcess visitNode(CFANode node) {
+    CFAJSONWriter(Writer pOut) {
+      out = pOut;
+    }
+
+    void resetSeparator() {
+      first = true;
+    }
+
+    void writeNode(CFANode node) throws IOException {
       Map<String, Object> jnode = new HashMap<>();
       jnode.put("index", node.getNodeNumber());
       jnode.put("rpid", node.getReversePostorderId());
       jnode.put("func", node.getFunctionName());
       jnode.put("type", determineNodeType(node));
       jnode.put("loop", node.isLoopStart());
-
-      nodes.put(node.getNodeNumber(), jnode);
-
-      return TraversalProcess.CONTINUE;
+      write(jnode);
     }
 
-    @Override
-    public TraversalProcess visitEdge(CFAEdge edge) {
-      Map<String, Object> jedge = new HashMap<>();
-      int src = edge.getPredecessor().getNodeNumber();
-      int target = edge.getSuccessor().getNodeNumber();
-      jedge.put("line", edge.getFileLocation().getStartingLineInOrigin());
-      jedge.put("file", edge.getFileLocation().getFileName());
-      jedge.put("source", src);
-      jedge.put("target", target);
-      jedge.put("stmt", getEdgeText(edge));
-      jedge.put("type", edge.getEdgeType().toString());
-
-      edges.put("" + src + "->" + target, jedge);
+    /**
+     * Write the edges leaving the given node, skipping function calls and returns (like the
+     * traversal that collected the nodes). Of several edges between the same pair of nodes only
+     * the last one is exported.
+     */
+    void writeLeavingEdges(CFANode node) throws IOException {
+      Map<Integer, CFAEdge> edgesByTarget = new LinkedHashMap<>();
+      for (CFAEdge edge : CFAUtils.allLeavingEdges(node)) {
+        if (!(edge instanceof FunctionCallEdge) && !(edge instanceof FunctionReturnEdge)) {
+          edgesByTarget.put(edge.getSuccessor().getNodeNumber(), edge);
+        }
+      }
+      for (CFAEdge edge : edgesByTarget.values()) {
+        Map<String, Object> jedge = new HashMap<>();
+        jedge.put("line", edge.getFileLocation().getStartingLineInOrigin());
+        jedge.put("file", edge.getFileLocation().getFileName());
+        jedge.put("source", edge.getPredecessor().getNodeNumber());
+        jedge.put("target", edge.getSuccessor().getNodeNumber());
+        jedge.put("stmt", getEdgeText(edge));
+        jedge.put("type", edge.getEdgeType().toString());
+        write(jedge);
+      }
+    }
 
-      return TraversalProcess.CONTINUE;
+    private void write(Map<String, Object> entry) throws IOException {
+      if (!first) {
+        out.write(",\n");
+      }
+      first = false;
+      JSON.writeJSONString(entry, out);
     }
 
     private String determineNodeType(CFANode node) {
@@ -399,14 +430,5 @@ public final class DOTBuilder2 {
       }
       return "";
     }
-
-    Collection<Object> getNodes() {
-      return nodes.values();
-    }
-
-    Collection<Object> getEdges() {
-      return edges.values();
-    }
-
   }
 }
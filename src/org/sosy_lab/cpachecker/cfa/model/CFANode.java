@@ -26,18 +26,19 @@ package org.sosy_lab.cpachecker.cfa.model;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 
-import org.sosy_lab.common.UniqueIdGenerator;
 import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CFANode implements Comparable<CFANode>, Serializable {
 
   private static final long serialVersionUID = 5168350921309486536L;
 
-  private static final UniqueIdGenerator idGenerator = new UniqueIdGenerator();
+  // not a UniqueIdGenerator, because restoring nodes needs to advance the next number
+  private static final AtomicInteger nextNodeNumber = new AtomicInteger();
 
   private final int nodeNumber;
 
@@ -63,13 +64,32 @@ public class CFANode implements Comparable<CFANode>, Serializable {
     assert !pFunctionName.isEmpty();
 
     functionName = pFunctionName;
-    nodeNumber = idGenerator.getFreshId();
+    nodeNumber = nextNodeNumber.getAndIncrement();
+    checkState(nodeNumber >= 0, "Overflow for CFA node numbers");
   }
 
   public int getNodeNumber() {
     return nodeNumber;
   }
 
+  /**
+   * Let the next created node get the given number, such that nodes of a stored CFA can be
+   * restored with their original numbers by creating them in ascending order.
+   *
+   * @return false, without changing the next number, if a node with the given number or a higher
+   *     one might already exist.
+   */
+  public static boolean advanceNodeNumbers(int pNextNumber) {
+    int next;
+    do {
+      next = nextNodeNumber.get();
+      if (next > pNextNumber) {
+        return false;
+      }
+    } while (!nextNodeNumber.compareAndSet(next, pNextNumber));
+    return true;
+  }
+
   public int getReversePostorderId() {
     return reversePostorderId;
   }
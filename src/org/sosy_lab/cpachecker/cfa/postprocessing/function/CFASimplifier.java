@@ -28,6 +28,8 @@ import static org.sosy_lab.cpachecker.util.CFAUtils.predecessorsOf;
 import static org.sosy_lab.cpachecker.util.CFAUtils.successorsOf;
 
 import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 import org.sosy_lab.cpachecker.cfa.CFACreationUtils;
 import org.sosy_lab.cpachecker.cfa.MutableCFA;
@@ -45,6 +47,10 @@ import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 
 public class CFASimplifier {
@@ -59,41 +65,86 @@ public class CFASimplifier {
    */
   public static void simplifyCFA(MutableCFA cfa) {
     for (CFANode root : cfa.getAllFunctionHeads()) {
-      simplifyFunction(root, cfa);
+      List<CFANode> removedNodes =
+          simplifyFunction(root, cfa.getFunctionNodes(root.getFunctionName()));
+      removedNodes.forEach(cfa::removeNode);
     }
   }
 
+  /**
+   * Same as {@link #simplifyCFA(MutableCFA)}, but the functions are simplified concurrently on
+   * the given executor. This is possible because the simplification of a function only touches
+   * nodes and edges of that function. The sets of nodes of the {@link MutableCFA} are shared and
+   * thus updated only after all functions were simplified, which does not change the result
+   * compared to the sequential simplification.
+   *
+   * @param cfa The cfa which should be simplified
+   * @param executor The executor on which the functions are simplified
+   */
+  public static void simplifyCFA(MutableCFA cfa, ExecutorService executor)
+      throws InterruptedException {
+    List<Future<List<CFANode>>> removedNodesPerFunction = new ArrayList<>();
+    List<CFANode> removedNodes = new ArrayList<>();
+    try {
+      for (CFANode root : cfa.getAllFunctionHeads()) {
+        SortedSet<CFANode> functionNodes = cfa.getFunctionNodes(root.getFunctionName());
+        removedNodesPerFunction.add(executor.submit(() -> simplifyFunction(root, functionNodes)));
+      }
+
+      for (Future<List<CFANode>> removedNodesOfFunction : removedNodesPerFunction) {
+        try {
+          removedNodes.addAll(removedNodesOfFunction.get());
+        } catch (ExecutionException e) {
+          Throwables.throwIfUnchecked(e.getCause());
+          throw new UncheckedExecutionException(e.getCause());
+        }
+      }
+    } finally {
+      removedNodesPerFunction.forEach(f -> f.cancel(true));
+    }
+
+    // all tasks are finished, so now nobody else is reading the node sets
+    removedNodes.forEach(cfa::removeNode);
+  }
+
   /**
    * This method makes the simplification step for a single function, the
    * root node is the node where the search for possible simplifications starts.
    *
    * @param root start node for simplification
-   * @param cfa The cfa where the simplifications should be applied
+   * @param functionNodes all nodes of the function
+   * @return the nodes that were removed from the function and need to be removed from the CFA
    */
-  private static void simplifyFunction(final CFANode root, final MutableCFA cfa) {
+  private static List<CFANode> simplifyFunction(
+      final CFANode root, final SortedSet<CFANode> functionNodes) {
     // We want to eliminate branching with two empty branches (only blank edges).
     // Inner branches need to be eliminated first.
 
     // The list of all branching points in this function.
-    final Deque<CFANode> branchingPoints = findBranchingPoints(root, cfa);
+    final Deque<CFANode> branchingPoints = findBranchingPoints(root, functionNodes);
     assert branchingPoints.size() == new HashSet<>(branchingPoints).size()
         : "branchingPoints contains duplicate CFANode " + branchingPoints;
 
+    final List<CFANode> removedNodes = new ArrayList<>();
+
     // We need to simplify inner branches first, thus we iterate backwards through the queue.
     while (!branchingPoints.isEmpty()) {
       final CFANode branchingPoint = branchingPoints.pollLast();
 
-      simplifyBranching(branchingPoint, cfa);
+      simplifyBranching(branchingPoint, removedNodes);
     }
+    return removedNodes;
   }
 
   /**
    * Search all branching points in a CFA in post order
    * (any (transitive) predecessor of a node comes before that node in the result).
    * @param root The entry point of the CFA.
+   * @param functionNodes All nodes of the CFA.
    * @return A queue of CFANodes that are branching points, in post order.
    */
-  private static Deque<CFANode> findBranchingPoints(final CFANode root, MutableCFA cfa) {
+  private static Deque<CFANode> findBranchingPoints(
+      final CFANode root, final SortedSet<CFANode> functionNodes) {
 
     // at first we check if there is at least one branching with following blank
     // edges, if not we can immediately return an empty list as it is not possible
@@ -102,7 +153,7 @@ public class CFASimplifier {
     // changing one part of the code other part might then also be changeable
 
     boolean foundAtLeastOneBlankEdgeAssume = false;
-    for (CFANode node : cfa.getFunctionNodes(root.getFunctionName())) {
+    for (CFANode node : functionNodes) {
       if (node.getNumLeavingEdges() == 2) {
         CFAEdge edge1 = node.getLeavingEdge(0);
         CFAEdge edge2 = node.getLeavingEdge(1);
@@ -184,9 +235,10 @@ public class CFASimplifier {
   /**
    * Simplify one branching in the CFA at the given node (if possible).
    * @param branchingPoint The root of the branching (needs to have 2 outgoing AssumeEdges).
-   * @param cfa the cfa which should be simplified
+   * @param removedNodes the list to which the removed nodes are added
    */
-  private static void simplifyBranching(final CFANode branchingPoint, final MutableCFA cfa) {
+  private static void simplifyBranching(
+      final CFANode branchingPoint, final List<CFANode> removedNodes) {
     CFANode leftEndpoint  = findEndOfBlankEdgeChain(branchingPoint.getLeavingEdge(0).getSuccessor());
     CFANode rightEndpoint = findEndOfBlankEdgeChain(branchingPoint.getLeavingEdge(1).getSuccessor());
 
@@ -203,7 +255,7 @@ public class CFASimplifier {
         removedFileLocations.add(leftEdge.getFileLocation());
         CFANode toRemove = leftEdge.getSuccessor();
         toRemove.removeEnteringEdge(leftEdge);
-        removeChainOfNodes(toRemove, endpoint, cfa, removedFileLocations);
+        removeChainOfNodes(toRemove, endpoint, removedNodes, removedFileLocations);
       }
       {
         branchingPoint.removeLeavingEdge(rightEdge);
@@ -211,13 +263,13 @@ public class CFASimplifier {
         removedFileLocations.add(rightEdge.getFileLocation());
         CFANode toRemove = rightEdge.getSuccessor();
         toRemove.removeEnteringEdge(rightEdge);
-        removeChainOfNodes(toRemove, endpoint, cfa, removedFileLocations);
+        removeChainOfNodes(toRemove, endpoint, removedNodes, removedFileLocations);
       }
 
       // Maybe there are more outgoing blank edges from the endpoint,
       // also remove them.
       final CFANode endpoint2 = findEndOfBlankEdgeChain(endpoint);
-      removeChainOfNodes(endpoint, endpoint2, cfa, removedFileLocations);
+      removeChainOfNodes(endpoint, endpoint2, removedNodes, removedFileLocations);
 
       CFAEdge blankEdge = new BlankEdge("skipped unnecessary edges",
           FileLocation.merge(removedFileLocations), branchingPoint, endpoint2, "skipped unnecessary edges");
@@ -241,7 +293,7 @@ public class CFASimplifier {
   }
 
   private static void removeChainOfNodes(final CFANode start, final CFANode endpoint,
-      final MutableCFA cfa, final List<FileLocation> removedFileLocations) {
+      final List<CFANode> removedNodes, final List<FileLocation> removedFileLocations) {
     CFANode toRemove = start;
 
     while (!toRemove.equals(endpoint)) {
@@ -253,7 +305,7 @@ public class CFASimplifier {
 
       CFAEdge leavingEdge = toRemove.getLeavingEdge(0);
       toRemove.removeLeavingEdge(leavingEdge);
-      cfa.removeNode(toRemove);
+      removedNodes.add(toRemove);
 
       CFANode nextNode = leavingEdge.getSuccessor();
       nextNode.removeEnteringEdge(leavingEdge);
@@ -23,7 +23,10 @@
  */
 package org.sosy_lab.cpachecker.core.algorithm;
 
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.div;
+
 import com.google.common.base.Functions;
+import com.google.common.base.Throwables;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -33,9 +36,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import javax.annotation.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.ClassOption;
 import org.sosy_lab.common.configuration.Configuration;
@@ -48,6 +57,7 @@ import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.defaults.MergeSepOperator;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysisWithConcurrency;
 import org.sosy_lab.cpachecker.core.interfaces.ForcedCovering;
 import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
@@ -63,6 +73,7 @@ import org.sosy_lab.cpachecker.core.reachedset.PseudoPartitionedReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGMergeJoinCPAEnabledAnalysis;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.Pair;
@@ -83,6 +94,7 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     private Timer stopTimer          = new Timer();
     private Timer addTimer           = new Timer();
     private Timer forcedCoveringTimer = new Timer();
+    private Timer parallelTimer      = new Timer();
 
     private int   countIterations   = 0;
     private int   maxWaitlistSize   = 0;
@@ -92,6 +104,8 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     private int   countMerge        = 0;
     private int   countStop         = 0;
     private int   countBreak        = 0;
+    private int   countBatches      = 0;
+    private int   countDiscarded    = 0;
 
     private Map<String, AbstractStatValue> reachedSetStatistics = new HashMap<>();
 
@@ -120,12 +134,20 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       out.println("Number of times merged:          " + countMerge);
       out.println("Number of times stopped:         " + countStop);
       out.println("Number of times breaked:         " + countBreak);
+      if (countBatches > 0) {
+        out.println("Number of parallel batches:      " + countBatches);
+        out.println("Average size of batches:         " + div(countIterations, countBatches));
+        out.println("Number of discarded states:      " + countDiscarded);
+      }
       out.println();
       out.println("Total time for CPA algorithm:     " + totalTimer + " (Max: " + totalTimer.getMaxTime().formatAs(TimeUnit.SECONDS) + ")");
       out.println("  Time for choose from waitlist:  " + chooseTimer);
       if (forcedCoveringTimer.getNumberOfIntervals() > 0) {
         out.println("  Time for forced covering:       " + forcedCoveringTimer);
       }
+      if (parallelTimer.getNumberOfIntervals() > 0) {
+        out.println("  Time for parallel successors:   " + parallelTimer);
+      }
       out.println("  Time for precision adjustment:  " + precisionTimer);
       out.println("  Time for transfer relation:     " + transferTimer);
       if (mergeTimer.getNumberOfIntervals() > 0) {
@@ -152,6 +174,27 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         + " Useful for incomplete analysis with no counterexample checking.")
     private boolean reportFalseAsUnknown = false;
 
+    @Option(
+      secure = true,
+      name = "parallelSuccessors.threads",
+      description =
+          "Number of threads for computing the successors of several states from the waitlist"
+              + " in parallel (values below 2 disable this). Merge, stop and adding states"
+              + " to the reached set are still done in a deterministic order by a single thread."
+              + " The parallel mode is only used if all CPAs declare a thread-safe"
+              + " transfer relation and no forced covering is used."
+    )
+    private int parallelThreads = 0;
+
+    @Option(
+      secure = true,
+      name = "parallelSuccessors.batchSize",
+      description =
+          "Maximal number of states that are taken from the waitlist at once "
+              + "if successors are computed in parallel."
+    )
+    private int parallelBatchSize = 64;
+
     private final ForcedCovering forcedCovering;
 
     private final ConfigurableProgramAnalysis cpa;
@@ -172,11 +215,44 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         forcedCovering = null;
       }
 
+      if (parallelBatchSize < 1) {
+        throw new InvalidConfigurationException(
+            "Option cpa.parallelSuccessors.batchSize needs to be a positive number.");
+      }
+      if (parallelThreads > 1) {
+        if (forcedCovering != null) {
+          logger.log(
+              Level.WARNING,
+              "Parallel successor computation is not supported with forced covering,",
+              "falling back to sequential analysis.");
+          parallelThreads = 0;
+        } else if (!(cpa instanceof ConfigurableProgramAnalysisWithConcurrency)
+            || !((ConfigurableProgramAnalysisWithConcurrency) cpa)
+                .hasThreadSafeTransferRelation()) {
+          logger.log(
+              Level.WARNING,
+              "Parallel successor computation is not supported by the configured CPAs,",
+              "falling back to sequential analysis.");
+          parallelThreads = 0;
+        }
+      }
     }
 
     @Override
     public CPAAlgorithm newInstance() {
-      return new CPAAlgorithm(cpa, logger, shutdownNotifier, forcedCovering, reportFalseAsUnknown);
+      boolean concurrentPrecisionAdjustment =
+          parallelThreads > 1
+              && ((ConfigurableProgramAnalysisWithConcurrency) cpa)
+                  .hasThreadSafePrecisionAdjustment();
+      return new CPAAlgorithm(
+          cpa,
+          logger,
+          shutdownNotifier,
+          forcedCovering,
+          reportFalseAsUnknown,
+          parallelThreads,
+          parallelBatchSize,
+          concurrentPrecisionAdjustment);
     }
   }
 
@@ -202,10 +278,18 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
 
   private final AlgorithmStatus status;
 
+  /** Number of threads for successor computation, values below 2 mean sequential analysis. */
+  private final int parallelThreads;
+  private final int parallelBatchSize;
+  private final boolean concurrentPrecisionAdjustment;
+
   private CPAAlgorithm(ConfigurableProgramAnalysis cpa, LogManager logger,
       ShutdownNotifier pShutdownNotifier,
       ForcedCovering pForcedCovering,
-      boolean pIsImprecise) {
+      boolean pIsImprecise,
+      int pParallelThreads,
+      int pParallelBatchSize,
+      boolean pConcurrentPrecisionAdjustment) {
 
     transferRelation = cpa.getTransferRelation();
     mergeOperator = cpa.getMergeOperator();
@@ -215,6 +299,9 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     this.shutdownNotifier = pShutdownNotifier;
     this.forcedCovering = pForcedCovering;
     status = AlgorithmStatus.SOUND_AND_PRECISE.withPrecise(!pIsImprecise);
+    parallelThreads = pParallelThreads;
+    parallelBatchSize = pParallelBatchSize;
+    concurrentPrecisionAdjustment = pConcurrentPrecisionAdjustment;
   }
 
   @Override
@@ -231,6 +318,7 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       stats.stopTimer.stopIfRunning();
       stats.addTimer.stopIfRunning();
       stats.forcedCoveringTimer.stopIfRunning();
+      stats.parallelTimer.stopIfRunning();
 
       Map<String, ? extends AbstractStatValue> reachedSetStats;
       if (reachedSet instanceof PartitionedReachedSet) {
@@ -269,6 +357,10 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
   }
 
   private AlgorithmStatus run0(final ReachedSet reachedSet) throws CPAException, InterruptedException {
+    if (parallelThreads > 1) {
+      return runParallel(reachedSet);
+    }
+
     while (reachedSet.hasWaitingState()) {
       shutdownNotifier.shutdownIfNecessary();
 
@@ -305,6 +397,253 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     return status;
   }
 
+  /**
+   * Run the analysis with parallel successor computation.
+   * A batch of states is taken from the waitlist and their successors are computed concurrently.
+   * Afterwards, merge and stop are applied to all successors in the order of the batch,
+   * such that the result does not depend on the scheduling of the threads.
+   */
+  private AlgorithmStatus runParallel(final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    final ExecutorService pool = Executors.newFixedThreadPool(parallelThreads);
+    try {
+      while (reachedSet.hasWaitingState()) {
+        shutdownNotifier.shutdownIfNecessary();
+
+        int size = reachedSet.getWaitlist().size();
+        if (size >= stats.maxWaitlistSize) {
+          stats.maxWaitlistSize = size;
+        }
+
+        stats.chooseTimer.start();
+        final List<ComputedSuccessors> batch = new ArrayList<>();
+        while (batch.size() < parallelBatchSize && reachedSet.hasWaitingState()) {
+          AbstractState state = reachedSet.popFromWaitlist();
+          batch.add(new ComputedSuccessors(state, reachedSet.getPrecision(state)));
+        }
+        stats.chooseTimer.stop();
+
+        stats.countBatches++;
+        stats.countIterations += batch.size();
+        stats.countWaitlistSize += (long) size * batch.size();
+
+        logger.log(Level.FINER, "Retrieved", batch.size(), "states from waitlist");
+        if (handleBatch(batch, reachedSet, pool)) {
+          // Prec operator requested break
+          return status;
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    return status;
+  }
+
+  /**
+   * Handle a batch of states from the waitlist: compute all successors concurrently,
+   * and then commit them to the reached set sequentially.
+   * @param batch The states that were taken out of the waitlist.
+   * @param reachedSet The reached set.
+   * @param pool The thread pool for successor computation.
+   * @return true if analysis should terminate, false if analysis should continue with next batch
+   */
+  private boolean handleBatch(
+      final List<ComputedSuccessors> batch,
+      final ReachedSet reachedSet,
+      final ExecutorService pool)
+      throws CPAException, InterruptedException {
+
+    stats.parallelTimer.start();
+    try {
+      computeSuccessors(batch, reachedSet, pool);
+    } catch (Exception e) {
+      // re-add all states to the waitlist, otherwise their successors would be forgotten
+      for (ComputedSuccessors item : batch) {
+        reAddToWaitlistIfReached(item.state, reachedSet);
+      }
+      throw e;
+    } finally {
+      stats.parallelTimer.stop();
+    }
+
+    for (int i = 0; i < batch.size(); i++) {
+      final ComputedSuccessors item = batch.get(i);
+      boolean isBreak;
+      try {
+        isBreak = commitSuccessors(item, reachedSet);
+      } catch (Exception e) {
+        // re-add the current state and all unhandled states to the waitlist,
+        // there might be unhandled successors left that otherwise would be forgotten
+        reAddToWaitlistIfReached(item.state, reachedSet);
+        discardBatch(batch.subList(i + 1, batch.size()), reachedSet);
+        throw e;
+      }
+
+      if (isBreak) {
+        // the remaining states of the batch are handled when the analysis is continued
+        discardBatch(batch.subList(i + 1, batch.size()), reachedSet);
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Compute the successors (and if possible also the precision adjustment)
+   * of all states of the batch concurrently.
+   * The reached set is not modified during this step.
+   */
+  private void computeSuccessors(
+      final List<ComputedSuccessors> batch,
+      final ReachedSet reachedSet,
+      final ExecutorService pool)
+      throws CPAException, InterruptedException {
+
+    List<Callable<Void>> tasks = new ArrayList<>(batch.size());
+    for (ComputedSuccessors item : batch) {
+      tasks.add(
+          () -> {
+            item.successors = transferRelation.getAbstractSuccessors(item.state, item.precision);
+            if (concurrentPrecisionAdjustment) {
+              List<Optional<PrecisionAdjustmentResult>> adjusted =
+                  new ArrayList<>(item.successors.size());
+              for (AbstractState successor : item.successors) {
+                shutdownNotifier.shutdownIfNecessary();
+                adjusted.add(
+                    precisionAdjustment.prec(
+                        successor, item.precision, reachedSet, Functions.identity(), successor));
+              }
+              item.adjustedSuccessors = adjusted;
+            }
+            return null;
+          });
+    }
+
+    // invokeAll waits for all tasks and guarantees that their results are visible to us
+    for (Future<Void> future : pool.invokeAll(tasks)) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        Throwable t = e.getCause();
+        Throwables.propagateIfPossible(t, CPAException.class, InterruptedException.class);
+        throw new UnexpectedCheckedException("parallel successor computation", t);
+      }
+    }
+  }
+
+  /**
+   * Apply merge and stop to the precomputed successors of one state of the batch.
+   * @return true if analysis should terminate, false if analysis should continue
+   */
+  private boolean commitSuccessors(final ComputedSuccessors item, final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    final AbstractState state = item.state;
+
+    if (!reachedSet.contains(state)) {
+      // The state was merged into another state by a previous state of the batch.
+      // The merged state is in the waitlist and will be expanded later.
+      logger.log(Level.FINER, "State was removed from reached set, ignoring its successors");
+      stats.countDiscarded++;
+      discardSuccessors(item);
+      return false;
+    }
+
+    logger.log(Level.ALL, "Current state is", state, "with precision", item.precision);
+
+    if (!concurrentPrecisionAdjustment) {
+      return handleSuccessors(state, item.precision, item.successors, reachedSet);
+    }
+
+    int numSuccessors = item.successors.size();
+    logger.log(Level.FINER, "Current state has", numSuccessors, "successors");
+    stats.countSuccessors += numSuccessors;
+    stats.maxSuccessors = Math.max(numSuccessors, stats.maxSuccessors);
+
+    for (Iterator<Optional<PrecisionAdjustmentResult>> it = item.adjustedSuccessors.iterator();
+        it.hasNext(); ) {
+      Optional<PrecisionAdjustmentResult> precAdjustmentOptional = it.next();
+      shutdownNotifier.shutdownIfNecessary();
+      if (!precAdjustmentOptional.isPresent()) {
+        continue;
+      }
+      logger.log(Level.FINER, "Considering successor of current state");
+
+      if (handleSuccessor(precAdjustmentOptional.get(), reachedSet)) {
+        if (it.hasNext()) {
+          // re-add the old state to the waitlist, there are unhandled
+          // successors left that otherwise would be forgotten
+          reachedSet.reAddToWaitlist(state);
+        }
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Drop the precomputed successors of the given states
+   * and put the states back into the waitlist.
+   */
+  private void discardBatch(
+      final List<ComputedSuccessors> pUnhandled, final ReachedSet reachedSet) {
+    for (ComputedSuccessors item : pUnhandled) {
+      stats.countDiscarded++;
+      discardSuccessors(item);
+      reAddToWaitlistIfReached(item.state, reachedSet);
+    }
+  }
+
+  /**
+   * Remove precomputed successors that will never be added to the reached set from the ARG,
+   * such that the ARG stays consistent with the reached set.
+   */
+  private static void discardSuccessors(final ComputedSuccessors item) {
+    final List<AbstractState> states = new ArrayList<>();
+    if (item.adjustedSuccessors != null) {
+      for (Optional<PrecisionAdjustmentResult> result : item.adjustedSuccessors) {
+        result.ifPresent(r -> states.add(r.abstractState()));
+      }
+    } else if (item.successors != null) {
+      states.addAll(item.successors);
+    }
+    for (AbstractState successor : states) {
+      if (successor instanceof ARGState && !((ARGState) successor).isDestroyed()) {
+        ((ARGState) successor).removeFromARG();
+      }
+    }
+  }
+
+  private static void reAddToWaitlistIfReached(
+      final AbstractState state, final ReachedSet reachedSet) {
+    if (reachedSet.contains(state)) {
+      reachedSet.reAddToWaitlist(state);
+    }
+  }
+
+  /** A state from the waitlist together with its successors computed in parallel. */
+  private static class ComputedSuccessors {
+
+    private final AbstractState state;
+    private final Precision precision;
+
+    /** The successors from the transfer relation, written by a worker thread. */
+    private @Nullable Collection<? extends AbstractState> successors = null;
+
+    /**
+     * The successors after precision adjustment, written by a worker thread
+     * (only used if precision adjustment is computed concurrently).
+     */
+    private @Nullable List<Optional<PrecisionAdjustmentResult>> adjustedSuccessors = null;
+
+    private ComputedSuccessors(AbstractState pState, Precision pPrecision) {
+      state = pState;
+      precision = pPrecision;
+    }
+  }
+
   /**
    * Handle one state from the waitlist, i.e., produce successors etc.
    * @param state The abstract state that was taken out of the waitlist
@@ -341,6 +680,24 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     // TODO When we have a nice way to mark the analysis result as incomplete,
     // we could continue analysis on a CPATransferException with the next state from waitlist.
 
+    return handleSuccessors(state, precision, successors, reachedSet);
+  }
+
+  /**
+   * Handle the successors of one state from the waitlist,
+   * i.e., apply precision adjustment, merge and stop.
+   * @param state The abstract state that was taken out of the waitlist
+   * @param precision The precision for this abstract state.
+   * @param successors The abstract successors of this state.
+   * @param reachedSet The reached set.
+   * @return true if analysis should terminate, false if analysis should continue with next state
+   */
+  private boolean handleSuccessors(
+      final AbstractState state,
+      final Precision precision,
+      final Collection<? extends AbstractState> successors,
+      final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
     int numSuccessors = successors.size();
     logger.log(Level.FINER, "Current state has", numSuccessors, "successors");
     stats.countSuccessors += numSuccessors;
@@ -366,107 +723,122 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         stats.precisionTimer.stop();
       }
 
-      successor = precAdjustmentResult.abstractState();
-      Precision successorPrecision = precAdjustmentResult.precision();
-      Action action = precAdjustmentResult.action();
-
-      if (action == Action.BREAK) {
-        stats.stopTimer.start();
-        boolean stop;
-        try {
-          stop = stopOperator.stop(successor, reachedSet.getReached(successor), successorPrecision);
-        } finally {
-          stats.stopTimer.stop();
+      if (handleSuccessor(precAdjustmentResult, reachedSet)) {
+        if (it.hasNext()) {
+          // re-add the old state to the waitlist, there are unhandled
+          // successors left that otherwise would be forgotten
+          reachedSet.reAddToWaitlist(state);
         }
+        return true;
+      }
+    }
 
-        if (AbstractStates.isTargetState(successor) && stop) {
-          // don't signal BREAK for covered states
-          // no need to call merge and stop either, so just ignore this state
-          // and handle next successor
-          stats.countStop++;
-          logger.log(Level.FINER, "Break was signalled but ignored because the state is covered.");
-          continue;
+    return false;
+  }
 
-        } else {
-          stats.countBreak++;
-          logger.log(Level.FINER, "Break signalled, CPAAlgorithm will stop.");
+  /**
+   * Apply merge and stop to one successor after precision adjustment
+   * and add it to the reached set if necessary.
+   * @param precAdjustmentResult The successor and its precision after precision adjustment.
+   * @param reachedSet The reached set.
+   * @return true if the precision adjustment requested to terminate the analysis
+   */
+  private boolean handleSuccessor(
+      final PrecisionAdjustmentResult precAdjustmentResult, final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    AbstractState successor = precAdjustmentResult.abstractState();
+    Precision successorPrecision = precAdjustmentResult.precision();
+    Action action = precAdjustmentResult.action();
+
+    if (action == Action.BREAK) {
+      stats.stopTimer.start();
+      boolean stop;
+      try {
+        stop = stopOperator.stop(successor, reachedSet.getReached(successor), successorPrecision);
+      } finally {
+        stats.stopTimer.stop();
+      }
 
-          // add the new state
-          reachedSet.add(successor, successorPrecision);
+      if (AbstractStates.isTargetState(successor) && stop) {
+        // don't signal BREAK for covered states
+        // no need to call merge and stop either, so just ignore this state
+        // and handle next successor
+        stats.countStop++;
+        logger.log(Level.FINER, "Break was signalled but ignored because the state is covered.");
+        return false;
 
-          if (it.hasNext()) {
-            // re-add the old state to the waitlist, there are unhandled
-            // successors left that otherwise would be forgotten
-            reachedSet.reAddToWaitlist(state);
-          }
+      } else {
+        stats.countBreak++;
+        logger.log(Level.FINER, "Break signalled, CPAAlgorithm will stop.");
 
-          return true;
-        }
+        // add the new state
+        reachedSet.add(successor, successorPrecision);
+        return true;
       }
-      assert action == Action.CONTINUE : "Enum Action has unhandled values!";
+    }
+    assert action == Action.CONTINUE : "Enum Action has unhandled values!";
 
-      Collection<AbstractState> reached = reachedSet.getReached(successor);
+    Collection<AbstractState> reached = reachedSet.getReached(successor);
 
-      // An optimization, we don't bother merging if we know that the
-      // merge operator won't do anything (i.e., it is merge-sep).
-      if (mergeOperator != MergeSepOperator.getInstance() && !reached.isEmpty()) {
-        stats.mergeTimer.start();
+    // An optimization, we don't bother merging if we know that the
+    // merge operator won't do anything (i.e., it is merge-sep).
+    if (mergeOperator != MergeSepOperator.getInstance() && !reached.isEmpty()) {
+      stats.mergeTimer.start();
+      try {
+        List<AbstractState> toRemove = new ArrayList<>();
+        List<Pair<AbstractState, Precision>> toAdd = new ArrayList<>();
         try {
-          List<AbstractState> toRemove = new ArrayList<>();
-          List<Pair<AbstractState, Precision>> toAdd = new ArrayList<>();
-          try {
-            logger.log(
-                Level.FINER, "Considering", reached.size(), "states from reached set for merge");
-            for (AbstractState reachedState : reached) {
-              shutdownNotifier.shutdownIfNecessary();
-              AbstractState mergedState =
-                  mergeOperator.merge(successor, reachedState, successorPrecision);
-
-              if (!mergedState.equals(reachedState)) {
-                logger.log(Level.FINER, "Successor was merged with state from reached set");
-                logger.log(
-                    Level.ALL, "Merged", successor, "\nand", reachedState, "\n-->", mergedState);
-                stats.countMerge++;
-
-                toRemove.add(reachedState);
-                toAdd.add(Pair.of(mergedState, successorPrecision));
-              }
+          logger.log(
+              Level.FINER, "Considering", reached.size(), "states from reached set for merge");
+          for (AbstractState reachedState : reached) {
+            shutdownNotifier.shutdownIfNecessary();
+            AbstractState mergedState =
+                mergeOperator.merge(successor, reachedState, successorPrecision);
+
+            if (!mergedState.equals(reachedState)) {
+              logger.log(Level.FINER, "Successor was merged with state from reached set");
+              logger.log(
+                  Level.ALL, "Merged", successor, "\nand", reachedState, "\n-->", mergedState);
+              stats.countMerge++;
+
+              toRemove.add(reachedState);
+              toAdd.add(Pair.of(mergedState, successorPrecision));
             }
-          } finally {
-            // If we terminate, we should still update the reachedSet if necessary
-            // because ARGCPA doesn't like states in toRemove to be in the reachedSet.
-            reachedSet.removeAll(toRemove);
-            reachedSet.addAll(toAdd);
-          }
-
-          if (mergeOperator instanceof ARGMergeJoinCPAEnabledAnalysis) {
-            ((ARGMergeJoinCPAEnabledAnalysis) mergeOperator).cleanUp(reachedSet);
           }
-
         } finally {
-          stats.mergeTimer.stop();
+          // If we terminate, we should still update the reachedSet if necessary
+          // because ARGCPA doesn't like states in toRemove to be in the reachedSet.
+          reachedSet.removeAll(toRemove);
+          reachedSet.addAll(toAdd);
+        }
+
+        if (mergeOperator instanceof ARGMergeJoinCPAEnabledAnalysis) {
+          ((ARGMergeJoinCPAEnabledAnalysis) mergeOperator).cleanUp(reachedSet);
         }
-      }
 
-      stats.stopTimer.start();
-      boolean stop;
-      try {
-        stop = stopOperator.stop(successor, reached, successorPrecision);
       } finally {
-        stats.stopTimer.stop();
+        stats.mergeTimer.stop();
       }
+    }
 
-      if (stop) {
-        logger.log(Level.FINER, "Successor is covered or unreachable, not adding to waitlist");
-        stats.countStop++;
+    stats.stopTimer.start();
+    boolean stop;
+    try {
+      stop = stopOperator.stop(successor, reached, successorPrecision);
+    } finally {
+      stats.stopTimer.stop();
+    }
 
-      } else {
-        logger.log(Level.FINER, "No need to stop, adding successor to waitlist");
+    if (stop) {
+      logger.log(Level.FINER, "Successor is covered or unreachable, not adding to waitlist");
+      stats.countStop++;
 
-        stats.addTimer.start();
-        reachedSet.add(successor, successorPrecision);
-        stats.addTimer.stop();
-      }
+    } else {
+      logger.log(Level.FINER, "No need to stop, adding successor to waitlist");
+
+      stats.addTimer.start();
+      reachedSet.add(successor, successorPrecision);
+      stats.addTimer.stop();
     }
 
     return false;
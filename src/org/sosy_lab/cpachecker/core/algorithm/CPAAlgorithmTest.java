@@ -0,0 +1,212 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.SortedSetMultimap;
+import com.google.common.collect.TreeMultimap;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACreationUtils;
+import org.sosy_lab.cpachecker.cfa.Language;
+import org.sosy_lab.cpachecker.cfa.MutableCFA;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CAssumeEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CFunctionType;
+import org.sosy_lab.cpachecker.cfa.types.c.CVoidType;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.callstack.CallstackCPA;
+import org.sosy_lab.cpachecker.cpa.callstack.CallstackState;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeCPA;
+import org.sosy_lab.cpachecker.cpa.location.LocationCPA;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class CPAAlgorithmTest {
+
+  private static final int BRANCHINGS = 50;
+
+  @Test
+  public void testParallelSuccessorsMatchSequentialAnalysis() throws Exception {
+    MutableCFA cfa = createCFA();
+
+    List<String> sequential = analyze(cfa, 0);
+    List<String> parallel = analyze(cfa, 4);
+
+    // every node is reached exactly once, and in the same order
+    assertThat(sequential).hasSize(cfa.getAllNodes().size());
+    assertThat(parallel).containsExactlyElementsIn(sequential).inOrder();
+  }
+
+  /**
+   * Run a CPAAlgorithm with a composite of LocationCPA and CallstackCPA and return the reached
+   * states in the order in which they were added to the reached set.
+   */
+  private static List<String> analyze(MutableCFA pCfa, int pThreads) throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("cpa.parallelSuccessors.threads", Integer.toString(pThreads))
+            .setOption("cpa.parallelSuccessors.batchSize", "3")
+            .build();
+    LogManager logger = LogManager.createTestLogManager();
+    ShutdownNotifier shutdownNotifier = ShutdownNotifier.createDummy();
+
+    ConfigurableProgramAnalysis location =
+        LocationCPA.factory()
+            .setConfiguration(config)
+            .setLogger(logger)
+            .setShutdownNotifier(shutdownNotifier)
+            .set(pCfa, CFA.class)
+            .createInstance();
+    ConfigurableProgramAnalysis callstack =
+        CallstackCPA.factory()
+            .setConfiguration(config)
+            .setLogger(logger)
+            .setShutdownNotifier(shutdownNotifier)
+            .set(pCfa, CFA.class)
+            .createInstance();
+    ConfigurableProgramAnalysis cpa =
+        CompositeCPA.factory()
+            .setConfiguration(config)
+            .setLogger(logger)
+            .setShutdownNotifier(shutdownNotifier)
+            .set(pCfa, CFA.class)
+            .setChildren(ImmutableList.of(location, callstack))
+            .createInstance();
+
+    ReachedSet reached = new ReachedSetFactory(config, logger).create();
+    FunctionEntryNode main = pCfa.getMainFunction();
+    StateSpacePartition partition = StateSpacePartition.getDefaultPartition();
+    reached.add(
+        cpa.getInitialState(main, partition), cpa.getInitialPrecision(main, partition));
+
+    CPAAlgorithm algorithm = CPAAlgorithm.create(cpa, logger, config, shutdownNotifier);
+    algorithm.run(reached);
+    assertThat(reached.hasWaitingState()).isFalse();
+    assertThat(printStatistics(algorithm, reached).contains("Number of parallel batches"))
+        .isEqualTo(pThreads > 1);
+
+    List<String> result = new ArrayList<>();
+    for (AbstractState state : reached) {
+      CallstackState callstackState = AbstractStates.extractStateByType(state, CallstackState.class);
+      result.add(
+          AbstractStates.extractLocation(state).getNodeNumber()
+              + " "
+              + callstackState.getCurrentFunction()
+              + "/"
+              + callstackState.getDepth());
+    }
+    return result;
+  }
+
+  private static String printStatistics(CPAAlgorithm pAlgorithm, ReachedSet pReached) {
+    List<Statistics> stats = new ArrayList<>();
+    pAlgorithm.collectStatistics(stats);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (PrintStream print = new PrintStream(out, true)) {
+      for (Statistics s : stats) {
+        s.printStatistics(print, Result.TRUE, pReached);
+      }
+    }
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  /** Create a CFA for a single function consisting of a sequence of branchings. */
+  private static MutableCFA createCFA() {
+    String name = "main";
+    CFunctionDeclaration declaration =
+        new CFunctionDeclaration(
+            FileLocation.DUMMY,
+            CFunctionType.functionTypeWithReturnType(CVoidType.VOID),
+            name,
+            ImmutableList.of());
+    FunctionExitNode exit = new FunctionExitNode(name);
+    CFunctionEntryNode entry =
+        new CFunctionEntryNode(
+            FileLocation.DUMMY, declaration, exit, com.google.common.base.Optional.absent());
+    exit.setEntryNode(entry);
+
+    SortedSetMultimap<String, CFANode> nodes = TreeMultimap.create();
+    nodes.put(name, entry);
+    nodes.put(name, exit);
+
+    CFANode current = entry;
+    for (int i = 0; i < BRANCHINGS; i++) {
+      CFANode thenBranch = new CFANode(name);
+      CFANode elseBranch = new CFANode(name);
+      CFANode join = new CFANode(name);
+      addAssumeEdges(current, thenBranch, elseBranch);
+      addBlankEdge(thenBranch, join);
+      addBlankEdge(elseBranch, join);
+      nodes.putAll(name, ImmutableList.of(thenBranch, elseBranch, join));
+      current = join;
+    }
+    addBlankEdge(current, exit);
+
+    NavigableMap<String, FunctionEntryNode> functions = new TreeMap<>();
+    functions.put(name, entry);
+    return new MutableCFA(
+        MachineModel.LINUX32, functions, nodes, entry, ImmutableList.of(), Language.C);
+  }
+
+  private static void addBlankEdge(CFANode pPredecessor, CFANode pSuccessor) {
+    CFACreationUtils.addEdgeUnconditionallyToCFA(
+        new BlankEdge("", FileLocation.DUMMY, pPredecessor, pSuccessor, "blank"));
+  }
+
+  private static void addAssumeEdges(CFANode pPredecessor, CFANode pThen, CFANode pElse) {
+    CFACreationUtils.addEdgeUnconditionallyToCFA(
+        new CAssumeEdge(
+            "1", FileLocation.DUMMY, pPredecessor, pThen, CIntegerLiteralExpression.ONE, true));
+    CFACreationUtils.addEdgeUnconditionallyToCFA(
+        new CAssumeEdge(
+            "1", FileLocation.DUMMY, pPredecessor, pElse, CIntegerLiteralExpression.ONE, false));
+  }
+}
@@ -35,7 +35,9 @@ import com.google.common.base.Predicates;
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -45,6 +47,8 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -108,6 +112,7 @@ import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.Model;
 import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
 
@@ -135,6 +140,24 @@ abstract class AbstractBMCAlgorithm
   @Option(secure=true, description="try using induction to verify programs with loops")
   private boolean induction = false;
 
+  @Option(
+    secure = true,
+    description =
+        "Check candidate invariants in batches (Houdini-style): the conjunction of all candidates"
+            + " is checked with a single solver query, candidates that are violated by the model"
+            + " are dropped, and the remaining candidates are checked again until they hold."
+  )
+  private boolean batchCandidateChecks = false;
+
+  @Option(
+    secure = true,
+    description =
+        "Check candidate invariants incrementally: a candidate that was proven by the bounded"
+            + " model check for the previous bound is only checked at the states that were added"
+            + " by unrolling to the current bound."
+  )
+  private boolean incremental = false;
+
   @Option(secure=true, description="Strategy for generating auxiliary invariants")
   private InvariantGeneratorFactory invariantGenerationStrategy = InvariantGeneratorFactory.REACHED_SET;
 
@@ -194,6 +217,15 @@ abstract class AbstractBMCAlgorithm
   /** The candidate invariants that have been proven to hold at the loop heads. */
   private final Set<CandidateInvariant> confirmedCandidates = new CopyOnWriteArraySet<>();
 
+  /** The states of the reached set at the time of the previous bounded model check. */
+  private Set<AbstractState> bmcCheckedStates = Collections.emptySet();
+
+  /**
+   * The candidate invariants that were proven by the previous bounded model check, i.e., that hold
+   * at all {@link #bmcCheckedStates}.
+   */
+  private Set<CandidateInvariant> bmcCheckedCandidates = Collections.emptySet();
+
   private final List<ConditionAdjustmentEventSubscriber> conditionAdjustmentEventSubscribers =
       new CopyOnWriteArrayList<>();
 
@@ -368,11 +400,24 @@ abstract class AbstractBMCAlgorithm
           return AlgorithmStatus.SOUND_AND_PRECISE;
         }
 
+        Set<AbstractState> unrolledStates = Collections.emptySet();
+        if (incremental) {
+          unrolledStates = Sets.newIdentityHashSet();
+          Iterables.addAll(unrolledStates, reachedSet);
+        }
+
         // Perform a bounded model check on each candidate invariant
+        Set<CandidateInvariant> batchCheckedCandidates =
+            batchCandidateChecks
+                ? boundedModelCheckBatch(reachedSet, prover, candidateGenerator)
+                : Collections.emptySet();
         Iterator<CandidateInvariant> candidateInvariantIterator = candidateGenerator.iterator();
         while (candidateInvariantIterator.hasNext()) {
           shutdownNotifier.shutdownIfNecessary();
           CandidateInvariant candidateInvariant = candidateInvariantIterator.next();
+          if (batchCheckedCandidates.contains(candidateInvariant)) {
+            continue;
+          }
           // first check safety in k iterations
 
           boolean safe = boundedModelCheck(reachedSet, prover, candidateInvariant);
@@ -389,6 +434,12 @@ abstract class AbstractBMCAlgorithm
           }
         }
 
+        if (incremental) {
+          // All remaining candidates now hold at all states unrolled so far
+          bmcCheckedStates = unrolledStates;
+          bmcCheckedCandidates = ImmutableSet.copyOf(candidateGenerator);
+        }
+
         // second check soundness
         boolean sound;
 
@@ -452,6 +503,15 @@ abstract class AbstractBMCAlgorithm
 
     boolean sound = true;
     Iterable<CandidateInvariant> candidatesToCheck = candidates;
+    if (batchCandidateChecks && !usePropertyDirection) {
+      Set<CandidateInvariant> batch = from(candidates).filter(this::isBatchable).toSet();
+      if (batch.size() > 1) {
+        Set<CandidateInvariant> handled =
+            checkStepCaseBatch(candidateGenerator, kInductionProver, k, checkedKeys, batch);
+        sound = confirmedCandidates.containsAll(handled);
+        candidatesToCheck = Sets.difference(candidates, handled);
+      }
+    }
     for (CandidateInvariant candidate : candidatesToCheck) {
       // No need to check the same clause twice
       if (candidate instanceof Obligation) {
@@ -532,6 +592,60 @@ abstract class AbstractBMCAlgorithm
     return sound;
   }
 
+  /**
+   * Checks the inductiveness of the conjunction of the given candidate invariants. As long as the
+   * check fails, the candidates violated by the counterexample to induction are dropped and the
+   * conjunction of the remaining candidates is checked again. If it succeeds, all remaining
+   * candidates are confirmed.
+   *
+   * @return the candidates that were either confirmed or refuted by this check. If the violated
+   *     candidates cannot be determined from a counterexample to induction, the candidates that
+   *     are not contained in the result still need to be checked individually.
+   */
+  private Set<CandidateInvariant> checkStepCaseBatch(
+      CandidateGenerator pCandidateGenerator,
+      KInductionProver pKInductionProver,
+      int pK,
+      Set<Object> pCheckedKeys,
+      Set<CandidateInvariant> pCandidates)
+      throws InterruptedException, CPAException, SolverException {
+    Set<CandidateInvariant> remaining = new LinkedHashSet<>(pCandidates);
+    Set<CandidateInvariant> handled = new HashSet<>();
+    while (!remaining.isEmpty()) {
+      shutdownNotifier.shutdownIfNecessary();
+      stats.candidatesPerInductionCheck.setNextValue(remaining.size());
+      InductionResult<CandidateInvariant> inductionResult =
+          pKInductionProver.checkConjunction(
+              Iterables.concat(confirmedCandidates, remaining), pK, remaining, pCheckedKeys);
+      if (inductionResult.isSuccessful()) {
+        confirmedCandidates.addAll(remaining);
+        pCandidateGenerator.confirmCandidates(remaining);
+        handled.addAll(remaining);
+        break;
+      }
+      Set<CandidateInvariant> refuted =
+          Sets.intersection(inductionResult.getFalsifiedCandidates(), remaining).immutableCopy();
+      if (refuted.isEmpty()) {
+        break;
+      }
+      remaining.removeAll(refuted);
+      handled.addAll(refuted);
+    }
+    return handled;
+  }
+
+  /**
+   * Checks whether the given candidate invariant can be checked as part of a batch, i.e., it is
+   * neither the safety property itself nor a proof obligation, and it is not a combination of
+   * other candidates.
+   */
+  private boolean isBatchable(CandidateInvariant pCandidate) {
+    return pCandidate != TargetLocationCandidateInvariant.INSTANCE
+        && !(pCandidate instanceof Obligation)
+        && Iterables.size(CandidateInvariantCombination.getConjunctiveParts(pCandidate)) == 1
+        && Iterables.size(CandidateInvariantCombination.getDisjunctiveParts(pCandidate)) == 1;
+  }
+
   /**
    * Gets all keys of loop-iteration reporting states that were reached by unrolling.
    *
@@ -586,15 +700,20 @@ abstract class AbstractBMCAlgorithm
       final ProverEnvironmentWithFallback pProver,
       CandidateInvariant pCandidateInvariant)
       throws CPATransferException, InterruptedException, SolverException {
-    return boundedModelCheck((Iterable<AbstractState>) pReachedSet, pProver, pCandidateInvariant);
+    return boundedModelCheck(
+        getStatesToCheck(pReachedSet, pCandidateInvariant),
+        pReachedSet,
+        pProver,
+        pCandidateInvariant);
   }
 
   private boolean boundedModelCheck(
-      Iterable<AbstractState> pReachedSet,
+      Iterable<AbstractState> pStates,
+      @Nullable ReachedSet pReachedSet,
       ProverEnvironmentWithFallback pProver,
       CandidateInvariant pCandidateInvariant)
       throws CPATransferException, InterruptedException, SolverException {
-    BooleanFormula program = bfmgr.not(pCandidateInvariant.getAssertion(pReachedSet, fmgr, pmgr));
+    BooleanFormula program = bfmgr.not(pCandidateInvariant.getAssertion(pStates, fmgr, pmgr));
     logger.log(Level.INFO, "Starting satisfiability check...");
     stats.satCheck.start();
     pProver.push(program);
@@ -602,12 +721,11 @@ abstract class AbstractBMCAlgorithm
     stats.satCheck.stop();
     // Leave program formula on solver stack until error path is created
 
-    if (pReachedSet instanceof ReachedSet) {
-      ReachedSet reachedSet = (ReachedSet) pReachedSet;
+    if (pReachedSet != null) {
       if (safe) {
-        pCandidateInvariant.assumeTruth(reachedSet);
+        pCandidateInvariant.assumeTruth(pReachedSet);
       } else if (pCandidateInvariant == TargetLocationCandidateInvariant.INSTANCE) {
-        analyzeCounterexample(program, reachedSet, pProver);
+        analyzeCounterexample(program, pReachedSet, pProver);
       }
     }
 
@@ -616,6 +734,90 @@ abstract class AbstractBMCAlgorithm
     return safe;
   }
 
+  /**
+   * Performs a bounded model check on the conjunction of the candidate invariants provided by the
+   * given candidate generator. As long as the conjunction is violated, the candidates that are
+   * violated in the model are removed from the candidate generator and the conjunction of the
+   * remaining candidates is checked again. Once it holds, the truth of all remaining candidates is
+   * assumed.
+   *
+   * @return the candidates that were either confirmed or removed by this check. If the violated
+   *     candidates cannot be determined from a model, the candidates that are not contained in the
+   *     result still need to be checked individually.
+   */
+  private Set<CandidateInvariant> boundedModelCheckBatch(
+      ReachedSet pReachedSet,
+      ProverEnvironmentWithFallback pProver,
+      CandidateGenerator pCandidateGenerator)
+      throws CPATransferException, InterruptedException, SolverException {
+    Map<CandidateInvariant, BooleanFormula> remaining = new LinkedHashMap<>();
+    for (CandidateInvariant candidateInvariant : pCandidateGenerator) {
+      if (isBatchable(candidateInvariant)) {
+        remaining.put(
+            candidateInvariant,
+            candidateInvariant.getAssertion(
+                getStatesToCheck(pReachedSet, candidateInvariant), fmgr, pmgr));
+      }
+    }
+    if (remaining.size() < 2) {
+      return Collections.emptySet();
+    }
+
+    Set<CandidateInvariant> refuted = new HashSet<>();
+    boolean allHandled = false;
+    while (!remaining.isEmpty()) {
+      shutdownNotifier.shutdownIfNecessary();
+      logger.log(
+          Level.INFO, "Starting satisfiability check for", remaining.size(), "candidates...");
+      stats.candidatesPerBmcCheck.setNextValue(remaining.size());
+      stats.satCheck.start();
+      pProver.push(bfmgr.not(bfmgr.and(remaining.values())));
+      boolean safe = pProver.isUnsat();
+      stats.satCheck.stop();
+      if (safe) {
+        pProver.pop();
+        allHandled = true;
+        break;
+      }
+      Set<CandidateInvariant> violated = new HashSet<>();
+      try (Model model = pProver.getModel()) {
+        for (Map.Entry<CandidateInvariant, BooleanFormula> candidate : remaining.entrySet()) {
+          if (Boolean.FALSE.equals(model.evaluate(candidate.getValue()))) {
+            violated.add(candidate.getKey());
+          }
+        }
+      }
+      pProver.pop();
+      if (violated.isEmpty()) {
+        break;
+      }
+      remaining.keySet().removeAll(violated);
+      refuted.addAll(violated);
+    }
+
+    Iterables.removeIf(pCandidateGenerator, refuted::contains);
+    if (!allHandled && !remaining.isEmpty()) {
+      return refuted;
+    }
+    for (CandidateInvariant candidateInvariant : remaining.keySet()) {
+      candidateInvariant.assumeTruth(pReachedSet);
+    }
+    return Sets.union(refuted, remaining.keySet()).immutableCopy();
+  }
+
+  /**
+   * Gets the states at which the given candidate invariant needs to be checked by the bounded
+   * model check: a candidate that was already proven by the previous bounded model check only
+   * needs to be checked at the states that were added to the reached set since.
+   */
+  private Iterable<AbstractState> getStatesToCheck(
+      ReachedSet pReachedSet, CandidateInvariant pCandidateInvariant) {
+    if (bmcCheckedCandidates.contains(pCandidateInvariant)) {
+      return from(pReachedSet).filter(not(Predicates.in(bmcCheckedStates)));
+    }
+    return pReachedSet;
+  }
+
   private boolean refineCtiBlockingClauses(
       ReachedSet pReachedSet,
       ProverEnvironmentWithFallback pProver,
@@ -668,7 +870,7 @@ abstract class AbstractBMCAlgorithm
           Iterable<AbstractState> applicableStates =
               newBlockingClause.filterApplicable(pReachedSet);
           applicableStates = clauseResult.filterUnchecked(applicableStates);
-          isUnsat = boundedModelCheck(applicableStates, pProver, newBlockingClause);
+          isUnsat = boundedModelCheck(applicableStates, null, pProver, newBlockingClause);
           if (isUnsat) {
             clauseResult.addSafeStates(applicableStates);
           } else {
@@ -0,0 +1,254 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpressionBuilder;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.c.CDeclarationEdge;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.core.CPABuilder;
+import org.sosy_lab.cpachecker.core.Specification;
+import org.sosy_lab.cpachecker.core.algorithm.Algorithm;
+import org.sosy_lab.cpachecker.core.algorithm.Algorithm.AlgorithmStatus;
+import org.sosy_lab.cpachecker.core.algorithm.CPAAlgorithm;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
+import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.expressions.LeafExpression;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class BMCAlgorithmForInvariantGenerationTest {
+
+  private static final String[] PROGRAM = {
+    "extern int __VERIFIER_nondet_int();",
+    "int main() {",
+    "  int x = 0;",
+    "  int y = 0;",
+    "  int z = 5;",
+    "  while (__VERIFIER_nondet_int()) {",
+    "    x = x + 2;",
+    "    y = y + 1;",
+    "  }",
+    "  return x + y + z;",
+    "}"
+  };
+
+  private final LogManager logger = LogManager.createTestLogManager();
+
+  private CFA cfa;
+  private CFANode loopHead;
+
+  /** Inductive: holds initially and is preserved by every loop iteration. */
+  private CandidateInvariant xIsTwiceY;
+
+  /** Inductive: z is never changed. */
+  private CandidateInvariant zIsFive;
+
+  /** Violated after the first loop iteration, refuted by the bounded model check. */
+  private CandidateInvariant xIsZero;
+
+  /** Holds for the first bounds, but has a counterexample to induction for every k. */
+  private CandidateInvariant yIsNotThree;
+
+  @Before
+  public void setUp() throws Exception {
+    cfa = TestDataTools.makeCFA(configurationForKInduction().build(), PROGRAM);
+    loopHead = Iterables.getOnlyElement(cfa.getAllLoopHeads().get());
+
+    CBinaryExpressionBuilder builder = new CBinaryExpressionBuilder(cfa.getMachineModel(), logger);
+    CExpression x = getVariable("x");
+    CExpression y = getVariable("y");
+    CExpression z = getVariable("z");
+    xIsTwiceY =
+        makeCandidate(
+            builder.buildBinaryExpression(
+                x,
+                builder.buildBinaryExpression(literal(2), y, BinaryOperator.MULTIPLY),
+                BinaryOperator.EQUALS));
+    zIsFive = makeCandidate(builder.buildBinaryExpression(z, literal(5), BinaryOperator.EQUALS));
+    xIsZero = makeCandidate(builder.buildBinaryExpression(x, literal(0), BinaryOperator.EQUALS));
+    yIsNotThree =
+        makeCandidate(builder.buildBinaryExpression(y, literal(3), BinaryOperator.NOT_EQUALS));
+  }
+
+  @Test
+  public void testBatchCandidateChecks() throws Exception {
+    StaticCandidateProvider oneAtATime = createCandidates();
+    AlgorithmStatus oneAtATimeStatus =
+        run(
+            configurationForKInduction().setOption("bmc.batchCandidateChecks", "false"),
+            oneAtATime);
+
+    StaticCandidateProvider batch = createCandidates();
+    AlgorithmStatus batchStatus =
+        run(configurationForKInduction().setOption("bmc.batchCandidateChecks", "true"), batch);
+
+    assertThat(batchStatus).isEqualTo(oneAtATimeStatus);
+    // xIsZero is falsified within the batch of the bounded model check,
+    // yIsNotThree within the batch of the induction check
+    assertThat(oneAtATime.getConfirmedCandidates()).containsExactly(xIsTwiceY, zIsFive);
+    assertThat(batch.getConfirmedCandidates())
+        .containsExactlyElementsIn(oneAtATime.getConfirmedCandidates());
+    assertThat(batch.hasCandidatesAvailable()).isFalse();
+  }
+
+  @Test
+  public void testIncrementalBoundedModelCheck() throws Exception {
+    for (String batchCandidateChecks : ImmutableList.of("false", "true")) {
+      StaticCandidateProvider full = createCandidates();
+      AlgorithmStatus fullStatus =
+          run(
+              configurationForKInduction()
+                  .setOption("bmc.batchCandidateChecks", batchCandidateChecks)
+                  .setOption("bmc.incremental", "false"),
+              full);
+
+      StaticCandidateProvider incremental = createCandidates();
+      AlgorithmStatus incrementalStatus =
+          run(
+              configurationForKInduction()
+                  .setOption("bmc.batchCandidateChecks", batchCandidateChecks)
+                  .setOption("bmc.incremental", "true"),
+              incremental);
+
+      // yIsNotThree survives the bounded model checks for the first bounds and is only refuted
+      // after three unrollings, when it must still be checked at the newly unrolled states
+      assertThat(incrementalStatus).isEqualTo(fullStatus);
+      assertThat(full.getConfirmedCandidates()).containsExactly(xIsTwiceY, zIsFive);
+      assertThat(incremental.getConfirmedCandidates())
+          .containsExactlyElementsIn(full.getConfirmedCandidates());
+      assertThat(incremental.hasCandidatesAvailable()).isFalse();
+    }
+  }
+
+  private StaticCandidateProvider createCandidates() {
+    return new StaticCandidateProvider(
+        ImmutableSet.of(xIsTwiceY, zIsFive, xIsZero, yIsNotThree));
+  }
+
+  private AlgorithmStatus run(ConfigurationBuilder pConfig, CandidateGenerator pCandidates)
+      throws Exception {
+    Configuration config = pConfig.build();
+    ShutdownManager shutdownManager = ShutdownManager.create();
+    ReachedSetFactory reachedSetFactory = new ReachedSetFactory(config, logger);
+    Specification specification = Specification.alwaysSatisfied();
+    AggregatedReachedSets aggregatedReachedSets = new AggregatedReachedSets();
+
+    ConfigurableProgramAnalysis cpa =
+        new CPABuilder(config, logger, shutdownManager.getNotifier(), reachedSetFactory)
+            .buildCPAs(cfa, specification, aggregatedReachedSets);
+    Algorithm cpaAlgorithm =
+        CPAAlgorithm.create(cpa, logger, config, shutdownManager.getNotifier());
+    BMCAlgorithmForInvariantGeneration algorithm =
+        new BMCAlgorithmForInvariantGeneration(
+            cpaAlgorithm,
+            cpa,
+            config,
+            logger,
+            reachedSetFactory,
+            shutdownManager,
+            cfa,
+            specification,
+            new BMCStatistics(),
+            pCandidates,
+            aggregatedReachedSets);
+
+    ReachedSet reached = reachedSetFactory.create();
+    StateSpacePartition partition = StateSpacePartition.getDefaultPartition();
+    reached.add(
+        cpa.getInitialState(cfa.getMainFunction(), partition),
+        cpa.getInitialPrecision(cfa.getMainFunction(), partition));
+    return algorithm.run(reached);
+  }
+
+  /** Create the configuration of a k-induction analysis with iterative deepening. */
+  private static ConfigurationBuilder configurationForKInduction() throws Exception {
+    return TestDataTools.configurationForTest()
+        .setOption("cpa", "cpa.arg.ARGCPA")
+        .setOption("ARGCPA.cpa", "cpa.composite.CompositeCPA")
+        .setOption(
+            "CompositeCPA.cpas",
+            "cpa.location.LocationCPA, cpa.callstack.CallstackCPA,"
+                + " cpa.functionpointer.FunctionPointerCPA, cpa.predicate.PredicateCPA,"
+                + " cpa.assumptions.storage.AssumptionStorageCPA, cpa.loopbound.LoopBoundCPA")
+        .setOption("analysis.traversal.order", "bfs")
+        .setOption("analysis.traversal.useReversePostorder", "true")
+        .setOption("analysis.traversal.useCallstack", "true")
+        .setOption("analysis.traversal.useReverseLoopstack", "true")
+        .setOption("analysis.traversal.useReverseLoopIterationCount", "true")
+        .setOption("cpa.predicate.blk.useCache", "false")
+        .setOption("cpa.predicate.blk.alwaysAtFunctions", "false")
+        .setOption("cpa.predicate.blk.alwaysAtLoops", "false")
+        .setOption("cpa.loopbound.maxLoopIterations", "1")
+        .setOption("cpa.loopbound.maxLoopIterationsUpperBound", "10")
+        .setOption("cpa.loopbound.maxLoopIterationAdjusterFactory", "INCREMENT")
+        .setOption("bmc.induction", "true")
+        .setOption("bmc.invariantGenerationStrategy", "DO_NOTHING");
+  }
+
+  private CandidateInvariant makeCandidate(CExpression pExpression) {
+    return new ExpressionTreeLocationInvariant(
+        "test", loopHead, LeafExpression.of(pExpression));
+  }
+
+  private static CExpression literal(long pValue) {
+    return CIntegerLiteralExpression.createDummyLiteral(pValue, CNumericTypes.INT);
+  }
+
+  private CIdExpression getVariable(String pName) {
+    for (CFANode node : cfa.getAllNodes()) {
+      for (CDeclarationEdge edge :
+          CFAUtils.leavingEdges(node).filter(CDeclarationEdge.class)) {
+        CDeclaration declaration = edge.getDeclaration();
+        if (declaration instanceof CVariableDeclaration
+            && declaration.getName().equals(pName)) {
+          return new CIdExpression(FileLocation.DUMMY, declaration);
+        }
+      }
+    }
+    throw new AssertionError("No declaration of " + pName);
+  }
+}
@@ -28,6 +28,8 @@ import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
 
 public class BMCStatistics implements Statistics {
 
@@ -39,6 +41,11 @@ public class BMCStatistics implements Statistics {
   final Timer inductionPreparation = new Timer();
   final Timer inductionCheck = new Timer();
 
+  final StatInt candidatesPerBmcCheck =
+      new StatInt(StatKind.AVG, "Candidate invariants per batched BMC check");
+  final StatInt candidatesPerInductionCheck =
+      new StatInt(StatKind.AVG, "Candidate invariants per batched induction check");
+
   @Override
   public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
     if (bmcPreparation.getNumberOfIntervals() > 0) {
@@ -57,6 +64,12 @@ public class BMCStatistics implements Statistics {
       out.println("Time for induction formula creation: " + inductionPreparation);
       out.println("Time for induction check:            " + inductionCheck);
     }
+    if (candidatesPerBmcCheck.getUpdateCount() > 0) {
+      out.println("Candidates per batched BMC check:    " + candidatesPerBmcCheck);
+    }
+    if (candidatesPerInductionCheck.getUpdateCount() > 0) {
+      out.println("Candidates per batched induction:    " + candidatesPerInductionCheck);
+    }
   }
 
   @Override
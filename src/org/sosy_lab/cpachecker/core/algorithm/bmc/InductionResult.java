@@ -39,15 +39,19 @@ public class InductionResult<T extends CandidateInvariant> extends ProofResult {
 
   private final int k;
 
+  private final Set<CandidateInvariant> falsifiedCandidates;
+
   private InductionResult(T pInvariantAbstraction) {
     invariantAbstraction = Objects.requireNonNull(pInvariantAbstraction);
     badStateBlockingClauses = Collections.emptySet();
     k = -1;
+    falsifiedCandidates = Collections.emptySet();
   }
 
   private InductionResult(
       Iterable<? extends SymbolicCandiateInvariant> pBadStateBlockingClauses,
-      int pK) {
+      int pK,
+      Iterable<? extends CandidateInvariant> pFalsifiedCandidates) {
     if (Iterables.isEmpty(pBadStateBlockingClauses)) {
       throw new IllegalArgumentException(
           "Bad-state blocking invariants should be present if (and only if) induction failed.");
@@ -59,6 +63,7 @@ public class InductionResult<T extends CandidateInvariant> extends ProofResult {
     invariantAbstraction = null;
     badStateBlockingClauses = ImmutableSet.copyOf(pBadStateBlockingClauses);
     k = pK;
+    falsifiedCandidates = ImmutableSet.copyOf(pFalsifiedCandidates);
   }
 
   public boolean isSuccessful() {
@@ -90,6 +95,19 @@ public class InductionResult<T extends CandidateInvariant> extends ProofResult {
     return k;
   }
 
+  /**
+   * Gets the conjunctive parts of the checked candidate invariant that were found to be violated
+   * by the counterexample to induction. This is only determined if requested for the check, and
+   * parts for which this could not be decided are not contained.
+   */
+  public Set<CandidateInvariant> getFalsifiedCandidates() {
+    if (isSuccessful()) {
+      throw new IllegalStateException(
+          "Falsified candidates are only available if induction failed.");
+    }
+    return falsifiedCandidates;
+  }
+
   public static <T extends CandidateInvariant> InductionResult<T> getSuccessful(
       T pInvariantAbstraction) {
     return new InductionResult<>(pInvariantAbstraction);
@@ -98,6 +116,13 @@ public class InductionResult<T extends CandidateInvariant> extends ProofResult {
   public static <T extends CandidateInvariant> InductionResult<T> getFailed(
       Iterable<? extends SymbolicCandiateInvariant> pBadStateBlockingClauses,
       int pK) {
-    return new InductionResult<>(pBadStateBlockingClauses, pK);
+    return new InductionResult<>(pBadStateBlockingClauses, pK, Collections.emptySet());
+  }
+
+  public static <T extends CandidateInvariant> InductionResult<T> getFailed(
+      Iterable<? extends SymbolicCandiateInvariant> pBadStateBlockingClauses,
+      int pK,
+      Iterable<? extends CandidateInvariant> pFalsifiedCandidates) {
+    return new InductionResult<>(pBadStateBlockingClauses, pK, pFalsifiedCandidates);
   }
 }
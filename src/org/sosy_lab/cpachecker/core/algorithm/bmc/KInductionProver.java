@@ -99,6 +99,7 @@ import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Formula;
 import org.sosy_lab.java_smt.api.FunctionDeclaration;
+import org.sosy_lab.java_smt.api.Model;
 import org.sosy_lab.java_smt.api.Model.ValueAssignment;
 import org.sosy_lab.java_smt.api.QuantifiedFormulaManager.Quantifier;
 import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
@@ -318,6 +319,42 @@ class KInductionProver implements AutoCloseable {
         StandardLiftings.NO_LIFTING);
   }
 
+  /**
+   * Attempts to perform the inductive check over the conjunction of the given candidate
+   * invariants. If the check fails, the result additionally contains those conjunctive parts of
+   * the conjunction that are violated at a successor state in the counterexample to induction
+   * (cf. {@link InductionResult#getFalsifiedCandidates()}), so that they can be dropped before the
+   * remaining candidates are checked again.
+   *
+   * @param pPredecessorAssumptions the set of assumptions that should be assumed at the predecessor
+   *     states up to k.
+   * @param pK The k value to use in the check.
+   * @param pCandidateInvariants the candidate invariants whose conjunction should be checked at k
+   *     + 1.
+   * @param pCheckedKeys the keys of loop-iteration reporting states that were checked by BMC: only
+   *     for those can we assert predecessor safety of an unproven candidate invariant.
+   * @return the result of the inductive check.
+   * @throws CPAException if the bounded analysis constructing the step case encountered an
+   *     exception.
+   * @throws InterruptedException if the bounded analysis constructing the step case was
+   *     interrupted.
+   */
+  public final InductionResult<CandidateInvariant> checkConjunction(
+      Iterable<CandidateInvariant> pPredecessorAssumptions,
+      int pK,
+      Iterable<CandidateInvariant> pCandidateInvariants,
+      Set<Object> pCheckedKeys)
+      throws CPAException, InterruptedException, SolverException {
+    return check(
+        pPredecessorAssumptions,
+        pK,
+        CandidateInvariantCombination.conjunction(pCandidateInvariants),
+        pCheckedKeys,
+        InvariantStrengthenings.noStrengthening(),
+        StandardLiftings.NO_LIFTING,
+        true);
+  }
+
   /**
    * Attempts to perform the inductive check over the candidate invariant.
    *
@@ -346,6 +383,25 @@ class KInductionProver implements AutoCloseable {
           InvariantStrengthening<S, T> pInvariantAbstraction,
           Lifting pLifting)
           throws CPAException, InterruptedException, SolverException {
+    return check(
+        pPredecessorAssumptions,
+        pK,
+        pCandidateInvariant,
+        pCheckedKeys,
+        pInvariantAbstraction,
+        pLifting,
+        false);
+  }
+
+  private <S extends CandidateInvariant, T extends CandidateInvariant> InductionResult<T> check(
+      Iterable<CandidateInvariant> pPredecessorAssumptions,
+      int pK,
+      S pCandidateInvariant,
+      Set<Object> pCheckedKeys,
+      InvariantStrengthening<S, T> pInvariantAbstraction,
+      Lifting pLifting,
+      boolean pDetermineFalsifiedParts)
+      throws CPAException, InterruptedException, SolverException {
 
     stats.inductionPreparation.start();
 
@@ -482,6 +538,11 @@ class KInductionProver implements AutoCloseable {
           if (!loopHeadInvChanged) {
             // We are in the last iteration and failed to prove the candidate invariant
 
+            // The model is only available before anything is popped for lifting
+            Set<CandidateInvariant> falsifiedParts =
+                pDetermineFalsifiedParts
+                    ? getFalsifiedConjunctiveParts(pCandidateInvariant, pK + 1)
+                    : ImmutableSet.of();
             Iterable<? extends SymbolicCandiateInvariant> badStateBlockingClauses =
                 Collections.emptySet();
             Map<CounterexampleToInductivity, BooleanFormula> detectedCtis =
@@ -526,7 +587,7 @@ class KInductionProver implements AutoCloseable {
                       detectedCtis.keySet(),
                       cti -> SymbolicCandiateInvariant.blockCti(loopHeads, cti, fmgr));
             }
-            result = InductionResult.getFailed(badStateBlockingClauses, pK);
+            result = InductionResult.getFailed(badStateBlockingClauses, pK, falsifiedParts);
           }
         }
       } else {
@@ -585,6 +646,34 @@ class KInductionProver implements AutoCloseable {
     return result;
   }
 
+  /**
+   * Determines the conjunctive parts of the given candidate invariant that are violated at a
+   * successor state in the current model of the prover. Parts for which the model does not
+   * determine a violation are not contained in the result.
+   */
+  private Set<CandidateInvariant> getFalsifiedConjunctiveParts(
+      CandidateInvariant pCandidateInvariant, int pK)
+      throws CPATransferException, InterruptedException, SolverException {
+    Set<CandidateInvariant> parts =
+        ImmutableSet.copyOf(CandidateInvariantCombination.getConjunctiveParts(pCandidateInvariant));
+    if (parts.size() <= 1) {
+      return parts;
+    }
+    ImmutableSet.Builder<CandidateInvariant> falsifiedParts = ImmutableSet.builder();
+    try (Model model = prover.getModel()) {
+      for (CandidateInvariant part : parts) {
+        shutdownNotifier.shutdownIfNecessary();
+        BooleanFormula partViolation =
+            BMCHelper.disjoinStateViolationAssertions(
+                bfmgr, getSuccessorViolationAssertions(part, pK));
+        if (Boolean.TRUE.equals(model.evaluate(partViolation))) {
+          falsifiedParts.add(part);
+        }
+      }
+    }
+    return falsifiedParts.build();
+  }
+
   private BooleanFormula assertCandidate(
       Iterable<AbstractState> pReached, CandidateInvariant pCandidateInvariant, int pK)
       throws CPATransferException, InterruptedException {
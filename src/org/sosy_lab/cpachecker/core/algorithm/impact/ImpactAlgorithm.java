@@ -82,7 +82,7 @@ import org.sosy_lab.java_smt.api.SolverException;
  * paper "Lazy Abstraction with Interpolants" and implemented in the tool IMPACT.
  */
 @Options(prefix="impact")
-public class ImpactAlgorithm implements Algorithm, StatisticsProvider {
+public class ImpactAlgorithm implements Algorithm, StatisticsProvider, AutoCloseable {
 
   private final LogManager logger;
 
@@ -515,4 +515,10 @@ public class ImpactAlgorithm implements Algorithm, StatisticsProvider {
   public void collectStatistics(Collection<Statistics> pStatsCollection) {
     pStatsCollection.add(new Stats());
   }
+
+  @Override
+  public void close() {
+    imgr.close();
+    solver.close();
+  }
 }
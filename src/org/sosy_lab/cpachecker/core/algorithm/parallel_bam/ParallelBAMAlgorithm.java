@@ -34,9 +34,8 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -44,6 +43,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
@@ -55,9 +55,11 @@ import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.io.IO;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.log.LogManagerWithoutDuplicates;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.algorithm.Algorithm;
 import org.sosy_lab.cpachecker.core.algorithm.CPAAlgorithm.CPAAlgorithmFactory;
+import org.sosy_lab.cpachecker.core.algorithm.parallel_bam.ReachedSetScheduler.SchedulingStrategy;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
@@ -86,6 +88,15 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
   )
   private int numberOfThreads = -1;
 
+  @Option(
+    description =
+        "scheduling strategy for the sub-analyses: FIFO uses a shared queue, "
+            + "WORK_STEALING uses thread-local queues where idle threads steal tasks, and "
+            + "PRIORITY prefers reached-sets for which many other reached-sets are waiting.",
+    secure = true
+  )
+  private SchedulingStrategy schedulingStrategy = SchedulingStrategy.FIFO;
+
   @Option(description = "export number of running RSE instances as CSV", secure = true)
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path runningRSESeriesFile = Paths.get("RSESeries.csv");
@@ -129,7 +140,9 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
         new ConcurrentHashMap<>();
     final int numberOfCores = getNumberOfCores();
     oneTimeLogger.logfOnce(Level.INFO, "creating pool for %d threads", numberOfCores);
-    final ExecutorService pool = Executors.newFixedThreadPool(numberOfCores);
+    final ReachedSetScheduler pool =
+        new ReachedSetScheduler(schedulingStrategy, numberOfCores, stats);
+    stats.numberOfThreads = numberOfCores;
     final AtomicReference<Throwable> error = new AtomicReference<>(null);
     final AtomicBoolean terminateAnalysis = new AtomicBoolean(false);
 
@@ -283,6 +296,11 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
     final StatHist executionCounter = new StatHist("RSE execution counter");
     private final StatCounter unfinishedRSEcounter = new StatCounter("unfinished reached-sets");
 
+    /** busy time of worker threads in nanoseconds, sorted by thread name. */
+    final Map<String, LongAdder> busyTimePerThread = new ConcurrentSkipListMap<>();
+
+    int numberOfThreads = 0;
+
     final StatisticsSeries<Integer> runningRSESeries =
         (runningRSESeriesFile == null) ? new NoopStatisticsSeries<>() : new StatisticsSeries<>();
 
@@ -296,6 +314,7 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
       StatisticsUtils.write(pOut, 0, 50, threadTime);
       StatisticsUtils.write(pOut, 1, 50, addingStatesTime);
       StatisticsUtils.write(pOut, 1, 50, terminationCheckTime);
+      writeThreadUtilization(pOut);
 
       if (runningRSESeriesFile != null) {
         try {
@@ -306,6 +325,35 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
       }
     }
 
+    private void writeThreadUtilization(PrintStream pOut) {
+      long wallNanos = wallTime.getConsumedTime().asNanos();
+      long totalBusyNanos = 0;
+      StatisticsUtils.write(pOut, 0, 50, "Number of worker threads", numberOfThreads);
+      for (Map.Entry<String, LongAdder> entry : busyTimePerThread.entrySet()) {
+        long busyNanos = entry.getValue().sum();
+        totalBusyNanos += busyNanos;
+        StatisticsUtils.write(
+            pOut,
+            1,
+            50,
+            "Utilization of " + entry.getKey(),
+            StatisticsUtils.toPercent(busyNanos, wallNanos)
+                + " (busy time: "
+                + TimeSpan.ofNanos(busyNanos).formatAs(TimeUnit.SECONDS)
+                + ")");
+      }
+      long idleNanos = Math.max(0, numberOfThreads * wallNanos - totalBusyNanos);
+      StatisticsUtils.write(
+          pOut,
+          0,
+          50,
+          "Idle time of worker threads",
+          TimeSpan.ofNanos(idleNanos).formatAs(TimeUnit.SECONDS)
+              + " ("
+              + StatisticsUtils.toPercent(idleNanos, numberOfThreads * wallNanos)
+              + ")");
+    }
+
     @Override
     public @Nullable String getName() {
       return "BAM-parallel";
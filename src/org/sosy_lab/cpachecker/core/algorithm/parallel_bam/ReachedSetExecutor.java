@@ -45,7 +45,7 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -100,7 +100,7 @@ class ReachedSetExecutor {
   /** important central data structure, shared over all threads, need to be synchronized. */
   private final ConcurrentMap<ReachedSet, ReachedSetExecutor> reachedSetMapping;
 
-  private final ExecutorService pool;
+  private final ReachedSetScheduler pool;
 
   private final BAMCPAWithBreakOnMissingBlock bamcpa;
   private final AlgorithmFactory algorithmFactory;
@@ -140,7 +140,7 @@ class ReachedSetExecutor {
       Block pBlock,
       boolean pIsMainReachedSet,
       ConcurrentMap<ReachedSet, ReachedSetExecutor> pReachedSetMapping,
-      ExecutorService pPool,
+      ReachedSetScheduler pPool,
       AlgorithmFactory pAlgorithmFactory,
       ShutdownNotifier pShutdownNotifier,
       ParallelBAMStatistics pStats,
@@ -170,7 +170,7 @@ class ReachedSetExecutor {
     addingStatesTimer = stats.addingStatesTime.getNewTimer();
     terminationCheckTimer = stats.terminationCheckTime.getNewTimer();
 
-    waitingTask = CompletableFuture.runAsync(NOOP, pool); // initialization
+    waitingTask = CompletableFuture.runAsync(NOOP, pool.getExecutor(0)); // initialization
   }
 
   public Runnable asRunnable() {
@@ -183,8 +183,23 @@ class ReachedSetExecutor {
     return () -> apply(copy);
   }
 
-  synchronized void addNewTask(Runnable r) {
-    waitingTask = waitingTask.thenRunAsync(r, pool).exceptionally(new ExceptionHandler(this));
+  void addNewTask(Runnable r) {
+    // The priority is read before locking this RSE, because the executor might be called
+    // synchronously within 'thenRunAsync'. Thus no lock of 'dependingFrom' is acquired while
+    // holding the lock of an RSE, which would invert the lock order used when calling this method
+    // from 'reAddStatesToDependingReachedSets'.
+    Executor executor = pool.getExecutor(getNumberOfWaitingParents());
+    synchronized (this) {
+      waitingTask =
+          waitingTask.thenRunAsync(r, executor).exceptionally(new ExceptionHandler(this));
+    }
+  }
+
+  /** Returns the number of RSEs that wait for the result of this RSE. */
+  int getNumberOfWaitingParents() {
+    synchronized (dependingFrom) {
+      return dependingFrom.keySet().size();
+    }
   }
 
   /** use only for debugging and exception handling */
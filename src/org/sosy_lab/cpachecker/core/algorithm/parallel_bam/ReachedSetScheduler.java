@@ -0,0 +1,182 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.parallel_bam;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.sosy_lab.cpachecker.core.algorithm.parallel_bam.ParallelBAMAlgorithm.ParallelBAMStatistics;
+
+/**
+ * The scheduler executes the tasks of all {@link ReachedSetExecutor}s in a pool of worker threads.
+ * The order of the tasks depends on the {@link SchedulingStrategy}. The dependencies between the
+ * reached-sets are handled by the {@link ReachedSetExecutor}s themselves, the scheduler only
+ * decides which of the runnable tasks is executed next.
+ *
+ * <p>The scheduler also measures the busy time of each worker thread.
+ */
+class ReachedSetScheduler {
+
+  enum SchedulingStrategy {
+    /** a shared FIFO queue for all threads. */
+    FIFO,
+    /** a work-stealing pool with thread-local queues, idle threads steal tasks from others. */
+    WORK_STEALING,
+    /**
+     * a shared priority queue, tasks of reached-sets with many waiting callers are executed first,
+     * because finishing them unblocks the most other reached-sets.
+     */
+    PRIORITY,
+  }
+
+  private static final String THREAD_NAME = "BAM-worker-";
+
+  private final SchedulingStrategy strategy;
+  private final ExecutorService pool;
+  private final ParallelBAMStatistics stats;
+
+  /** sequence number for FIFO order of tasks with the same priority. */
+  private final AtomicLong taskCounter = new AtomicLong();
+
+  ReachedSetScheduler(
+      SchedulingStrategy pStrategy, int pNumberOfThreads, ParallelBAMStatistics pStats) {
+    strategy = pStrategy;
+    stats = pStats;
+    switch (strategy) {
+      case FIFO:
+        pool =
+            Executors.newFixedThreadPool(
+                pNumberOfThreads,
+                new ThreadFactoryBuilder().setNameFormat(THREAD_NAME + "%d").build());
+        break;
+      case WORK_STEALING:
+        pool =
+            new ForkJoinPool(
+                pNumberOfThreads,
+                forkJoinPool -> {
+                  ForkJoinWorkerThread thread =
+                      ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                  thread.setName(THREAD_NAME + thread.getPoolIndex());
+                  return thread;
+                },
+                null,
+                true); // asyncMode: FIFO order for local tasks that are never joined
+        break;
+      case PRIORITY:
+        pool =
+            new ThreadPoolExecutor(
+                pNumberOfThreads,
+                pNumberOfThreads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat(THREAD_NAME + "%d").build());
+        break;
+      default:
+        throw new AssertionError("unhandled scheduling strategy: " + strategy);
+    }
+  }
+
+  /**
+   * Returns an executor for tasks with the given priority, e.g. the number of reached-sets waiting
+   * for the result of the task. The priority is only used by {@link SchedulingStrategy#PRIORITY}.
+   */
+  Executor getExecutor(int pPriority) {
+    return task -> {
+      Runnable measuredTask = () -> runAndMeasure(task);
+      if (strategy == SchedulingStrategy.PRIORITY) {
+        pool.execute(new PrioritizedTask(measuredTask, pPriority, taskCounter.incrementAndGet()));
+      } else {
+        pool.execute(measuredTask);
+      }
+    };
+  }
+
+  private void runAndMeasure(Runnable pTask) {
+    long start = System.nanoTime();
+    try {
+      pTask.run();
+    } finally {
+      stats
+          .busyTimePerThread
+          .computeIfAbsent(Thread.currentThread().getName(), k -> new LongAdder())
+          .add(System.nanoTime() - start);
+    }
+  }
+
+  /** Stop accepting new tasks, already scheduled tasks are executed. */
+  void shutdown() {
+    pool.shutdown();
+  }
+
+  /** Stop accepting new tasks and try to abort running tasks. */
+  void shutdownNow() {
+    pool.shutdownNow();
+  }
+
+  boolean awaitTermination(long pTimeout, TimeUnit pUnit) throws InterruptedException {
+    return pool.awaitTermination(pTimeout, pUnit);
+  }
+
+  boolean isTerminated() {
+    return pool.isTerminated();
+  }
+
+  /**
+   * A task with a priority. The priority is fixed when scheduling the task, such that the ordering
+   * in the queue remains consistent.
+   */
+  private static class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+
+    private final Runnable task;
+    private final int priority;
+    private final long sequenceNumber;
+
+    PrioritizedTask(Runnable pTask, int pPriority, long pSequenceNumber) {
+      task = pTask;
+      priority = pPriority;
+      sequenceNumber = pSequenceNumber;
+    }
+
+    @Override
+    public void run() {
+      task.run();
+    }
+
+    @Override
+    public int compareTo(PrioritizedTask other) {
+      // higher priority first, then FIFO
+      int result = Integer.compare(other.priority, priority);
+      return result != 0 ? result : Long.compare(sequenceNumber, other.sequenceNumber);
+    }
+  }
+}
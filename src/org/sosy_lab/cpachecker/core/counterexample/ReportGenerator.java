@@ -24,6 +24,7 @@
 package org.sosy_lab.cpachecker.core.counterexample;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.FluentIterable.from;
 import static com.google.common.html.HtmlEscapers.htmlEscaper;
 import static java.nio.file.Files.isReadable;
@@ -35,26 +36,37 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import com.google.common.io.Resources;
+import com.google.common.util.concurrent.Uninterruptibles;
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.logging.Level;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.JSON;
+import org.sosy_lab.common.Concurrency;
 import org.sosy_lab.common.Optionals;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
@@ -64,6 +76,7 @@ import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.io.IO;
 import org.sosy_lab.common.io.PathTemplate;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.export.DOTBuilder2;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
@@ -72,6 +85,7 @@ import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
 import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
 import org.sosy_lab.cpachecker.core.CPAchecker;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.util.AbstractStates;
@@ -110,10 +124,28 @@ public class ReportGenerator {
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private PathTemplate counterExampleFiles = PathTemplate.ofFormatString("Counterexample.%d.html");
 
+  @Option(
+    secure = true,
+    name = "report.argNodeBudget",
+    description =
+        "Maximum number of ARG states that are included in the report (-1 for no limit). "
+            + "States are taken in the order of the reached set, "
+            + "i.e., the report shows the beginning of the state space.")
+  private int argNodeBudget = -1;
+
+  @Option(
+    secure = true,
+    name = "report.argChunkSize",
+    description =
+        "If positive, the ARG data is not included in the report itself "
+            + "but written to separate files next to the report "
+            + "with at most this many nodes or edges each, "
+            + "which are loaded by the report when the ARG tab is opened. "
+            + "This keeps the report file small for large ARGs.")
+  private int argChunkSize = 0;
+
   private final @Nullable Path logFile;
   private final ImmutableList<String> sourceFiles;
-  private final Map<Integer, Object> argNodes;
-  private final Map<String, Object> argEdges;
 
   public ReportGenerator(
       Configuration pConfig,
@@ -126,8 +158,6 @@ public class ReportGenerator {
     logFile = pLogFile;
     config.inject(this);
     sourceFiles = pSourceFiles;
-    argNodes = new HashMap<>();
-    argEdges = new HashMap<>();
   }
 
   public void generate(CFA pCfa, UnmodifiableReachedSet pReached, String pStatistics) {
@@ -149,37 +179,88 @@ public class ReportGenerator {
       return;
     }
 
-    buildArgGraphData(pReached);
-    DOTBuilder2 dotBuilder = new DOTBuilder2(pCfa);
-    PrintStream console = System.out;
-    if (counterExamples.isEmpty()) {
-      if (reportFile != null) {
-        fillOutTemplate(null, reportFile, pCfa, dotBuilder, pStatistics);
-        console.println("Graphical representation included in the file \"" + reportFile + "\".");
-      }
+    Timer timer = new Timer();
+    timer.start();
+    HeapUsageSampler heapUsage = new HeapUsageSampler();
+    Thread heapUsageThread = Concurrency.newDaemonThread("Report memory sampler", heapUsage);
+    heapUsageThread.start();
 
-    } else {
-      for (CounterexampleInfo counterExample : counterExamples) {
-        fillOutTemplate(
-            counterExample,
-            counterExampleFiles.getPath(counterExample.getUniqueId()),
-            pCfa,
-            dotBuilder,
-            pStatistics);
+    try {
+      Collection<ARGState> argStates = collectArgStates(pReached);
+      DOTBuilder2 dotBuilder = new DOTBuilder2(pCfa);
+      PrintStream console = System.out;
+      if (counterExamples.isEmpty()) {
+        if (reportFile != null) {
+          fillOutTemplate(null, reportFile, pCfa, dotBuilder, argStates, pStatistics);
+          console.println("Graphical representation included in the file \"" + reportFile + "\".");
+        }
+
+      } else {
+        for (CounterexampleInfo counterExample : counterExamples) {
+          fillOutTemplate(
+              counterExample,
+              counterExampleFiles.getPath(counterExample.getUniqueId()),
+              pCfa,
+              dotBuilder,
+              argStates,
+              pStatistics);
+        }
+
+        StringBuilder counterExFiles = new StringBuilder();
+        counterExFiles.append("Graphical representation included in the file");
+        if (counterExamples.size() > 1) {
+          counterExFiles.append('s');
+        }
+        counterExFiles.append(" \"");
+        Joiner.on("\", \"")
+            .appendTo(
+                counterExFiles,
+                counterExamples.transform(cex -> counterExampleFiles.getPath(cex.getUniqueId())));
+        counterExFiles.append("\".");
+        console.println(counterExFiles.toString());
       }
+    } finally {
+      heapUsageThread.interrupt();
+      Uninterruptibles.joinUninterruptibly(heapUsageThread);
+    }
 
-      StringBuilder counterExFiles = new StringBuilder();
-      counterExFiles.append("Graphical representation included in the file");
-      if (counterExamples.size() > 1) {
-        counterExFiles.append('s');
+    timer.stop();
+    logger.logf(
+        Level.INFO,
+        "Report generation took %s and increased the used heap memory by at most %d MB.",
+        timer,
+        heapUsage.getMaxIncrease() >> 20);
+  }
+
+  /**
+   * Samples the used heap memory while the report is generated, relative to the usage at the
+   * start. The peak usage of the memory pools is not suitable for this, because resetting it
+   * affects all other users in the JVM, and the peaks of different pools may happen at different
+   * times.
+   */
+  private static class HeapUsageSampler implements Runnable {
+
+    private static final long SAMPLING_INTERVAL = 10; // milliseconds
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final long initialUsage = memory.getHeapMemoryUsage().getUsed();
+    private volatile long maxUsage = initialUsage;
+
+    @Override
+    public void run() {
+      while (true) { // no stop condition, call Thread#interrupt() to stop it
+        maxUsage = Math.max(maxUsage, memory.getHeapMemoryUsage().getUsed());
+        try {
+          Thread.sleep(SAMPLING_INTERVAL);
+        } catch (InterruptedException e) {
+          return;
+        }
       }
-      counterExFiles.append(" \"");
-      Joiner.on("\", \"")
-          .appendTo(
-              counterExFiles,
-              counterExamples.transform(cex -> counterExampleFiles.getPath(cex.getUniqueId())));
-      counterExFiles.append("\".");
-      console.println(counterExFiles.toString());
+    }
+
+    /** May only be called after the sampling thread has terminated. */
+    long getMaxIncrease() {
+      return Math.max(0, maxUsage - initialUsage);
     }
   }
 
@@ -188,6 +269,7 @@ public class ReportGenerator {
       Path reportPath,
       CFA cfa,
       DOTBuilder2 dotBuilder,
+      Collection<ARGState> argStates,
       String statistics) {
 
     try (
@@ -203,7 +285,7 @@ public class ReportGenerator {
         } else if (line.contains("REPORT_CSS")) {
           insertCss(writer);
         } else if (line.contains("REPORT_JS")) {
-          insertJs(writer, cfa, dotBuilder, counterExample);
+          insertJs(writer, cfa, dotBuilder, argStates, reportPath, counterExample);
         } else if (line.contains("STATISTICS")) {
           insertStatistics(writer, statistics);
         } else if (line.contains("SOURCE_CONTENT")) {
@@ -232,17 +314,22 @@ public class ReportGenerator {
       Writer writer,
       CFA cfa,
       DOTBuilder2 dotBuilder,
+      Collection<ARGState> argStates,
+      Path reportPath,
       @Nullable CounterexampleInfo counterExample)
       throws IOException {
     try (BufferedReader reader =
         Resources.asCharSource(Resources.getResource(getClass(), JS_TEMPLATE), Charsets.UTF_8)
             .openBufferedStream();) {
+      List<String> argChunkFiles = ImmutableList.of();
       String line;
       while (null != (line = reader.readLine())) {
         if (line.contains("CFA_JSON_INPUT")) {
           insertCfaJson(writer, cfa, dotBuilder, counterExample);
         } else if (line.contains("ARG_JSON_INPUT")) {
-          insertArgJson(writer);
+          argChunkFiles = insertArgJson(writer, argStates, reportPath);
+        } else if (line.contains("ARG_CHUNK_FILES")) {
+          insertArgChunkFileNames(writer, argChunkFiles);
         } else if (line.contains("SOURCE_FILES")) {
           insertSourceFileNames(writer);
         } else {
@@ -279,20 +366,53 @@ public class ReportGenerator {
     }
   }
 
-  private void insertArgJson(Writer writer) {
+  /**
+   * Write the ARG data either directly into the report or, if {@link #argChunkSize} is set, into
+   * separate files next to the report.
+   *
+   * @return the names of the files that were written and need to be loaded by the report
+   */
+  private List<String> insertArgJson(
+      Writer writer, Collection<ARGState> argStates, Path reportPath) {
+    List<String> chunkFiles = new ArrayList<>();
     try {
       writer.write("var argJson = {");
-      if (!argNodes.isEmpty() && !argEdges.isEmpty()) {
-        writer.write("\n\"nodes\":");
-        JSON.writeJSONString(argNodes.values(), writer);
-        writer.write(",\n\"edges\":");
-        JSON.writeJSONString(argEdges.values(), writer);
-        writer.write("\n");
+      if (!argStates.isEmpty()) {
+        if (argChunkSize > 0) {
+          writer.write("\"nodes\":[],\"edges\":[]");
+          try (ChunkedJsonArrayWriter chunks =
+              new ChunkedJsonArrayWriter(reportPath, chunkFiles)) {
+            chunks.startArray("nodes");
+            writeArgNodes(argStates, chunks);
+            chunks.startArray("edges");
+            writeArgEdges(argStates, chunks);
+          }
+        } else {
+          writer.write("\n\"nodes\":[");
+          writeArgNodes(argStates, new InlineJsonArrayWriter(writer));
+          writer.write("],\n\"edges\":[");
+          writeArgEdges(argStates, new InlineJsonArrayWriter(writer));
+          writer.write("]\n");
+        }
       }
       writer.write("}\n");
     } catch (IOException e) {
       logger.logUserException(WARNING, e, "Could not create report: Inserting ARG Json failed.");
     }
+    return chunkFiles;
+  }
+
+  private void insertArgChunkFileNames(Writer writer, List<String> argChunkFiles) {
+    try {
+      writer.write("var argChunkFiles = ");
+      JSON.writeJSONString(argChunkFiles, writer);
+      writer.write(";\n");
+    } catch (IOException e) {
+      logger.logUserException(
+          WARNING,
+          e,
+          "Could not create report: Insertion of ARG data file names failed.");
+    }
   }
 
   private void insertCss(Writer writer) throws IOException {
@@ -605,40 +725,77 @@ public class ReportGenerator {
     }
   }
 
-  // Build ARG data only if the reached states are ARGStates
-  private void buildArgGraphData(UnmodifiableReachedSet reached) {
-    if (reached.getFirstState() instanceof ARGState) {
-      reached.asCollection().forEach(entry -> {
-        int parentStateId = ((ARGState) entry).getStateId();
-        for (CFANode node : AbstractStates.extractLocations(entry)) {
-          if (!argNodes.containsKey(parentStateId)) {
-            createArgNode(parentStateId, node, (ARGState) entry);
-          }
-          if (!((ARGState) entry).getChildren().isEmpty()) {
-            for (ARGState child : ((ARGState) entry).getChildren()) {
-              int childStateId = child.getStateId();
-              // Covered state is not contained in the reached set
-              if (child.isCovered()) {
-                String label =
-                    child.toDOTLabel().length() > 2
-                        ? child.toDOTLabel().substring(0, child.toDOTLabel().length() - 2)
-                        : "";
-                createCoveredArgNode(childStateId, child, label);
-                createCoveredArgEdge(childStateId, child.getCoveringState().getStateId());
-              }
-              createArgEdge(parentStateId, childStateId, ((ARGState) entry).getEdgesToChild(child));
-            }
-          }
+  // Export ARG data only if the reached states are ARGStates
+  private Collection<ARGState> collectArgStates(UnmodifiableReachedSet reached) {
+    if (!(reached.getFirstState() instanceof ARGState)
+        || ((ARGState) reached.getFirstState()).getChildren().isEmpty()) {
+      return ImmutableSet.of();
+    }
+    Set<ARGState> argStates = new LinkedHashSet<>();
+    for (AbstractState state : reached) {
+      if (isArgNodeBudgetExhausted(argStates)) {
+        logger.logf(
+            Level.INFO,
+            "Report contains only %d of the %d ARG states because of the limit given by option"
+                + " report.argNodeBudget.",
+            argStates.size(),
+            reached.size());
+        break;
+      }
+      ARGState argState = (ARGState) state;
+      if (Iterables.isEmpty(AbstractStates.extractLocations(argState))) {
+        continue;
+      }
+      argStates.add(argState);
+      // Covered state is not contained in the reached set
+      for (ARGState child : argState.getChildren()) {
+        if (child.isCovered() && !isArgNodeBudgetExhausted(argStates)) {
+          argStates.add(child);
         }
-      });
+      }
     }
+    return argStates;
   }
 
-  private void createArgNode(int parentStateId, CFANode node, ARGState argState) {
-    String dotLabel =
-        argState.toDOTLabel().length() > 2
-            ? argState.toDOTLabel().substring(0, argState.toDOTLabel().length() - 2)
-            : "";
+  private boolean isArgNodeBudgetExhausted(Set<ARGState> argStates) {
+    return argNodeBudget >= 0 && argStates.size() >= argNodeBudget;
+  }
+
+  private void writeArgNodes(Collection<ARGState> argStates, JsonArrayWriter out)
+      throws IOException {
+    for (ARGState argState : argStates) {
+      CFANode node = AbstractStates.extractLocations(argState).iterator().next();
+      String dotLabel =
+          argState.toDOTLabel().length() > 2
+              ? argState.toDOTLabel().substring(0, argState.toDOTLabel().length() - 2)
+              : "";
+      if (argState.isCovered()) {
+        out.writeEntry(createCoveredArgNode(argState.getStateId(), node, dotLabel));
+      } else {
+        out.writeEntry(createArgNode(argState.getStateId(), node, argState, dotLabel));
+      }
+    }
+  }
+
+  private void writeArgEdges(Collection<ARGState> argStates, JsonArrayWriter out)
+      throws IOException {
+    for (ARGState argState : argStates) {
+      int parentStateId = argState.getStateId();
+      for (ARGState child : argState.getChildren()) {
+        if (argStates.contains(child)) {
+          out.writeEntry(
+              createArgEdge(parentStateId, child.getStateId(), argState.getEdgesToChild(child)));
+        }
+      }
+      if (argState.isCovered() && argStates.contains(argState.getCoveringState())) {
+        out.writeEntry(
+            createCoveredArgEdge(parentStateId, argState.getCoveringState().getStateId()));
+      }
+    }
+  }
+
+  private Map<String, Object> createArgNode(
+      int parentStateId, CFANode node, ARGState argState, String dotLabel) {
     Map<String, Object> argNode = new HashMap<>();
     argNode.put("index", parentStateId);
     argNode.put("func", node.getFunctionName());
@@ -653,7 +810,7 @@ public class ReportGenerator {
             + "\n"
             + dotLabel);
     argNode.put("type", determineNodeType(argState));
-    argNodes.put(parentStateId, argNode);
+    return argNode;
   }
 
   private String determineNodeType(ARGState argState) {
@@ -669,37 +826,35 @@ public class ReportGenerator {
     return "";
   }
 
-  private void createCoveredArgNode(int childStateId, ARGState child, String dotLabel) {
+  private Map<String, Object> createCoveredArgNode(
+      int childStateId, CFANode coveredNode, String dotLabel) {
     Map<String, Object> nodeData = new HashMap<>();
-    for (CFANode coveredNode : AbstractStates.extractLocations(child)) {
-      if (!argNodes.containsKey(childStateId)) {
-        nodeData.put("index", childStateId);
-        nodeData.put("func", coveredNode.getFunctionName());
-        nodeData.put(
-            "label",
-            childStateId
-                + " @ "
-                + coveredNode.toString()
-                + "\n"
-                + coveredNode.getFunctionName()
-                + nodeTypeInNodeLabel(coveredNode)
-                + dotLabel);
-        nodeData.put("type", "covered");
-        argNodes.put(childStateId, nodeData);
-      }
-    }
+    nodeData.put("index", childStateId);
+    nodeData.put("func", coveredNode.getFunctionName());
+    nodeData.put(
+        "label",
+        childStateId
+            + " @ "
+            + coveredNode.toString()
+            + "\n"
+            + coveredNode.getFunctionName()
+            + nodeTypeInNodeLabel(coveredNode)
+            + dotLabel);
+    nodeData.put("type", "covered");
+    return nodeData;
   }
 
-  private void createCoveredArgEdge(int parentStateId, int coveringStateId) {
+  private Map<String, Object> createCoveredArgEdge(int parentStateId, int coveringStateId) {
     Map<String, Object> coveredEdge = new HashMap<>();
     coveredEdge.put("source", parentStateId);
     coveredEdge.put("target", coveringStateId);
     coveredEdge.put("label", "covered by");
     coveredEdge.put("type", "covered");
-    argEdges.put("" + coveringStateId + "->" + parentStateId, coveredEdge);
+    return coveredEdge;
   }
 
-  private void createArgEdge(int parentStateId, int childStateId, List<CFAEdge> edges) {
+  private Map<String, Object> createArgEdge(
+      int parentStateId, int childStateId, List<CFAEdge> edges) {
     Map<String, Object> argEdge = new HashMap<>();
     argEdge.put("source", parentStateId);
     argEdge.put("target", childStateId);
@@ -739,7 +894,7 @@ public class ReportGenerator {
       argEdge.put("file", edges.get(0).getFileLocation().getFileName());
     }
     argEdge.put("label", edgeLabel.toString());
-    argEdges.put("" + parentStateId + "->" + childStateId, argEdge);
+    return argEdge;
   }
 
   // Add the node type (if it is entry or exit) to the node label
@@ -760,4 +915,85 @@ public class ReportGenerator {
         .replaceAll("\\s+", " ")
         .replaceAll(" ;", ";");
   }
+
+  /** Receives the entries of a JSON array one by one. */
+  private interface JsonArrayWriter {
+    void writeEntry(Map<String, Object> entry) throws IOException;
+  }
+
+  /** Writes the entries of a JSON array directly into the report. */
+  private static class InlineJsonArrayWriter implements JsonArrayWriter {
+    private final Writer out;
+    private boolean first = true;
+
+    InlineJsonArrayWriter(Writer pOut) {
+      out = pOut;
+    }
+
+    @Override
+    public void writeEntry(Map<String, Object> entry) throws IOException {
+      if (!first) {
+        out.write(",\n");
+      }
+      first = false;
+      JSON.writeJSONString(entry, out);
+    }
+  }
+
+  /**
+   * Writes the entries of JSON arrays into script files next to the report with at most {@link
+   * #argChunkSize} entries each. Every file passes its entries to the function argJsonChunk of
+   * report.js.
+   */
+  private class ChunkedJsonArrayWriter implements JsonArrayWriter, Closeable {
+    private final Path reportPath;
+    private final List<String> chunkFiles;
+    private @Nullable String arrayName;
+    private @Nullable Writer out;
+    private int entriesInChunk;
+
+    ChunkedJsonArrayWriter(Path pReportPath, List<String> pChunkFiles) {
+      reportPath = pReportPath;
+      chunkFiles = pChunkFiles;
+    }
+
+    void startArray(String pArrayName) throws IOException {
+      closeChunk();
+      arrayName = pArrayName;
+    }
+
+    @Override
+    public void writeEntry(Map<String, Object> entry) throws IOException {
+      checkState(arrayName != null);
+      if (out == null || entriesInChunk >= argChunkSize) {
+        closeChunk();
+        String chunkFileName = reportPath.getFileName() + ".arg." + chunkFiles.size() + ".js";
+        Path chunkFile = reportPath.resolveSibling(chunkFileName);
+        out = IO.openOutputFile(chunkFile, Charsets.UTF_8);
+        chunkFiles.add(chunkFileName);
+        out.write("argJsonChunk(\"" + arrayName + "\", [\n");
+        entriesInChunk = 0;
+      } else {
+        out.write(",\n");
+      }
+      JSON.writeJSONString(entry, out);
+      entriesInChunk++;
+    }
+
+    private void closeChunk() throws IOException {
+      if (out != null) {
+        try {
+          out.write("\n]);\n");
+        } finally {
+          out.close();
+          out = null;
+        }
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      closeChunk();
+    }
+  }
 }
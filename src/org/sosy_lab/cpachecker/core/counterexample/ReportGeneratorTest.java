@@ -0,0 +1,240 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.counterexample;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.TreeMultimap;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.Language;
+import org.sosy_lab.cpachecker.cfa.MutableCFA;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CFunctionType;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.core.AnalysisDirection;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.location.LocationStateFactory;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class ReportGeneratorTest {
+
+  private static final FileLocation LOCATION = new FileLocation("program.c", 0, 10, 1, 1);
+
+  /** Number of nodes (and thus ARG states) of the CFA of {@link #createCFA()}. */
+  private static final int NODES = 5;
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Path reportFile;
+  private CFA cfa;
+  private ReachedSet reached;
+
+  @Before
+  public void setUp() throws Exception {
+    reportFile = tempFolder.getRoot().toPath().resolve("Report.html");
+    cfa = createCFA();
+
+    Configuration config = TestDataTools.configurationForTest().build();
+    LocationStateFactory locations =
+        new LocationStateFactory(cfa, AnalysisDirection.FORWARD, config);
+    reached = new ReachedSetFactory(config, LogManager.createTestLogManager()).create();
+    ARGState parent = null;
+    for (CFANode node = cfa.getMainFunction(); ; node = node.getLeavingEdge(0).getSuccessor()) {
+      ARGState state = new ARGState(locations.getState(node), parent);
+      reached.add(state, SingletonPrecision.getInstance());
+      parent = state;
+      if (node.getNumLeavingEdges() == 0) {
+        break;
+      }
+    }
+  }
+
+  private String generateReport(String... pOptions) throws Exception {
+    ConfigurationBuilder builder =
+        TestDataTools.configurationForTest().setOption("report.file", reportFile.toString());
+    for (int i = 0; i < pOptions.length; i += 2) {
+      builder.setOption(pOptions[i], pOptions[i + 1]);
+    }
+    new ReportGenerator(
+            builder.build(),
+            LogManager.createTestLogManager(),
+            null,
+            ImmutableList.of("program.c"))
+        .generate(cfa, reached, "");
+    assertThat(Files.exists(reportFile)).isTrue();
+    return new String(Files.readAllBytes(reportFile), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testArgInReport() throws Exception {
+    String report = generateReport();
+    String argJson = getArgJson(report);
+    assertThat(count("\"index\":", argJson)).isEqualTo(NODES);
+    assertThat(count("\"source\":", argJson)).isEqualTo(NODES - 1);
+    assertThat(getArgChunkFiles(report)).isEmpty();
+  }
+
+  @Test
+  public void testArgNodeBudget() throws Exception {
+    String argJson = getArgJson(generateReport("report.argNodeBudget", "3"));
+    // only edges between the included states are part of the report
+    assertThat(count("\"index\":", argJson)).isEqualTo(3);
+    assertThat(count("\"source\":", argJson)).isEqualTo(2);
+  }
+
+  @Test
+  public void testArgChunks() throws Exception {
+    String report = generateReport("report.argChunkSize", "2");
+    assertThat(count("\"index\":", getArgJson(report))).isEqualTo(0);
+
+    // nodes and edges are written to separate files with at most 2 entries each
+    List<String> chunkFiles = getArgChunkFiles(report);
+    assertThat(chunkFiles)
+        .containsExactly(
+            "Report.html.arg.0.js",
+            "Report.html.arg.1.js",
+            "Report.html.arg.2.js",
+            "Report.html.arg.3.js",
+            "Report.html.arg.4.js")
+        .inOrder();
+    int nodes = 0;
+    int edges = 0;
+    for (String chunkFile : chunkFiles) {
+      String chunk =
+          new String(
+              Files.readAllBytes(reportFile.resolveSibling(chunkFile)), StandardCharsets.UTF_8);
+      assertThat(chunk).startsWith("argJsonChunk(\"");
+      assertThat(chunk).endsWith("]);\n");
+      int entries = count("\"index\":", chunk) + count("\"source\":", chunk);
+      assertThat(entries).isAtMost(2);
+      if (chunk.startsWith("argJsonChunk(\"nodes\"")) {
+        assertThat(edges).isEqualTo(0);
+        nodes += entries;
+      } else {
+        assertThat(chunk).startsWith("argJsonChunk(\"edges\"");
+        edges += entries;
+      }
+    }
+    assertThat(nodes).isEqualTo(NODES);
+    assertThat(edges).isEqualTo(NODES - 1);
+  }
+
+  @Test
+  public void testArgChunksWithBudget() throws Exception {
+    String report = generateReport("report.argChunkSize", "2", "report.argNodeBudget", "3");
+    // 3 nodes and 2 edges
+    assertThat(getArgChunkFiles(report)).hasSize(3);
+  }
+
+  private static String getArgJson(String report) {
+    int start = report.indexOf("var argJson = {");
+    int end = report.indexOf("var argChunkFiles = ");
+    assertThat(start).isAtLeast(0);
+    assertThat(end).isGreaterThan(start);
+    return report.substring(start, end);
+  }
+
+  private static List<String> getArgChunkFiles(String report) {
+    Matcher matcher = Pattern.compile("var argChunkFiles = \\[(.*)\\];").matcher(report);
+    assertThat(matcher.find()).isTrue();
+    List<String> files = new ArrayList<>();
+    Matcher fileMatcher = Pattern.compile("\"([^\"]*)\"").matcher(matcher.group(1));
+    while (fileMatcher.find()) {
+      files.add(fileMatcher.group(1));
+    }
+    return files;
+  }
+
+  private static int count(String pattern, String text) {
+    int count = 0;
+    for (int i = text.indexOf(pattern); i >= 0; i = text.indexOf(pattern, i + 1)) {
+      count++;
+    }
+    return count;
+  }
+
+  /** Create the CFA of a function main with a sequence of {@link #NODES} nodes. */
+  private static CFA createCFA() {
+    CFunctionDeclaration main =
+        new CFunctionDeclaration(
+            LOCATION,
+            CFunctionType.functionTypeWithReturnType(CNumericTypes.INT),
+            "main",
+            ImmutableList.of());
+    FunctionExitNode mainExit = new FunctionExitNode("main");
+    CFunctionEntryNode mainEntry =
+        new CFunctionEntryNode(LOCATION, main, mainExit, com.google.common.base.Optional.absent());
+    mainExit.setEntryNode(mainEntry);
+
+    List<CFANode> nodes = new ArrayList<>();
+    nodes.add(mainEntry);
+    for (int i = 2; i < NODES; i++) {
+      nodes.add(new CFANode("main"));
+    }
+    nodes.add(mainExit);
+    for (int i = 1; i < nodes.size(); i++) {
+      CFAEdge edge = new BlankEdge("", LOCATION, nodes.get(i - 1), nodes.get(i), "skip");
+      edge.getPredecessor().addLeavingEdge(edge);
+      edge.getSuccessor().addEnteringEdge(edge);
+    }
+
+    TreeMultimap<String, CFANode> allNodes = TreeMultimap.create();
+    allNodes.putAll("main", nodes);
+    return new MutableCFA(
+        MachineModel.LINUX64,
+        new TreeMap<>(ImmutableMap.of("main", mainEntry)),
+        allNodes,
+        mainEntry,
+        ImmutableList.of(Paths.get("program.c")),
+        Language.C);
+  }
+}
@@ -207,6 +207,9 @@ with considerably less effort */
 					d3.selectAll(".cfa-graph").style("visibility", "visible");
 				} else if (tabIndex === 2) {
 					if (argTabDisabled) return;
+					if (startArgRendering !== undefined) {
+						startArgRendering();
+					}
 					if (d3.select("#cfa-toolbar").style("visibility") !== "hidden") {
 						d3.select("#cfa-toolbar").style("visibility", "hidden");
 						d3.selectAll(".cfa-graph").style("visibility", "hidden");
@@ -225,7 +228,7 @@ with considerably less effort */
 						}
 					} else {
 						d3.selectAll(".arg-graph").style("visibility", "visible");
-						if ($("#arg-container").scrollTop() === 0) {
+						if ($("#arg-container").scrollTop() === 0 && !d3.select(".arg-node").empty()) {
 							var boundingRect = d3.select(".arg-node").node().getBoundingClientRect();
 							$("#arg-container").scrollTop(boundingRect.top + $("#arg-container").scrollTop() - 300).scrollLeft(boundingRect.left + $("#arg-container").scrollLeft() - 500);
 						}
@@ -836,6 +839,43 @@ with considerably less effort */
 })();
 
 var argJson = {}; //ARG_JSON_INPUT
+var argChunkFiles = []; //ARG_CHUNK_FILES
+
+/**
+ * Called by the ARG data files that are written next to the report for large ARGs
+ * (option report.argChunkSize). Appends the given entries to argJson.
+ */
+function argJsonChunk(name, entries) {
+	for (var i = 0; i < entries.length; i++) {
+		argJson[name].push(entries[i]);
+	}
+}
+
+/**
+ * Load the ARG data files one after another and call the given function afterwards.
+ * If a file cannot be loaded, the ARG tab is disabled instead of showing an incomplete ARG.
+ */
+function loadArgChunks(callback) {
+	if (argChunkFiles.length === 0) {
+		callback();
+		return;
+	}
+	var script = document.createElement("script");
+	script.src = argChunkFiles.shift();
+	script.onload = function () {
+		loadArgChunks(callback);
+	};
+	script.onerror = function () {
+		alert("Could not load ARG data from " + script.src);
+		argJson = {};
+		argChunkFiles = [];
+		$("#set-tab-2").parent().addClass("disabled");
+		argTabDisabled = true;
+		$("#renderStateModal").hide();
+		$('.modal-backdrop').hide();
+	};
+	document.head.appendChild(script);
+}
 
 var sourceFiles = []; //SOURCE_FILES
 var cfaJson = {}; //CFA_JSON_INPUT
@@ -854,7 +894,10 @@ var render = new dagreD3.render();
 const margin = 20;
 var cfaWorker, argWorker;
 var cfaSplit = false,
+	cfaRendered = false,
 	argTabDisabled = false;
+// Loads the ARG data files (if any) and starts rendering the ARG, set up by init()
+var startArgRendering;
 
 function init() {
 
@@ -1721,12 +1764,6 @@ function init() {
 	cfaWorker = new Worker(URL.createObjectURL(new Blob(["(" + cfaWorker_function + ")()"], {
 		type: 'text/javascript'
 	})));
-	if (argJson.nodes) {
-		argWorker = new Worker(URL.createObjectURL(new Blob(["(" + argWorker_function + ")()"], {
-			type: "text/javascript"
-		})));
-	}
-
 	cfaWorker.addEventListener("message", function (m) {
 		if (m.data.graph !== undefined) {
 			// id was already processed
@@ -1759,11 +1796,12 @@ function init() {
 				d3.select(this).attr("width", Math.max(d3.select(this).attr("width"), d3.select(this.parentNode).style("width").split("px")[0]));
 			});
 			d3.selectAll(".cfa-graph").style("visibility", "visible");
+			cfaRendered = true;
 			if (cfaSplit) {
 				$("#renderStateModal").hide();
 				$('.modal-backdrop').hide();
 			} else {
-				if (!argTabDisabled) {
+				if (argWorker !== undefined) {
 					argWorker.postMessage({
 						"renderer": "ready"
 					});
@@ -1784,8 +1822,14 @@ function init() {
 		"json": JSON.stringify(cfaJson)
 	});
 
-	// ONLY if ARG data is available
-	if (argJson.nodes) {
+	/**
+	 * Create the ARG worker and hand the ARG data to it. The graphs are rendered once the
+	 * CFA worker is done, or right away if that has already happened.
+	 */
+	function startArgWorker() {
+		argWorker = new Worker(URL.createObjectURL(new Blob(["(" + argWorker_function + ")()"], {
+			type: "text/javascript"
+		})));
 		argWorker.addEventListener('message', function (m) {
 			if (m.data.graph !== undefined) {
 				var id = "arg-graph" + m.data.id;
@@ -1857,6 +1901,28 @@ function init() {
 		argWorker.postMessage({
 			"json": JSON.stringify(argJson)
 		});
+		if (cfaRendered) {
+			argWorker.postMessage({
+				"renderer": "ready"
+			});
+		}
+	}
+
+	// ONLY if ARG data is available
+	if (argJson.nodes) {
+		if (argChunkFiles.length === 0) {
+			startArgWorker();
+		} else {
+			// The ARG data is written to separate files, load them only when the ARG tab is opened
+			startArgRendering = function () {
+				startArgRendering = undefined;
+				$("#renderStateModal").modal("show");
+				loadArgChunks(function () {
+					$("#arg-modal").text("0/" + Math.ceil(argJson.nodes.length / graphSplitThreshold));
+					startArgWorker();
+				});
+			};
+		}
 	}
 
 	// Function to get transfromation thorugh translate as in new version of D3.js d3.transfrom is removed 
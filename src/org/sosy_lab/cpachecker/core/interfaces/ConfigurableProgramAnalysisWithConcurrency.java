@@ -0,0 +1,55 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+/**
+ * Interface for CPAs that can be used with the parallel successor computation of {@link
+ * org.sosy_lab.cpachecker.core.algorithm.CPAAlgorithm}. In this mode, the successors of several
+ * abstract states from the waitlist are computed concurrently, and the results are afterwards
+ * committed to the reached set in a deterministic order by a single thread.
+ *
+ * <p>CPAs that do not implement this interface are always analyzed sequentially. Wrapper CPAs
+ * should implement the methods by asking their wrapped CPAs.
+ */
+public interface ConfigurableProgramAnalysisWithConcurrency extends ConfigurableProgramAnalysis {
+
+  /**
+   * Check whether {@link TransferRelation#getAbstractSuccessors} may be called concurrently for
+   * different abstract states. The transfer relation may only modify data that belongs to the
+   * given abstract state or the newly created successors.
+   */
+  default boolean hasThreadSafeTransferRelation() {
+    return true;
+  }
+
+  /**
+   * Check whether {@link PrecisionAdjustment#prec} may be called concurrently for different
+   * abstract states. Additionally, the result of the precision adjustment may not depend on states
+   * that are added to the reached set while the current batch of states is handled, because the
+   * reached set is only updated after all successors of the batch are computed.
+   */
+  default boolean hasThreadSafePrecisionAdjustment() {
+    return false;
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithLocation;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+
+public class LocationMappedReachedSetTest {
+
+  private final Precision precision = mock(Precision.class);
+
+  private LocationMappedReachedSet reached;
+  private CFANode node1;
+  private CFANode node2;
+
+  @Before
+  public void init() {
+    reached = new LocationMappedReachedSet(TraversalMethod.DFS);
+    node1 = new CFANode("main");
+    node2 = new CFANode("main");
+  }
+
+  private static AbstractState stateAt(CFANode pNode) {
+    AbstractStateWithLocation state = mock(AbstractStateWithLocation.class);
+    when(state.getLocationNode()).thenReturn(pNode);
+    return state;
+  }
+
+  @Test
+  public void partitionByLocation() {
+    AbstractState s1 = stateAt(node1);
+    AbstractState s2 = stateAt(node2);
+    AbstractState s3 = stateAt(node1);
+    reached.add(s1, precision);
+    reached.add(s2, precision);
+    reached.add(s3, precision);
+
+    assertThat(reached.getReached(node1)).containsExactly(s1, s3).inOrder();
+    assertThat(reached.getReached(node2)).containsExactly(s2);
+    assertThat(reached.getReached(s3)).containsExactly(s1, s3).inOrder();
+    assertThat(reached.getLocations()).containsExactly(node1, node2);
+    assertThat(reached.getNumberOfPartitions()).isEqualTo(2);
+    assertThat(reached.getMaxPartition().getKey()).isEqualTo(node1);
+  }
+
+  @Test
+  public void removeAndClear() {
+    AbstractState s1 = stateAt(node1);
+    AbstractState s2 = stateAt(node2);
+    reached.add(s1, precision);
+    reached.add(s2, precision);
+
+    reached.remove(s1);
+    assertThat(reached.getReached(node1)).isEmpty();
+    assertThat(reached.getLocations()).containsExactly(node2);
+    assertThat(reached.getNumberOfPartitions()).isEqualTo(1);
+
+    reached.clear();
+    assertThat(reached.getReached(node2)).isEmpty();
+    assertThat(reached.getLocations()).isEmpty();
+    assertThat(reached.getNumberOfPartitions()).isEqualTo(0);
+  }
+
+  @Test
+  public void partitionsAreLiveViews() {
+    Collection<AbstractState> partition = reached.getReached(node1);
+    assertThat(partition).isEmpty();
+
+    AbstractState s1 = stateAt(node1);
+    reached.add(s1, precision);
+    assertThat(partition).containsExactly(s1);
+
+    reached.remove(s1);
+    AbstractState s2 = stateAt(node1);
+    reached.add(s2, precision);
+    assertThat(partition).containsExactly(s2);
+  }
+
+  @Test
+  public void manyPartitions() {
+    List<CFANode> nodes = new ArrayList<>();
+    List<AbstractState> states = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      CFANode node = new CFANode("main");
+      nodes.add(node);
+      AbstractState state = stateAt(node);
+      states.add(state);
+      reached.add(state, precision);
+    }
+    assertThat(reached.getNumberOfPartitions()).isEqualTo(1000);
+    assertThat(reached.getLocations()).containsExactlyElementsIn(nodes).inOrder();
+
+    // remove every second partition, the others must still be found
+    for (int i = 0; i < 1000; i += 2) {
+      reached.remove(states.get(i));
+    }
+    assertThat(reached.getNumberOfPartitions()).isEqualTo(500);
+    for (int i = 0; i < 1000; i++) {
+      if (i % 2 == 0) {
+        assertThat(reached.getReached(nodes.get(i))).isEmpty();
+      } else {
+        assertThat(reached.getReached(nodes.get(i))).containsExactly(states.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void locationsAreLiveViewInInsertionOrder() {
+    Set<CFANode> locations = reached.getLocations();
+    AbstractState s1 = stateAt(node1);
+    AbstractState s2 = stateAt(node2);
+    reached.add(s1, precision);
+    reached.add(s2, precision);
+    assertThat(locations).containsExactly(node1, node2).inOrder();
+
+    // an emptied partition is removed and appended again when it is re-created
+    reached.remove(s1);
+    assertThat(locations).containsExactly(node2);
+    reached.add(stateAt(node1), precision);
+    assertThat(locations).containsExactly(node2, node1).inOrder();
+  }
+}
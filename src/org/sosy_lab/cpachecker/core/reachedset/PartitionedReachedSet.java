@@ -25,14 +25,21 @@ package org.sosy_lab.cpachecker.core.reachedset;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.collect.Iterators;
 import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.Serializable;
+import java.util.AbstractCollection;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
@@ -52,6 +59,12 @@ import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
  * for merging and coverage checks), it will return a subset of the set of all
  * reached states. This subset contains exactly those states, whose partition
  * key is equal to the key of the state given as a parameter.
+ *
+ * Partitions whose key is a {@link CFANode} (e.g., in {@link LocationMappedReachedSet})
+ * are stored in an open-addressing table keyed by {@link CFANode#getNodeNumber()},
+ * such that the lookup does not need to hash the key object
+ * and the memory is proportional to the number of non-empty partitions.
+ * All other keys are stored in a hash-based multimap.
  */
 public class PartitionedReachedSet extends DefaultReachedSet {
 
@@ -60,6 +73,13 @@ public class PartitionedReachedSet extends DefaultReachedSet {
   @SuppressFBWarnings("SE_BAD_FIELD")
   private final Multimap<Object, AbstractState> partitionedReached = LinkedHashMultimap.create(100, 1);
 
+  // Non-empty partitions for CFANode keys.
+  private final LocationPartitionTable locationPartitions = new LocationPartitionTable();
+
+  // Keys of all non-empty partitions in the order in which the partitions were created.
+  @SuppressFBWarnings("SE_BAD_FIELD")
+  private final Set<Object> partitionKeys = new LinkedHashSet<>();
+
   public PartitionedReachedSet(WaitlistFactory waitlistFactory) {
     super(waitlistFactory);
   }
@@ -68,14 +88,41 @@ public class PartitionedReachedSet extends DefaultReachedSet {
   public void add(AbstractState pState, Precision pPrecision) {
     super.add(pState, pPrecision);
 
-    partitionedReached.put(getPartitionKey(pState), pState);
+    Object key = getPartitionKey(pState);
+    if (key instanceof CFANode) {
+      CFANode location = (CFANode) key;
+      LocationPartition partition = locationPartitions.get(location);
+      if (partition == null) {
+        partition = new LocationPartition(location);
+        locationPartitions.put(partition);
+        partitionKeys.add(location);
+      }
+      partition.states.add(pState);
+    } else {
+      if (!partitionedReached.containsKey(key)) {
+        partitionKeys.add(key);
+      }
+      partitionedReached.put(key, pState);
+    }
   }
 
   @Override
   public void remove(AbstractState pState) {
     super.remove(pState);
 
-    partitionedReached.remove(getPartitionKey(pState), pState);
+    Object key = getPartitionKey(pState);
+    if (key instanceof CFANode) {
+      CFANode location = (CFANode) key;
+      LocationPartition partition = locationPartitions.get(location);
+      if (partition != null && partition.states.remove(pState) && partition.states.isEmpty()) {
+        locationPartitions.remove(location);
+        partitionKeys.remove(location);
+      }
+    } else {
+      if (partitionedReached.remove(key, pState) && !partitionedReached.containsKey(key)) {
+        partitionKeys.remove(key);
+      }
+    }
   }
 
   @Override
@@ -83,6 +130,8 @@ public class PartitionedReachedSet extends DefaultReachedSet {
     super.clear();
 
     partitionedReached.clear();
+    locationPartitions.clear();
+    partitionKeys.clear();
   }
 
   @Override
@@ -91,13 +140,20 @@ public class PartitionedReachedSet extends DefaultReachedSet {
   }
 
   public int getNumberOfPartitions() {
-    return partitionedReached.keySet().size();
+    return partitionKeys.size();
   }
 
   public Map.Entry<Object, Collection<AbstractState>> getMaxPartition() {
     int max = 0;
     Map.Entry<Object, Collection<AbstractState>> maxPartition = null;
 
+    for (LocationPartition partition : locationPartitions.partitions) {
+      if (partition != null && partition.states.size() > max) {
+        max = partition.states.size();
+        maxPartition =
+            Maps.immutableEntry(partition.location, getReachedForKey(partition.location));
+      }
+    }
     for (Map.Entry<Object, Collection<AbstractState>> partition : partitionedReached.asMap().entrySet()) {
       int size = partition.getValue().size();
       if (size > max) {
@@ -115,10 +171,151 @@ public class PartitionedReachedSet extends DefaultReachedSet {
   }
 
   protected Collection<AbstractState> getReachedForKey(@Nullable Object key) {
+    if (key instanceof CFANode) {
+      return new LocationPartitionView((CFANode) key);
+    }
     return Collections.unmodifiableCollection(partitionedReached.get(key));
   }
 
   protected Set<?> getKeySet() {
-    return Collections.unmodifiableSet(partitionedReached.keySet());
+    return Collections.unmodifiableSet(partitionKeys);
+  }
+
+  private static final class LocationPartition implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final CFANode location;
+
+    @SuppressFBWarnings("SE_BAD_FIELD")
+    private final Set<AbstractState> states = new LinkedHashSet<>();
+
+    private LocationPartition(CFANode pLocation) {
+      location = pLocation;
+    }
+  }
+
+  /**
+   * Unmodifiable live view of the partition for one location. Partitions are removed when they
+   * become empty, so the view looks up the partition on each access like the views of {@link
+   * Multimap#get(Object)}.
+   */
+  private final class LocationPartitionView extends AbstractCollection<AbstractState> {
+
+    private final CFANode location;
+
+    private LocationPartitionView(CFANode pLocation) {
+      location = pLocation;
+    }
+
+    private Set<AbstractState> states() {
+      LocationPartition partition = locationPartitions.get(location);
+      return partition == null ? Collections.emptySet() : partition.states;
+    }
+
+    @Override
+    public Iterator<AbstractState> iterator() {
+      return Iterators.unmodifiableIterator(states().iterator());
+    }
+
+    @Override
+    public int size() {
+      return states().size();
+    }
+
+    @Override
+    public boolean contains(Object pO) {
+      return states().contains(pO);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return states().isEmpty();
+    }
+  }
+
+  /**
+   * Hash table with open addressing and linear probing from node numbers to location partitions.
+   */
+  private static final class LocationPartitionTable implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private LocationPartition[] partitions = new LocationPartition[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private static int indexFor(int pNodeNumber, int pLength) {
+      // spread consecutive node numbers over the table
+      int hash = pNodeNumber * 0x9E3779B9;
+      return (hash ^ (hash >>> 16)) & (pLength - 1);
+    }
+
+    @Nullable
+    LocationPartition get(CFANode pLocation) {
+      int nodeNumber = pLocation.getNodeNumber();
+      int mask = partitions.length - 1;
+      for (int i = indexFor(nodeNumber, partitions.length); ; i = (i + 1) & mask) {
+        LocationPartition partition = partitions[i];
+        if (partition == null) {
+          return null;
+        }
+        if (partition.location.getNodeNumber() == nodeNumber) {
+          assert partition.location == pLocation : "CFA nodes with identical number " + nodeNumber;
+          return partition;
+        }
+      }
+    }
+
+    /** Add a partition, there must be no partition for the same location. */
+    void put(LocationPartition pPartition) {
+      if (2 * (size + 1) > partitions.length) {
+        LocationPartition[] old = partitions;
+        partitions = new LocationPartition[old.length * 2];
+        for (LocationPartition partition : old) {
+          if (partition != null) {
+            insert(partition);
+          }
+        }
+      }
+      insert(pPartition);
+      size++;
+    }
+
+    private void insert(LocationPartition pPartition) {
+      int mask = partitions.length - 1;
+      int i = indexFor(pPartition.location.getNodeNumber(), partitions.length);
+      while (partitions[i] != null) {
+        i = (i + 1) & mask;
+      }
+      partitions[i] = pPartition;
+    }
+
+    void remove(CFANode pLocation) {
+      int nodeNumber = pLocation.getNodeNumber();
+      int mask = partitions.length - 1;
+      int i = indexFor(nodeNumber, partitions.length);
+      while (partitions[i] != null && partitions[i].location.getNodeNumber() != nodeNumber) {
+        i = (i + 1) & mask;
+      }
+      if (partitions[i] == null) {
+        return;
+      }
+      partitions[i] = null;
+      size--;
+
+      // re-insert the following entries of the probe sequence to close the gap
+      for (int j = (i + 1) & mask; partitions[j] != null; j = (j + 1) & mask) {
+        LocationPartition moved = partitions[j];
+        partitions[j] = null;
+        insert(moved);
+      }
+    }
+
+    void clear() {
+      partitions = new LocationPartition[INITIAL_CAPACITY];
+      size = 0;
+    }
   }
 }
@@ -51,6 +51,7 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.CPAFactory;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysisWithBAM;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysisWithConcurrency;
 import org.sosy_lab.cpachecker.core.interfaces.ForcedCoveringStopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
 import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustment;
@@ -63,8 +64,10 @@ import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 
 @Options
-public class ARGCPA extends AbstractSingleWrapperCPA implements
-    ConfigurableProgramAnalysisWithBAM, ProofChecker {
+public class ARGCPA extends AbstractSingleWrapperCPA
+    implements ConfigurableProgramAnalysisWithBAM,
+        ConfigurableProgramAnalysisWithConcurrency,
+        ProofChecker {
 
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(ARGCPA.class);
@@ -151,6 +154,17 @@ public class ARGCPA extends AbstractSingleWrapperCPA implements
     }
   }
 
+  @Override
+  public boolean hasThreadSafeTransferRelation() {
+    // new ARGStates are only linked to their parent, which is owned by the calling thread
+    ConfigurableProgramAnalysis cpa = getWrappedCpa();
+    return cpa instanceof ConfigurableProgramAnalysisWithConcurrency
+        && ((ConfigurableProgramAnalysisWithConcurrency) cpa).hasThreadSafeTransferRelation();
+  }
+
+  // The precision adjustment of the ARG is not thread-safe,
+  // because it removes siblings from the ARG depending on the current reached set.
+
   @Override
   public Reducer getReducer() throws InvalidConfigurationException {
     ConfigurableProgramAnalysis cpa = getWrappedCpa();
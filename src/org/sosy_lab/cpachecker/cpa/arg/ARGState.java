@@ -56,12 +56,14 @@ public class ARGState extends AbstractSingleWrapperState
 
   private static final long serialVersionUID = 2608287648397165040L;
 
-  // We use a List here although we would like to have a Set
+  // Parents and children are stored compactly, because most states have exactly
+  // one parent and at most one child (cf. ARGStateNeighbors for the encoding).
+  // We use a List for more elements although we would like to have a Set
   // because ArrayList is much more memory efficient than e.g. LinkedHashSet.
   // Also these collections are small and so a slow contains() method won't hurt.
   // To enforce set semantics, do not add elements except through addparent()!
-  private final Collection<ARGState> children = new ArrayList<>(1);
-  private final Collection<ARGState> parents = new ArrayList<>(1);
+  private @Nullable Object children = null;
+  private @Nullable Object parents = null;
 
   private ARGState mCoveredBy = null;
   private Set<ARGState> mCoveredByThis = null; // lazy initialization because rarely needed
@@ -96,7 +98,7 @@ public class ARGState extends AbstractSingleWrapperState
    * @return A unmodifiable collection of ARGStates without duplicates.
    */
   public Collection<ARGState> getParents() {
-    return Collections.unmodifiableCollection(parents);
+    return ARGStateNeighbors.view(() -> parents);
   }
 
   public void addParent(ARGState pOtherParent) {
@@ -104,12 +106,12 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // Manually enforce set semantics.
-    if (!parents.contains(pOtherParent)) {
-      assert !pOtherParent.children.contains(this);
-      parents.add(pOtherParent);
-      pOtherParent.children.add(this);
+    if (!ARGStateNeighbors.contains(parents, pOtherParent)) {
+      assert !ARGStateNeighbors.contains(pOtherParent.children, this);
+      parents = ARGStateNeighbors.add(parents, pOtherParent);
+      pOtherParent.children = ARGStateNeighbors.add(pOtherParent.children, this);
     } else {
-      assert pOtherParent.children.contains(this);
+      assert ARGStateNeighbors.contains(pOtherParent.children, this);
     }
   }
 
@@ -119,7 +121,7 @@ public class ARGState extends AbstractSingleWrapperState
    */
   public Collection<ARGState> getChildren() {
     assert !destroyed : "Don't use destroyed ARGState " + this;
-    return Collections.unmodifiableCollection(children);
+    return ARGStateNeighbors.view(() -> children);
   }
 
   /**
@@ -298,10 +300,10 @@ public class ARGState extends AbstractSingleWrapperState
   }
 
   void deleteChild(ARGState child) {
-    assert (children.contains(child));
-    assert (child.parents.contains(this));
-    children.remove(child);
-    child.parents.remove(this);
+    assert ARGStateNeighbors.contains(children, child);
+    assert ARGStateNeighbors.contains(child.parents, this);
+    children = ARGStateNeighbors.remove(children, child);
+    child.parents = ARGStateNeighbors.remove(child.parents, this);
   }
 
   // counterexample
@@ -389,9 +391,9 @@ public class ARGState extends AbstractSingleWrapperState
     sb.append(stateId);
     if (!destroyed) {
       sb.append(", Parents: ");
-      sb.append(stateIdsOf(parents));
+      sb.append(stateIdsOf(getParents()));
       sb.append(", Children: ");
-      sb.append(stateIdsOf(children));
+      sb.append(stateIdsOf(getChildren()));
 
       if (mCoveredBy != null) {
         sb.append(", Covered by: ");
@@ -476,18 +478,18 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // clear children
-    for (ARGState child : children) {
-      assert (child.parents.contains(this));
-      child.parents.remove(this);
+    for (ARGState child : getChildren()) {
+      assert ARGStateNeighbors.contains(child.parents, this);
+      child.parents = ARGStateNeighbors.remove(child.parents, this);
     }
-    children.clear();
+    children = null;
 
     // clear parents
-    for (ARGState parent : parents) {
-      assert (parent.children.contains(this));
-      parent.children.remove(this);
+    for (ARGState parent : getParents()) {
+      assert ARGStateNeighbors.contains(parent.children, this);
+      parent.children = ARGStateNeighbors.remove(parent.children, this);
     }
-    parents.clear();
+    parents = null;
   }
 
   /**
@@ -507,19 +509,19 @@ public class ARGState extends AbstractSingleWrapperState
     assert !(this==replacement) : "Don't replace ARGState " + this + " with itself";
 
     // copy children
-    for (ARGState child : children) {
-      assert (child.parents.contains(this)) : "Inconsistent ARG at " + this;
-      child.parents.remove(this);
+    for (ARGState child : getChildren()) {
+      assert ARGStateNeighbors.contains(child.parents, this) : "Inconsistent ARG at " + this;
+      child.parents = ARGStateNeighbors.remove(child.parents, this);
       child.addParent(replacement);
     }
-    children.clear();
+    children = null;
 
-    for (ARGState parent : parents) {
-      assert (parent.children.contains(this)) : "Inconsistent ARG at " + this;
-      parent.children.remove(this);
+    for (ARGState parent : getParents()) {
+      assert ARGStateNeighbors.contains(parent.children, this) : "Inconsistent ARG at " + this;
+      parent.children = ARGStateNeighbors.remove(parent.children, this);
       replacement.addParent(parent);
     }
-    parents.clear();
+    parents = null;
 
     if (mCoveredByThis != null) {
       if (replacement.mCoveredByThis == null) {
@@ -584,12 +586,12 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // Manually enforce set semantics.
-    if (parents.contains(pOtherParent)) {
-      assert pOtherParent.children.contains(this);
-      parents.remove(pOtherParent);
-      pOtherParent.children.remove(this);
+    if (ARGStateNeighbors.contains(parents, pOtherParent)) {
+      assert ARGStateNeighbors.contains(pOtherParent.children, this);
+      parents = ARGStateNeighbors.remove(parents, pOtherParent);
+      pOtherParent.children = ARGStateNeighbors.remove(pOtherParent.children, this);
     } else {
-      assert !pOtherParent.children.contains(this) : "Problem detected!";
+      assert !ARGStateNeighbors.contains(pOtherParent.children, this) : "Problem detected!";
     }
   }
 }
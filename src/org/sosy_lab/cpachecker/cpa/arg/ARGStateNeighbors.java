@@ -0,0 +1,149 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import com.google.common.collect.Iterators;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * Helper methods for the compact storage of parents and children of an {@link ARGState}.
+ *
+ * <p>Most states in an ARG have exactly one parent and at most one child, thus allocating a list
+ * for each of these relations wastes a lot of memory. Instead, a relation is stored in a single
+ * field of type {@link Object} (called "slot" here), which contains
+ *
+ * <ul>
+ *   <li>{@code null} if there is no element,
+ *   <li>the {@link ARGState} itself if there is exactly one element, and
+ *   <li>an {@link ArrayList} of {@link ARGState}s if there are at least two elements.
+ * </ul>
+ *
+ * <p>The methods of this class do not enforce set semantics, this is the responsibility of the
+ * caller.
+ */
+final class ARGStateNeighbors {
+
+  private ARGStateNeighbors() {}
+
+  @SuppressWarnings("unchecked")
+  private static List<ARGState> asList(Object slot) {
+    return (List<ARGState>) slot;
+  }
+
+  static int size(@Nullable Object slot) {
+    if (slot == null) {
+      return 0;
+    } else if (slot instanceof ARGState) {
+      return 1;
+    } else {
+      return asList(slot).size();
+    }
+  }
+
+  static boolean contains(@Nullable Object slot, ARGState state) {
+    if (slot == null) {
+      return false;
+    } else if (slot instanceof ARGState) {
+      return slot == state;
+    } else {
+      return asList(slot).contains(state);
+    }
+  }
+
+  /** Add an element and return the new content of the slot. */
+  static Object add(@Nullable Object slot, ARGState state) {
+    if (slot == null) {
+      return state;
+    } else if (slot instanceof ARGState) {
+      List<ARGState> list = new ArrayList<>(2);
+      list.add((ARGState) slot);
+      list.add(state);
+      return list;
+    } else {
+      asList(slot).add(state);
+      return slot;
+    }
+  }
+
+  /** Remove an element (if present) and return the new content of the slot. */
+  static @Nullable Object remove(@Nullable Object slot, ARGState state) {
+    if (slot == null) {
+      return null;
+    } else if (slot instanceof ARGState) {
+      return slot == state ? null : slot;
+    } else {
+      List<ARGState> list = asList(slot);
+      list.remove(state);
+      // switch back to the compact representation
+      return list.size() == 1 ? list.get(0) : slot;
+    }
+  }
+
+  private static Iterator<ARGState> iterator(@Nullable Object slot) {
+    if (slot == null) {
+      return Collections.emptyIterator();
+    } else if (slot instanceof ARGState) {
+      return Iterators.singletonIterator((ARGState) slot);
+    } else {
+      return Iterators.unmodifiableIterator(asList(slot).iterator());
+    }
+  }
+
+  /**
+   * Create an unmodifiable live view of a slot, i.e., the view reflects all later changes of the
+   * slot that is returned by the given supplier.
+   */
+  static Collection<ARGState> view(Supplier<Object> slotSupplier) {
+    return new AbstractCollection<ARGState>() {
+
+      @Override
+      public Iterator<ARGState> iterator() {
+        return ARGStateNeighbors.iterator(slotSupplier.get());
+      }
+
+      @Override
+      public int size() {
+        return ARGStateNeighbors.size(slotSupplier.get());
+      }
+
+      @Override
+      public boolean contains(Object pO) {
+        return pO instanceof ARGState
+            && ARGStateNeighbors.contains(slotSupplier.get(), (ARGState) pO);
+      }
+
+      @Override
+      public boolean isEmpty() {
+        return slotSupplier.get() == null;
+      }
+    };
+  }
+}
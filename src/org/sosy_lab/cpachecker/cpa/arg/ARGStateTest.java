@@ -0,0 +1,122 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Collection;
+import org.junit.Test;
+
+public class ARGStateTest {
+
+  @Test
+  public void singleParentAndChild() {
+    ARGState root = new ARGState(null, null);
+    ARGState child = new ARGState(null, root);
+
+    assertThat(root.getParents()).isEmpty();
+    assertThat(root.getChildren()).containsExactly(child);
+    assertThat(child.getParents()).containsExactly(root);
+    assertThat(child.getChildren()).isEmpty();
+  }
+
+  @Test
+  public void addParentTwice() {
+    ARGState root = new ARGState(null, null);
+    ARGState child = new ARGState(null, root);
+    child.addParent(root);
+
+    assertThat(root.getChildren()).containsExactly(child);
+    assertThat(child.getParents()).containsExactly(root);
+  }
+
+  @Test
+  public void manyChildren() {
+    ARGState root = new ARGState(null, null);
+    ARGState child1 = new ARGState(null, root);
+    ARGState child2 = new ARGState(null, root);
+    ARGState child3 = new ARGState(null, root);
+
+    assertThat(root.getChildren()).containsExactly(child1, child2, child3).inOrder();
+
+    child2.removeFromARG();
+    assertThat(root.getChildren()).containsExactly(child1, child3).inOrder();
+
+    child1.removeFromARG();
+    assertThat(root.getChildren()).containsExactly(child3);
+    assertThat(child3.getParents()).containsExactly(root);
+
+    child3.removeFromARG();
+    assertThat(root.getChildren()).isEmpty();
+  }
+
+  @Test
+  public void viewsAreLive() {
+    ARGState root = new ARGState(null, null);
+    Collection<ARGState> children = root.getChildren();
+    assertThat(children).isEmpty();
+
+    ARGState child1 = new ARGState(null, root);
+    assertThat(children).containsExactly(child1);
+
+    ARGState child2 = new ARGState(null, root);
+    assertThat(children).containsExactly(child1, child2);
+
+    root.deleteChild(child1);
+    assertThat(children).containsExactly(child2);
+    assertThat(child1.getParents()).isEmpty();
+  }
+
+  @Test
+  public void replaceInARG() {
+    ARGState parent1 = new ARGState(null, null);
+    ARGState parent2 = new ARGState(null, null);
+    ARGState state = new ARGState(null, parent1);
+    state.addParent(parent2);
+    ARGState child = new ARGState(null, state);
+
+    ARGState replacement = new ARGState(null, null);
+    state.replaceInARGWith(replacement);
+
+    assertThat(state.isDestroyed()).isTrue();
+    assertThat(replacement.getParents()).containsExactly(parent1, parent2);
+    assertThat(replacement.getChildren()).containsExactly(child);
+    assertThat(parent1.getChildren()).containsExactly(replacement);
+    assertThat(parent2.getChildren()).containsExactly(replacement);
+    assertThat(child.getParents()).containsExactly(replacement);
+  }
+
+  @Test
+  public void removeParent() {
+    ARGState parent1 = new ARGState(null, null);
+    ARGState parent2 = new ARGState(null, null);
+    ARGState state = new ARGState(null, parent1);
+    state.addParent(parent2);
+
+    state.removeParent(parent1);
+    assertThat(state.getParents()).containsExactly(parent2);
+    assertThat(parent1.getChildren()).isEmpty();
+    assertThat(parent2.getChildren()).containsExactly(state);
+  }
+}
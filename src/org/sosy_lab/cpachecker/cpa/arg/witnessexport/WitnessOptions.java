@@ -90,6 +90,14 @@ class WitnessOptions {
   @Option(secure = true, description = "Always export source file name, even default")
   private boolean exportSourceFileName = false;
 
+  @Option(
+    secure = true,
+    description =
+        "Verification witness: Build the witness as a DOM and serialize it at the end, instead of"
+            + " writing its elements directly to the output? This needs more memory."
+  )
+  private boolean useDomBuilder = false;
+
   boolean exportFunctionCallsAndReturns() {
     return exportFunctionCallsAndReturns;
   }
@@ -137,4 +145,8 @@ class WitnessOptions {
   boolean exportSourceFileName() {
     return exportSourceFileName;
   }
+
+  boolean useDomBuilder() {
+    return useDomBuilder;
+  }
 }
@@ -131,6 +131,7 @@ import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.AssumeCase;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.ElementType;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlBuilder;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlWriter;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeType;
@@ -1185,14 +1186,71 @@ class WitnessWriter implements EdgeAppender {
     mergeRedundantSinkEdges();
 
     // Write elements
-    final GraphMlBuilder doc;
-    try {
-      doc = new GraphMlBuilder(graphType, defaultSourcefileName, cfa, verificationTaskMetaData);
-    } catch (ParserConfigurationException e) {
-      throw new IOException(e);
-    }
-    writeElementsOfGraphToDoc(doc, entryStateNodeId);
-    doc.appendTo(pTarget);
+    if (witnessOptions.useDomBuilder()) {
+      final GraphMlBuilder doc;
+      try {
+        doc = new GraphMlBuilder(graphType, defaultSourcefileName, cfa, verificationTaskMetaData);
+      } catch (ParserConfigurationException e) {
+        throw new IOException(e);
+      }
+      writeElementsOfGraph(
+          new GraphElementWriter() {
+
+            @Override
+            public void writeNode(String pNodeId, List<Pair<KeyDef, String>> pData) {
+              Element node = doc.createNodeElement(pNodeId, NodeType.ONPATH);
+              for (Pair<KeyDef, String> data : pData) {
+                doc.addDataElementChild(node, data.getFirst(), data.getSecond());
+              }
+            }
+
+            @Override
+            public void writeEdge(String pSource, String pTarget, List<Pair<KeyDef, String>> pData) {
+              Element edge = doc.createEdgeElement(pSource, pTarget);
+              for (Pair<KeyDef, String> data : pData) {
+                doc.addDataElementChild(edge, data.getFirst(), data.getSecond());
+              }
+            }
+          },
+          entryStateNodeId);
+      doc.appendTo(pTarget);
+
+    } else {
+      GraphMlWriter writer =
+          new GraphMlWriter(
+              pTarget,
+              graphType,
+              defaultSourcefileName,
+              cfa,
+              verificationTaskMetaData,
+              getUsedKeys());
+      writeElementsOfGraph(
+          new GraphElementWriter() {
+
+            @Override
+            public void writeNode(String pNodeId, List<Pair<KeyDef, String>> pData)
+                throws IOException {
+              writer.writeNode(pNodeId, NodeType.ONPATH, pData);
+            }
+
+            @Override
+            public void writeEdge(String pSource, String pTarget, List<Pair<KeyDef, String>> pData)
+                throws IOException {
+              writer.writeEdge(pSource, pTarget, pData);
+            }
+          },
+          entryStateNodeId);
+      writer.finish();
+    }
+  }
+
+  /** Receives the nodes and edges of the witness in the order in which they are written. */
+  private interface GraphElementWriter {
+
+    void writeNode(String pNodeId, List<Pair<KeyDef, String>> pData) throws IOException;
+
+    void writeEdge(String pSource, String pTarget, List<Pair<KeyDef, String>> pData)
+        throws IOException;
   }
 
   /**
@@ -1312,30 +1370,112 @@ class WitnessWriter implements EdgeAppender {
     }
   }
 
-  private void writeElementsOfGraphToDoc(GraphMlBuilder doc, String entryStateNodeId) {
-    Map<String, Element> nodes = Maps.newHashMap();
+  /**
+   * Determine the keys of all data that {@link #writeElementsOfGraph} may write, because the key
+   * definitions need to be written before the graph.
+   */
+  private Set<KeyDef> getUsedKeys() {
+    Set<KeyDef> result = EnumSet.noneOf(KeyDef.class);
+    for (Edge edge : leavingEdges.values()) {
+      result.addAll(edge.getLabel().getMapping().keySet());
+    }
+    for (NodeFlag flag : nodeFlags.values()) {
+      result.add(flag.key);
+    }
+    if (!violatedProperties.isEmpty()) {
+      result.add(KeyDef.VIOLATEDPROPERTY);
+    }
+    if (witnessOptions.exportNodeLabel()) {
+      result.add(KeyDef.LABEL);
+    }
+    if (!stateQuasiInvariants.isEmpty() || !invariantExportStates.isEmpty()) {
+      result.add(KeyDef.INVARIANT);
+    }
+    if (!invariantExportStates.isEmpty()) {
+      result.add(KeyDef.INVARIANTSCOPE);
+    }
+    return result;
+  }
+
+  /**
+   * Write the nodes and edges reachable from the entry node while traversing the graph. Each node
+   * is written when it is reached for the first time, together with the node data from the labels
+   * of all its entering edges that will be written. These are determined by {@link
+   * #getExpandedNodes} before.
+   */
+  private void writeElementsOfGraph(GraphElementWriter pWriter, String pEntryStateNodeId)
+      throws IOException {
+    Set<String> expandedNodes = getExpandedNodes(pEntryStateNodeId);
+
+    Set<String> reachedNodes = new HashSet<>();
+    Deque<String> waitlist = Queues.newArrayDeque();
+    waitlist.push(pEntryStateNodeId);
+    reachedNodes.add(pEntryStateNodeId);
+    writeNode(pWriter, pEntryStateNodeId, expandedNodes);
+
+    while (!waitlist.isEmpty()) {
+      String source = waitlist.pop();
+      for (Edge edge : leavingEdges.get(source)) {
+        String target = edge.getTarget();
+        if (reachedNodes.add(target)) {
+          writeNode(pWriter, target, expandedNodes);
+          if (expandedNodes.contains(target)) {
+            waitlist.push(target);
+          }
+        }
+
+        List<Pair<KeyDef, String>> edgeData = new ArrayList<>();
+        for (Map.Entry<KeyDef, String> entry : edge.getLabel().getMapping().entrySet()) {
+          if (entry.getKey().keyFor.equals(ElementType.EDGE)) {
+            edgeData.add(Pair.of(entry.getKey(), entry.getValue()));
+          }
+        }
+        pWriter.writeEdge(edge.getSource(), target, edgeData);
+      }
+    }
+  }
+
+  /**
+   * Determine the nodes whose leaving edges are written, i.e., all nodes reachable from the entry
+   * node that do not have the invariant <code>false</code>. This also sets the loop-head
+   * invariants of the reached nodes.
+   */
+  private Set<String> getExpandedNodes(String pEntryStateNodeId) {
+    Set<String> reachedNodes = new HashSet<>();
+    Set<String> expandedNodes = new HashSet<>();
     Deque<String> waitlist = Queues.newArrayDeque();
-    waitlist.push(entryStateNodeId);
-    Element entryNode = createNewNode(doc, entryStateNodeId);
-    addInvariantsData(doc, entryNode, entryStateNodeId);
-    nodes.put(entryStateNodeId, entryNode);
+    waitlist.push(pEntryStateNodeId);
+    reachedNodes.add(pEntryStateNodeId);
+    expandedNodes.add(pEntryStateNodeId);
     while (!waitlist.isEmpty()) {
       String source = waitlist.pop();
       for (Edge edge : leavingEdges.get(source)) {
-        setLoopHeadInvariantIfApplicable(edge.getTarget());
-
-        Element targetNode = nodes.get(edge.getTarget());
-        if (targetNode == null) {
-          targetNode = createNewNode(doc, edge.getTarget());
-          if (!ExpressionTrees.getFalse()
-              .equals(addInvariantsData(doc, targetNode, edge.getTarget()))) {
-            waitlist.push(edge.getTarget());
+        String target = edge.getTarget();
+        setLoopHeadInvariantIfApplicable(target);
+        if (reachedNodes.add(target)
+            && !ExpressionTrees.getFalse().equals(getExportedInvariant(target))) {
+          expandedNodes.add(target);
+          waitlist.push(target);
+        }
+      }
+    }
+    return expandedNodes;
+  }
+
+  private void writeNode(GraphElementWriter pWriter, String pNode, Set<String> pExpandedNodes)
+      throws IOException {
+    List<Pair<KeyDef, String>> nodeData = createNewNode(pNode);
+    addInvariantsData(nodeData, pNode);
+    for (Edge enteringEdge : enteringEdges.get(pNode)) {
+      if (pExpandedNodes.contains(enteringEdge.getSource())) {
+        for (Map.Entry<KeyDef, String> entry : enteringEdge.getLabel().getMapping().entrySet()) {
+          if (entry.getKey().keyFor.equals(ElementType.NODE)) {
+            nodeData.add(Pair.of(entry.getKey(), entry.getValue()));
           }
-          nodes.put(edge.getTarget(), targetNode);
         }
-        createNewEdge(doc, edge, targetNode);
       }
     }
+    pWriter.writeNode(pNode, nodeData);
   }
 
   private void setLoopHeadInvariantIfApplicable(String pTarget) {
@@ -1373,20 +1513,22 @@ class WitnessWriter implements EdgeAppender {
     }
   }
 
-  private ExpressionTree<Object> addInvariantsData(
-      GraphMlBuilder pDoc, Element pNode, String pStateId) {
+  private ExpressionTree<Object> getExportedInvariant(String pStateId) {
     if (!invariantExportStates.contains(pStateId)) {
       return ExpressionTrees.getTrue();
     }
-    ExpressionTree<Object> tree = getStateInvariant(pStateId);
+    return getStateInvariant(pStateId);
+  }
+
+  private void addInvariantsData(List<Pair<KeyDef, String>> pNodeData, String pStateId) {
+    ExpressionTree<Object> tree = getExportedInvariant(pStateId);
     if (!tree.equals(ExpressionTrees.getTrue())) {
-      pDoc.addDataElementChild(pNode, KeyDef.INVARIANT, tree.toString());
+      pNodeData.add(Pair.of(KeyDef.INVARIANT, tree.toString()));
       String scope = stateScopes.get(pStateId);
       if (scope != null && !scope.isEmpty() && !tree.equals(ExpressionTrees.getFalse())) {
-        pDoc.addDataElementChild(pNode, KeyDef.INVARIANTSCOPE, scope);
+        pNodeData.add(Pair.of(KeyDef.INVARIANTSCOPE, scope));
       }
     }
-    return tree;
   }
 
   private boolean hasFlagsOrProperties(String pNode) {
@@ -1660,38 +1802,25 @@ class WitnessWriter implements EdgeAppender {
     return false;
   }
 
-  private Element createNewEdge(GraphMlBuilder pDoc, Edge pEdge, Element pTargetNode) {
-    Element edge = pDoc.createEdgeElement(pEdge.getSource(), pEdge.getTarget());
-    for (Map.Entry<KeyDef, String> entry : pEdge.getLabel().getMapping().entrySet()) {
-      KeyDef keyDef = entry.getKey();
-      String value = entry.getValue();
-      if (keyDef.keyFor.equals(ElementType.EDGE)) {
-        pDoc.addDataElementChild(edge, keyDef, value);
-      } else if (keyDef.keyFor.equals(ElementType.NODE)) {
-        pDoc.addDataElementChild(pTargetNode, keyDef, value);
-      }
-    }
-    return edge;
-  }
-
-  private Element createNewNode(GraphMlBuilder pDoc, String pEntryStateNodeId) {
-    Element result = pDoc.createNodeElement(pEntryStateNodeId, NodeType.ONPATH);
+  /** Returns the data of the node with the given id that does not depend on its edges. */
+  private List<Pair<KeyDef, String>> createNewNode(String pEntryStateNodeId) {
+    List<Pair<KeyDef, String>> result = new ArrayList<>();
 
     if (witnessOptions.exportNodeLabel()) {
       // add a printable label that for example is shown in yEd
-      pDoc.addDataElementChild(result, KeyDef.LABEL, pEntryStateNodeId);
+      result.add(Pair.of(KeyDef.LABEL, pEntryStateNodeId));
     }
 
     for (NodeFlag f : nodeFlags.get(pEntryStateNodeId)) {
-      pDoc.addDataElementChild(result, f.key, "true");
+      result.add(Pair.of(f.key, "true"));
     }
     for (Property violation : violatedProperties.get(pEntryStateNodeId)) {
-      pDoc.addDataElementChild(result, KeyDef.VIOLATEDPROPERTY, violation.toString());
+      result.add(Pair.of(KeyDef.VIOLATEDPROPERTY, violation.toString()));
     }
 
     if(stateQuasiInvariants.containsKey(pEntryStateNodeId)) {
       ExpressionTree<Object> tree = getQuasiInvariant(pEntryStateNodeId);
-        pDoc.addDataElementChild(result, KeyDef.INVARIANT, tree.toString());
+      result.add(Pair.of(KeyDef.INVARIANT, tree.toString()));
     }
 
     return result;
@@ -1007,6 +1007,14 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
           .anyMatch(matchDescriptor);
     }
 
+    FunctionEntryNode getMainEntry() {
+      return mainEntry;
+    }
+
+    java.util.function.Predicate<FileLocation> getMatchDescriptor() {
+      return matchDescriptor;
+    }
+
     @Override
     public String toString() {
       return "MATCH " + matchDescriptor;
@@ -30,7 +30,8 @@ import com.google.common.base.Strings;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -51,7 +52,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.EnumSet;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -71,6 +71,10 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -163,6 +167,14 @@ public class AutomatonGraphmlParser {
   )
   private boolean strictChecking = true;
 
+  @Option(
+    secure = true,
+    description =
+        "Read the witness into a DOM before building the automaton, instead of processing it as"
+            + " a stream of XML elements. This needs considerably more memory for large witnesses."
+  )
+  private boolean useDomParser = false;
+
   @Option(secure=true, description="File for exporting the witness automaton in DOT format.")
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path automatonDumpFile = null;
@@ -839,27 +851,52 @@ public class AutomatonGraphmlParser {
       InputStream pInputStream, Set<PropertyType> pPropertyTypes)
       throws IOException, WitnessParseException {
 
-    GraphMLDocumentData docDat = parseXML(pInputStream);
+    // The states and transitions are created while the witness is read,
+    // such that only the intermediate representation of the automaton is kept in memory.
+    final Map<String, GraphMLState> states = Maps.newHashMap();
+    final Multimap<GraphMLState, GraphMLTransition> enteringTransitions = HashMultimap.create();
+    final Multimap<GraphMLState, GraphMLTransition> leavingTransitions = HashMultimap.create();
+    final NumericIdProvider numericIdProvider = NumericIdProvider.create();
+    final Set<GraphMLState> entryStates = Sets.newHashSet();
+    // transitions that reference states that were not read yet
+    final List<GraphMLElement> pendingTransitions = new ArrayList<>();
 
-    checkFields(docDat.getGraph());
+    GraphMLElementHandler handler =
+        new GraphMLElementHandler() {
 
-    WitnessType graphType = getWitnessType(docDat.getGraph());
+          @Override
+          public void handleNode(GraphMLElement pNode) throws WitnessParseException {
+            String stateId =
+                GraphMLReader.getAttributeValue(pNode, "id", "Every state needs an ID!");
+            checkParsable(
+                !states.containsKey(stateId),
+                String.format("The state with id <%s> is defined multiple times.", stateId));
+            states.put(stateId, parseState(stateId, pNode));
+          }
 
-    // Extract the information on the automaton ----
-    Node nameAttribute = docDat.getGraph().getAttributes().getNamedItem("name");
-    String automatonName = WITNESS_AUTOMATON_NAME;
-    if (nameAttribute != null) {
-      automatonName += "_" + nameAttribute.getTextContent();
-    }
+          @Override
+          public void handleEdge(GraphMLElement pEdge) throws WitnessParseException {
+            if (states.containsKey(pEdge.getAttribute("source"))
+                && states.containsKey(pEdge.getAttribute("target"))) {
+              collectEdgeData(
+                  states,
+                  entryStates,
+                  leavingTransitions,
+                  enteringTransitions,
+                  numericIdProvider,
+                  pEdge);
+            } else {
+              pendingTransitions.add(pEdge);
+            }
+          }
+        };
 
-    Map<String, GraphMLState> states = Maps.newHashMap();
-    Multimap<GraphMLState, GraphMLTransition> enteringTransitions = HashMultimap.create();
-    Multimap<GraphMLState, GraphMLTransition> leavingTransitions = HashMultimap.create();
-    NumericIdProvider numericIdProvider = NumericIdProvider.create();
-    Set<GraphMLState> entryStates = Sets.newHashSet();
-    for (Node transition : docDat.getTransitions()) {
+    GraphMLElement graph =
+        useDomParser
+            ? GraphMLReader.readDocument(pInputStream, handler)
+            : GraphMLReader.readStream(pInputStream, handler);
+    for (GraphMLElement transition : pendingTransitions) {
       collectEdgeData(
-          docDat,
           states,
           entryStates,
           leavingTransitions,
@@ -867,12 +904,16 @@ public class AutomatonGraphmlParser {
           numericIdProvider,
           transition);
     }
-    if (states.size() < docDat.idToNodeMap.size()) {
-      for (String stateId : docDat.idToNodeMap.keySet()) {
-        if (!states.containsKey(stateId)) {
-          states.put(stateId, parseState(docDat, states, stateId, Optional.empty()));
-        }
-      }
+
+    checkFields(graph);
+
+    WitnessType graphType = getWitnessType(graph);
+
+    // Extract the information on the automaton ----
+    String nameAttribute = graph.getAttribute("name");
+    String automatonName = WITNESS_AUTOMATON_NAME;
+    if (nameAttribute != null) {
+      automatonName += "_" + nameAttribute;
     }
 
     AutomatonGraphmlParserState state =
@@ -908,27 +949,10 @@ public class AutomatonGraphmlParser {
     return state;
   }
 
-  private GraphMLDocumentData parseXML(InputStream pInputStream)
-      throws WitnessParseException, IOException {
-
-    // Parse the XML document ----
-    DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-
-    Document doc;
-    try {
-      DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-      doc = docBuilder.parse(pInputStream);
-    } catch (ParserConfigurationException | SAXException e) {
-      throw new WitnessParseException(e);
-    }
-
-    return new GraphMLDocumentData(doc);
-  }
-
-  private void checkFields(Node graphNode) throws IOException, WitnessParseException {
+  private void checkFields(GraphMLElement graphNode) throws IOException, WitnessParseException {
 
-    checkHashSum(GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.PROGRAMHASH));
-    checkArchitecture(GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.ARCHITECTURE));
+    checkHashSum(GraphMLReader.getDataOnNode(graphNode, KeyDef.PROGRAMHASH));
+    checkArchitecture(GraphMLReader.getDataOnNode(graphNode, KeyDef.ARCHITECTURE));
 
     if (strictChecking) {
       checkRequiredField(graphNode, KeyDef.WITNESS_TYPE);
@@ -961,9 +985,9 @@ public class AutomatonGraphmlParser {
     return functionExitMatcher;
   }
 
-  private static boolean entersLoopHead(Node pTransition) throws WitnessParseException {
+  private static boolean entersLoopHead(GraphMLElement pTransition) throws WitnessParseException {
     Set<String> loopHeadFlags =
-        GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ENTERLOOPHEAD);
+        GraphMLReader.getDataOnNode(pTransition, KeyDef.ENTERLOOPHEAD);
     if (!loopHeadFlags.isEmpty()) {
       Set<Boolean> loopHeadFlagValues =
           loopHeadFlags.stream().map(Boolean::parseBoolean).collect(Collectors.toSet());
@@ -1008,18 +1032,18 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition specifying which line numbers to assume.
    * @return a predicate to match file locations based on the line numbers specified by the transition.
    */
-  private static Optional<Predicate<FileLocation>> getOriginLineMatcherPredicate(Node pTransition)
+  private static Optional<Predicate<FileLocation>> getOriginLineMatcherPredicate(GraphMLElement pTransition)
       throws WitnessParseException {
-    Set<String> originFileTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ORIGINFILE);
+    Set<String> originFileTags = GraphMLReader.getDataOnNode(pTransition, KeyDef.ORIGINFILE);
     checkParsable(
         originFileTags.size() < 2,
         "At most one origin-file data tag must be provided for an edge.");
 
-    Set<String> startLineTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.STARTLINE);
+    Set<String> startLineTags = GraphMLReader.getDataOnNode(pTransition, KeyDef.STARTLINE);
     checkParsable(
         startLineTags.size() < 2,
         "At most one startline data tag must be provided for each edge.");
-    Set<String> endLineTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ENDLINE);
+    Set<String> endLineTags = GraphMLReader.getDataOnNode(pTransition, KeyDef.ENDLINE);
     checkParsable(
         endLineTags.size() < 2, "At most one endline data tag must be provided for each edge.");
 
@@ -1062,16 +1086,16 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition specifying which character offset to assume.
    * @return a predicate to match file locations based on the offsets specified by the transition.
    */
-  private static Optional<Predicate<FileLocation>> getOffsetMatcherPredicate(Node pTransition) throws WitnessParseException {
-    Set<String> originFileTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ORIGINFILE);
+  private static Optional<Predicate<FileLocation>> getOffsetMatcherPredicate(GraphMLElement pTransition) throws WitnessParseException {
+    Set<String> originFileTags = GraphMLReader.getDataOnNode(pTransition, KeyDef.ORIGINFILE);
     checkParsable(
         originFileTags.size() < 2,
         "At most one origin-file data tag must be provided for an edge.");
 
-    Set<String> offsetTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.OFFSET);
+    Set<String> offsetTags = GraphMLReader.getDataOnNode(pTransition, KeyDef.OFFSET);
     checkParsable(
         offsetTags.size() < 2, "At most one offset data tag must be provided for each edge.");
-    Set<String> endoffsetTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ENDOFFSET);
+    Set<String> endoffsetTags = GraphMLReader.getDataOnNode(pTransition, KeyDef.ENDOFFSET);
     checkParsable(
         endoffsetTags.size() < 2, "At most one endoffset data tag must be provided for each edge.");
 
@@ -1116,8 +1140,8 @@ public class AutomatonGraphmlParser {
    * @return an automaton-transition condition for specific branches of an assumption corresponding
    *     to the control case specified by the given transition.
    */
-  private static AutomatonBoolExpr getAssumeCaseMatcher(Node pTransition) throws WitnessParseException {
-    Set<String> assumeCaseTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.CONTROLCASE);
+  private static AutomatonBoolExpr getAssumeCaseMatcher(GraphMLElement pTransition) throws WitnessParseException {
+    Set<String> assumeCaseTags = GraphMLReader.getDataOnNode(pTransition, KeyDef.CONTROLCASE);
 
     if (assumeCaseTags.size() > 0) {
       checkParsable(
@@ -1147,7 +1171,7 @@ public class AutomatonGraphmlParser {
    * @throws WitnessParseException if more than one thread id was specified.
    */
   private static Optional<GraphMLTransition.GraphMLThread> getThread(
-      Node pTransition, NumericIdProvider pNumericIdProvider) throws WitnessParseException {
+      GraphMLElement pTransition, NumericIdProvider pNumericIdProvider) throws WitnessParseException {
     return parseThreadId(pTransition, pNumericIdProvider, KeyDef.THREADID, "At most one threadId tag must be provided for each transition.");
   }
 
@@ -1163,9 +1187,9 @@ public class AutomatonGraphmlParser {
    * @throws WitnessParseException if more than one thread id was specified.
    */
   private static Optional<GraphMLTransition.GraphMLThread> parseThreadId(
-      Node pTransition, NumericIdProvider pNumericIdProvider, KeyDef pKey, String pErrorMessage)
+      GraphMLElement pTransition, NumericIdProvider pNumericIdProvider, KeyDef pKey, String pErrorMessage)
       throws WitnessParseException {
-    Set<String> threadIdTags = GraphMLDocumentData.getDataOnNode(pTransition, pKey);
+    Set<String> threadIdTags = GraphMLReader.getDataOnNode(pTransition, pKey);
 
     if (threadIdTags.size() > 0) {
       checkParsable(
@@ -1191,7 +1215,6 @@ public class AutomatonGraphmlParser {
   /**
    * Reads an automaton edge from the graphml file and inserts it into the automaton.
    *
-   * @param pDocDat the GraphML-document-data helper.
    * @param pStates the map from state identifiers to parsed states.
    * @param pEntryStates the set of entry states.
    * @param pLeavingEdges the map from predecessor states to transitions leaving these states that
@@ -1203,23 +1226,22 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition to be analyzed, represented as a GraphML edge.
    */
   private void collectEdgeData(
-      GraphMLDocumentData pDocDat,
       Map<String, GraphMLState> pStates,
       Set<GraphMLState> pEntryStates,
       Multimap<GraphMLState, GraphMLTransition> pLeavingEdges,
       Multimap<GraphMLState, GraphMLTransition> pEnteringEdges,
       NumericIdProvider pNumericThreadIdProvider,
-      Node pTransition)
+      GraphMLElement pTransition)
       throws WitnessParseException {
     String sourceStateId =
-        GraphMLDocumentData.getAttributeValue(
+        GraphMLReader.getAttributeValue(
             pTransition, "source", "Every transition needs a source!");
-    GraphMLState source = parseState(pDocDat, pStates, sourceStateId, Optional.of(pTransition));
+    GraphMLState source = getReferencedState(pStates, sourceStateId, pTransition);
 
     String targetStateId =
-        GraphMLDocumentData.getAttributeValue(
+        GraphMLReader.getAttributeValue(
             pTransition, "target", "Every transition needs a target!");
-    GraphMLState target = parseState(pDocDat, pStates, targetStateId, Optional.of(pTransition));
+    GraphMLState target = getReferencedState(pStates, targetStateId, pTransition);
 
     Optional<String> functionEntry = parseSingleDataValue(pTransition, KeyDef.FUNCTIONENTRY,
         "At most one function can be entered by one transition.");
@@ -1249,7 +1271,7 @@ public class AutomatonGraphmlParser {
             getAssumeCaseMatcher(pTransition),
             thread.orElse(DEFAULT_THREAD),
             threadIdAssignment,
-            GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ASSUMPTION),
+            GraphMLReader.getDataOnNode(pTransition, KeyDef.ASSUMPTION),
             explicitAssumptionScope,
             assumptionResultFunction,
             entersLoopHead(pTransition));
@@ -1257,21 +1279,6 @@ public class AutomatonGraphmlParser {
     pLeavingEdges.put(source, transition);
     pEnteringEdges.put(target, transition);
 
-    Element sourceStateNode = pDocDat.getNodeWithId(sourceStateId);
-    if (sourceStateNode == null) {
-      throw new WitnessParseException(
-          String.format(
-              "Source %s of transition %s does not exist.",
-              sourceStateId, transitionToString(pTransition)));
-    }
-    Element targetStateNode = pDocDat.getNodeWithId(targetStateId);
-    if (targetStateNode == null) {
-      throw new WitnessParseException(
-          String.format(
-              "Target %s of transition %s does not exist.",
-              targetStateId, transitionToString(pTransition)));
-    }
-
     if (source.isViolationState()) {
       logger.log(
           Level.WARNING,
@@ -1296,51 +1303,37 @@ public class AutomatonGraphmlParser {
     }
   }
 
-  private GraphMLState parseState(
-      GraphMLDocumentData pDocDat,
-      Map<String, GraphMLState> pStates,
-      String pStateId,
-      Optional<Node> pReference)
+  private static GraphMLState getReferencedState(
+      Map<String, GraphMLState> pStates, String pStateId, GraphMLElement pTransition)
       throws WitnessParseException {
     GraphMLState result = pStates.get(pStateId);
-    if (result != null) {
-      return result;
-    }
-
-    Element stateNode = pDocDat.getNodeWithId(pStateId);
-    if (stateNode == null) {
-      final String message;
-      if (pReference.isPresent()) {
-        message =
-            String.format(
-                "The state with id <%s> does not exist, but is referenced in the transition <%s>",
-                pStateId, transitionToString(pReference.get()));
-      } else {
-        message = String.format("The state with if <%s> does not exist.", pStateId);
-      }
-      throw new WitnessParseException(message);
+    if (result == null) {
+      throw new WitnessParseException(
+          String.format(
+              "The state with id <%s> does not exist, but is referenced in the transition <%s>",
+              pStateId, transitionToString(pTransition)));
     }
+    return result;
+  }
 
-    Set<String> candidates = GraphMLDocumentData.getDataOnNode(stateNode, KeyDef.INVARIANT);
-    Optional<String> candidateScope = parseSingleDataValue(stateNode, KeyDef.INVARIANTSCOPE,
+  private GraphMLState parseState(String pStateId, GraphMLElement pStateNode)
+      throws WitnessParseException {
+    Set<String> candidates = GraphMLReader.getDataOnNode(pStateNode, KeyDef.INVARIANT);
+    Optional<String> candidateScope = parseSingleDataValue(pStateNode, KeyDef.INVARIANTSCOPE,
         "At most one explicit invariant scope must be provided for a state.");
 
-    result = new GraphMLState(
+    return new GraphMLState(
         pStateId,
         candidates,
         candidateScope,
-        pDocDat.getNodeFlags(stateNode));
-
-    pStates.put(pStateId, result);
-
-    return result;
+        GraphMLReader.getNodeFlags(pStateNode));
   }
 
-  private static Optional<String> parseSingleDataValue(Node pEdge,
+  private static Optional<String> parseSingleDataValue(GraphMLElement pEdge,
       KeyDef pKey,
       String pErrorMessage) throws WitnessParseException {
     Set<String> values =
-        GraphMLDocumentData.getDataOnNode(pEdge, pKey);
+        GraphMLReader.getDataOnNode(pEdge, pKey);
     checkParsable(values.size() <= 1, pErrorMessage);
     String value = Iterables.getOnlyElement(values, null);
     return Optional.ofNullable(value);
@@ -1352,9 +1345,9 @@ public class AutomatonGraphmlParser {
    * @param pAutomaton the GraphML graph node representing the witness automaton.
    * @return the witness-automaton type of an automaton represented as a GraphML graph.
    */
-  private WitnessType getWitnessType(Node pAutomaton) throws WitnessParseException {
+  private WitnessType getWitnessType(GraphMLElement pAutomaton) throws WitnessParseException {
     Set<String> witnessTypeText =
-        GraphMLDocumentData.getDataOnNode(pAutomaton, KeyDef.WITNESS_TYPE);
+        GraphMLReader.getDataOnNode(pAutomaton, KeyDef.WITNESS_TYPE);
     final WitnessType witnessType;
     if (witnessTypeText.isEmpty()) {
       witnessType = WitnessType.VIOLATION_WITNESS;
@@ -1376,28 +1369,26 @@ public class AutomatonGraphmlParser {
     return witnessType;
   }
 
-  private static String transitionToString(Node pTransition) {
+  private static String transitionToString(GraphMLElement pTransition) {
     if (pTransition == null) {
       return "null";
     }
-    NamedNodeMap attributes = pTransition.getAttributes();
-    if (attributes != null) {
-      Node id = attributes.getNamedItem("id");
-      if (id != null) {
-        return id.getNodeValue();
-      }
+    String id = pTransition.getAttribute("id");
+    if (id != null) {
+      return id;
     }
     return pTransition.toString();
   }
 
-  private static void checkRequiredField(Node pGraphNode, KeyDef pKey)
+  private static void checkRequiredField(GraphMLElement pGraphNode, KeyDef pKey)
       throws WitnessParseException {
     checkRequiredField(pGraphNode, pKey, false);
   }
 
-  private static void checkRequiredField(Node pGraphNode, KeyDef pKey, boolean pAcceptEmpty)
+  private static void checkRequiredField(
+      GraphMLElement pGraphNode, KeyDef pKey, boolean pAcceptEmpty)
       throws WitnessParseException {
-    Iterable<String> data = GraphMLDocumentData.getDataOnNode(pGraphNode, pKey);
+    Iterable<String> data = GraphMLReader.getDataOnNode(pGraphNode, pKey);
     if (Iterables.isEmpty(data)) {
       throw new WitnessParseException(
           String.format("The witness does not contain the required field '%s'", pKey.id));
@@ -1641,117 +1632,351 @@ public class AutomatonGraphmlParser {
 
   }
 
-  private static class GraphMLDocumentData {
+  /**
+   * Compact representation of a GraphML element (the graph, a node, or an edge) that consists of
+   * its attributes and of the values of the data elements nested in it. Witnesses contain millions
+   * of these elements with only a few attributes and data values each, so both are stored as flat
+   * arrays of alternating names and values.
+   */
+  private static class GraphMLElement {
 
-    private final Node graph;
+    private final String tag;
 
-    private final ImmutableMap<String, Element> idToNodeMap;
+    private final String[] attributes;
 
-    private final Iterable<Node> transitions;
+    private final String[] data;
 
-    public GraphMLDocumentData(Document pDocument) throws WitnessParseException {
+    private GraphMLElement(String pTag, List<String> pAttributes, List<String> pData) {
+      tag = pTag;
+      attributes = pAttributes.toArray(new String[0]);
+      data = pData.toArray(new String[0]);
+    }
 
-      NodeList graphs = pDocument.getElementsByTagName(GraphMLTag.GRAPH.toString());
-      checkParsable(graphs.getLength() == 1, TOO_MANY_GRAPHS_ERROR_MESSAGE);
-      graph = Objects.requireNonNull(graphs.item(0));
+    private @Nullable String getAttribute(String pName) {
+      for (int i = 0; i < attributes.length; i += 2) {
+        if (attributes[i].equals(pName)) {
+          return attributes[i + 1];
+        }
+      }
+      return null;
+    }
 
-      ImmutableMap.Builder<String, Element> idToNodeMapBuilder = ImmutableMap.builder();
-      NodeList nodes = pDocument.getElementsByTagName(GraphMLTag.NODE.toString());
-      for (Node stateNode : asIterable(nodes)) {
-        String stateId = getAttributeValue(stateNode, "id", "Every state needs an ID!");
-        idToNodeMapBuilder.put(stateId, (Element) stateNode);
+    /** Returns the values of all data elements with the given key, in document order. */
+    private List<String> getData(String pKey) {
+      List<String> result = new ArrayList<>(1);
+      for (int i = 0; i < data.length; i += 2) {
+        if (data[i].equals(pKey)) {
+          result.add(data[i + 1]);
+        }
       }
-      idToNodeMap = idToNodeMapBuilder.build();
+      return result;
+    }
 
-      transitions = asIterable(pDocument.getElementsByTagName(GraphMLTag.EDGE.toString()));
+    private Set<String> getDataKeys() {
+      Set<String> result = new LinkedHashSet<>();
+      for (int i = 0; i < data.length; i += 2) {
+        result.add(data[i]);
+      }
+      return result;
     }
 
-    public Node getGraph() {
+    @Override
+    public String toString() {
+      StringBuilder result = new StringBuilder("<").append(tag);
+      for (int i = 0; i < attributes.length; i += 2) {
+        result.append(' ').append(attributes[i]).append("=\"").append(attributes[i + 1]);
+        result.append('"');
+      }
+      return result.append('>').toString();
+    }
+  }
+
+  /** Receives the nodes and edges of a GraphML document in document order. */
+  private interface GraphMLElementHandler {
+
+    void handleNode(GraphMLElement pNode) throws WitnessParseException;
+
+    void handleEdge(GraphMLElement pEdge) throws WitnessParseException;
+  }
+
+  /** Helper for reading the graph, the nodes, and the edges of a GraphML document. */
+  private static class GraphMLReader {
+
+    private GraphMLReader() {}
+
+    /**
+     * Reads a GraphML document from the given stream. The document is processed as a stream of
+     * XML events without building its DOM, and each node and edge is passed to the handler as soon
+     * as it is read. Only the element of the graph itself is kept.
+     *
+     * @param pInputStream the stream to read the document from.
+     * @param pHandler the handler for the nodes and edges, or null if they can be skipped, because
+     *     only the data attached to the graph itself is needed.
+     * @return the graph element, with the data elements nested directly in it.
+     */
+    private static GraphMLElement readStream(
+        InputStream pInputStream, @Nullable GraphMLElementHandler pHandler)
+        throws WitnessParseException {
+      XMLInputFactory factory = XMLInputFactory.newInstance();
+      factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+      // keys and attribute names repeat for every element, share them
+      Interner<String> names = Interners.newStrongInterner();
+      GraphMLElement graph = null;
+
+      try {
+        XMLStreamReader reader = factory.createXMLStreamReader(pInputStream);
+        try {
+          // The graph element encloses its nodes and edges,
+          // so its own data is collected while reading them.
+          List<String> graphAttributes = null;
+          List<String> graphData = null;
+          int graphDepth = -1;
+          int depth = 0;
+
+          while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+              if (depth == graphDepth) {
+                graph = new GraphMLElement(GraphMLTag.GRAPH.toString(), graphAttributes, graphData);
+                graphDepth = -1;
+              }
+              depth--;
+
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+              depth++;
+              String tag = reader.getLocalName();
+              if (tag.equals(GraphMLTag.GRAPH.toString())) {
+                checkParsable(graph == null && graphDepth < 0, TOO_MANY_GRAPHS_ERROR_MESSAGE);
+                graphAttributes = readAttributes(reader, names);
+                graphData = new ArrayList<>();
+                graphDepth = depth;
+
+              } else if (tag.equals(GraphMLTag.DATA.toString())
+                  && graphDepth >= 0
+                  && depth == graphDepth + 1) {
+                graphData.add(readDataKey(reader, names));
+                graphData.add(readText(reader));
+                depth--;
+
+              } else if (tag.equals(GraphMLTag.NODE.toString())
+                  || tag.equals(GraphMLTag.EDGE.toString())) {
+                if (pHandler == null) {
+                  skipElement(reader);
+                } else if (tag.equals(GraphMLTag.NODE.toString())) {
+                  pHandler.handleNode(readElement(reader, tag, names));
+                } else {
+                  pHandler.handleEdge(readElement(reader, tag, names));
+                }
+                depth--;
+              }
+            }
+          }
+        } finally {
+          reader.close();
+        }
+      } catch (XMLStreamException e) {
+        throw new WitnessParseException(e);
+      }
+
+      checkParsable(graph != null, TOO_MANY_GRAPHS_ERROR_MESSAGE);
       return graph;
     }
 
-    public Iterable<Node> getTransitions() {
-      return transitions;
+    /**
+     * Reads a GraphML document from the given stream by building its DOM first. All nodes are
+     * passed to the handler before the edges.
+     *
+     * @param pInputStream the stream to read the document from.
+     * @param pHandler the handler for the nodes and edges.
+     * @return the graph element, with the data elements nested directly in it.
+     */
+    private static GraphMLElement readDocument(
+        InputStream pInputStream, GraphMLElementHandler pHandler)
+        throws WitnessParseException, IOException {
+      Document doc;
+      try {
+        DocumentBuilder docBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        doc = docBuilder.parse(pInputStream);
+      } catch (ParserConfigurationException | SAXException e) {
+        throw new WitnessParseException(e);
+      }
+
+      NodeList graphs = doc.getElementsByTagName(GraphMLTag.GRAPH.toString());
+      checkParsable(graphs.getLength() == 1, TOO_MANY_GRAPHS_ERROR_MESSAGE);
+      Element graphElement = (Element) graphs.item(0);
+      List<String> graphData = new ArrayList<>();
+      for (Node child = graphElement.getFirstChild();
+          child != null;
+          child = child.getNextSibling()) {
+        if (child.getNodeType() == Node.ELEMENT_NODE
+            && child.getNodeName().equals(GraphMLTag.DATA.toString())) {
+          addData((Element) child, graphData);
+        }
+      }
+      GraphMLElement graph =
+          new GraphMLElement(GraphMLTag.GRAPH.toString(), getAttributes(graphElement), graphData);
+
+      NodeList nodes = doc.getElementsByTagName(GraphMLTag.NODE.toString());
+      for (int i = 0; i < nodes.getLength(); i++) {
+        pHandler.handleNode(toGraphMLElement((Element) nodes.item(i)));
+      }
+      NodeList edges = doc.getElementsByTagName(GraphMLTag.EDGE.toString());
+      for (int i = 0; i < edges.getLength(); i++) {
+        pHandler.handleEdge(toGraphMLElement((Element) edges.item(i)));
+      }
+      return graph;
     }
 
-    public EnumSet<NodeFlag> getNodeFlags(Element pStateNode) {
-      EnumSet<NodeFlag> result = EnumSet.noneOf(NodeFlag.class);
+    private static GraphMLElement toGraphMLElement(Element pElement)
+        throws WitnessParseException {
+      List<String> data = new ArrayList<>();
+      NodeList dataChilds = pElement.getElementsByTagName(GraphMLTag.DATA.toString());
+      for (int i = 0; i < dataChilds.getLength(); i++) {
+        addData((Element) dataChilds.item(i), data);
+      }
+      return new GraphMLElement(pElement.getTagName(), getAttributes(pElement), data);
+    }
 
-      NodeList dataChilds = pStateNode.getElementsByTagName(GraphMLTag.DATA.toString());
+    private static List<String> getAttributes(Element pElement) {
+      NamedNodeMap attributeNodes = pElement.getAttributes();
+      List<String> attributes = new ArrayList<>(2 * attributeNodes.getLength());
+      for (int i = 0; i < attributeNodes.getLength(); i++) {
+        Node attribute = attributeNodes.item(i);
+        attributes.add(attribute.getNodeName());
+        attributes.add(attribute.getNodeValue());
+      }
+      return attributes;
+    }
 
-      for (Node dataChild : asIterable(dataChilds)) {
-        Node attribute = dataChild.getAttributes().getNamedItem("key");
-        Preconditions.checkNotNull(attribute, "Every data element must have a key attribute!");
-        String key = attribute.getTextContent();
-        NodeFlag flag = NodeFlag.getNodeFlagByKey(key);
-        if (flag != null) {
-          result.add(flag);
+    private static void addData(Element pDataElement, List<String> pData)
+        throws WitnessParseException {
+      checkParsable(
+          pDataElement.hasAttribute("key"), "Every data element must have a key attribute!");
+      pData.add(pDataElement.getAttribute("key"));
+      pData.add(pDataElement.getTextContent());
+    }
+
+    /**
+     * Reads the element at the current position of the reader, including all data elements nested
+     * in it. Afterwards, the reader is positioned at the end of the element.
+     */
+    private static GraphMLElement readElement(
+        XMLStreamReader pReader, String pTag, Interner<String> pNames)
+        throws XMLStreamException, WitnessParseException {
+      List<String> attributes = readAttributes(pReader, pNames);
+      List<String> data = new ArrayList<>();
+      int depth = 1;
+      while (depth > 0) {
+        int event = pReader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          if (pReader.getLocalName().equals(GraphMLTag.DATA.toString())) {
+            data.add(readDataKey(pReader, pNames));
+            data.add(readText(pReader));
+          } else {
+            depth++;
+          }
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          depth--;
         }
       }
+      return new GraphMLElement(pTag, attributes, data);
+    }
 
-      return result;
+    private static List<String> readAttributes(XMLStreamReader pReader, Interner<String> pNames) {
+      List<String> attributes = new ArrayList<>(2 * pReader.getAttributeCount());
+      for (int i = 0; i < pReader.getAttributeCount(); i++) {
+        attributes.add(pNames.intern(pReader.getAttributeLocalName(i)));
+        attributes.add(pReader.getAttributeValue(i));
+      }
+      return attributes;
     }
 
-    private static String getAttributeValue(Node of, String attributeName, String exceptionMessage)
+    private static String readDataKey(XMLStreamReader pReader, Interner<String> pNames)
         throws WitnessParseException {
-      Node attribute = of.getAttributes().getNamedItem(attributeName);
-      if (attribute == null) {
-        throw new WitnessParseException(exceptionMessage);
+      String key = pReader.getAttributeValue(null, "key");
+      checkParsable(key != null, "Every data element must have a key attribute!");
+      return pNames.intern(key);
+    }
+
+    /**
+     * Reads the text content of the element at the current position of the reader. Afterwards,
+     * the reader is positioned at the end of the element.
+     */
+    private static String readText(XMLStreamReader pReader) throws XMLStreamException {
+      StringBuilder text = new StringBuilder();
+      int depth = 1;
+      while (depth > 0) {
+        switch (pReader.next()) {
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.CDATA:
+          case XMLStreamConstants.SPACE:
+            text.append(pReader.getText());
+            break;
+          case XMLStreamConstants.START_ELEMENT:
+            depth++;
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            depth--;
+            break;
+          default:
+            // ignore comments and processing instructions
+        }
       }
-      return attribute.getTextContent();
+      return text.toString();
     }
 
-    private @Nullable Element getNodeWithId(String nodeId) {
-      Element result = idToNodeMap.get(nodeId);
-      if (result == null
-          || !result.getTagName().equals(GraphMLTag.NODE.toString())) {
-        return null;
+    private static void skipElement(XMLStreamReader pReader) throws XMLStreamException {
+      int depth = 1;
+      while (depth > 0) {
+        int event = pReader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          depth++;
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          depth--;
+        }
       }
-      return result;
     }
 
-    private static Set<String> getDataOnNode(Node node, final KeyDef dataKey) {
-      Preconditions.checkNotNull(node);
-      Preconditions.checkArgument(node.getNodeType() == Node.ELEMENT_NODE);
-
-      Element nodeElement = (Element) node;
-      Set<Node> dataNodes = findKeyedDataNode(nodeElement, dataKey);
+    private static EnumSet<NodeFlag> getNodeFlags(GraphMLElement pStateNode) {
+      EnumSet<NodeFlag> result = EnumSet.noneOf(NodeFlag.class);
 
-      Set<String> result = Sets.newHashSet();
-      for (Node n: dataNodes) {
-        result.add(n.getTextContent());
+      for (String key : pStateNode.getDataKeys()) {
+        NodeFlag flag = NodeFlag.getNodeFlagByKey(key);
+        if (flag != null) {
+          result.add(flag);
+        }
       }
 
       return result;
     }
 
-    private static Set<Node> findKeyedDataNode(Element of, final KeyDef dataKey) {
-      Set<Node> result = Sets.newHashSet();
-      Set<Node> alternative = null;
-      NodeList dataChilds = of.getElementsByTagName(GraphMLTag.DATA.toString());
-      for (Node dataChild : asIterable(dataChilds)) {
-        Node attribute = dataChild.getAttributes().getNamedItem("key");
-        Preconditions.checkNotNull(attribute, "Every data element must have a key attribute!");
-        String nodeKey = attribute.getTextContent();
-        if (nodeKey.equals(dataKey.id)) {
-          result.add(dataChild);
-          alternative = null;
-        }
-        // Backwards-compatibility: type/graph-type
-        if (alternative == null
-            && result.isEmpty()
-            && dataKey.equals(KeyDef.WITNESS_TYPE)
-            && nodeKey.equals("type")) {
-          alternative = Sets.newHashSet();
-          alternative.add(dataChild);
-        }
+    private static String getAttributeValue(
+        GraphMLElement of, String attributeName, String exceptionMessage)
+        throws WitnessParseException {
+      String attribute = of.getAttribute(attributeName);
+      if (attribute == null) {
+        throw new WitnessParseException(exceptionMessage);
       }
-      if (result.isEmpty() && alternative != null) {
-        return alternative;
+      return attribute;
+    }
+
+    private static Set<String> getDataOnNode(GraphMLElement node, final KeyDef dataKey) {
+      Preconditions.checkNotNull(node);
+
+      Set<String> result = Sets.newHashSet(node.getData(dataKey.id));
+
+      // Backwards-compatibility: type/graph-type
+      if (result.isEmpty() && dataKey.equals(KeyDef.WITNESS_TYPE)) {
+        List<String> alternative = node.getData("type");
+        if (!alternative.isEmpty()) {
+          result.add(alternative.get(0));
+        }
       }
+
       return result;
     }
-
   }
 
   public static boolean isGraphmlAutomatonFromConfiguration(Path pPath)
@@ -1803,24 +2028,12 @@ public class AutomatonGraphmlParser {
 
   private static AutomatonGraphmlCommon.WitnessType getWitnessType(InputStream pInputStream)
       throws InvalidConfigurationException, IOException {
-    // Parse the XML document ----
-    DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-    Document doc;
-    try {
-      DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-      doc = docBuilder.parse(pInputStream);
-    } catch (ParserConfigurationException | SAXException e) {
-      throw new WitnessParseException(e);
-    }
-
-    // (The one) root node of the graph ----
-    NodeList graphs = doc.getElementsByTagName(GraphMLTag.GRAPH.toString());
-    checkParsable(graphs.getLength() == 1, TOO_MANY_GRAPHS_ERROR_MESSAGE);
-    Node graphNode = graphs.item(0);
+    // (The one) root node of the graph, its states and transitions are not needed ----
+    GraphMLElement graphNode = GraphMLReader.readStream(pInputStream, null);
 
     checkRequiredField(graphNode, KeyDef.WITNESS_TYPE);
 
-    Set<String> graphTypeText = GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.WITNESS_TYPE);
+    Set<String> graphTypeText = GraphMLReader.getDataOnNode(graphNode, KeyDef.WITNESS_TYPE);
     final WitnessType graphType;
     if (graphTypeText.isEmpty()) {
       graphType = WitnessType.VIOLATION_WITNESS;
@@ -1936,29 +2149,4 @@ public class AutomatonGraphmlParser {
       throw pExceptionHandler.apply(e);
     }
   }
-
-
-  /** return a nice {@link Iterable} wrapping the interface {@link NodeList}. */
-  private static Iterable<Node> asIterable(final NodeList pNodeList) {
-    return new Iterable<Node>() {
-
-      @Override
-      public Iterator<Node> iterator() {
-        return new Iterator<Node>() {
-
-          private int index = 0;
-
-          @Override
-          public boolean hasNext() {
-            return index < pNodeList.getLength();
-          }
-
-          @Override
-          public Node next() {
-            return pNodeList.item(index++);
-          }
-        };
-      }
-    };
-  }
 }
@@ -0,0 +1,187 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.DummyScope;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser.WitnessParseException;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.WitnessType;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class AutomatonGraphmlParserTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private CFA cfa;
+
+  @Before
+  public void setUp() {
+    cfa = mock(CFA.class);
+    when(cfa.getMachineModel()).thenReturn(MachineModel.LINUX32);
+    when(cfa.getAllFunctionNames()).thenReturn(ImmutableSortedSet.of("main"));
+    FunctionEntryNode mainFunction = mock(FunctionEntryNode.class);
+    when(mainFunction.getFunctionName()).thenReturn("main");
+    when(cfa.getMainFunction()).thenReturn(mainFunction);
+  }
+
+  @Test
+  public void testForwardReferences() throws Exception {
+    // edges are allowed to reference nodes that appear later in the document
+    Path witness =
+        writeWitness(
+            "<edge source=\"A\" target=\"B\"><data key=\"startline\">2</data></edge>",
+            "<node id=\"A\"><data key=\"entry\">true</data></node>",
+            "<edge source=\"B\" target=\"C\"/>",
+            "<node id=\"B\"/>",
+            "<node id=\"C\"><data key=\"violation\">true</data></node>",
+            "<node id=\"D\"/>");
+
+    for (boolean useDomParser : new boolean[] {false, true}) {
+      Automaton automaton = parse(witness, useDomParser);
+      assertThat(automaton.getName())
+          .isEqualTo(AutomatonGraphmlParser.WITNESS_AUTOMATON_NAME + "_test");
+      assertThat(automaton.getInitialState().getName()).isEqualTo("A");
+      assertThat(getStateNames(automaton)).containsAllOf("A", "B", "C", "D");
+    }
+  }
+
+  @Test
+  public void testStreamAndDomAgree() throws Exception {
+    // a long chain of states similar to a large violation witness
+    int length = 2000;
+    StringBuilder elements = new StringBuilder();
+    elements.append("<node id=\"N0\"><data key=\"entry\">true</data></node>\n");
+    for (int i = 1; i <= length; i++) {
+      if (i == length) {
+        elements.append("<node id=\"N" + i + "\"><data key=\"violation\">true</data></node>\n");
+      } else {
+        elements.append("<node id=\"N" + i + "\"/>\n");
+      }
+      elements.append("<edge source=\"N" + (i - 1) + "\" target=\"N" + i + "\">");
+      elements.append("<data key=\"startline\">" + (i % 3 + 1) + "</data></edge>\n");
+    }
+    Path witness = writeWitness(elements.toString());
+
+    Automaton fromStream = parse(witness, false);
+    Automaton fromDom = parse(witness, true);
+    assertThat(fromStream.getNumberOfStates()).isEqualTo(fromDom.getNumberOfStates());
+    assertThat(getStateNames(fromStream)).isEqualTo(getStateNames(fromDom));
+    assertThat(getStateNames(fromStream)).contains("N" + length);
+  }
+
+  @Test
+  public void testMissingState() throws Exception {
+    Path witness =
+        writeWitness(
+            "<node id=\"A\"><data key=\"entry\">true</data></node>",
+            "<edge source=\"A\" target=\"B\"/>");
+    for (boolean useDomParser : new boolean[] {false, true}) {
+      try {
+        parse(witness, useDomParser);
+        fail("Expected WitnessParseException");
+      } catch (WitnessParseException e) {
+        assertThat(e.getMessage()).contains("<B>");
+      }
+    }
+  }
+
+  @Test
+  public void testDuplicateState() throws Exception {
+    Path witness =
+        writeWitness("<node id=\"A\"><data key=\"entry\">true</data></node>", "<node id=\"A\"/>");
+    for (boolean useDomParser : new boolean[] {false, true}) {
+      try {
+        parse(witness, useDomParser);
+        fail("Expected WitnessParseException");
+      } catch (WitnessParseException e) {
+        assertThat(e.getMessage()).contains("<A>");
+      }
+    }
+  }
+
+  @Test
+  public void testGetWitnessType() throws Exception {
+    Path witness = writeWitness("<node id=\"A\"><data key=\"entry\">true</data></node>");
+    assertThat(AutomatonGraphmlParser.getWitnessType(witness))
+        .isEqualTo(WitnessType.VIOLATION_WITNESS);
+  }
+
+  private Automaton parse(Path pWitness, boolean pUseDomParser) throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("witness.checkProgramHash", "false")
+            .setOption("witness.strictChecking", "false")
+            .setOption("witness.useDomParser", Boolean.toString(pUseDomParser))
+            .build();
+    AutomatonGraphmlParser parser =
+        new AutomatonGraphmlParser(
+            config, LogManager.createTestLogManager(), cfa, DummyScope.getInstance());
+    List<Automaton> automata = parser.parseAutomatonFile(pWitness, ImmutableSet.of());
+    assertThat(automata).hasSize(1);
+    return automata.get(0);
+  }
+
+  private static Set<String> getStateNames(Automaton pAutomaton) {
+    return FluentIterable.from(pAutomaton.getStates())
+        .transform(AutomatonInternalState::getName)
+        .toSet();
+  }
+
+  private Path writeWitness(String... pElements) throws IOException {
+    StringBuilder content = new StringBuilder();
+    content.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+    content.append("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+    content.append("<graph edgedefault=\"directed\" name=\"test\">\n");
+    content.append("<data key=\"witness-type\">violation_witness</data>\n");
+    for (String element : pElements) {
+      content.append(element).append('\n');
+    }
+    content.append("</graph>\n</graphml>\n");
+    Path witness = tempFolder.newFile().toPath();
+    Files.write(witness, content.toString().getBytes(StandardCharsets.UTF_8));
+    return witness;
+  }
+}
@@ -23,11 +23,14 @@
  */
 package org.sosy_lab.cpachecker.cpa.automaton;
 
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
+
 import java.io.PrintStream;
 import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatIntHist;
 import org.sosy_lab.cpachecker.util.statistics.StatKind;
 import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
@@ -42,6 +45,8 @@ class AutomatonStatistics implements Statistics {
   ThreadSafeTimerContainer actionTime          = new ThreadSafeTimerContainer("Time for transition actions");
   ThreadSafeTimerContainer totalStrengthenTime = new ThreadSafeTimerContainer("Total time for strengthen operator");
   StatIntHist automatonSuccessors = new StatIntHist(StatKind.AVG, "Automaton transfer successors");
+  StatCounter evaluatedTransitions = new StatCounter("Number of evaluated transitions");
+  StatCounter indexSkippedTransitions = new StatCounter("Number of transitions skipped by index");
 
   public AutomatonStatistics(ControlAutomatonCPA pCpa) {
     mCpa = pCpa;
@@ -56,6 +61,21 @@ class AutomatonStatistics implements Statistics {
   public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
     put(out, 0, "Number of states", mCpa.getAutomaton().getNumberOfStates());
     put(out, 0, totalPostTime);
+    put(out, 0, evaluatedTransitions);
+
+    int indexedTransitions = 0;
+    for (AutomatonTransitionIndex index : mCpa.getTransitionIndexes()) {
+      indexedTransitions += index.getNumberOfIndexedTransitions();
+    }
+    if (indexedTransitions > 0) {
+      long skipped = indexSkippedTransitions.getValue();
+      put(out, 1, "Number of indexed transitions", indexedTransitions);
+      put(
+          out,
+          1,
+          indexSkippedTransitions.getTitle(),
+          skipped + " (" + toPercent(skipped, skipped + evaluatedTransitions.getValue()) + ")");
+    }
 
     if (totalPostTime.getSumTime().compareTo(TimeSpan.ofMillis(500)) >= 0) {
       // normally automaton is very fast, and time measurements are very imprecise
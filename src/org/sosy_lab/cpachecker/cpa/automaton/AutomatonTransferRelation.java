@@ -35,6 +35,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -61,6 +62,7 @@ import org.sosy_lab.cpachecker.cpa.threading.ThreadingState;
 import org.sosy_lab.cpachecker.cpa.threading.ThreadingTransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatIntHist;
 import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 
@@ -79,6 +81,8 @@ class AutomatonTransferRelation extends SingleEdgeTransferRelation {
   private final TimerWrapper actionTime;
   private final TimerWrapper totalStrengthenTime;
   private final StatIntHist automatonSuccessors;
+  private final StatCounter evaluatedTransitions;
+  private final StatCounter indexSkippedTransitions;
 
   public AutomatonTransferRelation(
       ControlAutomatonCPA pCpa, LogManager pLogger, MachineModel pMachineModel) {
@@ -92,6 +96,8 @@ class AutomatonTransferRelation extends SingleEdgeTransferRelation {
     actionTime = pCpa.stats.actionTime.getNewTimer();
     totalStrengthenTime = pCpa.stats.totalStrengthenTime.getNewTimer();
     automatonSuccessors = pCpa.stats.automatonSuccessors;
+    evaluatedTransitions = pCpa.stats.evaluatedTransitions;
+    indexSkippedTransitions = pCpa.stats.indexSkippedTransitions;
   }
 
   @Override
@@ -162,12 +168,23 @@ class AutomatonTransferRelation extends SingleEdgeTransferRelation {
     List<Pair<AutomatonTransition, Map<Integer, AAstNode>>> transitionsToBeTaken =
         new ArrayList<>(2);
 
+    // transitions excluded by the index are known to not match the edge
+    AutomatonTransitionIndex index = cpa.getTransitionIndex(state.getInternalState());
+    BitSet candidates = index == null ? null : index.getCandidates(edge);
+    int position = 0;
+
     for (AutomatonTransition t : state.getInternalState().getTransitions()) {
+      if (candidates != null && !candidates.get(position++)) {
+        indexSkippedTransitions.inc();
+        failedMatches++;
+        continue;
+      }
       exprArgs.clearTransitionVariables();
 
       matchTime.start();
       ResultValue<Boolean> match = t.match(exprArgs);
       matchTime.stop();
+      evaluatedTransitions.inc();
 
       if (match.canNotEvaluate()) {
         if (failOnUnknownMatch) {
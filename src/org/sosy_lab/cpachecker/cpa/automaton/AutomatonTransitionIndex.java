@@ -0,0 +1,165 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.And;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchLocationDescriptor;
+import org.sosy_lab.cpachecker.cpa.automaton.SourceLocationMatcher.LineMatcher;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon;
+
+/**
+ * Index over the outgoing transitions of an {@link AutomatonInternalState} that allows to cheaply
+ * exclude transitions that cannot match a given CFA edge.
+ *
+ * <p>Witness automata typically guard every transition with a conjunction that contains a match
+ * on the origin line of the edge. Such a conjunct is decidable statically from the edge alone, so
+ * the transitions are bucketed by the lines they accept. For an edge, only the transitions in the
+ * buckets of the lines of the edge and the transitions without such a guard need to be evaluated.
+ * The index only excludes transitions whose trigger definitely evaluates to false, the order of
+ * the remaining transitions is kept.
+ */
+class AutomatonTransitionIndex {
+
+  /** Transitions with line ranges larger than this are not indexed. */
+  private static final int MAX_INDEXED_LINE_RANGE = 64;
+
+  private final ImmutableList<AutomatonTransition> transitions;
+
+  private final @Nullable FunctionEntryNode mainEntry;
+
+  /** Positions of the transitions that are not guarded by an indexed line match. */
+  private final BitSet unindexed;
+
+  /** Positions of the transitions by the origin lines they accept. */
+  private final NavigableMap<Integer, BitSet> byOriginLine;
+
+  private AutomatonTransitionIndex(
+      ImmutableList<AutomatonTransition> pTransitions,
+      @Nullable FunctionEntryNode pMainEntry,
+      BitSet pUnindexed,
+      NavigableMap<Integer, BitSet> pByOriginLine) {
+    transitions = pTransitions;
+    mainEntry = pMainEntry;
+    unindexed = pUnindexed;
+    byOriginLine = pByOriginLine;
+  }
+
+  /**
+   * Build an index for the given transitions.
+   *
+   * @return the index, or null if no transition could be indexed.
+   */
+  static @Nullable AutomatonTransitionIndex build(List<AutomatonTransition> pTransitions) {
+    ImmutableList<AutomatonTransition> transitions = ImmutableList.copyOf(pTransitions);
+    FunctionEntryNode mainEntry = null;
+    boolean indexed = false;
+    BitSet unindexed = new BitSet(transitions.size());
+    NavigableMap<Integer, BitSet> byOriginLine = new TreeMap<>();
+
+    for (int i = 0; i < transitions.size(); i++) {
+      LineMatcher lineMatcher = null;
+      for (MatchLocationDescriptor descriptor :
+          getLocationConjuncts(transitions.get(i).getTrigger(), new ArrayList<>())) {
+        Predicate<FileLocation> matcher = descriptor.getMatchDescriptor();
+        if (matcher instanceof LineMatcher
+            && ((LineMatcher) matcher).isOrigin()
+            && (!indexed || Objects.equals(mainEntry, descriptor.getMainEntry()))) {
+          LineMatcher candidate = (LineMatcher) matcher;
+          if (candidate.getEndLineNumber() - candidate.getStartLineNumber()
+              < MAX_INDEXED_LINE_RANGE) {
+            mainEntry = descriptor.getMainEntry();
+            indexed = true;
+            lineMatcher = candidate;
+            break;
+          }
+        }
+      }
+
+      if (lineMatcher == null) {
+        unindexed.set(i);
+      } else {
+        for (int line = lineMatcher.getStartLineNumber();
+            line <= lineMatcher.getEndLineNumber();
+            line++) {
+          byOriginLine.computeIfAbsent(line, l -> new BitSet(transitions.size())).set(i);
+        }
+      }
+    }
+
+    if (!indexed) {
+      return null;
+    }
+    return new AutomatonTransitionIndex(transitions, mainEntry, unindexed, byOriginLine);
+  }
+
+  /**
+   * Collect the location matches that are conjuncts of the given expression, i.e., the location
+   * matches that need to hold for the whole expression to evaluate to true.
+   */
+  private static List<MatchLocationDescriptor> getLocationConjuncts(
+      AutomatonBoolExpr pExpr, List<MatchLocationDescriptor> pResult) {
+    if (pExpr instanceof MatchLocationDescriptor) {
+      pResult.add((MatchLocationDescriptor) pExpr);
+    } else if (pExpr instanceof And) {
+      getLocationConjuncts(((And) pExpr).a, pResult);
+      getLocationConjuncts(((And) pExpr).b, pResult);
+    }
+    return pResult;
+  }
+
+  /**
+   * Get the positions of the transitions that may match the given edge. All other transitions are
+   * guaranteed to not match it.
+   */
+  BitSet getCandidates(CFAEdge pEdge) {
+    BitSet candidates = (BitSet) unindexed.clone();
+    for (FileLocation location :
+        AutomatonGraphmlCommon.getFileLocationsFromCfaEdge(pEdge, mainEntry)) {
+      int startLine = location.getStartingLineInOrigin();
+      int endLine = location.getEndingLineInOrigin();
+      if (startLine <= endLine) {
+        for (BitSet bucket : byOriginLine.subMap(startLine, true, endLine, true).values()) {
+          candidates.or(bucket);
+        }
+      }
+    }
+    return candidates;
+  }
+
+  int getNumberOfIndexedTransitions() {
+    return transitions.size() - unindexed.cardinality();
+  }
+}
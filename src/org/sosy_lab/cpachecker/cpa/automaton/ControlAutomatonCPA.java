@@ -23,6 +23,7 @@
  */
 package org.sosy_lab.cpachecker.cpa.automaton;
 
+import com.google.common.collect.ImmutableMap;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.charset.Charset;
@@ -30,8 +31,10 @@ import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -126,6 +129,16 @@ public class ControlAutomatonCPA
   )
   private boolean topOnFinalSelfLoopingState = false;
 
+  @Option(
+    secure = true,
+    description =
+        "Build an index over the outgoing transitions of automaton states with at least this many"
+            + " transitions, such that transitions guarded by a non-matching source line"
+            + " are not evaluated (0 to disable)."
+  )
+  @IntegerOption(min = 0)
+  private int transitionIndexThreshold = 8;
+
   private final Automaton automaton;
   private final AutomatonState topState = new AutomatonState.TOP(this);
   private final AutomatonState bottomState = new AutomatonState.BOTTOM(this);
@@ -134,6 +147,7 @@ public class ControlAutomatonCPA
   final AutomatonStatistics stats = new AutomatonStatistics(this);
   private final CFA cfa;
   private final LogManager logger;
+  private final ImmutableMap<AutomatonInternalState, AutomatonTransitionIndex> transitionIndexes;
 
   protected ControlAutomatonCPA(@OptionalAnnotation Automaton pAutomaton,
       Configuration pConfig, LogManager pLogger, CFA pCFA)
@@ -155,6 +169,8 @@ public class ControlAutomatonCPA
 
     pLogger.log(Level.FINEST, "Automaton", automaton.getName(), "loaded.");
 
+    transitionIndexes = buildTransitionIndexes(automaton, transitionIndexThreshold);
+
     if (export) {
       if (dotExportFile != null) {
         try (Writer w =
@@ -196,6 +212,34 @@ public class ControlAutomatonCPA
     return lst.get(0);
   }
 
+  private static ImmutableMap<AutomatonInternalState, AutomatonTransitionIndex>
+      buildTransitionIndexes(Automaton pAutomaton, int pThreshold) {
+    if (pThreshold <= 0) {
+      return ImmutableMap.of();
+    }
+    ImmutableMap.Builder<AutomatonInternalState, AutomatonTransitionIndex> indexes =
+        ImmutableMap.builder();
+    for (AutomatonInternalState state : pAutomaton.getStates()) {
+      if (state.getTransitions().size() >= pThreshold) {
+        AutomatonTransitionIndex index = AutomatonTransitionIndex.build(state.getTransitions());
+        if (index != null) {
+          indexes.put(state, index);
+        }
+      }
+    }
+    return indexes.build();
+  }
+
+  /** Return the transition index of the given state, or null if the state is not indexed. */
+  @Nullable
+  AutomatonTransitionIndex getTransitionIndex(AutomatonInternalState pState) {
+    return transitionIndexes.get(pState);
+  }
+
+  Collection<AutomatonTransitionIndex> getTransitionIndexes() {
+    return transitionIndexes.values();
+  }
+
   Automaton getAutomaton() {
     return this.automaton;
   }
@@ -134,6 +134,18 @@ class SourceLocationMatcher {
           && compStartingLine <= endLineNumber;
     }
 
+    int getStartLineNumber() {
+      return startLineNumber;
+    }
+
+    int getEndLineNumber() {
+      return endLineNumber;
+    }
+
+    boolean isOrigin() {
+      return origin;
+    }
+
     @Override
     public String toString() {
       String prefix = "LINE ";
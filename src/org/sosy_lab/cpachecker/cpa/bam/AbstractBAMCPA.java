@@ -51,6 +51,7 @@ import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysisWithBA
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.cpa.arg.ARGStatistics;
 import org.sosy_lab.cpachecker.cpa.bam.TimedReducer.ReducerStatistics;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheImpl.EvictionStatistics;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
@@ -101,6 +102,7 @@ public abstract class AbstractBAMCPA extends AbstractSingleWrapperCPA {
 
   final Timer blockPartitioningTimer = new Timer();
   final ReducerStatistics reducerStatistics;
+  final EvictionStatistics cacheEvictionStatistics = new EvictionStatistics();
 
   protected final LogManager logger;
   protected final ShutdownNotifier shutdownNotifier;
@@ -40,6 +40,7 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.CPAFactory;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
@@ -64,6 +65,7 @@ public class BAMCPA extends AbstractBAMCPA implements StatisticsProvider, ProofC
   private final ProofChecker wrappedProofChecker;
   private final BAMDataManager data;
   private final BAMPCCManager bamPccManager;
+  private final BAMSummaryStore summaryStore;
 
   @Option(name = "handleRecursiveProcedures", secure = true,
       description = "BAM allows to analyse recursive procedures. This strongly depends on the underlying CPA. "
@@ -97,12 +99,19 @@ public class BAMCPA extends AbstractBAMCPA implements StatisticsProvider, ProofC
 
     final BAMCache cache;
     if (aggressiveCaching) {
-      cache = new BAMCacheAggressiveImpl(config, getReducer(), logger);
+      cache =
+          new BAMCacheAggressiveImpl(config, getReducer(), cacheEvictionStatistics, logger);
     } else {
-      cache = new BAMCacheImpl(config, getReducer(), logger);
+      cache = new BAMCacheImpl(config, getReducer(), cacheEvictionStatistics, logger);
     }
     data = new BAMDataManagerImpl(cache, pReachedSetFactory, pLogger);
 
+    summaryStore = new BAMSummaryStore(config, logger, pCfa, blockPartitioning, data);
+    if (handleRecursiveProcedures && summaryStore.isEnabled()) {
+      throw new InvalidConfigurationException(
+          "Persistent block summaries are not supported for recursive procedures.");
+    }
+
     bamPccManager = new BAMPCCManager(
         wrappedProofChecker,
         config,
@@ -163,6 +172,16 @@ public class BAMCPA extends AbstractBAMCPA implements StatisticsProvider, ProofC
     return bamPccManager;
   }
 
+  BAMSummaryStore getSummaryStore() {
+    return summaryStore;
+  }
+
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    pStatsCollection.add(summaryStore);
+    super.collectStatistics(pStatsCollection);
+  }
+
   @Override
   public boolean areAbstractSuccessors(AbstractState pState, CFAEdge pCfaEdge,
       Collection<? extends AbstractState> pSuccessors) throws CPATransferException, InterruptedException {
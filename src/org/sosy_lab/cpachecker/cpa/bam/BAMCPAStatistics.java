@@ -60,6 +60,11 @@ class BAMCPAStatistics implements Statistics {
     put(out, 0, cpa.reducerStatistics.expandTime);
     put(out, 0, cpa.reducerStatistics.reducePrecisionTime);
     put(out, 0, cpa.reducerStatistics.expandPrecisionTime);
+    if (cpa.cacheEvictionStatistics.evictionTime.getUpdateCount() > 0) {
+      put(out, 0, cpa.cacheEvictionStatistics.evictedEntries);
+      put(out, 0, cpa.cacheEvictionStatistics.evictedStates);
+      put(out, 0, cpa.cacheEvictionStatistics.evictionTime);
+    }
 
     for (BAMBasedRefiner refiner : refiners) {
       // TODO We print these statistics also for use-cases of BAM-refiners, that never use timers. Can we ignore them?
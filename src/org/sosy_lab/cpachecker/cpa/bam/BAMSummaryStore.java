@@ -0,0 +1,686 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam;
+
+import static org.sosy_lab.cpachecker.util.AbstractStates.extractLocation;
+import static org.sosy_lab.cpachecker.util.AbstractStates.isTargetState;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Ints;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.cfa.blocks.BlockPartitioning;
+import org.sosy_lab.cpachecker.cfa.model.ADeclarationEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.CPAchecker;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.globalinfo.CFAInfo;
+import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
+
+/**
+ * Persistent storage for block summaries of BAM, such that a repeated analysis of the same (or a
+ * slightly modified) program can reuse the results of unchanged blocks.
+ *
+ * <p>A summary consists of the ARG of a completely analyzed block and its exit states. Summaries
+ * are grouped by a fingerprint of the block and of the analysis. The block fingerprint covers the
+ * structure and the code of the block, with the nodes numbered in the order of a depth-first
+ * traversal, so it does not depend on the global node numbers. The analysis fingerprint covers
+ * the tool version, the configuration, the machine model, and all global declarations (variables
+ * and types). Within a group, a summary is identified by the serialized reduced entry state and
+ * the reduced precision.
+ *
+ * <p>Abstract states are stored with Java serialization (as for proof-carrying code), thus only
+ * blocks whose states are serializable can be stored. Serialized states reference CFA nodes by
+ * their node number, thus each summary also stores the node numbers of the block at the time it
+ * was written, and node numbers are translated to the current numbers when the summary is read.
+ * The ARG states are recreated with fresh ids. Blocks containing calls to nested blocks or target
+ * states are not stored, because the connections between the reached-sets are not part of a
+ * summary. The precision of a restored summary is the precision of the current query, which is
+ * the same relaxation as with aggressive caching.
+ */
+@Options(prefix = "cpa.bam.summaryStore")
+class BAMSummaryStore implements Statistics {
+
+  /** prefix of precisions that are stored by their textual representation. */
+  private static final String TEXT_PRECISION_PREFIX = "text:";
+
+  /** options that only influence the output and not the analysis of a block. */
+  private static final ImmutableList<String> IRRELEVANT_OPTION_PREFIXES =
+      ImmutableList.of(
+          "cpa.bam.summaryStore.", "limits.", "log.", "output.", "report.", "statistics.");
+
+  @Option(
+    secure = true,
+    description =
+        "file with persistent block summaries of BAM from a previous analysis. "
+            + "Summaries are reused for unchanged blocks. "
+            + "Not supported for recursive procedures."
+  )
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path inputFile = null;
+
+  @Option(
+    secure = true,
+    description =
+        "file for persistent block summaries of BAM. At the end of the analysis all completely "
+            + "analyzed blocks and all summaries from the input file that were not replaced "
+            + "are written to this file. Not supported for recursive procedures."
+  )
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private @Nullable Path outputFile = null;
+
+  private final LogManager logger;
+  private final BlockPartitioning partitioning;
+  private final BAMDataManager data;
+
+  /** fingerprint of everything besides the block that influences a summary. */
+  private final HashCode analysisFingerprint;
+
+  /** summaries from the previous analysis, indexed by the key of their block. */
+  private final Map<HashCode, List<StoredSummary>> storedSummaries = new LinkedHashMap<>();
+
+  /** block keys are expensive to compute and are needed for every cache miss. */
+  private final Map<Block, BlockInfo> blockInfos = new HashMap<>();
+
+  /** summaries from the previous analysis that were restored into the given reached-set. */
+  private final Map<ReachedSet, StoredSummary> restoredReachedSets = new IdentityHashMap<>();
+
+  private final Timer readTimer = new Timer();
+  private final Timer restoreTimer = new Timer();
+  private int readSummaries = 0;
+  private int restoredSummaries = 0;
+  private int unserializableSummaries = 0;
+
+  BAMSummaryStore(
+      Configuration pConfig,
+      LogManager pLogger,
+      CFA pCfa,
+      BlockPartitioning pPartitioning,
+      BAMDataManager pData)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+    partitioning = pPartitioning;
+    data = pData;
+
+    if (isEnabled()) {
+      analysisFingerprint = computeAnalysisFingerprint(pConfig, pCfa);
+    } else {
+      analysisFingerprint = null;
+    }
+    if (inputFile != null && Files.isReadable(inputFile)) {
+      readSummaries();
+    }
+  }
+
+  boolean isEnabled() {
+    return inputFile != null || outputFile != null;
+  }
+
+  private void readSummaries() {
+    readTimer.start();
+    try (InputStream fis = Files.newInputStream(inputFile);
+        ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(fis))) {
+      int blocks = in.readInt();
+      for (int i = 0; i < blocks; i++) {
+        HashCode blockKey = HashCode.fromBytes((byte[]) in.readObject());
+        int size = in.readInt();
+        List<StoredSummary> summaries = new ArrayList<>(size);
+        for (int j = 0; j < size; j++) {
+          summaries.add((StoredSummary) in.readObject());
+        }
+        storedSummaries.put(blockKey, summaries);
+        readSummaries += size;
+      }
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      logger.logUserException(Level.WARNING, e, "Could not read BAM block summaries");
+      storedSummaries.clear();
+      readSummaries = 0;
+    } finally {
+      readTimer.stop();
+    }
+  }
+
+  /**
+   * Restore the summary for the given block entry from the persistent storage and register it in
+   * the BAM cache.
+   *
+   * @return the new cache entry with exit states, or NULL if there is no stored summary.
+   */
+  @Nullable
+  BAMCacheEntry restore(
+      AbstractState pReducedState, Precision pReducedPrecision, Block pBlock) {
+    if (storedSummaries.isEmpty()) {
+      return null;
+    }
+    restoreTimer.start();
+    try {
+      BlockInfo block = getBlockInfo(pBlock);
+      Map<HashCode, StoredSummary> candidates = block.getRestorableSummaries();
+      if (candidates.isEmpty()) {
+        return null;
+      }
+      HashCode key = computeEntryKey(((ARGState) pReducedState).getWrappedState(), pReducedPrecision);
+      StoredSummary stored = key == null ? null : candidates.remove(key);
+      if (stored == null) {
+        return null;
+      }
+
+      Object content = deserialize(stored.content, block.getTranslation(stored));
+      if (!(content instanceof SummaryContent)) {
+        return null;
+      }
+      SummaryContent summary = (SummaryContent) content;
+
+      // new ARG states, such that the state ids are consistent with the current analysis
+      List<ARGState> states = new ArrayList<>(summary.states.size());
+      for (AbstractState wrappedState : summary.states) {
+        states.add(new ARGState(wrappedState, null));
+      }
+      for (int i = 0; i < states.size(); i++) {
+        for (int parent : summary.parents[i]) {
+          states.get(i).addParent(states.get(parent));
+        }
+      }
+      ReachedSet reached = data.getReachedSetFactory().create();
+      for (ARGState state : states) {
+        reached.add(state, pReducedPrecision);
+        reached.removeOnlyFromWaitlist(state); // the block is already completely analyzed
+      }
+      List<AbstractState> exitStates = new ArrayList<>(summary.exitStates.length);
+      for (int exitState : summary.exitStates) {
+        exitStates.add(states.get(exitState));
+      }
+
+      BAMCacheEntry entry =
+          data.getCache().put(pReducedState, pReducedPrecision, pBlock, reached);
+      entry.setExitStates(exitStates);
+      restoredReachedSets.put(reached, stored);
+      restoredSummaries++;
+      logger.log(Level.FINEST, "Restored BAM block summary for", pBlock);
+      return entry;
+
+    } finally {
+      restoreTimer.stop();
+    }
+  }
+
+  @Override
+  public void writeOutputFiles(Result pResult, UnmodifiableReachedSet pReached) {
+    if (outputFile == null) {
+      return;
+    }
+
+    Map<HashCode, List<StoredSummary>> summaries = new LinkedHashMap<>();
+    Set<HashCode> writtenEntries = new HashSet<>();
+    Set<StoredSummary> replaced = Sets.newIdentityHashSet();
+    for (ReachedSet reached : data.getCache().getAllCachedReachedStates()) {
+      if (reached.isEmpty()) {
+        continue;
+      }
+      Block block = partitioning.getBlockForCallNode(extractLocation(reached.getFirstState()));
+      StoredSummary summary = createSummary(reached, block);
+      if (summary == null) {
+        continue;
+      }
+      HashCode entryKey = summary.getEntryKey();
+      if (writtenEntries.add(entryKey)) {
+        summaries
+            .computeIfAbsent(getBlockInfo(block).key, k -> new ArrayList<>())
+            .add(summary);
+      }
+      StoredSummary restoredFrom = restoredReachedSets.get(reached);
+      if (restoredFrom != null) {
+        replaced.add(restoredFrom);
+      }
+    }
+
+    // keep the summaries of the previous analysis that were not replaced,
+    // e.g. for blocks that were not analyzed or were evicted from the cache
+    for (Map.Entry<HashCode, List<StoredSummary>> group : storedSummaries.entrySet()) {
+      for (StoredSummary summary : group.getValue()) {
+        if (!replaced.contains(summary) && writtenEntries.add(summary.getEntryKey())) {
+          summaries.computeIfAbsent(group.getKey(), k -> new ArrayList<>()).add(summary);
+        }
+      }
+    }
+
+    try {
+      Path dir = outputFile.getParent();
+      if (dir != null) {
+        Files.createDirectories(dir);
+      }
+      try (OutputStream fos = Files.newOutputStream(outputFile);
+          ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(fos))) {
+        out.writeInt(summaries.size());
+        for (Map.Entry<HashCode, List<StoredSummary>> group : summaries.entrySet()) {
+          out.writeObject(group.getKey().asBytes());
+          out.writeInt(group.getValue().size());
+          for (StoredSummary summary : group.getValue()) {
+            out.writeObject(summary);
+          }
+        }
+      }
+      logger.log(Level.FINE, "Wrote", writtenEntries.size(), "BAM block summaries to", outputFile);
+
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write BAM block summaries");
+    }
+  }
+
+  /**
+   * Build the summary for a cached reached-set, or return NULL if the reached-set can not be
+   * stored, e.g. because it is not completely analyzed or depends on nested blocks.
+   */
+  private @Nullable StoredSummary createSummary(ReachedSet pReached, Block pBlock) {
+    if (pReached.hasWaitingState()) {
+      return null;
+    }
+    Map<ARGState, Integer> indices = new HashMap<>();
+    List<AbstractState> wrappedStates = new ArrayList<>();
+    List<Integer> exitStates = new ArrayList<>();
+    for (AbstractState s : pReached) {
+      ARGState state = (ARGState) s;
+      if (isTargetState(state)
+          || state.isCovered()
+          || data.hasInitialState(state)
+          || data.hasExpandedState(state)) {
+        return null;
+      }
+      if (pBlock.isReturnNode(extractLocation(state)) && state.getChildren().isEmpty()) {
+        exitStates.add(wrappedStates.size());
+      }
+      indices.put(state, wrappedStates.size());
+      wrappedStates.add(state.getWrappedState());
+    }
+    int[][] parents = new int[wrappedStates.size()][];
+    for (Map.Entry<ARGState, Integer> entry : indices.entrySet()) {
+      parents[entry.getValue()] =
+          Ints.toArray(
+              FluentIterable.from(entry.getKey().getParents())
+                  .filter(indices::containsKey)
+                  .transform(indices::get)
+                  .toList());
+    }
+
+    ARGState root = (ARGState) pReached.getFirstState();
+    byte[] entryState = serialize(root.getWrappedState());
+    byte[] content =
+        serialize(new SummaryContent(wrappedStates, parents, Ints.toArray(exitStates)));
+    if (entryState == null || content == null) {
+      // most likely a NotSerializableException, the summary is ignored
+      unserializableSummaries++;
+      return null;
+    }
+    return new StoredSummary(
+        getBlockInfo(pBlock).nodeNumbers,
+        entryState,
+        precisionToBytes(pReached.getPrecision(root)),
+        content);
+  }
+
+  /**
+   * Compute the key of a summary within its block from the serialized entry state.
+   *
+   * @return the key, or NULL if the entry state can not be serialized.
+   */
+  private @Nullable HashCode computeEntryKey(AbstractState pState, Precision pPrecision) {
+    byte[] state = serialize(pState);
+    return state == null ? null : hashEntry(state, precisionToBytes(pPrecision));
+  }
+
+  private static HashCode hashEntry(byte[] pState, byte[] pPrecision) {
+    return Hashing.sha256().newHasher().putBytes(pState).putBytes(pPrecision).hash();
+  }
+
+  /**
+   * Serialize the precision if possible, otherwise use its textual representation. A textual
+   * representation might contain node numbers, then a summary is only reused if the numbers do
+   * not change.
+   */
+  private byte[] precisionToBytes(Precision pPrecision) {
+    byte[] serialized = serialize(pPrecision);
+    if (serialized != null) {
+      return serialized;
+    }
+    return (TEXT_PRECISION_PREFIX + pPrecision).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static boolean isTextPrecision(byte[] pPrecision) {
+    byte[] prefix = TEXT_PRECISION_PREFIX.getBytes(StandardCharsets.UTF_8);
+    return pPrecision.length >= prefix.length
+        && Arrays.equals(Arrays.copyOf(pPrecision, prefix.length), prefix);
+  }
+
+  private BlockInfo getBlockInfo(Block pBlock) {
+    return blockInfos.computeIfAbsent(pBlock, this::computeBlockInfo);
+  }
+
+  private BlockInfo computeBlockInfo(Block pBlock) {
+    List<CFANode> nodes = getCanonicalOrder(pBlock);
+    Map<CFANode, Integer> indices = new HashMap<>();
+    for (CFANode node : nodes) {
+      indices.put(node, indices.size());
+    }
+
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putBytes(analysisFingerprint.asBytes());
+    for (CFANode node : nodes) {
+      putString(hasher, node.getClass().getSimpleName());
+      putString(hasher, node.getFunctionName());
+      hasher.putBoolean(pBlock.isCallNode(node));
+      hasher.putBoolean(pBlock.isReturnNode(node));
+      hasher.putBoolean(node.isLoopStart());
+      for (CFAEdge edge : CFAUtils.allLeavingEdges(node)) {
+        Integer successor = indices.get(edge.getSuccessor());
+        if (successor == null) {
+          hasher.putInt(-1);
+          putString(hasher, edge.getSuccessor().getFunctionName());
+        } else {
+          hasher.putInt(successor);
+        }
+        putString(hasher, edge.getEdgeType().name());
+        putString(hasher, edge.getCode());
+        putString(hasher, edge.getDescription());
+      }
+    }
+    return new BlockInfo(
+        hasher.hash(), nodes.stream().mapToInt(CFANode::getNodeNumber).toArray());
+  }
+
+  /**
+   * Order the nodes of a block by a depth-first traversal from its call nodes, such that the order
+   * does not depend on the node numbers.
+   */
+  private static List<CFANode> getCanonicalOrder(Block pBlock) {
+    Set<CFANode> visited = new LinkedHashSet<>();
+    Deque<CFANode> waitlist = new ArrayDeque<>();
+    List<CFANode> callNodes =
+        FluentIterable.from(pBlock.getCallNodes())
+            .toSortedList(
+                Comparator.comparing(CFANode::getFunctionName)
+                    .thenComparingInt(CFANode::getNodeNumber));
+    for (CFANode callNode : callNodes) {
+      waitlist.addLast(callNode);
+    }
+    while (!waitlist.isEmpty()) {
+      CFANode node = waitlist.pollFirst();
+      if (!pBlock.getNodes().contains(node) || !visited.add(node)) {
+        continue;
+      }
+      List<CFAEdge> edges = CFAUtils.allLeavingEdges(node).toList();
+      for (int i = edges.size() - 1; i >= 0; i--) {
+        waitlist.addFirst(edges.get(i).getSuccessor());
+      }
+    }
+    // nodes that are not reachable within the block
+    visited.addAll(
+        FluentIterable.from(pBlock.getNodes())
+            .toSortedList(Comparator.comparingInt(CFANode::getNodeNumber)));
+    return ImmutableList.copyOf(visited);
+  }
+
+  private static HashCode computeAnalysisFingerprint(Configuration pConfig, CFA pCfa) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    putString(hasher, CPAchecker.getCPAcheckerVersion());
+    putString(hasher, pCfa.getLanguage().name());
+    putString(hasher, pCfa.getMachineModel().name());
+
+    // the properties string is sorted and contains one option per line
+    for (String line : Splitter.on('\n').split(pConfig.asPropertiesString())) {
+      if (IRRELEVANT_OPTION_PREFIXES.stream().noneMatch(line::startsWith)) {
+        putString(hasher, line);
+      }
+    }
+
+    // global variables and types are visible in all blocks
+    List<String> globalDeclarations = new ArrayList<>();
+    for (CFANode node : pCfa.getAllNodes()) {
+      for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+        if (edge instanceof ADeclarationEdge
+            && ((ADeclarationEdge) edge).getDeclaration().isGlobal()) {
+          globalDeclarations.add(((ADeclarationEdge) edge).getDeclaration().toASTString());
+        }
+      }
+    }
+    Collections.sort(globalDeclarations);
+    for (String declaration : globalDeclarations) {
+      putString(hasher, declaration);
+    }
+    return hasher.hash();
+  }
+
+  private static void putString(Hasher pHasher, String pString) {
+    pHasher.putInt(pString.length()).putString(pString, StandardCharsets.UTF_8);
+  }
+
+  private @Nullable byte[] serialize(Object pObject) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(pObject);
+    } catch (IOException e) {
+      logger.logDebugException(e, "Could not serialize BAM block summary");
+      return null;
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Deserialize an object of a summary, translating the node numbers of the stored CFA into the
+   * node numbers of the current CFA.
+   *
+   * @return the object, or NULL if it can not be read or references unknown nodes.
+   */
+  private @Nullable Object deserialize(byte[] pBytes, Map<Integer, Integer> pTranslation) {
+    Optional<CFAInfo> cfaInfo = GlobalInfo.getInstance().getCFAInfo();
+    if (!cfaInfo.isPresent()) {
+      return null;
+    }
+    cfaInfo.get().setNodeNumberTranslation(pTranslation);
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(pBytes))) {
+      return in.readObject();
+    } catch (IOException | ClassNotFoundException | IllegalStateException e) {
+      logger.logDebugException(e, "Could not restore BAM block summary");
+      return null;
+    } finally {
+      cfaInfo.get().setNodeNumberTranslation(null);
+    }
+  }
+
+  @Override
+  public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
+    if (!isEnabled()) {
+      return;
+    }
+    put(out, "Number of stored block summaries read", readSummaries);
+    put(out, "Number of restored block summaries", restoredSummaries);
+    put(out, "Number of unserializable block summaries", unserializableSummaries);
+    put(out, "Time for reading block summaries", readTimer);
+    put(out, "Time for restoring block summaries", restoreTimer);
+  }
+
+  @Override
+  public @Nullable String getName() {
+    return "BAM summary store";
+  }
+
+  /** The key and the node numbers of a block in the current CFA. */
+  private final class BlockInfo {
+
+    private final HashCode key;
+
+    /** node numbers of the block in canonical order. */
+    private final int[] nodeNumbers;
+
+    /** stored summaries for this block, indexed by their key in the current CFA. */
+    private @Nullable Map<HashCode, StoredSummary> restorableSummaries = null;
+
+    private BlockInfo(HashCode pKey, int[] pNodeNumbers) {
+      key = pKey;
+      nodeNumbers = pNodeNumbers;
+    }
+
+    /** Map the node numbers of the stored summary to the node numbers of this block. */
+    private Map<Integer, Integer> getTranslation(StoredSummary pSummary) {
+      Map<Integer, Integer> translation = new HashMap<>();
+      for (int i = 0; i < nodeNumbers.length; i++) {
+        translation.put(pSummary.nodeNumbers[i], nodeNumbers[i]);
+      }
+      return translation;
+    }
+
+    /**
+     * The key of a stored summary contains the node numbers at the time it was written. Thus we
+     * translate the entry state to the current node numbers and compute its key again.
+     */
+    private Map<HashCode, StoredSummary> getRestorableSummaries() {
+      if (restorableSummaries == null) {
+        restorableSummaries = new HashMap<>();
+        for (StoredSummary summary : storedSummaries.getOrDefault(key, ImmutableList.of())) {
+          if (summary.nodeNumbers.length != nodeNumbers.length) {
+            continue;
+          }
+          Map<Integer, Integer> translation = getTranslation(summary);
+          Object entryState = deserialize(summary.entryState, translation);
+          byte[] precision = summary.precision;
+          if (!isTextPrecision(precision)) {
+            Object deserializedPrecision = deserialize(precision, translation);
+            precision = deserializedPrecision == null ? null : serialize(deserializedPrecision);
+          }
+          byte[] state = entryState == null ? null : serialize(entryState);
+          if (state != null && precision != null) {
+            restorableSummaries.putIfAbsent(hashEntry(state, precision), summary);
+          }
+        }
+      }
+      return restorableSummaries;
+    }
+  }
+
+  /** A serialized summary of a block as written to the file. */
+  private static class StoredSummary implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    /** numbers of the block nodes in canonical order when the summary was written. */
+    private final int[] nodeNumbers;
+
+    private final byte[] entryState;
+    private final byte[] precision;
+
+    /** the serialized {@link SummaryContent}. */
+    private final byte[] content;
+
+    private StoredSummary(
+        int[] pNodeNumbers, byte[] pEntryState, byte[] pPrecision, byte[] pContent) {
+      nodeNumbers = pNodeNumbers;
+      entryState = pEntryState;
+      precision = pPrecision;
+      content = pContent;
+    }
+
+    /** The key of the summary within its block, only comparable for equal node numbers. */
+    private HashCode getEntryKey() {
+      Hasher hasher = Hashing.sha256().newHasher();
+      for (int nodeNumber : nodeNumbers) {
+        hasher.putInt(nodeNumber);
+      }
+      return hasher.putBytes(hashEntry(entryState, precision).asBytes()).hash();
+    }
+  }
+
+  /** The content of a completely analyzed block. */
+  private static class SummaryContent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** the wrapped states of the ARG in the order of the reached-set, the root is first. */
+    private final List<AbstractState> states;
+
+    /** indices of the parents of each state. */
+    private final int[][] parents;
+
+    private final int[] exitStates;
+
+    private SummaryContent(List<AbstractState> pStates, int[][] pParents, int[] pExitStates) {
+      states = new ArrayList<>(pStates);
+      parents = pParents;
+      exitStates = pExitStates;
+    }
+  }
+}
@@ -67,6 +67,7 @@ public class BAMTransferRelation extends AbstractBAMTransferRelation<CPAExceptio
 
   private final CPAAlgorithmFactory algorithmFactory;
   protected final BAMPCCManager bamPccManager;
+  private final BAMSummaryStore summaryStore;
 
   // Callstack-CPA is used for additional recursion handling
   private final CallstackTransferRelation callstackTransfer;
@@ -88,6 +89,7 @@ public class BAMTransferRelation extends AbstractBAMTransferRelation<CPAExceptio
                 .getTransferRelation();
     bamPccManager = new BAMPCCManager(
         wrappedChecker, pConfig, partitioning, wrappedReducer, bamCpa, data);
+    summaryStore = bamCpa.getSummaryStore();
   }
 
   @Override
@@ -285,6 +287,10 @@ public class BAMTransferRelation extends AbstractBAMTransferRelation<CPAExceptio
     // with the recursive call, and
     BAMCacheEntry entry =
         data.getCache().get(reducedInitialState, reducedInitialPrecision, innerSubtree);
+    if (entry == null && summaryStore.isEnabled()) {
+      // Try to reuse a summary from a previous analysis, this is handled like a full hit.
+      entry = summaryStore.restore(reducedInitialState, reducedInitialPrecision, innerSubtree);
+    }
 
     final ReachedSet reached;
     final Collection<AbstractState> reducedResult;
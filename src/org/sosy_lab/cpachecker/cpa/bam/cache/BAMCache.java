@@ -27,6 +27,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.Iterables;
 import java.util.Collection;
+import java.util.Set;
 import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.cfa.blocks.Block;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
@@ -74,11 +75,34 @@ public interface BAMCache extends Statistics {
    *  then there is a way to clear all caches and to restore ARG completely. */
   void clear();
 
+  /**
+   * Register a listener that is asked before completely analyzed entries are evicted from the
+   * cache and that is informed about evicted entries. Caches without eviction ignore the listener.
+   */
+  void setEvictionListener(EvictionListener listener);
+
+  /** Callback for components that keep references to the reached-sets of cache entries. */
+  public interface EvictionListener {
+
+    /**
+     * Return the reached-sets that are still referenced by the current ARG, e.g. because a
+     * counterexample through the block has to be reconstructed from them. These are not evicted.
+     * The returned set is compared by identity.
+     */
+    Set<ReachedSet> getReferencedReachedSets();
+
+    /** Remove all remaining references to the given reached-sets, which were evicted. */
+    void evicted(Collection<ReachedSet> reachedSets);
+  }
+
   public class BAMCacheEntry {
     private final ReachedSet rs;
     private Collection<AbstractState> exitStates;
     private ARGState rootOfBlock;
 
+    /** logical timestamp of the last cache access, used for evicting old entries. */
+    long lastAccess = 0;
+
     protected BAMCacheEntry(ReachedSet pRs) {
       rs = Preconditions.checkNotNull(pRs);
     }
@@ -25,6 +25,7 @@ package org.sosy_lab.cpachecker.cpa.bam.cache;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
@@ -45,9 +46,13 @@ public class BAMCacheAggressiveImpl extends BAMCacheImpl {
 
   private final Map<AbstractStateHash, BAMCacheEntry> impreciseReachedCache = new LinkedHashMap<>();
 
-  public BAMCacheAggressiveImpl(Configuration config, Reducer reducer, LogManager logger)
+  public BAMCacheAggressiveImpl(
+      Configuration config,
+      Reducer reducer,
+      EvictionStatistics evictionStats,
+      LogManager logger)
       throws InvalidConfigurationException {
-    super(config, reducer, logger);
+    super(config, reducer, evictionStats, logger);
   }
 
   @Override
@@ -77,6 +82,11 @@ public class BAMCacheAggressiveImpl extends BAMCacheImpl {
     return super.getIfNotExistant(stateKey, precisionKey, context, hash);
   }
 
+  @Override
+  protected void evicted(Set<BAMCacheEntry> pEntries) {
+    impreciseReachedCache.values().removeIf(pEntries::contains);
+  }
+
   /** Return the cache hit with the closest precision (used for aggressive caching). */
   private BAMCacheEntry lookForSimilarState(
       AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
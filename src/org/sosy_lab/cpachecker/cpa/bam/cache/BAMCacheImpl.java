@@ -27,12 +27,25 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 
 import com.google.common.collect.Collections2;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -46,7 +59,11 @@ import org.sosy_lab.cpachecker.core.interfaces.Reducer;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatHist;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
 
 @Options(prefix = "cpa.bam")
 public class BAMCacheImpl implements BAMCache {
@@ -55,6 +72,40 @@ public class BAMCacheImpl implements BAMCache {
       + "for each cache miss to find the cause of the miss.")
   private boolean gatherCacheMissStatistics = false;
 
+  @Option(
+    secure = true,
+    description =
+        "evict cached reached-sets of completely analyzed blocks (least recently used first) "
+            + "if all these reached-sets together contain more abstract states than this limit. "
+            + "Evicted blocks are recomputed on demand. Only reached-sets that are no longer "
+            + "used by the current ARG can be evicted, e.g., because a refinement removed the "
+            + "states that entered the block. Thus without refinements nothing is evicted and "
+            + "the limit is no bound for the size of the cache. Zero disables the limit. "
+            + "This option is not supported for the parallel BAM algorithm."
+  )
+  @IntegerOption(min = 0)
+  private int cacheStateLimit = 0;
+
+  @Option(
+    secure = true,
+    description =
+        "evict cached reached-sets of completely analyzed blocks (least recently used first, "
+            + "up to half of their states) if the heap usage after a garbage collection "
+            + "exceeds this fraction of the maximal heap size. Like for cpa.bam.cacheStateLimit, "
+            + "only reached-sets that are no longer used by the current ARG can be evicted, "
+            + "thus this does not guarantee that memory is freed. Zero disables the check. "
+            + "This option is not supported for the parallel BAM algorithm."
+  )
+  private double cacheEvictionHeapThreshold = 0;
+
+  /** Statistics about evicted cache entries, printed together with the other BAM statistics. */
+  public static class EvictionStatistics {
+    public final StatCounter evictedEntries = new StatCounter("Number of evicted cache entries");
+    public final StatInt evictedStates =
+        new StatInt(StatKind.SUM, "Number of states in evicted cache entries");
+    public final StatTimer evictionTime = new StatTimer("Time for evicting cache entries");
+  }
+
   private final Timer hashingTimer = new Timer();
   private final Timer equalsTimer = new Timer();
 
@@ -66,6 +117,18 @@ public class BAMCacheImpl implements BAMCache {
   private int precisionCausedMisses = 0;
   private int noSimilarCausedMisses = 0;
 
+  private final EvictionStatistics evictionStats;
+  private EvictionListener evictionListener = null;
+
+  /** logical clock for the last access of cache entries. */
+  private long accessCounter = 0;
+
+  /** number of insertions until the next check whether entries need to be evicted. */
+  private int insertionsUntilEvictionCheck = 1;
+
+  /** number of garbage collections at the last eviction due to memory pressure. */
+  private long gcCountAtLastEviction = -1;
+
   // we use LinkedHashMaps to avoid non-determinism
   protected final Map<AbstractStateHash, BAMCacheEntry> preciseReachedCache = new LinkedHashMap<>();
 
@@ -76,12 +139,23 @@ public class BAMCacheImpl implements BAMCache {
   public BAMCacheImpl(
       Configuration config,
       Reducer reducer,
+      EvictionStatistics evictionStats,
       LogManager logger) throws InvalidConfigurationException {
     config.inject(this, BAMCacheImpl.class);
+    if (cacheEvictionHeapThreshold < 0 || cacheEvictionHeapThreshold > 1) {
+      throw new InvalidConfigurationException(
+          "Option cpa.bam.cacheEvictionHeapThreshold must be a fraction between 0 and 1.");
+    }
     this.reducer = reducer;
+    this.evictionStats = evictionStats;
     this.logger = logger;
   }
 
+  @Override
+  public void setEvictionListener(EvictionListener pListener) {
+    evictionListener = checkNotNull(pListener);
+  }
+
   protected AbstractStateHash getHashCode(AbstractState stateKey, Precision precisionKey, Block context) {
     return new AbstractStateHash(stateKey, precisionKey, context);
   }
@@ -92,10 +166,137 @@ public class BAMCacheImpl implements BAMCache {
     AbstractStateHash hash = getHashCode(stateKey, precisionKey, context);
     BAMCacheEntry entry = new BAMCacheEntry(rs);
     // assert !preciseReachedCache.containsKey(hash);
+    entry.lastAccess = ++accessCounter;
     preciseReachedCache.put(hash, entry);
+    if (isEvictionEnabled() && --insertionsUntilEvictionCheck <= 0) {
+      evictIfNecessary();
+    }
     return entry;
   }
 
+  boolean isEvictionEnabled() {
+    return cacheStateLimit > 0 || cacheEvictionHeapThreshold > 0;
+  }
+
+  /**
+   * Evict cached reached-sets of completely analyzed blocks, if the cache is larger than the
+   * configured limit or if the heap is nearly exhausted. Entries of partially analyzed blocks are
+   * never evicted, because they are still used by the analysis. Entries whose reached-set is still
+   * referenced by the ARG (as reported by the {@link EvictionListener}) are kept, because
+   * refinement and counterexample reconstruction need them. An evicted block is recomputed when it
+   * is requested again.
+   */
+  private void evictIfNecessary() {
+    evictionStats.evictionTime.start();
+    try {
+      // Counting all states is linear in the number of entries,
+      // thus we only check after a number of insertions proportional to the cache size.
+      insertionsUntilEvictionCheck = Math.max(1, preciseReachedCache.size() / 16);
+
+      long cachedStates = 0;
+      for (BAMCacheEntry entry : preciseReachedCache.values()) {
+        if (entry.getExitStates() != null) {
+          cachedStates += entry.getReachedSet().size();
+        }
+      }
+
+      long target = cachedStates;
+      if (cacheStateLimit > 0 && cachedStates > cacheStateLimit) {
+        // evict a bit more than necessary, such that we do not evict again on the next insertion
+        target = cacheStateLimit * 3L / 4;
+      }
+      if (cacheEvictionHeapThreshold > 0 && isHeapExhausted()) {
+        target = Math.min(target, cachedStates / 2);
+      }
+      if (target < cachedStates) {
+        evict(cachedStates - target);
+      }
+    } finally {
+      evictionStats.evictionTime.stop();
+    }
+  }
+
+  /**
+   * Evict the least recently used entries of completely analyzed blocks that are no longer
+   * referenced by the ARG.
+   */
+  private void evict(long pStatesToEvict) {
+    Set<ReachedSet> referenced =
+        evictionListener == null
+            ? ImmutableSet.of()
+            : evictionListener.getReferencedReachedSets();
+    List<BAMCacheEntry> candidates = new ArrayList<>();
+    for (BAMCacheEntry entry : preciseReachedCache.values()) {
+      if (isEvictable(entry, referenced)) {
+        candidates.add(entry);
+      }
+    }
+    candidates.sort(Comparator.comparingLong(entry -> entry.lastAccess));
+
+    long remaining = pStatesToEvict;
+    long oldestKept = Long.MAX_VALUE;
+    for (BAMCacheEntry entry : candidates) {
+      if (remaining <= 0) {
+        oldestKept = entry.lastAccess;
+        break;
+      }
+      remaining -= entry.getReachedSet().size();
+    }
+
+    Set<BAMCacheEntry> evicted = Sets.newIdentityHashSet();
+    Iterator<BAMCacheEntry> it = preciseReachedCache.values().iterator();
+    while (it.hasNext()) {
+      BAMCacheEntry entry = it.next();
+      if (entry.lastAccess < oldestKept && isEvictable(entry, referenced)) {
+        it.remove();
+        evicted.add(entry);
+        evictionStats.evictedEntries.inc();
+        evictionStats.evictedStates.setNextValue(entry.getReachedSet().size());
+      }
+    }
+    evicted(evicted);
+    if (evictionListener != null && !evicted.isEmpty()) {
+      evictionListener.evicted(Collections2.transform(evicted, BAMCacheEntry::getReachedSet));
+    }
+    logger.log(
+        Level.FINE, "Evicted cached reached-sets with", pStatesToEvict - remaining, "states");
+  }
+
+  private boolean isEvictable(BAMCacheEntry pEntry, Set<ReachedSet> pReferenced) {
+    return pEntry.getExitStates() != null
+        && pEntry != lastAnalyzedEntry
+        && !pReferenced.contains(pEntry.getReachedSet());
+  }
+
+  /** Hook for subclasses that keep additional references to cache entries. */
+  protected void evicted(@SuppressWarnings("unused") Set<BAMCacheEntry> pEntries) {}
+
+  /**
+   * Check whether the heap usage after the last garbage collection exceeds the threshold. As the
+   * usage is only updated by a garbage collection, we report an exhausted heap only once per
+   * collection.
+   */
+  private boolean isHeapExhausted() {
+    long gcCount = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      gcCount += Math.max(0, gc.getCollectionCount());
+    }
+    if (gcCount == gcCountAtLastEviction) {
+      return false;
+    }
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      MemoryUsage usage = pool.getCollectionUsage();
+      if (pool.getType() == MemoryType.HEAP
+          && usage != null
+          && usage.getMax() > 0
+          && usage.getUsed() > cacheEvictionHeapThreshold * usage.getMax()) {
+        gcCountAtLastEviction = gcCount;
+        return true;
+      }
+    }
+    return false;
+  }
+
   protected static boolean allStatesContainedInReachedSet(Collection<AbstractState> pElements, ReachedSet reached) {
     return reached.asCollection().containsAll(pElements);
   }
@@ -113,6 +314,7 @@ public class BAMCacheImpl implements BAMCache {
         findCacheMissCause(stateKey, precisionKey, context);
       }
     } else {
+      entry.lastAccess = ++accessCounter;
       if (entry.getExitStates() == null) {
         // we have cached a partly computed reached-set
         partialCacheHits++;
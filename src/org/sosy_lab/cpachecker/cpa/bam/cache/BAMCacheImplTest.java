@@ -0,0 +1,153 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.EvictionListener;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheImpl.EvictionStatistics;
+
+public class BAMCacheImplTest {
+
+  private static final int STATES_PER_BLOCK = 10;
+
+  private final Precision precision = mock(Precision.class);
+  private final Block block = mock(Block.class);
+
+  private Reducer reducer;
+  private EvictionStatistics stats;
+  private TestEvictionListener listener;
+
+  @Before
+  public void setUp() {
+    reducer = mock(Reducer.class);
+    // the state itself is a sufficient key, the mocks are compared by identity
+    when(reducer.getHashCodeForState(any(), any())).thenAnswer(inv -> inv.getArgument(0));
+    stats = new EvictionStatistics();
+    listener = new TestEvictionListener();
+  }
+
+  private BAMCacheImpl createCache(int pStateLimit) throws InvalidConfigurationException {
+    Configuration config =
+        Configuration.builder()
+            .setOption("cpa.bam.cacheStateLimit", Integer.toString(pStateLimit))
+            .build();
+    BAMCacheImpl cache =
+        new BAMCacheImpl(config, reducer, stats, LogManager.createTestLogManager());
+    cache.setEvictionListener(listener);
+    return cache;
+  }
+
+  /** Insert a reached-set for a new block entry and mark the block as completely analyzed. */
+  private ReachedSet putCompleteBlock(BAMCache pCache, AbstractState pState) {
+    ReachedSet reached = mock(ReachedSet.class);
+    when(reached.size()).thenReturn(STATES_PER_BLOCK);
+    BAMCacheEntry entry = pCache.put(pState, precision, block, reached);
+    entry.setExitStates(ImmutableList.of());
+    return reached;
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() throws InvalidConfigurationException {
+    BAMCacheImpl cache = createCache(STATES_PER_BLOCK + STATES_PER_BLOCK / 2);
+    AbstractState first = mock(AbstractState.class);
+    AbstractState second = mock(AbstractState.class);
+    AbstractState third = mock(AbstractState.class);
+
+    ReachedSet firstReached = putCompleteBlock(cache, first);
+    putCompleteBlock(cache, second);
+    assertThat(listener.evicted).isEmpty();
+
+    // the third insertion finds two complete blocks, which exceed the limit
+    putCompleteBlock(cache, third);
+    assertThat(cache.containsPreciseKey(first, precision, block)).isFalse();
+    assertThat(cache.containsPreciseKey(second, precision, block)).isTrue();
+    assertThat(cache.containsPreciseKey(third, precision, block)).isTrue();
+    assertThat(listener.evicted).containsExactly(firstReached);
+    assertThat(stats.evictedEntries.getValue()).isEqualTo(1L);
+  }
+
+  @Test
+  public void testKeepReferencedEntries() throws InvalidConfigurationException {
+    BAMCacheImpl cache = createCache(STATES_PER_BLOCK + STATES_PER_BLOCK / 2);
+    AbstractState first = mock(AbstractState.class);
+    AbstractState second = mock(AbstractState.class);
+    AbstractState third = mock(AbstractState.class);
+
+    ReachedSet firstReached = putCompleteBlock(cache, first);
+    ReachedSet secondReached = putCompleteBlock(cache, second);
+    listener.referenced = ImmutableSet.of(firstReached);
+
+    putCompleteBlock(cache, third);
+    assertThat(cache.containsPreciseKey(first, precision, block)).isTrue();
+    assertThat(cache.containsPreciseKey(second, precision, block)).isFalse();
+    assertThat(listener.evicted).containsExactly(secondReached);
+  }
+
+  @Test
+  public void testNoEvictionWithoutLimit() throws InvalidConfigurationException {
+    BAMCacheImpl cache = createCache(0);
+    for (int i = 0; i < 10; i++) {
+      putCompleteBlock(cache, mock(AbstractState.class));
+    }
+    assertThat(cache.getAllCachedReachedStates()).hasSize(10);
+    assertThat(listener.evicted).isEmpty();
+  }
+
+  private static class TestEvictionListener implements EvictionListener {
+
+    private Set<ReachedSet> referenced = ImmutableSet.of();
+    private final List<ReachedSet> evicted = new ArrayList<>();
+
+    @Override
+    public Set<ReachedSet> getReferencedReachedSets() {
+      return referenced;
+    }
+
+    @Override
+    public void evicted(Collection<ReachedSet> pReachedSets) {
+      evicted.addAll(pReachedSets);
+    }
+  }
+}
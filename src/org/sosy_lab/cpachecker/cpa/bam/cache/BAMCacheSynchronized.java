@@ -48,7 +48,16 @@ public class BAMCacheSynchronized implements BAMCache {
 
   public BAMCacheSynchronized(Configuration pConfig, Reducer pReducer, LogManager pLogger)
       throws InvalidConfigurationException {
-    cache = new BAMCacheImpl(pConfig, pReducer, pLogger);
+    BAMCacheImpl cacheImpl =
+        new BAMCacheImpl(pConfig, pReducer, new BAMCacheImpl.EvictionStatistics(), pLogger);
+    if (cacheImpl.isEvictionEnabled()) {
+      // the parallel algorithm expects that completely analyzed blocks stay in the cache
+      throw new InvalidConfigurationException(
+          "Evicting entries from the BAM cache (options cpa.bam.cacheStateLimit and "
+              + "cpa.bam.cacheEvictionHeapThreshold) is not supported "
+              + "by the parallel BAM algorithm.");
+    }
+    cache = cacheImpl;
   }
 
   @Override
@@ -135,4 +144,11 @@ public class BAMCacheSynchronized implements BAMCache {
       cache.clear();
     }
   }
+
+  @Override
+  public void setEvictionListener(EvictionListener pListener) {
+    synchronized (this) {
+      cache.setEvictionListener(pListener);
+    }
+  }
 }
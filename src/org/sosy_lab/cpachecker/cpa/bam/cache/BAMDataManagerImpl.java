@@ -30,9 +30,11 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import com.google.common.collect.Table;
 import com.google.common.collect.Table.Cell;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -51,6 +53,7 @@ import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.EvictionListener;
 
 /**
  * Data structures required for BAM.
@@ -111,6 +114,58 @@ public class BAMDataManagerImpl implements BAMDataManager {
     bamCache = pArgCache;
     reachedSetFactory = pReachedSetFactory;
     logger = pLogger;
+    bamCache.setEvictionListener(new DataManagerEvictionListener());
+  }
+
+  /**
+   * Keeps reached-sets that are used by the current ARG in the cache and removes our references to
+   * evicted reached-sets, such that their memory can be freed.
+   */
+  private class DataManagerEvictionListener implements EvictionListener {
+
+    @Override
+    public Set<ReachedSet> getReferencedReachedSets() {
+      // States removed from the ARG by a refinement are destroyed,
+      // thus the reached-sets registered only for them are no longer needed.
+      Set<ReachedSet> referenced = Sets.newIdentityHashSet();
+      for (Cell<AbstractState, AbstractState, ReachedSet> entry :
+          initialStateToReachedSet.cellSet()) {
+        if (!((ARGState) entry.getRowKey()).isDestroyed()) {
+          referenced.add(entry.getValue());
+        }
+      }
+      return referenced;
+    }
+
+    @Override
+    public void evicted(Collection<ReachedSet> pReachedSets) {
+      Set<ReachedSet> evicted = Sets.newIdentityHashSet();
+      evicted.addAll(pReachedSets);
+      Set<AbstractState> evictedStates = new HashSet<>();
+      for (ReachedSet reached : evicted) {
+        evictedStates.addAll(reached.asCollection());
+      }
+      // Remove the links from and into the evicted reached-sets. Nested blocks
+      // that were only used from within an evicted reached-set become unreferenced.
+      initialStateToReachedSet
+          .cellSet()
+          .removeIf(
+              cell ->
+                  evicted.contains(cell.getValue())
+                      || evictedStates.contains(cell.getRowKey()));
+      reducedToNonReduced
+          .entries()
+          .removeIf(
+              entry ->
+                  evictedStates.contains(entry.getKey())
+                      || evictedStates.contains(entry.getValue()));
+      expandedStateToBlockExit
+          .entrySet()
+          .removeIf(
+              entry ->
+                  evictedStates.contains(entry.getKey())
+                      || evictedStates.contains(entry.getValue().reducedState));
+    }
   }
 
   /**
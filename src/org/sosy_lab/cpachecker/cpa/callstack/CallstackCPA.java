@@ -40,6 +40,7 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractDomain;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.CPAFactory;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysisWithBAM;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysisWithConcurrency;
 import org.sosy_lab.cpachecker.core.interfaces.Reducer;
 import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
@@ -48,7 +49,9 @@ import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 
 public class CallstackCPA extends AbstractCPA
-    implements ConfigurableProgramAnalysisWithBAM, ProofChecker {
+    implements ConfigurableProgramAnalysisWithBAM,
+        ConfigurableProgramAnalysisWithConcurrency,
+        ProofChecker {
 
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(CallstackCPA.class);
@@ -66,6 +69,11 @@ public class CallstackCPA extends AbstractCPA
     return new CallstackReducer();
   }
 
+  @Override
+  public boolean hasThreadSafePrecisionAdjustment() {
+    return true;
+  }
+
   @Override
   public AbstractState getInitialState(CFANode pNode, StateSpacePartition pPartition) {
     return new CallstackState(null, pNode.getFunctionName(), pNode);
@@ -28,8 +28,12 @@ import static com.google.common.collect.FluentIterable.from;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.List;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -45,6 +49,7 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.CPAFactory;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysisWithBAM;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysisWithConcurrency;
 import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustment;
@@ -56,12 +61,19 @@ import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.WrapperCPA;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeProfile.Operator;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeProfile.OperatorTimers;
 import org.sosy_lab.cpachecker.cpa.predicate.PredicateAbstractionManager;
 import org.sosy_lab.cpachecker.cpa.predicate.PredicateCPA;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 
-public class CompositeCPA implements StatisticsProvider, WrapperCPA, ConfigurableProgramAnalysisWithBAM, ProofChecker {
+public class CompositeCPA
+    implements StatisticsProvider,
+        WrapperCPA,
+        ConfigurableProgramAnalysisWithBAM,
+        ConfigurableProgramAnalysisWithConcurrency,
+        ProofChecker {
 
   @Options(prefix="cpa.composite")
   private static class CompositeOptions {
@@ -89,6 +101,30 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
               + " be a list."
     )
     private boolean aggregateBasicBlocks = false;
+
+    @Option(
+      secure = true,
+      description =
+          "Measure for each component CPA the number of calls, the wall and CPU time,"
+              + " and the number of successors of its operators when called"
+              + " by the operators of the CompositeCPA.")
+    private boolean profileComponents = false;
+
+    @Option(
+      secure = true,
+      description =
+          "Export the profile of the component CPAs as CSV file"
+              + " (only if cpa.composite.profileComponents is enabled).")
+    @FileOption(FileOption.Type.OUTPUT_FILE)
+    private Path profileFile = Paths.get("CompositeProfile.csv");
+
+    @Option(
+      secure = true,
+      description =
+          "Export the profile of the component CPAs as JSON file"
+              + " (only if cpa.composite.profileComponents is enabled).")
+    @FileOption(FileOption.Type.OUTPUT_FILE)
+    private Path profileJsonFile = Paths.get("CompositeProfile.json");
   }
 
   private static class CompositeCPAFactory extends AbstractCPAFactory {
@@ -113,7 +149,14 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
             "Merge PLAIN is currently not supported in predicated analysis");
       }
 
-      return new CompositeCPA(cfa, cpas, options);
+      CompositeProfile profile = null;
+      if (options.profileComponents) {
+        profile =
+            new CompositeProfile(
+                cpas, options.profileFile, options.profileJsonFile, getLogger());
+      }
+
+      return new CompositeCPA(cfa, cpas, options, profile);
     }
 
     @Override
@@ -148,14 +191,21 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
   private final ImmutableList<ConfigurableProgramAnalysis> cpas;
   private final CFA cfa;
   private final CompositeOptions options;
+  private final @Nullable CompositeProfile profile;
 
   private CompositeCPA(
       CFA pCfa,
       ImmutableList<ConfigurableProgramAnalysis> cpas,
-      CompositeOptions pOptions) {
+      CompositeOptions pOptions,
+      @Nullable CompositeProfile pProfile) {
     this.cfa = pCfa;
     this.cpas = cpas;
     this.options = pOptions;
+    this.profile = pProfile;
+  }
+
+  private OperatorTimers getTimers(Operator pOperator) {
+    return profile == null ? OperatorTimers.NONE : profile.getTimers(pOperator);
   }
 
   @Override
@@ -174,7 +224,11 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
       transferRelations.add(cpa.getTransferRelation());
     }
     return new CompositeTransferRelation(
-        transferRelations.build(), cfa, options.aggregateBasicBlocks);
+        transferRelations.build(),
+        cfa,
+        options.aggregateBasicBlocks,
+        getTimers(Operator.TRANSFER),
+        getTimers(Operator.STRENGTHEN));
   }
 
   @Override
@@ -206,7 +260,9 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
       } else {
         if (options.merge.equals("AGREE")) {
           return new CompositeMergeAgreeOperator(
-              mergeOperators.build(), getStopOperator().getStopOperators());
+              mergeOperators.build(),
+              getStopOperator().getStopOperators(),
+              getTimers(Operator.MERGE));
         } else if (options.merge.equals("PLAIN")) {
           return new CompositeMergePlainOperator(mergeOperators.build());
         } else {
@@ -222,7 +278,7 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
     for (ConfigurableProgramAnalysis cpa : cpas) {
       stopOps.add(cpa.getStopOperator());
     }
-    return new CompositeStopOperator(stopOps.build());
+    return new CompositeStopOperator(stopOps.build(), getTimers(Operator.STOP));
   }
 
   @Override
@@ -243,10 +299,31 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
     if (simplePrec) {
       return new CompositeSimplePrecisionAdjustment(simplePrecisionAdjustments.build());
     } else {
-      return new CompositePrecisionAdjustment(precisionAdjustments.build());
+      return new CompositePrecisionAdjustment(
+          precisionAdjustments.build(), getTimers(Operator.PRECISION_ADJUSTMENT));
     }
   }
 
+  @Override
+  public boolean hasThreadSafeTransferRelation() {
+    return from(cpas)
+        .allMatch(
+            cpa ->
+                cpa instanceof ConfigurableProgramAnalysisWithConcurrency
+                    && ((ConfigurableProgramAnalysisWithConcurrency) cpa)
+                        .hasThreadSafeTransferRelation());
+  }
+
+  @Override
+  public boolean hasThreadSafePrecisionAdjustment() {
+    return from(cpas)
+        .allMatch(
+            cpa ->
+                cpa instanceof ConfigurableProgramAnalysisWithConcurrency
+                    && ((ConfigurableProgramAnalysisWithConcurrency) cpa)
+                        .hasThreadSafePrecisionAdjustment());
+  }
+
   @Override
   public Reducer getReducer() throws InvalidConfigurationException {
     ImmutableList.Builder<Reducer> wrappedReducers = ImmutableList.builder();
@@ -284,6 +361,9 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
 
   @Override
   public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    if (profile != null) {
+      pStatsCollection.add(profile);
+    }
     for (ConfigurableProgramAnalysis cpa: cpas) {
       if (cpa instanceof StatisticsProvider) {
         ((StatisticsProvider)cpa).collectStatistics(pStatsCollection);
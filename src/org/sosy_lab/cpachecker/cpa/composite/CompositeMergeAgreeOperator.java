@@ -34,6 +34,7 @@ import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
 import org.sosy_lab.cpachecker.core.interfaces.NonMergeableAbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeProfile.OperatorTimers;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 import java.util.Collections;
@@ -58,11 +59,15 @@ class CompositeMergeAgreeOperator implements MergeOperator {
 
   private final ImmutableList<MergeOperator> mergeOperators;
   private final ImmutableList<StopOperator> stopOperators;
+  private final OperatorTimers timers;
 
   CompositeMergeAgreeOperator(
-      ImmutableList<MergeOperator> mergeOperators, ImmutableList<StopOperator> stopOperators) {
+      ImmutableList<MergeOperator> mergeOperators,
+      ImmutableList<StopOperator> stopOperators,
+      OperatorTimers pTimers) {
     this.mergeOperators = mergeOperators;
     this.stopOperators  = stopOperators;
+    this.timers = pTimers;
   }
 
   @Override
@@ -90,6 +95,7 @@ class CompositeMergeAgreeOperator implements MergeOperator {
     Iterator<Precision> precIter = compPrecision.getWrappedPrecisions().iterator();
 
     boolean identicalStates = true;
+    int i = 0;
     for (MergeOperator mergeOp : mergeOperators) {
       AbstractState absSuccessorState = comp1Iter.next();
       AbstractState absReachedState   = comp2Iter.next();
@@ -97,7 +103,14 @@ class CompositeMergeAgreeOperator implements MergeOperator {
       Precision prec      = precIter.next();
       StopOperator stopOp = stopIter.next();
 
-      AbstractState mergedState = mergeOp.merge(absSuccessorState, absReachedState, prec);
+      AbstractState mergedState;
+      timers.start(i);
+      try {
+        mergedState = mergeOp.merge(absSuccessorState, absReachedState, prec);
+      } finally {
+        timers.stop(i);
+      }
+      i++;
 
       // Check if 'mergedState' also covers 'absSuccessorState', i.e., if 'mergeOp' performed a join.
       // By definition of MergeOperator, we know it covers 'absReachedState'.
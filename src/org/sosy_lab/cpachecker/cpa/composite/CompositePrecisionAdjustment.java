@@ -34,15 +34,19 @@ import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustment;
 import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult;
 import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult.Action;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeProfile.OperatorTimers;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.ImmutableConcatList;
 
 class CompositePrecisionAdjustment implements PrecisionAdjustment {
   private final ImmutableList<PrecisionAdjustment> precisionAdjustments;
   private final ImmutableList<Function<AbstractState, AbstractState>> stateProjectionFunctions;
+  private final OperatorTimers timers;
 
-  CompositePrecisionAdjustment(ImmutableList<PrecisionAdjustment> precisionAdjustments) {
+  CompositePrecisionAdjustment(
+      ImmutableList<PrecisionAdjustment> precisionAdjustments, OperatorTimers pTimers) {
     this.precisionAdjustments = precisionAdjustments;
+    this.timers = pTimers;
 
     ImmutableList.Builder<Function<AbstractState, AbstractState>> stateProjections =
         ImmutableList.builder();
@@ -83,11 +87,18 @@ class CompositePrecisionAdjustment implements PrecisionAdjustment {
       PrecisionAdjustment precisionAdjustment = precisionAdjustments.get(i);
       AbstractState oldElement = comp.get(i);
       Precision oldPrecision = prec.get(i);
-      Optional<PrecisionAdjustmentResult> out = precisionAdjustment.prec(
-          oldElement, oldPrecision, pElements,
-          Functions.compose(stateProjectionFunctions.get(i), projection),
-          fullState
-      );
+      Optional<PrecisionAdjustmentResult> out;
+      timers.start(i);
+      try {
+        out = precisionAdjustment.prec(
+            oldElement, oldPrecision, pElements,
+            Functions.compose(stateProjectionFunctions.get(i), projection),
+            fullState
+        );
+      } finally {
+        timers.stop(i);
+      }
+      timers.countSuccessors(i, out.isPresent() ? 1 : 0);
 
       if (!out.isPresent()) {
         return Optional.empty();
@@ -0,0 +1,280 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.composite;
+
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsWriter.writingStatisticsTo;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.JSON;
+import org.sosy_lab.common.io.IO;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/**
+ * Profile of the component CPAs of a {@link CompositeCPA}: for each component and each operator
+ * that the composite operators delegate to, this class records the number of calls, the wall and
+ * CPU time, and the number of produced successors. The measurements may be taken by several
+ * threads concurrently.
+ */
+class CompositeProfile implements Statistics {
+
+  enum Operator {
+    TRANSFER("Transfer relation"),
+    STRENGTHEN("Strengthening"),
+    PRECISION_ADJUSTMENT("Precision adjustment"),
+    MERGE("Merge operator"),
+    STOP("Stop operator"),
+    ;
+
+    private final String title;
+
+    Operator(String pTitle) {
+      title = pTitle;
+    }
+  }
+
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+  private final ImmutableList<String> componentNames;
+  private final ImmutableList<ImmutableList<OperatorProfile>> profiles;
+  private final @Nullable Path profileFile;
+  private final @Nullable Path profileJsonFile;
+  private final LogManager logger;
+
+  CompositeProfile(
+      ImmutableList<ConfigurableProgramAnalysis> pCpas,
+      @Nullable Path pProfileFile,
+      @Nullable Path pProfileJsonFile,
+      LogManager pLogger) {
+    ImmutableList.Builder<String> names = ImmutableList.builder();
+    ImmutableList.Builder<ImmutableList<OperatorProfile>> componentProfiles =
+        ImmutableList.builder();
+    for (int i = 0; i < pCpas.size(); i++) {
+      // the index distinguishes several instances of the same CPA, e.g., for automata
+      names.add(i + ": " + pCpas.get(i).getClass().getSimpleName());
+      ImmutableList.Builder<OperatorProfile> operatorProfiles = ImmutableList.builder();
+      for (Operator operator : Operator.values()) {
+        operatorProfiles.add(new OperatorProfile(operator));
+      }
+      componentProfiles.add(operatorProfiles.build());
+    }
+    componentNames = names.build();
+    profiles = componentProfiles.build();
+    profileFile = pProfileFile;
+    profileJsonFile = pProfileJsonFile;
+    logger = pLogger;
+  }
+
+  /** Create timers for the given operator of all components. */
+  OperatorTimers getTimers(Operator pOperator) {
+    return new OperatorTimers(
+        ImmutableList.copyOf(
+            Lists.transform(
+                profiles, operatorProfiles -> operatorProfiles.get(pOperator.ordinal()))));
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    StatisticsWriter writer = writingStatisticsTo(pOut);
+    for (int i = 0; i < componentNames.size(); i++) {
+      writer.put(componentNames.get(i), "");
+      writer = writer.beginLevel();
+      for (OperatorProfile profile : profiles.get(i)) {
+        long calls = profile.calls.sum();
+        writer.putIf(
+            calls > 0,
+            profile.operator.title,
+            String.format(
+                "%s (CPU: %s), (#calls = %d), (#successors = %d)",
+                profile.getWallTime().formatAs(TimeUnit.SECONDS),
+                profile.getCpuTime().formatAs(TimeUnit.SECONDS),
+                calls,
+                profile.successors.sum()));
+      }
+      writer = writer.endLevel();
+    }
+  }
+
+  @Override
+  public void writeOutputFiles(Result pResult, UnmodifiableReachedSet pReached) {
+    if (profileFile != null) {
+      writeCsv(profileFile);
+    }
+    if (profileJsonFile != null) {
+      writeJson(profileJsonFile);
+    }
+  }
+
+  private void writeCsv(Path pFile) {
+    try (Writer out = IO.openOutputFile(pFile, Charset.defaultCharset())) {
+      out.write("component,operator,calls,wall time (ms),cpu time (ms),successors\n");
+      for (int i = 0; i < componentNames.size(); i++) {
+        for (OperatorProfile profile : profiles.get(i)) {
+          out.write(
+              String.format(
+                  "%s,%s,%d,%d,%d,%d\n",
+                  componentNames.get(i),
+                  profile.operator.name(),
+                  profile.calls.sum(),
+                  profile.getWallTime().asMillis(),
+                  profile.getCpuTime().asMillis(),
+                  profile.successors.sum()));
+        }
+      }
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write profile of CompositeCPA");
+    }
+  }
+
+  /** Write the profile as a list of objects with the same fields as the CSV file. */
+  private void writeJson(Path pFile) {
+    List<Map<String, Object>> entries = new ArrayList<>();
+    for (int i = 0; i < componentNames.size(); i++) {
+      for (OperatorProfile profile : profiles.get(i)) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("component", componentNames.get(i));
+        entry.put("operator", profile.operator.name());
+        entry.put("calls", profile.calls.sum());
+        entry.put("wallTime", profile.getWallTime().asMillis());
+        entry.put("cpuTime", profile.getCpuTime().asMillis());
+        entry.put("successors", profile.successors.sum());
+        entries.add(entry);
+      }
+    }
+    try {
+      JSON.writeJSONString(entries, pFile);
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write profile of CompositeCPA");
+    }
+  }
+
+  @Override
+  public @Nullable String getName() {
+    return "CompositeCPA component profile";
+  }
+
+  /** Accumulated measurements of one operator of one component, shared by all threads. */
+  private static class OperatorProfile {
+    private final Operator operator;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder wallTime = new LongAdder();
+    private final LongAdder cpuTime = new LongAdder();
+    private final LongAdder successors = new LongAdder();
+
+    private OperatorProfile(Operator pOperator) {
+      operator = pOperator;
+    }
+
+    private TimeSpan getWallTime() {
+      return TimeSpan.of(wallTime.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    private TimeSpan getCpuTime() {
+      return TimeSpan.of(cpuTime.sum(), TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Measures the calls of one operator of all components for one composite operator instance,
+   * which may be used by several threads. The composite operators use {@link #NONE} if profiling
+   * is disabled.
+   */
+  static class OperatorTimers {
+
+    static final OperatorTimers NONE = new OperatorTimers(ImmutableList.of());
+
+    private final List<OperatorProfile> operatorProfiles;
+    private final boolean measureCpuTime;
+
+    /**
+     * The start times of the current calls of each thread, the wall time of the component with
+     * index i at 2*i and its CPU time at 2*i+1.
+     */
+    private final ThreadLocal<long[]> startTimes;
+
+    private OperatorTimers(ImmutableList<OperatorProfile> pOperatorProfiles) {
+      operatorProfiles = pOperatorProfiles;
+      measureCpuTime = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported();
+      startTimes = ThreadLocal.withInitial(() -> new long[2 * pOperatorProfiles.size()]);
+    }
+
+    /** Start measuring a call to the operator of the component with the given index. */
+    void start(int pComponent) {
+      if (operatorProfiles.isEmpty()) {
+        return;
+      }
+      long[] times = startTimes.get();
+      if (measureCpuTime) {
+        times[2 * pComponent + 1] = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+      }
+      times[2 * pComponent] = System.nanoTime();
+    }
+
+    /**
+     * Stop measuring the call to the operator of the component with the given index, which was
+     * started by the current thread.
+     */
+    void stop(int pComponent) {
+      if (operatorProfiles.isEmpty()) {
+        return;
+      }
+      long[] times = startTimes.get();
+      OperatorProfile profile = operatorProfiles.get(pComponent);
+      profile.wallTime.add(System.nanoTime() - times[2 * pComponent]);
+      profile.calls.increment();
+      if (measureCpuTime) {
+        profile.cpuTime.add(THREAD_MX_BEAN.getCurrentThreadCpuTime() - times[2 * pComponent + 1]);
+      }
+    }
+
+    /** Record the number of successors the last call of the given component produced. */
+    void countSuccessors(int pComponent, int pSuccessors) {
+      if (operatorProfiles.isEmpty()) {
+        return;
+      }
+      operatorProfiles.get(pComponent).successors.add(pSuccessors);
+    }
+  }
+}
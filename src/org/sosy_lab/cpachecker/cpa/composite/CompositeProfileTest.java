@@ -0,0 +1,161 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.composite;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableList;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeProfile.Operator;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeProfile.OperatorTimers;
+
+public class CompositeProfileTest {
+
+  private static final int THREADS = 4;
+  private static final int CALLS_PER_THREAD = 1000;
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Path csvFile;
+  private Path jsonFile;
+  private CompositeProfile profile;
+
+  @Before
+  public void setUp() {
+    csvFile = tempFolder.getRoot().toPath().resolve("profile.csv");
+    jsonFile = tempFolder.getRoot().toPath().resolve("profile.json");
+    profile =
+        new CompositeProfile(
+            ImmutableList.of(
+                mock(ConfigurableProgramAnalysis.class), mock(ConfigurableProgramAnalysis.class)),
+            csvFile,
+            jsonFile,
+            LogManager.createTestLogManager());
+  }
+
+  @Test
+  public void testStatistics() {
+    OperatorTimers timers = profile.getTimers(Operator.TRANSFER);
+    timers.start(1);
+    timers.stop(1);
+    timers.countSuccessors(1, 2);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    profile.printStatistics(
+        new PrintStream(out, true), Result.UNKNOWN, mock(UnmodifiableReachedSet.class));
+    String statistics = new String(out.toByteArray(), Charset.defaultCharset());
+    assertThat(statistics).contains("1: ");
+    assertThat(statistics).contains("Transfer relation");
+    assertThat(statistics).contains("(#calls = 1), (#successors = 2)");
+    // operators that were not called are omitted
+    assertThat(statistics).doesNotContain("Merge operator");
+  }
+
+  @Test
+  public void testConcurrentCalls() throws Exception {
+    // one operator instance is shared by all threads, like in a parallel analysis
+    OperatorTimers timers = profile.getTimers(Operator.TRANSFER);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int j = 0; j < CALLS_PER_THREAD; j++) {
+                    timers.start(0);
+                    timers.stop(0);
+                    timers.countSuccessors(0, 1);
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    profile.writeOutputFiles(Result.UNKNOWN, mock(UnmodifiableReachedSet.class));
+    List<String> lines = Files.readAllLines(csvFile, Charset.defaultCharset());
+    String transferLine = lines.stream().filter(l -> l.contains(",TRANSFER,")).findFirst().get();
+    List<String> values = ImmutableList.copyOf(transferLine.split(","));
+    assertThat(values).hasSize(6);
+    assertThat(values.get(0)).startsWith("0: ");
+    assertThat(Long.parseLong(values.get(2))).isEqualTo(THREADS * CALLS_PER_THREAD);
+    assertThat(Long.parseLong(values.get(3))).isAtLeast(0L);
+    assertThat(Long.parseLong(values.get(4))).isAtLeast(0L);
+    assertThat(Long.parseLong(values.get(5))).isEqualTo(THREADS * CALLS_PER_THREAD);
+  }
+
+  @Test
+  public void testOutputFiles() throws Exception {
+    OperatorTimers timers = profile.getTimers(Operator.STOP);
+    timers.start(0);
+    timers.stop(0);
+    timers.countSuccessors(0, 3);
+
+    profile.writeOutputFiles(Result.UNKNOWN, mock(UnmodifiableReachedSet.class));
+
+    // one line per component and operator
+    List<String> lines = Files.readAllLines(csvFile, Charset.defaultCharset());
+    assertThat(lines).hasSize(1 + 2 * Operator.values().length);
+    assertThat(lines.get(0))
+        .isEqualTo("component,operator,calls,wall time (ms),cpu time (ms),successors");
+    assertThat(lines.get(Operator.STOP.ordinal() + 1)).matches("0: [^,]*,STOP,1,\\d+,\\d+,3");
+    assertThat(lines.get(Operator.values().length + Operator.STOP.ordinal() + 1))
+        .matches("1: [^,]*,STOP,0,0,0,0");
+
+    String json = new String(Files.readAllBytes(jsonFile), StandardCharsets.UTF_8);
+    assertThat(json).startsWith("[");
+    assertThat(json).endsWith("]");
+    assertThat(json)
+        .containsMatch(
+            "\\{\"component\":\"0: [^\"]*\",\"operator\":\"STOP\",\"calls\":1,"
+                + "\"wallTime\":\\d+,\"cpuTime\":\\d+,\"successors\":3\\}");
+    assertThat(json)
+        .containsMatch(
+            "\\{\"component\":\"1: [^\"]*\",\"operator\":\"STOP\",\"calls\":0,"
+                + "\"wallTime\":0,\"cpuTime\":0,\"successors\":0\\}");
+  }
+}
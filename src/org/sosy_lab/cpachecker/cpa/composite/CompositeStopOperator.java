@@ -35,14 +35,17 @@ import org.sosy_lab.cpachecker.core.interfaces.ForcedCoveringStopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeProfile.OperatorTimers;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 class CompositeStopOperator implements StopOperator, ForcedCoveringStopOperator {
 
   private final ImmutableList<StopOperator> stopOperators;
+  private final OperatorTimers timers;
 
-  CompositeStopOperator(ImmutableList<StopOperator> stopOperators) {
+  CompositeStopOperator(ImmutableList<StopOperator> stopOperators, OperatorTimers pTimers) {
     this.stopOperators = stopOperators;
+    this.timers = pTimers;
   }
 
   @Override
@@ -72,7 +75,14 @@ class CompositeStopOperator implements StopOperator, ForcedCoveringStopOperator
       AbstractState absElem2 = compositeReachedStates.get(idx);
       Precision prec = compositePrecisions.get(idx);
 
-      if (!stopOp.stop(absElem1, Collections.singleton(absElem2), prec)) {
+      boolean stop;
+      timers.start(idx);
+      try {
+        stop = stopOp.stop(absElem1, Collections.singleton(absElem2), prec);
+      } finally {
+        timers.stop(idx);
+      }
+      if (!stop) {
         return false;
       }
     }
@@ -55,6 +55,7 @@ import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
 import org.sosy_lab.cpachecker.cpa.assumptions.storage.AssumptionStorageTransferRelation;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeProfile.OperatorTimers;
 import org.sosy_lab.cpachecker.cpa.predicate.PredicateTransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
@@ -67,13 +68,21 @@ final class CompositeTransferRelation implements TransferRelation {
   private final int assumptionIndex;
   private final int predicatesIndex;
   private final boolean aggregateBasicBlocks;
+  private final OperatorTimers transferTimers;
+  private final OperatorTimers strengthenTimers;
 
   CompositeTransferRelation(
-      ImmutableList<TransferRelation> pTransferRelations, CFA pCFA, boolean pAggregateBasicBlocks) {
+      ImmutableList<TransferRelation> pTransferRelations,
+      CFA pCFA,
+      boolean pAggregateBasicBlocks,
+      OperatorTimers pTransferTimers,
+      OperatorTimers pStrengthenTimers) {
     transferRelations = pTransferRelations;
     cfa = pCFA;
     size = pTransferRelations.size();
     aggregateBasicBlocks = pAggregateBasicBlocks;
+    transferTimers = pTransferTimers;
+    strengthenTimers = pStrengthenTimers;
 
     // prepare special case handling if both predicates and assumptions are used
     this.predicatesIndex =
@@ -257,8 +266,14 @@ final class CompositeTransferRelation implements TransferRelation {
       Precision lCurrentPrecision = compositePrecision.get(i);
 
       Collection<? extends AbstractState> componentSuccessors;
-      componentSuccessors = lCurrentTransfer.getAbstractSuccessorsForEdge(
-          lCurrentElement, lCurrentPrecision, cfaEdge);
+      transferTimers.start(i);
+      try {
+        componentSuccessors = lCurrentTransfer.getAbstractSuccessorsForEdge(
+            lCurrentElement, lCurrentPrecision, cfaEdge);
+      } finally {
+        transferTimers.stop(i);
+      }
+      transferTimers.countSuccessors(i, componentSuccessors.size());
       resultCount *= componentSuccessors.size();
 
       if (resultCount == 0) {
@@ -286,7 +301,15 @@ final class CompositeTransferRelation implements TransferRelation {
       AbstractState lCurrentElement = reachedState.get(i);
       Precision lCurrentPrecision = compositePrecision.get(i);
 
-      Collection<? extends AbstractState> lResultsList = lCurrentTransfer.strengthen(lCurrentElement, reachedState, cfaEdge, lCurrentPrecision);
+      Collection<? extends AbstractState> lResultsList;
+      strengthenTimers.start(i);
+      try {
+        lResultsList =
+            lCurrentTransfer.strengthen(lCurrentElement, reachedState, cfaEdge, lCurrentPrecision);
+      } finally {
+        strengthenTimers.stop(i);
+      }
+      strengthenTimers.countSuccessors(i, lResultsList.size());
 
       resultCount *= lResultsList.size();
       if (resultCount == 0) {
@@ -305,7 +328,19 @@ final class CompositeTransferRelation implements TransferRelation {
       Precision predPrecision = compositePrecision.get(predicatesIndex);
       TransferRelation predTransfer = transferRelations.get(predicatesIndex);
 
-      Collection<? extends AbstractState> predResult = predTransfer.strengthen(predElement, Collections.singletonList(assumptionElement), cfaEdge, predPrecision);
+      Collection<? extends AbstractState> predResult;
+      strengthenTimers.start(predicatesIndex);
+      try {
+        predResult =
+            predTransfer.strengthen(
+                predElement,
+                Collections.singletonList(assumptionElement),
+                cfaEdge,
+                predPrecision);
+      } finally {
+        strengthenTimers.stop(predicatesIndex);
+      }
+      strengthenTimers.countSuccessors(predicatesIndex, predResult.size());
       resultCount *= predResult.size();
 
       lStrengthenResults.set(predicatesIndex, predResult);
@@ -402,8 +437,15 @@ final class CompositeTransferRelation implements TransferRelation {
       AbstractState lCurrentElement = compositeState.get(i);
       Precision lCurrentPrecision = compositePrecision.get(i);
 
-      Collection<? extends AbstractState> lResultsList =
-          lCurrentTransfer.strengthen(lCurrentElement, otherElements, cfaEdge, lCurrentPrecision);
+      Collection<? extends AbstractState> lResultsList;
+      strengthenTimers.start(i);
+      try {
+        lResultsList =
+            lCurrentTransfer.strengthen(lCurrentElement, otherElements, cfaEdge, lCurrentPrecision);
+      } finally {
+        strengthenTimers.stop(i);
+      }
+      strengthenTimers.countSuccessors(i, lResultsList.size());
 
       resultCount *= lResultsList.size();
       if (resultCount == 0) {
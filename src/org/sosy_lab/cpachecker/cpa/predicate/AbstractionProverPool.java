@@ -0,0 +1,169 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cpa.predicate.PredicateAbstractionManager.Stats;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+
+/**
+ * A bounded pool of prover environments for abstraction computations, one per location.
+ *
+ * <p>Each prover keeps the conjuncts of the last formula that was abstracted at its location on
+ * its assertion stack, with one stack level per conjunct. When the next abstraction at the same
+ * location is computed, only the levels after the longest common prefix of the old and the new
+ * conjuncts are popped, and only the new conjuncts are pushed. Block formulas at the same location
+ * often share most of their conjuncts, so this saves re-asserting (and, depending on the solver,
+ * re-processing) them.
+ *
+ * <p>Callers have to leave the prover with the same stack they received it with, or call
+ * {@link #invalidate(CFANode)} otherwise.
+ */
+class AbstractionProverPool implements AutoCloseable {
+
+  private final Solver solver;
+  private final BooleanFormulaManagerView bfmgr;
+  private final Stats stats;
+
+  private final Map<CFANode, WarmProver> provers;
+
+  AbstractionProverPool(Solver pSolver, int pMaxSize, Stats pStats) {
+    checkArgument(pMaxSize > 0);
+    solver = pSolver;
+    bfmgr = pSolver.getFormulaManager().getBooleanFormulaManager();
+    stats = pStats;
+    provers =
+        new LinkedHashMap<CFANode, WarmProver>(16, 0.75f, true) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<CFANode, WarmProver> pEldest) {
+            if (size() > pMaxSize) {
+              pEldest.getValue().prover.close();
+              return true;
+            }
+            return false;
+          }
+        };
+  }
+
+  /**
+   * Get a prover for the given location that has exactly the conjunction of the given formulas on
+   * its stack.
+   *
+   * @param location The location for which the abstraction is computed.
+   * @param blockFormula The part of the formula that is expected to be similar between subsequent
+   *     abstractions at this location, its conjuncts are pushed first.
+   * @param f The formula to abstract, needs to contain blockFormula as conjunct.
+   */
+  ProverEnvironment getProverFor(CFANode location, BooleanFormula blockFormula, BooleanFormula f)
+      throws InterruptedException {
+    stats.proverPoolTime.start();
+    try {
+      Set<BooleanFormula> conjuncts = new LinkedHashSet<>();
+      conjuncts.addAll(bfmgr.toConjunctionArgs(blockFormula, true));
+      conjuncts.addAll(bfmgr.toConjunctionArgs(f, true));
+
+      stats.numProverPoolRequests++;
+      WarmProver warmProver = provers.get(location);
+      if (warmProver == null) {
+        warmProver = new WarmProver(solver.newProverEnvironment());
+        provers.put(location, warmProver);
+      } else {
+        stats.numProverPoolHits++;
+      }
+      warmProver.assertExactly(conjuncts);
+      return warmProver.prover;
+    } finally {
+      stats.proverPoolTime.stop();
+    }
+  }
+
+  /** Close and forget the prover for a location, e.g., because its stack is in unknown state. */
+  void invalidate(CFANode location) {
+    WarmProver warmProver = provers.remove(location);
+    if (warmProver != null) {
+      warmProver.prover.close();
+    }
+  }
+
+  @Override
+  public void close() {
+    for (Iterator<WarmProver> it = provers.values().iterator(); it.hasNext(); ) {
+      it.next().prover.close();
+      it.remove();
+    }
+  }
+
+  private class WarmProver {
+
+    private final ProverEnvironment prover;
+
+    /** The formulas on the stack of the prover, one per level. */
+    private final List<BooleanFormula> stack = new ArrayList<>();
+
+    private WarmProver(ProverEnvironment pProver) {
+      prover = pProver;
+    }
+
+    private void assertExactly(Set<BooleanFormula> conjuncts) throws InterruptedException {
+      int common = 0;
+      Iterator<BooleanFormula> it = conjuncts.iterator();
+      List<BooleanFormula> toPush = new ArrayList<>();
+      while (it.hasNext()) {
+        BooleanFormula conjunct = it.next();
+        if (toPush.isEmpty() && common < stack.size() && stack.get(common).equals(conjunct)) {
+          common++;
+        } else {
+          toPush.add(conjunct);
+        }
+      }
+
+      for (int i = stack.size(); i > common; i--) {
+        prover.pop();
+      }
+      stack.subList(common, stack.size()).clear();
+
+      for (BooleanFormula conjunct : toPush) {
+        prover.push(conjunct);
+        stack.add(conjunct);
+      }
+
+      stats.numProverPoolReusedConjuncts += common;
+      stats.numProverPoolPushedConjuncts += toPush.size();
+    }
+  }
+}
@@ -57,6 +57,7 @@ import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.collect.Collections3;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -126,6 +127,12 @@ public class PredicateAbstractionManager {
 
     public long allSatCount = 0;
     public int maxAllSatCount = 0;
+
+    public int numProverPoolRequests = 0;
+    public int numProverPoolHits = 0;
+    public long numProverPoolReusedConjuncts = 0;
+    public long numProverPoolPushedConjuncts = 0;
+    public final Timer proverPoolTime = new Timer();
   }
 
   final Stats stats = new Stats();
@@ -188,6 +195,18 @@ public class PredicateAbstractionManager {
       description="Simplify the abstraction formula that is stored to represent the state space. Helpful when debugging (formulas get smaller).")
   private boolean simplifyAbstractionFormula = false;
 
+  @Option(
+    secure = true,
+    name = "abstraction.proverPoolSize",
+    description =
+        "Keep prover environments for abstraction computations alive for this many locations"
+            + " and reuse them for subsequent abstractions at the same location,"
+            + " such that only the conjuncts of the formula that changed need to be"
+            + " popped from and pushed onto the prover stack (0 to disable)."
+  )
+  @IntegerOption(min = 0)
+  private int proverPoolSize = 0;
+
   private boolean warnedOfCartesianAbstraction = false;
 
   private boolean abstractionReuseDisabledBecauseOfAmbiguity = false;
@@ -203,6 +222,8 @@ public class PredicateAbstractionManager {
   // 1: predicate is true
   private final Map<Pair<BooleanFormula, AbstractionPredicate>, Byte> cartesianAbstractionCache;
 
+  private final @Nullable AbstractionProverPool proverPool;
+
   public PredicateAbstractionManager(
       AbstractionManager pAmgr,
       PathFormulaManager pPfmgr,
@@ -253,6 +274,17 @@ public class PredicateAbstractionManager {
     }
 
     abstractionStorage = new PredicateAbstractionsStorage(reuseAbstractionsFrom, logger, fmgr, null);
+
+    if (proverPoolSize > 0) {
+      if (!solver.supportsParallelStacks()) {
+        throw new InvalidConfigurationException(
+            "Option cpa.predicate.abstraction.proverPoolSize needs an SMT solver"
+                + " that supports several prover environments at the same time.");
+      }
+      proverPool = new AbstractionProverPool(solver, proverPoolSize, stats);
+    } else {
+      proverPool = null;
+    }
   }
 
   /**
@@ -296,6 +328,13 @@ public class PredicateAbstractionManager {
       unsatisfiabilityCache.clear();
     }
   }
+
+  /** Release the resources held by this instance (but not those of the solver). */
+  public void close() {
+    if (proverPool != null) {
+      proverPool.close();
+    }
+  }
   /**
    * Compute an abstraction of the conjunction of an AbstractionFormula and
    * a PathFormula. The AbstractionFormula will be used in its instantiated form,
@@ -432,7 +471,10 @@ public class PredicateAbstractionManager {
       abs = rmgr.makeAnd(abs, buildCartesianAbstractionUsingWeakening(f, ssa, remainingPredicates));
 
     } else {
-      abs = rmgr.makeAnd(abs, computeAbstraction(f, remainingPredicates, instantiator));
+      abs =
+          rmgr.makeAnd(
+              abs,
+              computeAbstraction(f, remainingPredicates, instantiator, location, symbFormula));
     }
 
     AbstractionFormula result = makeAbstractionFormula(abs, ssa, pathFormula);
@@ -493,7 +535,7 @@ public class PredicateAbstractionManager {
     final Collection<AbstractionPredicate> predicates =
         getRelevantPredicates(pPredicates, pF, dummyInstantiator);
 
-    Region abs = computeAbstraction(pF, predicates, dummyInstantiator);
+    Region abs = computeAbstraction(pF, predicates, dummyInstantiator, null, pF);
 
     BooleanFormula symbolicAbs = amgr.convertRegionToFormula(abs);
 
@@ -749,63 +791,101 @@ public class PredicateAbstractionManager {
    *     Each predicate that is handled will be removed from the set.
    * @param instantiator A function that will be applied to instantiate each abstraction predicate,
    *     should yield the same SSA indices that f has (or none, if f has no SSA indices).
+   * @param location The location for which the abstraction is computed, used as key for reusing
+   *     prover environments (may be null, then a fresh prover environment is used).
+   * @param blockFormula The part of f that is likely similar for abstractions at the same location.
    * @return An over-approximation of f using the predicates from remainingPredicates.
    */
   private Region computeAbstraction(
       final BooleanFormula f,
       final Collection<AbstractionPredicate> remainingPredicates,
-      final Function<BooleanFormula, BooleanFormula> instantiator)
+      final Function<BooleanFormula, BooleanFormula> instantiator,
+      final @Nullable CFANode location,
+      final BooleanFormula blockFormula)
+      throws SolverException, InterruptedException {
+
+    if (proverPool == null || location == null) {
+      try (ProverEnvironment thmProver = solver.newProverEnvironment()) {
+        thmProver.push(f);
+        return computeAbstraction(thmProver, f, remainingPredicates, instantiator, false);
+      }
+    }
+
+    ProverEnvironment thmProver = proverPool.getProverFor(location, blockFormula, f);
+    boolean success = false;
+    try {
+      Region abs = computeAbstraction(thmProver, f, remainingPredicates, instantiator, true);
+      success = true;
+      return abs;
+    } finally {
+      if (!success) {
+        // we do not know what is left on the stack
+        proverPool.invalidate(location);
+      }
+    }
+  }
+
+  /**
+   * Compute an abstraction of a formula that is already on the stack of the given prover.
+   *
+   * @param cleanupProver Whether the prover needs to be left with the same stack afterwards.
+   */
+  private Region computeAbstraction(
+      final ProverEnvironment thmProver,
+      final BooleanFormula f,
+      final Collection<AbstractionPredicate> remainingPredicates,
+      final Function<BooleanFormula, BooleanFormula> instantiator,
+      final boolean cleanupProver)
       throws SolverException, InterruptedException {
     Region abs = rmgr.makeTrue();
 
-    try (ProverEnvironment thmProver = solver.newProverEnvironment()) {
-      thmProver.push(f);
+    if (remainingPredicates.isEmpty()) {
+      stats.numSatCheckAbstractions++;
 
-      if (remainingPredicates.isEmpty()) {
-        stats.numSatCheckAbstractions++;
+      stats.abstractionSolveTime.start();
+      boolean feasibility;
+      try {
+        feasibility = !thmProver.isUnsat();
+      } finally {
+        stats.abstractionSolveTime.stop();
+      }
 
-        stats.abstractionSolveTime.start();
-        boolean feasibility;
+      if (!feasibility) {
+        abs = rmgr.makeFalse();
+      }
+
+    } else {
+      if (abstractionType != AbstractionType.BOOLEAN) {
+        // First do cartesian abstraction if desired
+        stats.cartesianAbstractionTime.start();
         try {
-          feasibility = !thmProver.isUnsat();
+          abs =
+              rmgr.makeAnd(
+                  abs,
+                  computeCartesianAbstraction(f, thmProver, remainingPredicates, instantiator));
         } finally {
-          stats.abstractionSolveTime.stop();
-        }
-
-        if (!feasibility) {
-          abs = rmgr.makeFalse();
+          stats.cartesianAbstractionTime.stop();
         }
+      }
 
-      } else {
-        if (abstractionType != AbstractionType.BOOLEAN) {
-          // First do cartesian abstraction if desired
-          stats.cartesianAbstractionTime.start();
-          try {
-            abs =
-                rmgr.makeAnd(
-                    abs,
-                    computeCartesianAbstraction(f, thmProver, remainingPredicates, instantiator));
-          } finally {
-            stats.cartesianAbstractionTime.stop();
-          }
+      if (abstractionType != AbstractionType.CARTESIAN && !remainingPredicates.isEmpty()) {
+        // Last do boolean abstraction if desired and necessary
+        stats.numBooleanAbsPredicates += remainingPredicates.size();
+        stats.booleanAbstractionTime.start();
+        try {
+          abs =
+              rmgr.makeAnd(
+                  abs,
+                  computeBooleanAbstraction(
+                      thmProver, remainingPredicates, instantiator, cleanupProver));
+        } finally {
+          stats.booleanAbstractionTime.stop();
         }
 
-        if (abstractionType != AbstractionType.CARTESIAN && !remainingPredicates.isEmpty()) {
-          // Last do boolean abstraction if desired and necessary
-          stats.numBooleanAbsPredicates += remainingPredicates.size();
-          stats.booleanAbstractionTime.start();
-          try {
-            abs =
-                rmgr.makeAnd(
-                    abs, computeBooleanAbstraction(thmProver, remainingPredicates, instantiator));
-          } finally {
-            stats.booleanAbstractionTime.stop();
-          }
-
-          // Warning:
-          // buildBooleanAbstraction() does not clean up thmProver, so do not use it here.
-          // remainingPredicates is now empty.
-        }
+        // Warning:
+        // buildBooleanAbstraction() does not clean up thmProver unless asked to,
+        // so do not use it here.
+        // remainingPredicates is now empty.
       }
     }
     return abs;
@@ -989,12 +1069,14 @@ public class PredicateAbstractionManager {
    *    Each predicate that is handled will be removed from the set
    *    (and Boolean abstraction handles all predicates so the set is empty afterwards!).
    * @param instantiator A function that will be applied to instantiate each abstraction predicate.
+   * @param cleanupProver Whether the predicate definitions should be popped from the stack again.
    * @return A over-approximation of f.
    */
   private Region computeBooleanAbstraction(
       final ProverEnvironment thmProver,
       final Collection<AbstractionPredicate> predicates,
-      final Function<BooleanFormula, BooleanFormula> instantiator)
+      final Function<BooleanFormula, BooleanFormula> instantiator,
+      final boolean cleanupProver)
       throws InterruptedException, SolverException {
 
     // build the definition of the predicates, and instantiate them
@@ -1021,8 +1103,10 @@ public class PredicateAbstractionManager {
     AllSatCallbackImpl callback = new AllSatCallbackImpl();
     Region result = thmProver.allSat(callback, predVars);
 
-    // pop() is actually costly sometimes, and we delete the environment anyway
-    // thmProver.pop();
+    // pop() is actually costly sometimes, so only do it if the environment is reused
+    if (cleanupProver) {
+      thmProver.pop();
+    }
 
     // update statistics
     int numModels = callback.getCount();
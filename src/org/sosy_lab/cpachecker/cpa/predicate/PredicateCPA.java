@@ -61,6 +61,7 @@ import org.sosy_lab.cpachecker.util.blocking.interfaces.BlockComputer;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionManager;
 import org.sosy_lab.cpachecker.util.predicates.BlockOperator;
 import org.sosy_lab.cpachecker.util.predicates.bdd.BDDManagerFactory;
+import org.sosy_lab.cpachecker.util.predicates.interpolation.InterpolationManager;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.CachingPathFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManagerImpl;
@@ -71,7 +72,9 @@ import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
 import org.sosy_lab.cpachecker.util.refinement.PrefixProvider;
 import org.sosy_lab.java_smt.api.SolverException;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.logging.Level;
 
 /**
@@ -129,6 +132,9 @@ public class PredicateCPA
   private final PredicateCPAInvariantsManager invariantsManager;
   private final BlockOperator blk;
 
+  // managers for refinement on the solver of this CPA, they need to be closed together with it
+  private final List<InterpolationManager> interpolationManagers = new ArrayList<>();
+
   protected PredicateCPA(
       Configuration config,
       LogManager logger,
@@ -300,6 +306,25 @@ public class PredicateCPA
     return prefixProvider;
   }
 
+  /**
+   * Create an {@link InterpolationManager} that uses the solver of this CPA. It is closed when this
+   * CPA is closed.
+   */
+  synchronized InterpolationManager createInterpolationManager(Configuration pConfig)
+      throws InvalidConfigurationException {
+    InterpolationManager interpolationManager =
+        new InterpolationManager(
+            pathFormulaManager,
+            solver,
+            cfa.getLoopStructure(),
+            cfa.getVarClassification(),
+            pConfig,
+            shutdownNotifier,
+            logger);
+    interpolationManagers.add(interpolationManager);
+    return interpolationManager;
+  }
+
   @Override
   public AbstractState getInitialState(CFANode node, StateSpacePartition pPartition) {
     return topState;
@@ -324,6 +349,11 @@ public class PredicateCPA
 
   @Override
   public void close() {
+    synchronized (this) {
+      interpolationManagers.forEach(InterpolationManager::close);
+      interpolationManagers.clear();
+    }
+    predicateManager.close();
     solver.close();
   }
 
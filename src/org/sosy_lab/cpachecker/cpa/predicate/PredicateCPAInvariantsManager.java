@@ -789,9 +789,8 @@ class PredicateCPAInvariantsManager implements StatisticsProvider, InvariantSupp
 
     stats.rfKindTime.start();
 
-    try {
-      InvCandidateGenerator candidateGenerator =
-          new InvCandidateGenerator(pPath, pAbstractionStatesTrace);
+    try (InvCandidateGenerator candidateGenerator =
+        new InvCandidateGenerator(pPath, pAbstractionStatesTrace)) {
 
       KInductionInvariantChecker invChecker =
           new KInductionInvariantChecker(
@@ -829,7 +828,7 @@ class PredicateCPAInvariantsManager implements StatisticsProvider, InvariantSupp
     return false;
   }
 
-  private class InvCandidateGenerator implements CandidateGenerator {
+  private class InvCandidateGenerator implements CandidateGenerator, AutoCloseable {
 
     private int trieNum = 0;
     private List<CandidateInvariant> candidates = new ArrayList<>();
@@ -848,6 +847,11 @@ class PredicateCPAInvariantsManager implements StatisticsProvider, InvariantSupp
       abstractionNodes = from(pAbstractionStatesTrace).transform(EXTRACT_LOCATION).toList();
       elementsOnPath = getAllStatesOnPathsTo(argPath.getLastState());
       abstractionStatesTrace = pAbstractionStatesTrace;
+
+      infeasiblePrefixes =
+          new PredicateBasedPrefixProvider(config, logger, solver, pfmgr, shutdownNotifier)
+              .extractInfeasiblePrefixes(argPath);
+
       imgr =
           new InterpolationManager(
               pfmgr,
@@ -857,10 +861,11 @@ class PredicateCPAInvariantsManager implements StatisticsProvider, InvariantSupp
               config,
               shutdownNotifier,
               logger);
+    }
 
-      infeasiblePrefixes =
-          new PredicateBasedPrefixProvider(config, logger, solver, pfmgr, shutdownNotifier)
-              .extractInfeasiblePrefixes(argPath);
+    @Override
+    public void close() {
+      imgr.close();
     }
 
     @Override
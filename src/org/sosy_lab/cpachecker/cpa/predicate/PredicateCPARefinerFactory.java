@@ -143,9 +143,7 @@ public class PredicateCPARefinerFactory {
     PrefixProvider prefixProvider = predicateCpa.getPrefixProvider();
     PrefixSelector prefixSelector = new PrefixSelector(variableClassification, loopStructure);
 
-    InterpolationManager interpolationManager =
-        new InterpolationManager(
-            pfmgr, solver, loopStructure, variableClassification, config, shutdownNotifier, logger);
+    InterpolationManager interpolationManager = predicateCpa.createInterpolationManager(config);
 
     PathChecker pathChecker =
         new PathChecker(config, logger, shutdownNotifier, machineModel, pfmgr, solver);
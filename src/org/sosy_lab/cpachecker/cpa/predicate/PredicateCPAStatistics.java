@@ -29,6 +29,7 @@ import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.valueWithPercentage;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
@@ -301,6 +302,11 @@ class PredicateCPAStatistics implements Statistics {
             "  Times inductive cache was used:  "
                 + valueWithPercentage(as.numInductivePathFormulaCacheUsed, as.numCallsAbstraction));
       }
+      if (as.numProverPoolRequests > 0) {
+        long totalConjuncts = as.numProverPoolReusedConjuncts + as.numProverPoolPushedConjuncts;
+        out.println("  Times prover env. was reused:    " + valueWithPercentage(as.numProverPoolHits, as.numProverPoolRequests));
+        out.println("  Conjuncts kept on prover stack:  " + as.numProverPoolReusedConjuncts + " (" + toPercent(as.numProverPoolReusedConjuncts, totalConjuncts) + ")");
+      }
     }
 
     if (trans.satCheckTimer.getNumberOfIntervals() > 0) {
@@ -319,6 +325,11 @@ class PredicateCPAStatistics implements Statistics {
     out.println("Number of SMT sat checks:          " + solver.satChecks);
     out.println("  trivial:                         " + solver.trivialSatChecks);
     out.println("  cached:                          " + solver.cachedSatChecks);
+    CacheStats sharedSatCacheStats = solver.getSharedSatCacheStatistics();
+    if (sharedSatCacheStats != null) {
+      out.println("  cached in shared cache:          " + solver.sharedCachedSatChecks);
+      out.println("Hit rate of shared sat cache:      " + toPercent(sharedSatCacheStats.hitCount(), sharedSatCacheStats.requestCount()) + " (all solvers, " + sharedSatCacheStats.evictionCount() + " evictions)");
+    }
     out.println();
     out.println("Max ABE block size:                       " + prec.maxBlockSize);
     out.println("Number of predicates discovered:          " + allDistinctPreds);
@@ -383,6 +394,9 @@ class PredicateCPAStatistics implements Statistics {
         out.println("    Abstraction reuse:              " + as.abstractionReuseTime);
         out.println("    Abstraction reuse implication:  " + as.abstractionReuseImplicationTime);
       }
+      if (as.proverPoolTime.getNumberOfIntervals() > 0) {
+        out.println("    Prover stack preparation:        " + as.proverPoolTime);
+      }
       out.println("    Solving time:                    " + as.abstractionSolveTime + " (Max: " + as.abstractionSolveTime.getMaxTime().formatAs(SECONDS) + ")");
       out.println("    Model enumeration time:          " + as.abstractionEnumTime.getOuterSumTime().formatAs(SECONDS));
       out.println("    Time for BDD construction:       " + as.abstractionEnumTime.getInnerSumTime().formatAs(SECONDS)   + " (Max: " + as.abstractionEnumTime.getInnerMaxTime().formatAs(SECONDS) + ")");
@@ -118,14 +118,7 @@ public class PredicateForcedCovering implements ForcedCovering, StatisticsProvid
 
     PredicateCPA predicateCpa =
         CPAs.retrieveCPAOrFail(pCpa, PredicateCPA.class, PredicateForcedCovering.class);
-    imgr = new InterpolationManager(
-                                                   predicateCpa.getPathFormulaManager(),
-                                                   predicateCpa.getSolver(),
-                                                   predicateCpa.getCfa().getLoopStructure(),
-                                                   predicateCpa.getCfa().getVarClassification(),
-                                                   config,
-                                                   predicateCpa.getShutdownNotifier(),
-                                                   pLogger);
+    imgr = predicateCpa.createInterpolationManager(config);
     fmgr = predicateCpa.getSolver().getFormulaManager();
     predAbsMgr = predicateCpa.getPredicateManager();
     impact = new ImpactUtility(config, fmgr, predAbsMgr);
@@ -81,6 +81,7 @@ import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownSymbolicValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGSymbolicValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGZeroValue;
+import org.sosy_lab.cpachecker.cpa.smg.join.SMGHeapSummary;
 import org.sosy_lab.cpachecker.cpa.smg.join.SMGIsLessOrEqual;
 import org.sosy_lab.cpachecker.cpa.smg.join.SMGJoin;
 import org.sosy_lab.cpachecker.cpa.smg.join.SMGJoinStatus;
@@ -1353,7 +1354,14 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
       return false;
     }
 
+    SMGHeapSummary summary = SMGHeapSummary.of(heap);
+    SMGHeapSummary reachedSummary = SMGHeapSummary.of(reachedState.getHeap());
+
     if (options.isHeapAbstractionEnabled()) {
+      if (!summary.mayJoinWithRightEntailment(reachedSummary)) {
+        return false;
+      }
+
       SMGJoin join = new SMGJoin(heap, reachedState.getHeap(), this, reachedState);
 
       if (!join.isDefined()) {
@@ -1375,7 +1383,8 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
       return s1.errorInfo.hasMemoryLeak() == s2.errorInfo.hasMemoryLeak();
 
     } else {
-      return SMGIsLessOrEqual.isLessOrEqual(reachedState.getHeap(), heap);
+      return summary.mayBeLessOrEqual(reachedSummary)
+          && SMGIsLessOrEqual.isLessOrEqual(reachedState.getHeap(), heap);
     }
   }
 
@@ -1764,7 +1773,7 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     }
       logger.logf(
           Level.FINER, "SymValue1 %s %s SymValue2 %s AddPredicate: %s", pV1, temp, pV2, pEdge);
-      getPathPredicateRelation().addRelation(pV1, pCType1, pV2, pCType2, temp);
+      heap.addPathPredicateRelation(pV1, pCType1, pV2, pCType2, temp);
   }
 }
 
@@ -1780,7 +1789,7 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
       }
       logger.logf(
           Level.FINER, "SymValue %s %s; ExplValue %s; AddPredicate: %s", pV1, temp, pV2, pEdge);
-      getPathPredicateRelation().addExplicitRelation(pV1, pCType1, pV2, pCType2, temp);
+      heap.addPathPredicateRelation(pV1, pCType1, pV2, pCType2, temp);
     }
   }
 
@@ -1796,9 +1805,8 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
       logger.log(Level.FINER, "Add Error Predicate: SymValue  ",
           pSymbolicValue, " ; ExplValue", " ",
           pExplicitValue, "; on edge: ", pEdge);
-      getErrorPredicateRelation()
-          .addExplicitRelation(
-              pSymbolicValue, pCType1, pExplicitValue, pCType2, BinaryOperator.GREATER_THAN);
+      heap.addErrorPredicateRelation(
+          pSymbolicValue, pCType1, pExplicitValue, pCType2, BinaryOperator.GREATER_THAN);
     }
   }
 
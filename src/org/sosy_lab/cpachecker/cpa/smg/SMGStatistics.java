@@ -28,7 +28,9 @@ import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.smg.join.SMGHeapSummary;
 import org.sosy_lab.cpachecker.cpa.smg.join.SMGIsLessOrEqual;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
 
 public class SMGStatistics implements Statistics {
 
@@ -38,6 +40,16 @@ public class SMGStatistics implements Statistics {
     put(pOut, 1, SMGIsLessOrEqual.globalsTimer);
     put(pOut, 1, SMGIsLessOrEqual.stackTimer);
     put(pOut, 1, SMGIsLessOrEqual.heapTimer);
+    put(pOut, 0, SMGHeapSummary.checks);
+    put(pOut, 1, SMGHeapSummary.rejections);
+    long checks = SMGHeapSummary.checks.getValue();
+    if (checks > 0) {
+      put(
+          pOut,
+          1,
+          "Ratio of avoided joins",
+          StatisticsUtils.toPercent(SMGHeapSummary.rejections.getValue(), checks));
+    }
   }
 
   @Override
@@ -23,116 +23,165 @@
  */
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.SetMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentMap;
 import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGExplicitValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownAddressValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGSymbolicValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
+import org.sosy_lab.cpachecker.cpa.smg.util.PersistentMultimap;
 import org.sosy_lab.cpachecker.util.Pair;
 
-public class PredRelation {
+/**
+ * This class tracks predicates over SMGValues. Implemented as an immutable structure, such that
+ * copies of an SMG can share it.
+ */
+public final class PredRelation {
+
+  /**
+   * The relations between two values, each relation is stored for both of its values. A relation
+   * between values A and B can be found in the set of A as well as in the set of B.
+   */
+  private final PersistentMultimap<SMGValue, SymbolicRelation> smgValuesRelation;
+
   /** The Multimap is used as Bi-Map, i.e. each pair (K,V) is also inserted as pair (V,K). */
-  private final SetMultimap<Pair<SMGValue, SMGValue>, SymbolicRelation> smgValuesRelation =
-      HashMultimap.create();
-
-  private final SetMultimap<SMGValue, SMGValue> smgValuesDependency = HashMultimap.create();
-  private final SetMultimap<SMGValue, ExplicitRelation> smgExplicitValueRelation =
-      HashMultimap.create();
-  private final Map<SMGValue, Integer> smgValueSizeInBits = new HashMap<>();
-
-  /** Copy PredRelation */
-  public void putAll(PredRelation pPred) {
-    smgValuesRelation.putAll(pPred.smgValuesRelation);
-    smgValuesDependency.putAll(pPred.smgValuesDependency);
-    smgExplicitValueRelation.putAll(pPred.smgExplicitValueRelation);
-    smgValueSizeInBits.putAll(pPred.smgValueSizeInBits);
+  private final PersistentMultimap<SMGValue, SMGValue> smgValuesDependency;
+
+  private final PersistentMultimap<SMGValue, ExplicitRelation> smgExplicitValueRelation;
+  private final PersistentMap<SMGValue, Integer> smgValueSizeInBits;
+
+  public PredRelation() {
+    this(
+        PersistentMultimap.of(),
+        PersistentMultimap.of(),
+        PersistentMultimap.of(),
+        PathCopyingPersistentTreeMap.of());
   }
 
-  public void addRelation(SMGSymbolicValue pOne, int pCType1,
-                          SMGSymbolicValue pTwo, int pCType2,
-                          BinaryOperator pOperator) {
+  private PredRelation(
+      PersistentMultimap<SMGValue, SymbolicRelation> pValuesRelation,
+      PersistentMultimap<SMGValue, SMGValue> pValuesDependency,
+      PersistentMultimap<SMGValue, ExplicitRelation> pExplicitValueRelation,
+      PersistentMap<SMGValue, Integer> pValueSizeInBits) {
+    smgValuesRelation = pValuesRelation;
+    smgValuesDependency = pValuesDependency;
+    smgExplicitValueRelation = pExplicitValueRelation;
+    smgValueSizeInBits = pValueSizeInBits;
+  }
+
+  public PredRelation addRelationAndCopy(SMGSymbolicValue pOne, int pCType1,
+                                         SMGSymbolicValue pTwo, int pCType2,
+                                         BinaryOperator pOperator) {
     // TODO: track address values
     if (!pOne.isUnknown()
         && !pTwo.isUnknown()
         && !(pOne instanceof SMGKnownAddressValue)
         && !(pTwo instanceof SMGKnownAddressValue)) {
-      addRelation(pOne, pTwo, pOperator);
-      addValueSize(pOne, pCType1);
-      addValueSize(pTwo, pCType2);
+      PredRelation result = addRelationAndCopy(pOne, pTwo, pOperator);
+      PersistentMap<SMGValue, Integer> sizes = addValueSize(result.smgValueSizeInBits, pOne, pCType1);
+      sizes = addValueSize(sizes, pTwo, pCType2);
+      return result.withValueSizes(sizes);
     }
+    return this;
   }
 
-  private void addValueSize(SMGValue pValue, Integer pCType2) {
-    if (!smgValueSizeInBits.containsKey(pValue)) {
-      smgValueSizeInBits.put(pValue, pCType2);
+  private static PersistentMap<SMGValue, Integer> addValueSize(
+      PersistentMap<SMGValue, Integer> pSizes, SMGValue pValue, Integer pCType2) {
+    if (!pSizes.containsKey(pValue)) {
+      return pSizes.putAndCopy(pValue, pCType2);
     }
+    return pSizes;
+  }
+
+  private PredRelation withValueSizes(PersistentMap<SMGValue, Integer> pSizes) {
+    return new PredRelation(
+        smgValuesRelation, smgValuesDependency, smgExplicitValueRelation, pSizes);
   }
 
-  public void addRelation(SMGValue pOne, SMGValue pTwo, BinaryOperator pOperator) {
+  public PredRelation addRelationAndCopy(SMGValue pOne, SMGValue pTwo, BinaryOperator pOperator) {
     SymbolicRelation relation = new SymbolicRelation(pOne, pTwo, pOperator);
-    if (!smgValuesDependency.containsEntry(pOne, pTwo)) {
-      smgValuesRelation.put(Pair.of(pOne, pTwo), relation);
-      smgValuesRelation.put(Pair.of(pTwo, pOne), relation);
-      smgValuesDependency.put(pOne, pTwo);
-      smgValuesDependency.put(pTwo, pOne);
-    } else {
-      if (!smgValuesRelation.containsEntry(Pair.of(pOne, pTwo), relation)) {
-        smgValuesRelation.put(Pair.of(pOne, pTwo), relation);
-        smgValuesRelation.put(Pair.of(pTwo, pOne), relation);
-      }
+    if (smgValuesRelation.contains(pOne, relation)) {
+      return this;
     }
+    return new PredRelation(
+        smgValuesRelation.putAndCopy(pOne, relation).putAndCopy(pTwo, relation),
+        smgValuesDependency.putAndCopy(pOne, pTwo).putAndCopy(pTwo, pOne),
+        smgExplicitValueRelation,
+        smgValueSizeInBits);
   }
 
-  public void addExplicitRelation(SMGSymbolicValue pSymbolicValue, Integer pCType1,
-                                  SMGExplicitValue pExplicitValue, Integer pCType2,
-                                  BinaryOperator pOp) {
+  public PredRelation addExplicitRelationAndCopy(SMGSymbolicValue pSymbolicValue, Integer pCType1,
+                                                 SMGExplicitValue pExplicitValue, Integer pCType2,
+                                                 BinaryOperator pOp) {
     assert(pCType1.equals(pCType2));
-    addExplicitRelation(pSymbolicValue, pExplicitValue, pOp);
-    addValueSize(pSymbolicValue, pCType1);
+    PredRelation result = addExplicitRelationAndCopy(pSymbolicValue, pExplicitValue, pOp);
+    return result.withValueSizes(addValueSize(result.smgValueSizeInBits, pSymbolicValue, pCType1));
   }
 
-  public void addExplicitRelation(
+  public PredRelation addExplicitRelationAndCopy(
       SMGValue pSymbolicValue, SMGExplicitValue pExplicitValue, BinaryOperator pOp) {
     ExplicitRelation relation = new ExplicitRelation(pSymbolicValue, pExplicitValue, pOp);
-    if (!smgExplicitValueRelation.containsEntry(pSymbolicValue, relation)) {
-      smgExplicitValueRelation.put(pSymbolicValue, relation);
+    if (smgExplicitValueRelation.contains(pSymbolicValue, relation)) {
+      return this;
     }
+    return new PredRelation(
+        smgValuesRelation,
+        smgValuesDependency,
+        smgExplicitValueRelation.putAndCopy(pSymbolicValue, relation),
+        smgValueSizeInBits);
   }
 
-  public void removeValue(SMGValue pValue) {
-    for (SMGValue pOposit : smgValuesDependency.removeAll(pValue)) {
-
-      smgValuesDependency.remove(pOposit, pValue);
-
-      smgValuesRelation.removeAll(Pair.of(pOposit, pValue));
-      smgValuesRelation.removeAll(Pair.of(pValue, pOposit));
+  /** Removes all relations between pValue and other values. */
+  private PredRelation removeDependenciesAndCopy(SMGValue pValue) {
+    PersistentMultimap<SMGValue, SMGValue> dependencies = smgValuesDependency.removeAndCopy(pValue);
+    PersistentMultimap<SMGValue, SymbolicRelation> relations =
+        smgValuesRelation.removeAndCopy(pValue);
+    for (SMGValue pOposit : smgValuesDependency.get(pValue)) {
+      dependencies = dependencies.removeAndCopy(pOposit, pValue);
+      for (SymbolicRelation relation : smgValuesRelation.get(pOposit)) {
+        if (relation.getOtherValue(pOposit).equals(pValue)) {
+          relations = relations.removeAndCopy(pOposit, relation);
+        }
+      }
     }
-    smgExplicitValueRelation.removeAll(pValue);
-    smgValueSizeInBits.remove(pValue);
+    return new PredRelation(
+        relations, dependencies, smgExplicitValueRelation, smgValueSizeInBits);
+  }
+
+  public PredRelation removeValueAndCopy(SMGValue pValue) {
+    PredRelation result = removeDependenciesAndCopy(pValue);
+    return new PredRelation(
+        result.smgValuesRelation,
+        result.smgValuesDependency,
+        smgExplicitValueRelation.removeAndCopy(pValue),
+        smgValueSizeInBits.removeAndCopy(pValue));
   }
 
   /** replace the old value with a fresh value. */
-  public void replace(SMGValue fresh, SMGValue old) {
-    for (SMGValue relatedValue : smgValuesDependency.removeAll(old)) {
-      smgValuesDependency.remove(relatedValue, old);
-      smgValuesRelation.removeAll(Pair.of(old, relatedValue));
-        //TODO: modify predicates on merge values
-      smgValuesRelation.removeAll(Pair.of(relatedValue, old));
-    }
-    for (ExplicitRelation explicitRelation: smgExplicitValueRelation.removeAll(old)) {
-      addExplicitRelation(fresh, explicitRelation.explicitValue, explicitRelation.getOperator());
-      addValueSize(fresh, getSymbolicSize(old));
+  public PredRelation replaceValueAndCopy(SMGValue fresh, SMGValue old) {
+    //TODO: modify predicates on merge values
+    PredRelation result = removeDependenciesAndCopy(old);
+    for (ExplicitRelation explicitRelation : smgExplicitValueRelation.get(old)) {
+      result =
+          result.addExplicitRelationAndCopy(
+              fresh, explicitRelation.explicitValue, explicitRelation.getOperator());
+      result =
+          result.withValueSizes(
+              addValueSize(result.smgValueSizeInBits, fresh, getSymbolicSize(old)));
     }
-    smgValueSizeInBits.remove(old);
+    return new PredRelation(
+        result.smgValuesRelation,
+        result.smgValuesDependency,
+        result.smgExplicitValueRelation.removeAndCopy(old),
+        result.smgValueSizeInBits.removeAndCopy(old));
   }
 
   public Integer getSymbolicSize(SMGValue pSymbolic) {
@@ -142,12 +191,13 @@ public class PredRelation {
   /** Returns closure list of symbolic values which affects pRelation */
   public Set<SMGValue> closureDependencyFor(PredRelation pRelation) {
     Set<SMGValue> toAdd = new HashSet<>();
-    for (Entry<SMGValue, SMGValue> entry : pRelation.smgValuesDependency.entries()) {
+    for (Entry<SMGValue, ImmutableSet<SMGValue>> entry : pRelation.smgValuesDependency.entries()) {
       SMGValue key = entry.getKey();
-      SMGValue value = entry.getValue();
-      if (key.compareTo(value) > 0) {
-        toAdd.add(key);
-        toAdd.add(value);
+      for (SMGValue value : entry.getValue()) {
+        if (key.compareTo(value) > 0) {
+          toAdd.add(key);
+          toAdd.add(value);
+        }
       }
     }
     Set<SMGValue> result = new HashSet<>();
@@ -164,7 +214,7 @@ public class PredRelation {
   }
 
   public boolean isEmpty() {
-    return smgExplicitValueRelation.isEmpty() && smgValuesRelation.isEmpty();
+    return smgExplicitValueRelation.size() == 0 && smgValuesRelation.size() == 0;
   }
 
   @Override
@@ -195,28 +245,37 @@ public class PredRelation {
     return smgExplicitValueRelation.values();
   }
 
+  /**
+   * Returns all relations keyed by the pair of their values. Like the relations themselves, each
+   * relation between two different values is contained once for each order of its values.
+   */
   public Set<Entry<Pair<SMGValue, SMGValue>, SymbolicRelation>> getValuesRelations() {
-    return smgValuesRelation.entries();
+    ImmutableSet.Builder<Entry<Pair<SMGValue, SMGValue>, SymbolicRelation>> result =
+        ImmutableSet.builder();
+    for (Entry<SMGValue, ImmutableSet<SymbolicRelation>> entry : smgValuesRelation.entries()) {
+      SMGValue value = entry.getKey();
+      for (SymbolicRelation relation : entry.getValue()) {
+        result.add(Maps.immutableEntry(Pair.of(value, relation.getOtherValue(value)), relation));
+      }
+    }
+    return result.build();
   }
 
   public boolean isLessOrEqual(PredRelation pPathPredicateRelation) {
-    if (smgValuesDependency.size() > pPathPredicateRelation.smgValuesDependency.size()) {
-      return false;
-    }
-    if (smgExplicitValueRelation.size() > pPathPredicateRelation.smgExplicitValueRelation.size()) {
-      return false;
-    }
-    if (smgValuesRelation.size() > pPathPredicateRelation.smgValuesDependency.size()) {
-      return false;
-    }
-    if (!pPathPredicateRelation.smgValuesDependency.entries().containsAll(smgValuesDependency.entries())) {
-      return false;
-    }
-    if (!pPathPredicateRelation.smgExplicitValueRelation.entries().containsAll(smgExplicitValueRelation.entries())) {
+    return isIncludedIn(smgValuesDependency, pPathPredicateRelation.smgValuesDependency)
+        && isIncludedIn(smgExplicitValueRelation, pPathPredicateRelation.smgExplicitValueRelation)
+        && isIncludedIn(smgValuesRelation, pPathPredicateRelation.smgValuesRelation);
+  }
+
+  private static <V> boolean isIncludedIn(
+      PersistentMultimap<SMGValue, V> pMap1, PersistentMultimap<SMGValue, V> pMap2) {
+    if (pMap1.size() > pMap2.size()) {
       return false;
     }
-    if (!pPathPredicateRelation.smgValuesRelation.entries().containsAll(smgValuesRelation.entries())) {
-      return false;
+    for (Entry<SMGValue, ImmutableSet<V>> entry : pMap1.entries()) {
+      if (!pMap2.get(entry.getKey()).containsAll(entry.getValue())) {
+        return false;
+      }
     }
     return true;
   }
@@ -244,6 +303,11 @@ public class PredRelation {
       return valueTwo;
     }
 
+    /** Returns the value of this relation that is not pValue. */
+    SMGValue getOtherValue(SMGValue pValue) {
+      return valueOne.equals(pValue) ? valueTwo : valueOne;
+    }
+
     @Override
     public boolean equals(Object pO) {
       if (this == pO) {
@@ -328,10 +392,4 @@ public class PredRelation {
           '}';
     }
   }
-
-  public void clear() {
-    smgExplicitValueRelation.clear();
-    smgValuesDependency.clear();
-    smgValuesRelation.clear();
-  }
 }
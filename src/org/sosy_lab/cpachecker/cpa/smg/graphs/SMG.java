@@ -33,6 +33,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
 import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
 import org.sosy_lab.cpachecker.cfa.types.MachineModel;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdge;
@@ -42,6 +43,8 @@ import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgePointsTo;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgePointsToFilter;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGNullObject;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGExplicitValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGSymbolicValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGZeroValue;
 import org.sosy_lab.cpachecker.cpa.smg.util.PersistentSet;
@@ -62,7 +65,7 @@ public class SMG implements UnmodifiableSMG {
   private PersistentSet<SMGObject> externalObjectAllocation;
   private NeqRelation neq = new NeqRelation();
 
-  private final PredRelation pathPredicate = new PredRelation();
+  private PredRelation pathPredicate = new PredRelation();
   private PredRelation errorPredicate = new PredRelation();
 
 
@@ -103,8 +106,8 @@ public class SMG implements UnmodifiableSMG {
     hv_edges = pHeap.hv_edges;
     pt_edges = pHeap.pt_edges;
     neq = pHeap.neq;
-    pathPredicate.putAll(pHeap.pathPredicate);
-    errorPredicate.putAll(pHeap.errorPredicate);
+    pathPredicate = pHeap.pathPredicate;
+    errorPredicate = pHeap.errorPredicate;
     validObjects = pHeap.validObjects;
     externalObjectAllocation = pHeap.externalObjectAllocation;
     objects = pHeap.objects;
@@ -167,8 +170,8 @@ public class SMG implements UnmodifiableSMG {
     Preconditions.checkArgument(!pValue.isZero(), "Can not remove NULL from SMG");
     values = values.removeAndCopy(pValue);
     neq = neq.removeValueAndCopy(pValue);
-    pathPredicate.removeValue(pValue);
-    errorPredicate.removeValue(pValue);
+    pathPredicate = pathPredicate.removeValueAndCopy(pValue);
+    errorPredicate = errorPredicate.removeValueAndCopy(pValue);
   }
   /**
    * Remove pObj from the SMG. This method does not remove
@@ -315,6 +318,24 @@ public class SMG implements UnmodifiableSMG {
     neq = neq.addRelationAndCopy(pV1, pV2);
   }
 
+  /** Adds a predicate over two symbolic values to the path predicate. */
+  public void addPathPredicateRelation(
+      SMGSymbolicValue pV1, int pCType1, SMGSymbolicValue pV2, int pCType2, BinaryOperator pOp) {
+    pathPredicate = pathPredicate.addRelationAndCopy(pV1, pCType1, pV2, pCType2, pOp);
+  }
+
+  /** Adds a predicate over a symbolic and an explicit value to the path predicate. */
+  public void addPathPredicateRelation(
+      SMGSymbolicValue pV1, int pCType1, SMGExplicitValue pV2, int pCType2, BinaryOperator pOp) {
+    pathPredicate = pathPredicate.addExplicitRelationAndCopy(pV1, pCType1, pV2, pCType2, pOp);
+  }
+
+  /** Adds a predicate over a symbolic and an explicit value to the error predicate. */
+  public void addErrorPredicateRelation(
+      SMGSymbolicValue pV1, int pCType1, SMGExplicitValue pV2, int pCType2, BinaryOperator pOp) {
+    errorPredicate = errorPredicate.addExplicitRelationAndCopy(pV1, pCType1, pV2, pCType2, pOp);
+  }
+
   @Override
   public PredRelation getPathPredicateRelation() {
     return pathPredicate;
@@ -548,7 +569,7 @@ public class SMG implements UnmodifiableSMG {
     addValue(fresh);
 
     neq = neq.replaceValueAndCopy(fresh, old);
-    pathPredicate.replace(fresh, old);
+    pathPredicate = pathPredicate.replaceValueAndCopy(fresh, old);
 
     removeValue(old);
 
@@ -585,7 +606,7 @@ public class SMG implements UnmodifiableSMG {
     hv_edges = new SMGHasValueEdgeSet();
     pt_edges = new SMGPointsToMap();
     neq = new NeqRelation();
-    pathPredicate.clear();
+    pathPredicate = new PredRelation();
     initializeNullAddress();
   }
 
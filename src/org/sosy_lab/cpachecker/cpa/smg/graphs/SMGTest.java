@@ -25,6 +25,7 @@ package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import com.google.common.collect.Maps;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.TreeMap;
@@ -32,9 +33,11 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
 import org.sosy_lab.cpachecker.cfa.types.MachineModel;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
 import org.sosy_lab.cpachecker.cpa.smg.TypeUtils;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.PredRelation.SymbolicRelation;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgePointsTo;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGNullObject;
@@ -42,8 +45,10 @@ import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGRegion;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownExpValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownSymValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownSymbolicValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGZeroValue;
+import org.sosy_lab.cpachecker.util.Pair;
 
 public class SMGTest {
   private LogManager logger = LogManager.createTestLogManager();
@@ -516,4 +521,56 @@ public class SMGTest {
     Assert.assertFalse(nr.neq_exists(one, three));
     Assert.assertFalse(nr.neq_exists(two, three));
   }
+
+  @Test
+  public void predRelationTest() {
+    PredRelation pr = new PredRelation();
+    SMGValue one = SMGKnownExpValue.valueOf(1);
+    SMGValue two = SMGKnownExpValue.valueOf(2);
+    SMGValue three = SMGKnownExpValue.valueOf(3);
+
+    PredRelation pr1 = pr.addRelationAndCopy(one, two, BinaryOperator.LESS_THAN);
+    PredRelation pr2 = pr1.addRelationAndCopy(one, three, BinaryOperator.GREATER_THAN);
+    Assert.assertTrue(pr.isEmpty());
+    Assert.assertEquals(2, pr1.getValuesRelations().size());
+    Assert.assertEquals(4, pr2.getValuesRelations().size());
+    Assert.assertTrue(pr1.isLessOrEqual(pr2));
+    Assert.assertFalse(pr2.isLessOrEqual(pr1));
+    Assert.assertSame(pr2, pr2.addRelationAndCopy(one, three, BinaryOperator.GREATER_THAN));
+
+    PredRelation pr3 = pr2.removeValueAndCopy(three);
+    Assert.assertEquals(pr1, pr3);
+    Assert.assertEquals(4, pr2.getValuesRelations().size());
+
+    PredRelation pr4 = pr1.replaceValueAndCopy(three, two);
+    Assert.assertTrue(pr4.isEmpty());
+
+    PredRelation pr5 = pr1.addRelationAndCopy(three, three, BinaryOperator.EQUALS);
+    Assert.assertEquals(3, pr5.getValuesRelations().size());
+    Assert.assertTrue(
+        pr5.getValuesRelations()
+            .contains(
+                Maps.immutableEntry(
+                    Pair.of(three, three),
+                    new SymbolicRelation(three, three, BinaryOperator.EQUALS))));
+  }
+
+  @Test
+  public void predRelationCopyTest() {
+    SMGKnownSymbolicValue one = SMGKnownSymValue.of();
+    SMGKnownSymbolicValue two = SMGKnownSymValue.of();
+    smg.addValue(one);
+    smg.addValue(two);
+
+    SMG copy = smg.copyOf();
+    copy.addPathPredicateRelation(one, 32, two, 32, BinaryOperator.LESS_THAN);
+    Assert.assertTrue(smg.getPathPredicateRelation().isEmpty());
+    Assert.assertFalse(copy.getPathPredicateRelation().isEmpty());
+
+    SMG copy2 = copy.copyOf();
+    Assert.assertSame(copy.getPathPredicateRelation(), copy2.getPathPredicateRelation());
+    copy2.removeValue(one);
+    Assert.assertFalse(copy.getPathPredicateRelation().isEmpty());
+    Assert.assertTrue(copy2.getPathPredicateRelation().isEmpty());
+  }
 }
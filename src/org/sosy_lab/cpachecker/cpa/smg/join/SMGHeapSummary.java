@@ -0,0 +1,123 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.join;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Iterator;
+import java.util.Set;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cpa.smg.CLangStackFrame;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.UnmodifiableCLangSMG;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+
+/**
+ * A cheap summary of the shape of an SMG: the names of global variables, the function and local
+ * variables of each stack frame, and the heap objects.
+ *
+ * <p>Comparing two summaries is a necessary condition for {@link SMGJoin} and {@link
+ * SMGIsLessOrEqual} to succeed, i.e., if the summaries are incompatible, the expensive check
+ * would fail anyway and can be skipped. The summary only references the persistent data
+ * structures of the SMG, thus it is valid only as long as the SMG is not modified.
+ */
+public final class SMGHeapSummary {
+
+  public static final StatCounter checks = new StatCounter("Number of coverage checks");
+  public static final StatCounter rejections =
+      new StatCounter("Number of coverage checks rejected by heap summary");
+
+  private final Set<String> globals;
+  private final ImmutableList<CLangStackFrame> frames;
+  private final Set<SMGObject> heapObjects;
+
+  private SMGHeapSummary(
+      Set<String> pGlobals, ImmutableList<CLangStackFrame> pFrames, Set<SMGObject> pHeapObjects) {
+    globals = pGlobals;
+    frames = pFrames;
+    heapObjects = pHeapObjects;
+  }
+
+  public static SMGHeapSummary of(UnmodifiableCLangSMG pSMG) {
+    return new SMGHeapSummary(
+        pSMG.getGlobalObjects().keySet(),
+        ImmutableList.copyOf(pSMG.getStackFrames()),
+        pSMG.getHeapObjects());
+  }
+
+  /**
+   * Returns whether the join of this SMG (left) and the given SMG (right) can have the status
+   * {@link SMGJoinStatus#EQUAL} or {@link SMGJoinStatus#RIGHT_ENTAIL}. If this method returns
+   * false, the join is either undefined or has another status.
+   */
+  public boolean mayJoinWithRightEntailment(SMGHeapSummary pRight) {
+    checks.inc();
+    // the join of globals is LEFT_ENTAIL or INCOMPARABLE if there is an additional global on the left
+    if (!pRight.globals.containsAll(globals)) {
+      rejections.inc();
+      return false;
+    }
+    // the join of stacks is INCOMPARABLE if the functions of the stack frames do not match
+    Iterator<CLangStackFrame> rightFrames = pRight.frames.iterator();
+    for (CLangStackFrame frame : frames) {
+      if (!rightFrames.hasNext()) {
+        break;
+      }
+      CFunctionDeclaration function = frame.getFunctionDeclaration();
+      if (!function.equals(rightFrames.next().getFunctionDeclaration())) {
+        rejections.inc();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns whether the SMG of this summary may be less or equal to the SMG of the given summary,
+   * i.e., whether {@link SMGIsLessOrEqual#isLessOrEqual} with the given SMG as first and this SMG
+   * as second argument may return true.
+   */
+  public boolean mayBeLessOrEqual(SMGHeapSummary pReached) {
+    checks.inc();
+    if (heapObjects.size() != pReached.heapObjects.size()
+        || frames.size() != pReached.frames.size()
+        || !globals.containsAll(pReached.globals)
+        || !heapObjects.containsAll(pReached.heapObjects)) {
+      rejections.inc();
+      return false;
+    }
+    for (int i = 0; i < frames.size(); i++) {
+      CLangStackFrame frame = frames.get(i);
+      CLangStackFrame reachedFrame = pReached.frames.get(i);
+      if (!frame
+              .getFunctionDeclaration()
+              .getOrigName()
+              .equals(reachedFrame.getFunctionDeclaration().getOrigName())
+          || !frame.getVariables().keySet().containsAll(reachedFrame.getVariables().keySet())) {
+        rejections.inc();
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.join;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CFunctionType;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cpa.smg.SMGInconsistentException;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.CLangSMG;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGRegion;
+
+public class SMGHeapSummaryTest {
+  private static final CFunctionType functionType =
+      CFunctionType.functionTypeWithReturnType(CNumericTypes.UNSIGNED_LONG_INT);
+  private static final CFunctionDeclaration foo =
+      new CFunctionDeclaration(FileLocation.DUMMY, functionType, "foo", ImmutableList.of());
+  private static final CFunctionDeclaration bar =
+      new CFunctionDeclaration(FileLocation.DUMMY, functionType, "bar", ImmutableList.of());
+
+  private CLangSMG smg1;
+  private CLangSMG smg2;
+
+  @Before
+  public void setUp() {
+    smg1 = new CLangSMG(MachineModel.LINUX64);
+    smg2 = new CLangSMG(MachineModel.LINUX64);
+  }
+
+  private boolean joinEntails() throws SMGInconsistentException {
+    SMGJoin join = new SMGJoin(smg1, smg2, null, null);
+    return join.isDefined()
+        && (join.getStatus() == SMGJoinStatus.EQUAL
+            || join.getStatus() == SMGJoinStatus.RIGHT_ENTAIL);
+  }
+
+  @Test
+  public void joinSummaryGlobalsTest() throws SMGInconsistentException {
+    smg1.addGlobalObject(new SMGRegion(64, "a"));
+    smg2.addGlobalObject(new SMGRegion(64, "a"));
+    smg2.addGlobalObject(new SMGRegion(64, "b"));
+
+    // an additional global on the right side is allowed
+    assertThat(SMGHeapSummary.of(smg1).mayJoinWithRightEntailment(SMGHeapSummary.of(smg2)))
+        .isTrue();
+    assertThat(joinEntails()).isTrue();
+
+    // an additional global on the left side is not allowed
+    smg1.addGlobalObject(new SMGRegion(64, "c"));
+    assertThat(SMGHeapSummary.of(smg1).mayJoinWithRightEntailment(SMGHeapSummary.of(smg2)))
+        .isFalse();
+    assertThat(joinEntails()).isFalse();
+  }
+
+  @Test
+  public void joinSummaryStackTest() throws SMGInconsistentException {
+    smg1.addStackFrame(foo);
+    smg2.addStackFrame(foo);
+    assertThat(SMGHeapSummary.of(smg1).mayJoinWithRightEntailment(SMGHeapSummary.of(smg2)))
+        .isTrue();
+    assertThat(joinEntails()).isTrue();
+
+    // the join itself does not expect different functions on the stack
+    smg1.addStackFrame(foo);
+    smg2.addStackFrame(bar);
+    assertThat(SMGHeapSummary.of(smg1).mayJoinWithRightEntailment(SMGHeapSummary.of(smg2)))
+        .isFalse();
+  }
+
+  @Test
+  public void lessOrEqualSummaryTest() {
+    smg1.addStackFrame(foo);
+    smg2.addStackFrame(foo);
+    SMGRegion heapObject = new SMGRegion(64, "heap");
+    smg1.addHeapObject(heapObject);
+    smg2.addHeapObject(heapObject);
+    smg2.addStackObject(new SMGRegion(64, "x"));
+
+    // smg1 has fewer variables than smg2
+    assertThat(SMGHeapSummary.of(smg2).mayBeLessOrEqual(SMGHeapSummary.of(smg1))).isTrue();
+    assertThat(SMGIsLessOrEqual.isLessOrEqual(smg1, smg2)).isTrue();
+    assertThat(SMGHeapSummary.of(smg1).mayBeLessOrEqual(SMGHeapSummary.of(smg2))).isFalse();
+    assertThat(SMGIsLessOrEqual.isLessOrEqual(smg2, smg1)).isFalse();
+
+    smg2.addHeapObject(new SMGRegion(64, "heap2"));
+    assertThat(SMGHeapSummary.of(smg2).mayBeLessOrEqual(SMGHeapSummary.of(smg1))).isFalse();
+    assertThat(SMGIsLessOrEqual.isLessOrEqual(smg1, smg2)).isFalse();
+  }
+}
@@ -37,9 +37,14 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
-import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
@@ -69,7 +74,7 @@ public class UsageContainer {
 
   private final Set<SingleIdentifier> falseUnsafes;
 
-  private final Set<SingleIdentifier> processedUnsafes = new HashSet<>();
+  private final Set<SingleIdentifier> processedUnsafes = ConcurrentHashMap.newKeySet();
   //Only for statistics
   private Set<SingleIdentifier> initialSet = null;
   private int initialUsages;
@@ -79,6 +84,7 @@ public class UsageContainer {
   private final StatTimer resetTimer = new StatTimer("Time for reseting unsafes");
   private final StatTimer copyTimer = new StatTimer("Time for filling global container");
   private final StatTimer emptyEffectsTimer = new StatTimer("Time for coping usages");
+  private final StatTimer unsafeDetectionTimer = new StatTimer("Time for detecting unsafes");
 
   int unsafeUsages = -1;
   int totalIds = 0;
@@ -87,12 +93,27 @@ public class UsageContainer {
       secure = true)
   private boolean printOnlyTrueUnsafes = false;
 
+  @Option(
+    description =
+        "number of threads for checking the usages of identifiers for unsafes, "
+            + "with -1 we use the number of available cores of the machine.",
+    secure = true
+  )
+  private int unsafeDetectionThreads = 1;
+
   public UsageContainer(Configuration config, LogManager l) throws InvalidConfigurationException {
-    this(new TreeMap<SingleIdentifier, UnrefinedUsagePointSet>(),
-        new TreeMap<SingleIdentifier, RefinedUsagePointSet>(),
-        new TreeMap<SingleIdentifier, RefinedUsagePointSet>(),
-        new TreeSet<SingleIdentifier>(), l, new UnsafeDetector(config));
+    this(new ConcurrentSkipListMap<SingleIdentifier, UnrefinedUsagePointSet>(),
+        new ConcurrentSkipListMap<SingleIdentifier, RefinedUsagePointSet>(),
+        new ConcurrentSkipListMap<SingleIdentifier, RefinedUsagePointSet>(),
+        new ConcurrentSkipListSet<SingleIdentifier>(), l, new UnsafeDetector(config));
     config.inject(this);
+    if (unsafeDetectionThreads == -1) {
+      unsafeDetectionThreads = Runtime.getRuntime().availableProcessors();
+    }
+    if (unsafeDetectionThreads < 1) {
+      throw new InvalidConfigurationException(
+          "Invalid number of threads for unsafe detection: " + unsafeDetectionThreads);
+    }
   }
 
   private UsageContainer(SortedMap<SingleIdentifier, UnrefinedUsagePointSet> pUnrefinedStat,
@@ -207,33 +228,27 @@ public class UsageContainer {
   private UnrefinedUsagePointSet getSet(SingleIdentifier id) {
     assert (!falseUnsafes.contains(id) || !refinedIds.containsKey(id));
 
-    UnrefinedUsagePointSet uset;
-    if (!unrefinedIds.containsKey(id)) {
-      uset = new UnrefinedUsagePointSet();
-      unrefinedIds.put(id, uset);
-    } else {
-      uset = unrefinedIds.get(id);
-    }
-    return uset;
+    return unrefinedIds.computeIfAbsent(id, k -> new UnrefinedUsagePointSet());
   }
 
   private void calculateUnsafesIfNecessary() {
     if (unsafeUsages == -1) {
+      unsafeDetectionTimer.start();
       processedUnsafes.clear();
       unsafeUsages = 0;
-      Set<SingleIdentifier> toDelete = new HashSet<>();
-
-      for (Entry<SingleIdentifier, UnrefinedUsagePointSet> entry : unrefinedIds.entrySet()) {
-        UnrefinedUsagePointSet tmpList = entry.getValue();
-        if (detector.isUnsafe(tmpList)) {
-          unsafeUsages += tmpList.size();
-        } else {
-          SingleIdentifier id = entry.getKey();
-          toDelete.add(id);
-          falseUnsafes.add(id);
-        }
+
+      // the usages of different identifiers are independent, thus they can be checked in parallel
+      Map<Boolean, Set<SingleIdentifier>> partition =
+          partitionByUnsafety(unrefinedIds, detector::isUnsafe, unsafeDetectionThreads);
+
+      for (SingleIdentifier id : partition.get(true)) {
+        unsafeUsages += unrefinedIds.get(id).size();
       }
-      toDelete.forEach(this::removeIdFromCaches);
+      for (SingleIdentifier id : partition.get(false)) {
+        falseUnsafes.add(id);
+        removeIdFromCaches(id);
+      }
+      unsafeDetectionTimer.stop();
 
       refinedIds.forEach((id, list) -> unsafeUsages += list.size());
 
@@ -245,6 +260,33 @@ public class UsageContainer {
     }
   }
 
+  /**
+   * Partition the keys of the given map by whether their value is unsafe. With more than one
+   * thread, the values are checked by a pool that exists only for this call.
+   */
+  static <K, V> Map<Boolean, Set<K>> partitionByUnsafety(
+      Map<K, V> pSets, Predicate<? super V> pIsUnsafe, int pThreads) {
+    if (pThreads <= 1) {
+      return partitionByUnsafety(pSets, pIsUnsafe, false);
+    }
+    // a parallel stream started from a task of a pool runs in that pool
+    ForkJoinPool pool = new ForkJoinPool(pThreads);
+    try {
+      return pool.submit(() -> partitionByUnsafety(pSets, pIsUnsafe, true)).join();
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static <K, V> Map<Boolean, Set<K>> partitionByUnsafety(
+      Map<K, V> pSets, Predicate<? super V> pIsUnsafe, boolean pParallel) {
+    return (pParallel ? pSets.entrySet().parallelStream() : pSets.entrySet().stream())
+        .collect(
+            Collectors.partitioningBy(
+                entry -> pIsUnsafe.test(entry.getValue()),
+                Collectors.mapping(Entry::getKey, Collectors.toSet())));
+  }
+
   private void removeIdFromCaches(SingleIdentifier id) {
     unrefinedIds.remove(id);
     processedUnsafes.add(id);
@@ -395,7 +437,8 @@ public class UsageContainer {
         .put(failedUsages)
         .put(resetTimer)
         .put(copyTimer)
-        .put(emptyEffectsTimer);
+        .put(emptyEffectsTimer)
+        .put(unsafeDetectionTimer);
   }
 
   public Set<SingleIdentifier> getProcessedUnsafes() {
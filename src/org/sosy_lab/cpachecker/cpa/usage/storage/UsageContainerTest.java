@@ -0,0 +1,117 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.usage.storage;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Predicate;
+import org.junit.Test;
+
+public class UsageContainerTest {
+
+  private static Map<Integer, Integer> createSets(int pSize) {
+    Map<Integer, Integer> sets = new TreeMap<>();
+    for (int i = 0; i < pSize; i++) {
+      sets.put(i, i * 7 % 13);
+    }
+    return sets;
+  }
+
+  private static final Predicate<Integer> IS_UNSAFE = value -> value % 2 == 0;
+
+  @Test
+  public void testParallelPartitionEqualsSequential() {
+    Map<Integer, Integer> sets = createSets(1000);
+    Map<Boolean, Set<Integer>> expected = UsageContainer.partitionByUnsafety(sets, IS_UNSAFE, 1);
+
+    assertThat(expected.get(true)).isNotEmpty();
+    assertThat(expected.get(false)).isNotEmpty();
+    assertThat(UsageContainer.partitionByUnsafety(sets, IS_UNSAFE, 4)).isEqualTo(expected);
+  }
+
+  @Test
+  public void testPartition() {
+    Map<Integer, Integer> sets = createSets(4);
+    Map<Boolean, Set<Integer>> partition = UsageContainer.partitionByUnsafety(sets, IS_UNSAFE, 2);
+
+    // values are 0, 7, 1, 8
+    assertThat(partition.get(true)).isEqualTo(ImmutableSet.of(0, 3));
+    assertThat(partition.get(false)).isEqualTo(ImmutableSet.of(1, 2));
+  }
+
+  @Test
+  public void testEmptyPartition() {
+    Map<Boolean, Set<Integer>> partition =
+        UsageContainer.partitionByUnsafety(new TreeMap<>(), IS_UNSAFE, 2);
+
+    assertThat(partition.get(true)).isEmpty();
+    assertThat(partition.get(false)).isEmpty();
+  }
+
+  @Test
+  public void testParallelPartitionUsesOwnPoolAndShutsItDown() {
+    Set<ForkJoinPool> pools = ConcurrentHashMap.newKeySet();
+    Set<Thread> otherThreads = ConcurrentHashMap.newKeySet();
+    Predicate<Integer> recordingPredicate =
+        value -> {
+          Thread thread = Thread.currentThread();
+          if (thread instanceof ForkJoinWorkerThread) {
+            pools.add(((ForkJoinWorkerThread) thread).getPool());
+          } else {
+            otherThreads.add(thread);
+          }
+          return IS_UNSAFE.test(value);
+        };
+
+    UsageContainer.partitionByUnsafety(createSets(1000), recordingPredicate, 4);
+
+    assertThat(otherThreads).isEmpty();
+    assertThat(pools).hasSize(1);
+    ForkJoinPool pool = pools.iterator().next();
+    assertThat(pool).isNotSameAs(ForkJoinPool.commonPool());
+    assertThat(pool.getParallelism()).isEqualTo(4);
+    assertThat(pool.isShutdown()).isTrue();
+  }
+
+  @Test
+  public void testSequentialPartitionRunsInCallingThread() {
+    Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    Predicate<Integer> recordingPredicate =
+        value -> {
+          threads.add(Thread.currentThread());
+          return IS_UNSAFE.test(value);
+        };
+
+    UsageContainer.partitionByUnsafety(createSets(100), recordingPredicate, 1);
+
+    assertThat(threads).containsExactly(Thread.currentThread());
+  }
+}
@@ -53,6 +53,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.PCCStrategy;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.exceptions.ValidationConfigurationConstructionFailed;
+import org.sosy_lab.cpachecker.pcc.strategy.partitioning.PartitioningIOHelper;
 import org.sosy_lab.cpachecker.pcc.util.ProofStatesInfoCollector;
 import org.sosy_lab.cpachecker.pcc.util.ValidationConfigurationBuilder;
 import org.sosy_lab.cpachecker.util.Triple;
@@ -162,6 +163,44 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
     logger.log(Level.INFO, proofInfo.getInfoAsString());
   }
 
+  /**
+   * Write the proof as indexed certificate file instead of the zip file written by {@link
+   * #writeProof(UnmodifiableReachedSet)}, for strategies with partitioned certificates.
+   */
+  protected void writeIndexedProof(
+      final PartitioningIOHelper pIOHelper, final UnmodifiableReachedSet pReached) {
+    Path dir = proofFile.getParent();
+
+    if (storeConfig) {
+      logger.log(
+          Level.WARNING,
+          "Validation configuration is not written to the proof,",
+          "because indexed certificate files cannot store it.");
+    }
+
+    try {
+      if (dir != null) {
+        Files.createDirectories(dir);
+      }
+
+      pIOHelper.constructInternalProofRepresentation(pReached);
+      pIOHelper.writeIndexedCertificateFile(proofFile);
+    } catch (NotSerializableException eS) {
+      logger.log(Level.SEVERE, "Proof cannot be written. Class " + eS.getMessage()
+          + " does not implement Serializable interface");
+    } catch (InvalidConfigurationException e) {
+      logger.log(Level.SEVERE, "Proof cannot be constructed due to conflicting configuration.",
+          e.getMessage());
+    } catch (InterruptedException e) {
+      logger.log(Level.SEVERE,
+          "Proof cannot be written due to time out during proof construction");
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+
+    logger.log(Level.INFO, proofInfo.getInfoAsString());
+  }
+
   protected abstract void writeProofToStream(ObjectOutputStream out, UnmodifiableReachedSet reached)
       throws IOException, InvalidConfigurationException, InterruptedException;
 
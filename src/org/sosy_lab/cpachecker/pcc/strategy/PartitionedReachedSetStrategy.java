@@ -149,6 +149,24 @@ public class PartitionedReachedSetStrategy extends AbstractStrategy {
 
   }
 
+  @Override
+  public void writeProof(UnmodifiableReachedSet pReached) {
+    if (ioHelper.usesIndexedCertificateFile()) {
+      writeIndexedProof(ioHelper, pReached);
+    } else {
+      super.writeProof(pReached);
+    }
+  }
+
+  @Override
+  public void readProof() throws IOException, ClassNotFoundException, InvalidConfigurationException {
+    if (ioHelper.usesIndexedCertificateFile()) {
+      ioHelper.readIndexedCertificateFile(proofFile, stats);
+    } else {
+      super.readProof();
+    }
+  }
+
   @Override
   protected void writeProofToStream(ObjectOutputStream pOut, UnmodifiableReachedSet pReached) throws IOException,
       InvalidConfigurationException, InterruptedException {
@@ -94,8 +94,12 @@ public class ParallelPartitionReader implements Runnable {
     int nextId;
     while ((nextId = nextPartition.getAndIncrement()) < ioHelper.getNumPartitions()) {
       try {
-        streams = strategy.openAdditionalProofStream(nextId);
-        ioHelper.readPartition(streams.getThird(), stats, lock);
+        if (ioHelper.hasOpenIndexedCertificateFile()) {
+          ioHelper.readPartition(nextId, stats, lock);
+        } else {
+          streams = strategy.openAdditionalProofStream(nextId);
+          ioHelper.readPartition(streams.getThird(), stats, lock);
+        }
         waitRead.release();
       } catch (IOException | ClassNotFoundException e) {
         logger.logUserException(Level.SEVERE, e, "Partition reading failed. Stop checking");
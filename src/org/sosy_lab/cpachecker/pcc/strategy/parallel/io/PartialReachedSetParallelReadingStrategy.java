@@ -149,6 +149,30 @@ public class PartialReachedSetParallelReadingStrategy extends AbstractStrategy {
     }
   }
 
+  @Override
+  public void writeProof(final UnmodifiableReachedSet pReached) {
+    if (ioHelper.usesIndexedCertificateFile()) {
+      writeIndexedProof(ioHelper, pReached);
+    } else {
+      super.writeProof(pReached);
+    }
+  }
+
+  @Override
+  public void readProof() throws IOException, ClassNotFoundException, InvalidConfigurationException {
+    if (ioHelper.usesIndexedCertificateFile()) {
+      // each partition is read directly instead of scanning the zip file once per partition
+      ioHelper.openIndexedCertificateFile(proofFile);
+      try {
+        readPartitionsInParallel();
+      } finally {
+        ioHelper.closeIndexedCertificateFile();
+      }
+    } else {
+      super.readProof();
+    }
+  }
+
   @Override
   protected void writeProofToStream(final ObjectOutputStream pOut, final UnmodifiableReachedSet pReached)
       throws IOException, InvalidConfigurationException, InterruptedException {
@@ -172,7 +196,10 @@ public class PartialReachedSetParallelReadingStrategy extends AbstractStrategy {
       InvalidConfigurationException, IOException {
     // read metadata
     ioHelper.readMetadata(pIn, true);
-    // read partitions in parallel
+    readPartitionsInParallel();
+  }
+
+  private void readPartitionsInParallel() throws IOException {
     ExecutorService executor = Executors.newFixedThreadPool(numThreads);
     try {
       AtomicBoolean success = new AtomicBoolean(true);
@@ -0,0 +1,311 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import com.google.common.io.CountingOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.util.Pair;
+
+/**
+ * A certificate file that stores the partitions of a partitioned certificate such that each
+ * partition can be read on its own.
+ *
+ * <p>Each partition is serialized into a separate block (optionally compressed), and a table of
+ * contents at the end of the file stores the position of each block. Reading a partition maps
+ * only its block into memory, so partitions can be read lazily, in any order, and concurrently
+ * by several threads. Objects that are shared between the states of a partition are written
+ * only once per partition, but not shared across partitions, because this would make the
+ * partitions depend on each other.
+ *
+ * <p>Layout: header (magic number, version), blocks of the partitions, table of contents
+ * (reached-set size, number of partitions, and per partition its offset, length, compression
+ * flag, and number of states), position of the table of contents.
+ */
+public final class IndexedCertificateFile implements AutoCloseable {
+
+  private static final int MAGIC = 0x50434343; // "PCCC"
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = Integer.BYTES * 2;
+  private static final int TRAILER_SIZE = Long.BYTES;
+  private static final int TOC_ENTRY_SIZE = Long.BYTES + Integer.BYTES + 1 + Integer.BYTES;
+
+  private final FileChannel channel;
+  private final int reachedSetSize;
+  private final long[] offsets;
+  private final int[] lengths;
+  private final boolean[] compressed;
+  private final int[] numStates;
+
+  private IndexedCertificateFile(
+      FileChannel pChannel,
+      int pReachedSetSize,
+      long[] pOffsets,
+      int[] pLengths,
+      boolean[] pCompressed,
+      int[] pNumStates) {
+    channel = pChannel;
+    reachedSetSize = pReachedSetSize;
+    offsets = pOffsets;
+    lengths = pLengths;
+    compressed = pCompressed;
+    numStates = pNumStates;
+  }
+
+  /**
+   * Write the given partitions to a file.
+   *
+   * @param pFile the file to write, will be overwritten
+   * @param pReachedSetSize the size of the reached set from which the certificate was computed
+   * @param pPartitions the partitions, each given as the states of the partition and the adjacent
+   *     states in other partitions
+   * @param pCompress whether partitions should be compressed (if this makes them smaller)
+   */
+  public static void write(
+      Path pFile,
+      int pReachedSetSize,
+      List<Pair<AbstractState[], AbstractState[]>> pPartitions,
+      boolean pCompress)
+      throws IOException {
+    int numPartitions = pPartitions.size();
+    long[] offsets = new long[numPartitions];
+    int[] lengths = new int[numPartitions];
+    boolean[] compressed = new boolean[numPartitions];
+
+    try (CountingOutputStream counter =
+            new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(pFile)));
+        DataOutputStream out = new DataOutputStream(counter)) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+
+      for (int i = 0; i < numPartitions; i++) {
+        byte[] block = serialize(pPartitions.get(i));
+        if (pCompress) {
+          byte[] compressedBlock = compress(block);
+          if (compressedBlock.length < block.length) {
+            block = compressedBlock;
+            compressed[i] = true;
+          }
+        }
+        out.flush();
+        offsets[i] = counter.getCount();
+        lengths[i] = block.length;
+        out.write(block);
+      }
+
+      out.flush();
+      long tocOffset = counter.getCount();
+      out.writeInt(pReachedSetSize);
+      out.writeInt(numPartitions);
+      for (int i = 0; i < numPartitions; i++) {
+        Pair<AbstractState[], AbstractState[]> partition = pPartitions.get(i);
+        out.writeLong(offsets[i]);
+        out.writeInt(lengths[i]);
+        out.writeBoolean(compressed[i]);
+        out.writeInt(partition.getFirst().length + partition.getSecond().length);
+      }
+      out.writeLong(tocOffset);
+    }
+  }
+
+  private static byte[] serialize(Pair<AbstractState[], AbstractState[]> pPartition)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(pPartition.getFirst());
+      out.writeObject(pPartition.getSecond());
+    }
+    return bytes.toByteArray();
+  }
+
+  private static byte[] compress(byte[] pBlock) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(pBlock.length / 2);
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    try (OutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+      out.write(pBlock);
+    } finally {
+      deflater.end();
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Open a certificate file that was written with {@link #write(Path, int, List, boolean)}.
+   * Only the table of contents is read, partitions are read with {@link #readPartition(int)}.
+   *
+   * @throws IOException if the file cannot be read or is not a valid certificate file
+   */
+  public static IndexedCertificateFile open(Path pFile) throws IOException {
+    FileChannel channel = FileChannel.open(pFile, StandardOpenOption.READ);
+    try {
+      long size = channel.size();
+      if (size < HEADER_SIZE + TRAILER_SIZE) {
+        throw new IOException("File " + pFile + " is not a valid certificate file");
+      }
+
+      ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE);
+      if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+        throw new IOException(
+            "File " + pFile + " is not a certificate file or has an unsupported version");
+      }
+
+      long tocOffset =
+          channel.map(MapMode.READ_ONLY, size - TRAILER_SIZE, TRAILER_SIZE).getLong();
+      if (tocOffset < HEADER_SIZE || tocOffset > size - TRAILER_SIZE) {
+        throw new IOException("File " + pFile + " is not a valid certificate file");
+      }
+
+      ByteBuffer toc = channel.map(MapMode.READ_ONLY, tocOffset, size - TRAILER_SIZE - tocOffset);
+      int reachedSetSize = toc.getInt();
+      int numPartitions = toc.getInt();
+      if (numPartitions < 0 || (long) numPartitions * TOC_ENTRY_SIZE != toc.remaining()) {
+        throw new IOException("File " + pFile + " is not a valid certificate file");
+      }
+
+      long[] offsets = new long[numPartitions];
+      int[] lengths = new int[numPartitions];
+      boolean[] compressed = new boolean[numPartitions];
+      int[] numStates = new int[numPartitions];
+      for (int i = 0; i < numPartitions; i++) {
+        offsets[i] = toc.getLong();
+        lengths[i] = toc.getInt();
+        compressed[i] = toc.get() != 0;
+        numStates[i] = toc.getInt();
+        if (offsets[i] < HEADER_SIZE || lengths[i] < 0 || offsets[i] + lengths[i] > tocOffset) {
+          throw new IOException("File " + pFile + " is not a valid certificate file");
+        }
+      }
+
+      return new IndexedCertificateFile(
+          channel, reachedSetSize, offsets, lengths, compressed, numStates);
+
+    } catch (BufferUnderflowException e) {
+      channel.close();
+      throw new IOException("File " + pFile + " is not a valid certificate file", e);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  public int getReachedSetSize() {
+    return reachedSetSize;
+  }
+
+  public int getNumPartitions() {
+    return offsets.length;
+  }
+
+  /** Return the number of states (including adjacent states) in the given partition. */
+  public int getNumStates(int pIndex) {
+    checkElementIndex(pIndex, getNumPartitions());
+    return numStates[pIndex];
+  }
+
+  /**
+   * Read one partition from the file. This method may be called concurrently.
+   *
+   * @return the states of the partition and the adjacent states in other partitions
+   */
+  public Pair<AbstractState[], AbstractState[]> readPartition(int pIndex)
+      throws IOException, ClassNotFoundException {
+    checkElementIndex(pIndex, getNumPartitions());
+    ByteBuffer block = channel.map(MapMode.READ_ONLY, offsets[pIndex], lengths[pIndex]);
+
+    InputStream in = new ByteBufferInputStream(block);
+    if (compressed[pIndex]) {
+      in = new InflaterInputStream(in);
+    }
+    try (ObjectInputStream objects = new ObjectInputStream(in)) {
+      return Pair.of((AbstractState[]) objects.readObject(), (AbstractState[]) objects.readObject());
+    } catch (ClassCastException e) {
+      throw new IOException("Partition " + pIndex + " contains unexpected objects", e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /** Read a (memory-mapped) byte buffer without copying it first. */
+  private static class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer pBuffer) {
+      buffer = pBuffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? Byte.toUnsignedInt(buffer.get()) : -1;
+    }
+
+    @Override
+    public int read(byte[] pBytes, int pOffset, int pLength) {
+      if (pLength == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int length = Math.min(pLength, buffer.remaining());
+      buffer.get(pBytes, pOffset, length);
+      return length;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+
+    @Override
+    public long skip(long pCount) {
+      int count = (int) Math.max(0, Math.min(pCount, buffer.remaining()));
+      buffer.position(buffer.position() + count);
+      return count;
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.util.Pair;
+
+public class IndexedCertificateFileTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final class TestState implements AbstractState, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int id;
+
+    private TestState(int pId) {
+      id = pId;
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      return pObj instanceof TestState && ((TestState) pObj).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      return id;
+    }
+
+    @Override
+    public String toString() {
+      return "TestState " + id;
+    }
+  }
+
+  private static Pair<AbstractState[], AbstractState[]> partition(int pFirst, int pSize) {
+    AbstractState[] states = new AbstractState[pSize];
+    for (int i = 0; i < pSize; i++) {
+      states[i] = new TestState(pFirst + i);
+    }
+    return Pair.of(states, new AbstractState[] {new TestState(-pFirst)});
+  }
+
+  private void checkRoundTrip(boolean pCompress) throws Exception {
+    List<Pair<AbstractState[], AbstractState[]>> partitions =
+        ImmutableList.of(partition(0, 100), partition(100, 1), partition(200, 0));
+    Path file = tempFolder.newFile().toPath();
+    IndexedCertificateFile.write(file, 42, partitions, pCompress);
+
+    try (IndexedCertificateFile certificate = IndexedCertificateFile.open(file)) {
+      assertThat(certificate.getReachedSetSize()).isEqualTo(42);
+      assertThat(certificate.getNumPartitions()).isEqualTo(3);
+
+      // partitions can be read in any order
+      for (int i = partitions.size() - 1; i >= 0; i--) {
+        Pair<AbstractState[], AbstractState[]> partition = certificate.readPartition(i);
+        assertThat(partition.getFirst()).isEqualTo(partitions.get(i).getFirst());
+        assertThat(partition.getSecond()).isEqualTo(partitions.get(i).getSecond());
+        assertThat(certificate.getNumStates(i))
+            .isEqualTo(partition.getFirst().length + partition.getSecond().length);
+      }
+    }
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    checkRoundTrip(false);
+  }
+
+  @Test
+  public void testRoundTripCompressed() throws Exception {
+    checkRoundTrip(true);
+  }
+
+  @Test
+  public void testCompressionMakesFileSmaller() throws Exception {
+    List<Pair<AbstractState[], AbstractState[]>> partitions = ImmutableList.of(partition(0, 1000));
+    Path uncompressed = tempFolder.newFile().toPath();
+    Path compressed = tempFolder.newFile().toPath();
+    IndexedCertificateFile.write(uncompressed, 1000, partitions, false);
+    IndexedCertificateFile.write(compressed, 1000, partitions, true);
+
+    assertThat(Files.size(compressed)).isLessThan(Files.size(uncompressed));
+  }
+
+  @Test(expected = IOException.class)
+  public void testInvalidFile() throws Exception {
+    Path file = tempFolder.newFile().toPath();
+    Files.write(file, "not a certificate file".getBytes(StandardCharsets.UTF_8));
+    IndexedCertificateFile.open(file).close();
+  }
+}
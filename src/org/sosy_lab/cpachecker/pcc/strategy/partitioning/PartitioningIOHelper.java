@@ -23,10 +23,12 @@
  */
 package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
 
+import com.google.common.base.Preconditions;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -66,6 +68,31 @@ public class PartitioningIOHelper {
   @Option(secure=true, description = "Heuristic for computing partitioning of proof (partial reached set).")
   private PartitioningHeuristics partitioningStrategy = PartitioningHeuristics.RANDOM;
 
+  public enum CertificateFormat {
+    /** all partitions as serialized Java objects in a zip file */
+    ZIP,
+    /** see {@link IndexedCertificateFile} */
+    INDEXED
+  }
+
+  @Option(
+    secure = true,
+    description =
+        "Format of the certificate file for strategies that support it. "
+            + "ZIP stores all partitions as serialized Java objects in a zip file. "
+            + "INDEXED stores the partitions in separate blocks with a table of contents, "
+            + "such that each partition can be read on its own "
+            + "(the validation configuration is not stored in this format)."
+  )
+  private CertificateFormat certificateFormat = CertificateFormat.ZIP;
+
+  @Option(
+    secure = true,
+    description =
+        "compress each partition of an INDEXED certificate file (if this makes it smaller)"
+  )
+  private boolean compressPartitions = true;
+
   private final LogManager logger;
   private final PartialReachedConstructionAlgorithm partialConstructor;
   private final BalancedGraphPartitioner partitioner;
@@ -74,6 +101,7 @@ public class PartitioningIOHelper {
   private List<Pair<AbstractState[], AbstractState[]>> partitions;
   private Statistics currentGraphStatistics;
   private ProofStatesInfoCollector infoCollector;
+  private @Nullable IndexedCertificateFile certificateFile = null;
 
   public PartitioningIOHelper(final Configuration pConfig, final LogManager pLogger,
       final ShutdownNotifier pShutdownNotifier) throws InvalidConfigurationException {
@@ -154,6 +182,38 @@ public class PartitioningIOHelper {
     pStats.increaseProofSize(result.getFirst().length+result.getSecond().length);
   }
 
+  /**
+   * Read the partition with the given index from the certificate file opened with {@link
+   * #openIndexedCertificateFile(Path)}. Partitions can be read in any order.
+   */
+  public void readPartition(final int pIndex, final PCStrategyStatistics pStats)
+      throws ClassNotFoundException, IOException {
+    Preconditions.checkState(certificateFile != null, "No certificate file opened");
+    Pair<AbstractState[], AbstractState[]> result = certificateFile.readPartition(pIndex);
+    partitions.add(result);
+    pStats.increaseProofSize(result.getFirst().length+result.getSecond().length);
+  }
+
+  /**
+   * Read the partition with the given index from the certificate file opened with {@link
+   * #openIndexedCertificateFile(Path)}. Several partitions can be read concurrently, the given
+   * lock only protects the storage of the partitions.
+   */
+  public void readPartition(final int pIndex, final PCStrategyStatistics pStats, final Lock pLock)
+      throws ClassNotFoundException, IOException {
+    if (pLock == null) { throw new IllegalArgumentException("Cannot protect against parallel access"); }
+    Preconditions.checkState(certificateFile != null, "No certificate file opened");
+    Pair<AbstractState[], AbstractState[]> result = certificateFile.readPartition(pIndex);
+    int partialProofSize = result.getFirst().length+result.getSecond().length;
+    pLock.lock();
+    try {
+      partitions.add(result);
+      pStats.increaseProofSize(partialProofSize);
+    } finally {
+      pLock.unlock();
+    }
+  }
+
   private Pair<AbstractState[], AbstractState[]> readPartitionContent(final ObjectInputStream pIn)
       throws ClassNotFoundException, IOException {
     return Pair.of((AbstractState[]) pIn.readObject(), (AbstractState[]) pIn.readObject());
@@ -192,6 +252,63 @@ public class PartitioningIOHelper {
     }
   }
 
+  public boolean usesIndexedCertificateFile() {
+    return certificateFormat == CertificateFormat.INDEXED;
+  }
+
+  /**
+   * Open a certificate file written by {@link #writeIndexedCertificateFile(Path)} and read its
+   * metadata. The partitions need to be read with {@link #readPartition(int,
+   * PCStrategyStatistics)} afterwards, and the file needs to be closed with {@link
+   * #closeIndexedCertificateFile()}.
+   */
+  public void openIndexedCertificateFile(final Path pFile) throws IOException {
+    Preconditions.checkState(certificateFile == null, "Certificate file already opened");
+    certificateFile = IndexedCertificateFile.open(pFile);
+    savedReachedSetSize = certificateFile.getReachedSetSize();
+    numPartitions = certificateFile.getNumPartitions();
+    partitions = new ArrayList<>(numPartitions);
+  }
+
+  public boolean hasOpenIndexedCertificateFile() {
+    return certificateFile != null;
+  }
+
+  public void closeIndexedCertificateFile() throws IOException {
+    if (certificateFile != null) {
+      certificateFile.close();
+      certificateFile = null;
+    }
+  }
+
+  public void readIndexedCertificateFile(final Path pFile, final PCStrategyStatistics pStats)
+      throws IOException, ClassNotFoundException {
+    openIndexedCertificateFile(pFile);
+    try {
+      for (int i = 0; i < numPartitions; i++) {
+        readPartition(i, pStats);
+      }
+    } finally {
+      closeIndexedCertificateFile();
+    }
+  }
+
+  /**
+   * Write the proof representation computed by {@link
+   * #constructInternalProofRepresentation(UnmodifiableReachedSet)} to an indexed certificate
+   * file.
+   */
+  public void writeIndexedCertificateFile(final Path pFile) throws IOException {
+    Preconditions.checkState(partitions != null, "No proof constructed");
+    logger.log(Level.FINER, "Write indexed certificate file");
+    if (infoCollector != null) {
+      for (Pair<AbstractState[], AbstractState[]> partition : partitions) {
+        infoCollector.addInfoForStates(partition.getFirst());
+      }
+    }
+    IndexedCertificateFile.write(pFile, savedReachedSetSize, partitions, compressPartitions);
+  }
+
   public void writeMetadata(final ObjectOutputStream pOut, final int pReachedSetSize, final int pNumPartitions)
       throws IOException {
     logger.log(Level.FINER,"Write metadata of partition");
@@ -46,6 +46,7 @@ import com.google.common.collect.Multimaps;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.SortedSetMultimap;
 import com.google.common.collect.TreeMultimap;
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -93,7 +94,9 @@ import org.sosy_lab.cpachecker.util.resources.ResourceLimitChecker;
 import org.sosy_lab.cpachecker.util.resources.WalltimeLimit;
 import org.sosy_lab.cpachecker.util.variableclassification.VariableClassification;
 
-public class LiveVariables {
+public class LiveVariables implements Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   public enum EvaluationStrategy {
     FUNCTION_WISE, GLOBAL
@@ -164,6 +167,8 @@ public class LiveVariables {
    */
   private static class AllVariablesAsLiveVariables extends LiveVariables {
 
+    private static final long serialVersionUID = 1L;
+
     private final ImmutableSet<ASimpleDeclaration> allVariables;
 
     private AllVariablesAsLiveVariables(CFA cfa, List<Pair<ADeclaration, String>> globalsList) {
@@ -272,6 +277,45 @@ public class LiveVariables {
     liveVariablesStrings = ImmutableSetMultimap.copyOf(Multimaps.transformValues(liveVariables, FROM_EQUIV_WRAPPER_TO_STRING));
   }
 
+  /**
+   * The wrapped declarations depend on an equivalence that is not serializable, thus we write the
+   * plain declarations and wrap them again when reading.
+   */
+  private Object writeReplace() {
+    return new SerializedLiveVariables(this);
+  }
+
+  private static class SerializedLiveVariables implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ImmutableSetMultimap<CFANode, ASimpleDeclaration> liveVariables;
+    private final ImmutableSet<ASimpleDeclaration> globalVariables;
+    private final VariableClassification variableClassification;
+    private final EvaluationStrategy evaluationStrategy;
+    private final Language language;
+
+    private SerializedLiveVariables(LiveVariables pLiveVariables) {
+      liveVariables =
+          ImmutableSetMultimap.copyOf(
+              Multimaps.transformValues(pLiveVariables.liveVariables, FROM_EQUIV_WRAPPER));
+      globalVariables =
+          from(pLiveVariables.globalVariables).transform(FROM_EQUIV_WRAPPER).toSet();
+      variableClassification = pLiveVariables.variableClassification;
+      evaluationStrategy = pLiveVariables.evaluationStrategy;
+      language = pLiveVariables.language;
+    }
+
+    private Object readResolve() {
+      return new LiveVariables(
+          Multimaps.transformValues(liveVariables, TO_EQUIV_WRAPPER),
+          variableClassification,
+          from(globalVariables).transform(TO_EQUIV_WRAPPER).toSet(),
+          evaluationStrategy,
+          language);
+    }
+  }
+
   public boolean isVariableLive(ASimpleDeclaration variable, CFANode location) {
     String varName = variable.getQualifiedName();
     final Wrapper<ASimpleDeclaration> wrappedDecl = LIVE_DECL_EQUIVALENCE.wrap(variable);
@@ -28,22 +28,29 @@ import static com.google.common.collect.FluentIterable.from;
 import static org.sosy_lab.cpachecker.util.CFAUtils.hasBackWardsEdges;
 import static org.sosy_lab.cpachecker.util.CFAUtils.leavingEdges;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.cfa.Language;
@@ -134,6 +141,11 @@ public final class LoopStructure implements Serializable {
                                 .build();
     }
 
+    private Loop(Set<CFANode> pLoopHeads, Set<CFANode> pNodes) {
+      loopHeads = ImmutableSet.copyOf(pLoopHeads);
+      nodes = ImmutableSortedSet.copyOf(pNodes);
+    }
+
     private void computeSets() {
       if (innerLoopEdges != null) {
         assert incomingEdges != null;
@@ -451,6 +463,53 @@ public final class LoopStructure implements Serializable {
     return new LoopStructure(loops.build());
   }
 
+  /**
+   * Restore loop-structure information from the loop heads and the loop nodes of each loop,
+   * as returned by {@link Loop#getLoopHeads()} and {@link Loop#getLoopNodes()}.
+   * Do not call this method outside of the frontend.
+   */
+  public static LoopStructure restore(List<Pair<Set<CFANode>, Set<CFANode>>> pLoops) {
+    ImmutableMultimap.Builder<String, Loop> loops = ImmutableMultimap.builder();
+    for (Pair<Set<CFANode>, Set<CFANode>> loop : pLoops) {
+      String functionName = loop.getFirst().iterator().next().getFunctionName();
+      loops.put(functionName, new Loop(loop.getFirst(), loop.getSecond()));
+    }
+    return new LoopStructure(loops.build());
+  }
+
+  /**
+   * Build loop-structure information for a CFA like {@link #getLoopStructure(MutableCFA)},
+   * but search for the loops of all functions concurrently on the given executor.
+   * The result does not depend on the executor.
+   * @throws ParserException If the structure of the CFA is too complex for determining loops.
+   */
+  public static LoopStructure getLoopStructure(MutableCFA cfa, ExecutorService executor)
+      throws ParserException, InterruptedException {
+    final Language language = cfa.getLanguage();
+    Map<String, Future<Collection<Loop>>> loopsPerFunction = new LinkedHashMap<>();
+    try {
+      for (String functionName : cfa.getAllFunctionNames()) {
+        SortedSet<CFANode> nodes = cfa.getFunctionNodes(functionName);
+        loopsPerFunction.put(functionName, executor.submit(() -> findLoops(nodes, language)));
+      }
+
+      ImmutableMultimap.Builder<String, Loop> loops = ImmutableMultimap.builder();
+      for (Map.Entry<String, Future<Collection<Loop>>> entry : loopsPerFunction.entrySet()) {
+        try {
+          loops.putAll(entry.getKey(), entry.getValue().get());
+        } catch (ExecutionException e) {
+          Throwables.throwIfInstanceOf(e.getCause(), ParserException.class);
+          Throwables.throwIfUnchecked(e.getCause());
+          throw new UncheckedExecutionException(e.getCause());
+        }
+      }
+      return new LoopStructure(loops.build());
+
+    } finally {
+      loopsPerFunction.values().forEach(f -> f.cancel(true));
+    }
+  }
+
   /**
    * Find all loops inside a given set of CFA nodes.
    * The nodes in the given set may not be connected
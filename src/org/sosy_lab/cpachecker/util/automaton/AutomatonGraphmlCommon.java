@@ -25,6 +25,7 @@ package org.sosy_lab.cpachecker.util.automaton;
 
 import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
@@ -52,6 +53,9 @@ import javax.annotation.Nullable;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
@@ -105,6 +109,7 @@ import org.sosy_lab.cpachecker.util.CFATraversal;
 import org.sosy_lab.cpachecker.util.CFATraversal.CFAVisitor;
 import org.sosy_lab.cpachecker.util.CFATraversal.TraversalProcess;
 import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.SpecificationProperty;
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Document;
@@ -339,6 +344,51 @@ public class AutomatonGraphmlCommon {
     return BaseEncoding.base16().lowerCase().encode(hash.asBytes());
   }
 
+  /** Returns the data elements that describe the verification task of a witness graph. */
+  private static List<Pair<KeyDef, String>> getGraphData(
+      WitnessType pGraphType, CFA pCfa, VerificationTaskMetaData pVerificationTaskMetaData)
+      throws IOException {
+    List<Pair<KeyDef, String>> result = new ArrayList<>();
+    result.add(Pair.of(KeyDef.WITNESS_TYPE, pGraphType.toString()));
+    result.add(Pair.of(KeyDef.SOURCECODELANGUAGE, pCfa.getLanguage().toString()));
+    result.add(Pair.of(KeyDef.PRODUCER, "CPAchecker " + CPAchecker.getCPAcheckerVersion()));
+
+    int nSpecs = 0;
+    for (SpecificationProperty property : pVerificationTaskMetaData.getProperties()) {
+      result.add(Pair.of(KeyDef.SPECIFICATION, property.toString()));
+      ++nSpecs;
+    }
+
+    for (Path specFile : pVerificationTaskMetaData.getNonPropertySpecificationFiles()) {
+      result.add(
+          Pair.of(
+              KeyDef.SPECIFICATION,
+              MoreFiles.asCharSource(specFile, Charsets.UTF_8).read().trim()));
+      ++nSpecs;
+    }
+
+    if (nSpecs == 0) {
+      result.add(Pair.of(KeyDef.SPECIFICATION, "TRUE"));
+    }
+
+    for (Path inputWitness : pVerificationTaskMetaData.getInputWitnessFiles()) {
+      result.add(Pair.of(KeyDef.INPUTWITNESSHASH, computeHash(inputWitness)));
+    }
+
+    for (Path programFile : pCfa.getFileNames()) {
+      result.add(Pair.of(KeyDef.PROGRAMFILE, programFile.toString()));
+    }
+    for (Path programFile : pCfa.getFileNames()) {
+      result.add(Pair.of(KeyDef.PROGRAMHASH, computeHash(programFile)));
+    }
+
+    result.add(Pair.of(KeyDef.ARCHITECTURE, getArchitecture(pCfa.getMachineModel())));
+    ZonedDateTime now = ZonedDateTime.now().withNano(0);
+    result.add(
+        Pair.of(KeyDef.CREATIONTIME, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
+    return result;
+  }
+
   public static class GraphMlBuilder {
 
     private final Document doc;
@@ -371,47 +421,10 @@ public class AutomatonGraphmlCommon {
       graph = doc.createElement("graph");
       root.appendChild(graph);
       graph.setAttribute("edgedefault", "directed");
-      graph.appendChild(createDataElement(KeyDef.WITNESS_TYPE, pGraphType.toString()));
-      graph.appendChild(
-          createDataElement(KeyDef.SOURCECODELANGUAGE, pCfa.getLanguage().toString()));
-      graph.appendChild(
-          createDataElement(KeyDef.PRODUCER, "CPAchecker " + CPAchecker.getCPAcheckerVersion()));
-
-      int nSpecs = 0;
-      for (SpecificationProperty property : pVerificationTaskMetaData.getProperties()) {
-        graph.appendChild(createDataElement(KeyDef.SPECIFICATION, property.toString()));
-        ++nSpecs;
-      }
-
-      for (Path specFile : pVerificationTaskMetaData.getNonPropertySpecificationFiles()) {
-        graph.appendChild(
-            createDataElement(
-                KeyDef.SPECIFICATION,
-                MoreFiles.asCharSource(specFile, Charsets.UTF_8).read().trim()));
-        ++nSpecs;
-      }
-
-      if (nSpecs == 0) {
-        graph.appendChild(createDataElement(KeyDef.SPECIFICATION, "TRUE"));
-      }
-
-      for (Path inputWitness : pVerificationTaskMetaData.getInputWitnessFiles()) {
-        graph.appendChild(createDataElement(KeyDef.INPUTWITNESSHASH, computeHash(inputWitness)));
+      for (Pair<KeyDef, String> data :
+          getGraphData(pGraphType, pCfa, pVerificationTaskMetaData)) {
+        graph.appendChild(createDataElement(data.getFirst(), data.getSecond()));
       }
-
-      for (Path programFile : pCfa.getFileNames()) {
-        graph.appendChild(createDataElement(KeyDef.PROGRAMFILE, programFile.toString()));
-      }
-      for (Path programFile : pCfa.getFileNames()) {
-        graph.appendChild(createDataElement(KeyDef.PROGRAMHASH, computeHash(programFile)));
-      }
-
-      graph.appendChild(
-          createDataElement(KeyDef.ARCHITECTURE, getArchitecture(pCfa.getMachineModel())));
-      ZonedDateTime now = ZonedDateTime.now().withNano(0);
-      graph.appendChild(
-          createDataElement(
-              KeyDef.CREATIONTIME, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
     }
 
     private void defineKey(KeyDef pKeyDef) {
@@ -516,6 +529,166 @@ public class AutomatonGraphmlCommon {
 
   }
 
+  /**
+   * Writes a witness graph in GraphML format directly to an output while its nodes and edges are
+   * produced, instead of building the whole document in memory like {@link GraphMlBuilder}.
+   *
+   * <p>The key definitions precede the graph in GraphML, so all keys that will be used for data
+   * of nodes and edges need to be given when the writer is created.
+   */
+  public static class GraphMlWriter {
+
+    private final XMLStreamWriter writer;
+
+    private final Set<KeyDef> definedKeys = EnumSet.of(KeyDef.ORIGINFILE);
+
+    public GraphMlWriter(
+        Appendable pTarget,
+        WitnessType pGraphType,
+        @Nullable String pDefaultSourceFileName,
+        CFA pCfa,
+        VerificationTaskMetaData pVerificationTaskMetaData,
+        Set<KeyDef> pUsedKeys)
+        throws IOException {
+      List<Pair<KeyDef, String>> graphData =
+          getGraphData(pGraphType, pCfa, pVerificationTaskMetaData);
+      for (KeyDef keyDef : KeyDef.values()) {
+        if (keyDef.keyFor == ElementType.GRAPH) {
+          definedKeys.add(keyDef);
+        }
+      }
+      definedKeys.addAll(pUsedKeys);
+
+      pTarget.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+      try {
+        writer = XMLOutputFactory.newInstance().createXMLStreamWriter(CharStreams.asWriter(pTarget));
+        writer.writeStartElement("graphml");
+        writer.writeDefaultNamespace("http://graphml.graphdrawing.org/xmlns");
+        writer.writeNamespace("xsi", "http://www.w3.org/2001/XMLSchema-instance");
+
+        for (KeyDef keyDef : definedKeys) {
+          String defaultValue = keyDef.defaultValue;
+          if (keyDef == KeyDef.ORIGINFILE && pDefaultSourceFileName != null) {
+            defaultValue = pDefaultSourceFileName;
+          }
+          indent(1);
+          if (defaultValue == null) {
+            writer.writeEmptyElement(GraphMLTag.KEY.toString());
+          } else {
+            writer.writeStartElement(GraphMLTag.KEY.toString());
+          }
+          writer.writeAttribute("attr.name", keyDef.attrName);
+          writer.writeAttribute("attr.type", keyDef.attrType);
+          writer.writeAttribute("for", keyDef.keyFor.toString());
+          writer.writeAttribute("id", keyDef.id);
+          if (defaultValue != null) {
+            indent(2);
+            writer.writeStartElement(GraphMLTag.DEFAULT.toString());
+            writer.writeCharacters(defaultValue);
+            writer.writeEndElement();
+            indent(1);
+            writer.writeEndElement();
+          }
+        }
+
+        indent(1);
+        writer.writeStartElement(GraphMLTag.GRAPH.toString());
+        writer.writeAttribute("edgedefault", "directed");
+        for (Pair<KeyDef, String> data : graphData) {
+          writeData(2, data.getFirst(), data.getSecond());
+        }
+      } catch (XMLStreamException e) {
+        throw asIOException(e);
+      }
+    }
+
+    public void writeNode(String pNodeId, NodeType pNodeType, List<Pair<KeyDef, String>> pData)
+        throws IOException {
+      List<Pair<KeyDef, String>> data = pData;
+      if (pNodeType != defaultNodeType) {
+        data = new ArrayList<>(pData.size() + 1);
+        data.add(Pair.of(KeyDef.NODETYPE, pNodeType.toString()));
+        data.addAll(pData);
+      }
+      try {
+        indent(2);
+        writeElementStart(GraphMLTag.NODE, data.isEmpty());
+        writer.writeAttribute("id", pNodeId);
+        writeElementContent(data);
+      } catch (XMLStreamException e) {
+        throw asIOException(e);
+      }
+    }
+
+    public void writeEdge(String pFrom, String pTo, List<Pair<KeyDef, String>> pData)
+        throws IOException {
+      try {
+        indent(2);
+        writeElementStart(GraphMLTag.EDGE, pData.isEmpty());
+        writer.writeAttribute("source", pFrom);
+        writer.writeAttribute("target", pTo);
+        writeElementContent(pData);
+      } catch (XMLStreamException e) {
+        throw asIOException(e);
+      }
+    }
+
+    /** Closes the graph and the document. The underlying output is not closed. */
+    public void finish() throws IOException {
+      try {
+        indent(1);
+        writer.writeEndElement();
+        indent(0);
+        writer.writeEndElement();
+        writer.writeCharacters("\n");
+        writer.writeEndDocument();
+        writer.flush();
+      } catch (XMLStreamException e) {
+        throw asIOException(e);
+      }
+    }
+
+    private void writeElementStart(GraphMLTag pTag, boolean pEmpty) throws XMLStreamException {
+      if (pEmpty) {
+        writer.writeEmptyElement(pTag.toString());
+      } else {
+        writer.writeStartElement(pTag.toString());
+      }
+    }
+
+    private void writeElementContent(List<Pair<KeyDef, String>> pData)
+        throws XMLStreamException {
+      if (!pData.isEmpty()) {
+        for (Pair<KeyDef, String> data : pData) {
+          writeData(3, data.getFirst(), data.getSecond());
+        }
+        indent(2);
+        writer.writeEndElement();
+      }
+    }
+
+    private void writeData(int pDepth, KeyDef pKey, String pValue) throws XMLStreamException {
+      Preconditions.checkArgument(
+          definedKeys.contains(pKey), "Key %s was not declared for the witness", pKey);
+      indent(pDepth);
+      writer.writeStartElement(GraphMLTag.DATA.toString());
+      writer.writeAttribute("key", pKey.id);
+      writer.writeCharacters(pValue);
+      writer.writeEndElement();
+    }
+
+    private void indent(int pDepth) throws XMLStreamException {
+      writer.writeCharacters("\n" + Strings.repeat(" ", pDepth));
+    }
+
+    private static IOException asIOException(XMLStreamException pException) {
+      if (pException.getNestedException() instanceof IOException) {
+        return (IOException) pException.getNestedException();
+      }
+      return new IOException(pException);
+    }
+  }
+
   public static boolean handleAsEpsilonEdge(CFAEdge pEdge, CFAEdgeWithAdditionalInfo
       pAdditionalInfo) {
     if (pAdditionalInfo != null && !pAdditionalInfo.getInfos().isEmpty()) {
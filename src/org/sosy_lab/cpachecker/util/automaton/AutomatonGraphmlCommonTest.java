@@ -0,0 +1,215 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.automaton;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.Language;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.core.Specification;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlBuilder;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlWriter;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeType;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.WitnessType;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+public class AutomatonGraphmlCommonTest {
+
+  private static final String ASSUMPTION = "x < 1 && y > \"2\";";
+
+  private CFA cfa;
+  private VerificationTaskMetaData metaData;
+
+  @Before
+  public void setUp() throws Exception {
+    cfa = mock(CFA.class);
+    when(cfa.getLanguage()).thenReturn(Language.C);
+    when(cfa.getMachineModel()).thenReturn(MachineModel.LINUX32);
+    when(cfa.getFileNames()).thenReturn(ImmutableList.of());
+    metaData =
+        new VerificationTaskMetaData(
+            TestDataTools.configurationForTest().build(), Specification.alwaysSatisfied());
+  }
+
+  @Test
+  public void testGraphMlWriter() throws Exception {
+    StringBuilder output = new StringBuilder();
+    GraphMlWriter writer =
+        new GraphMlWriter(
+            output,
+            WitnessType.VIOLATION_WITNESS,
+            "test.c",
+            cfa,
+            metaData,
+            ImmutableSet.of(KeyDef.ISENTRYNODE, KeyDef.ISVIOLATIONNODE, KeyDef.ASSUMPTION));
+    writer.writeNode("N0", NodeType.ONPATH, ImmutableList.of(Pair.of(KeyDef.ISENTRYNODE, "true")));
+    writer.writeEdge("N0", "N1", ImmutableList.of(Pair.of(KeyDef.ASSUMPTION, ASSUMPTION)));
+    writer.writeNode(
+        "N1", NodeType.ONPATH, ImmutableList.of(Pair.of(KeyDef.ISVIOLATIONNODE, "true")));
+    writer.writeNode("N2", NodeType.ONPATH, ImmutableList.of());
+    writer.finish();
+
+    Document doc = parse(output.toString());
+    Element root = doc.getDocumentElement();
+    assertThat(root.getTagName()).isEqualTo("graphml");
+    assertThat(root.getAttribute("xmlns")).isEqualTo("http://graphml.graphdrawing.org/xmlns");
+
+    List<String> keys = new ArrayList<>();
+    for (Element key : getElements(doc, "key")) {
+      keys.add(key.getAttribute("id"));
+    }
+    assertThat(keys)
+        .containsAllOf(
+            KeyDef.ORIGINFILE.id,
+            KeyDef.WITNESS_TYPE.id,
+            KeyDef.ISENTRYNODE.id,
+            KeyDef.ISVIOLATIONNODE.id,
+            KeyDef.ASSUMPTION.id);
+    assertThat(keys).doesNotContain(KeyDef.INVARIANT.id);
+
+    List<Element> graphs = getElements(doc, "graph");
+    assertThat(graphs).hasSize(1);
+    assertThat(getData(graphs.get(0), KeyDef.WITNESS_TYPE))
+        .containsExactly(WitnessType.VIOLATION_WITNESS.toString());
+
+    List<Element> nodes = getElements(doc, "node");
+    assertThat(nodes).hasSize(3);
+    assertThat(nodes.get(0).getAttribute("id")).isEqualTo("N0");
+    assertThat(getData(nodes.get(0), KeyDef.ISENTRYNODE)).containsExactly("true");
+    assertThat(getData(nodes.get(1), KeyDef.ISVIOLATIONNODE)).containsExactly("true");
+    assertThat(nodes.get(2).getChildNodes().getLength()).isEqualTo(0);
+
+    List<Element> edges = getElements(doc, "edge");
+    assertThat(edges).hasSize(1);
+    assertThat(edges.get(0).getAttribute("source")).isEqualTo("N0");
+    assertThat(edges.get(0).getAttribute("target")).isEqualTo("N1");
+    assertThat(getData(edges.get(0), KeyDef.ASSUMPTION)).containsExactly(ASSUMPTION);
+  }
+
+  @Test
+  public void testGraphMlWriterAgreesWithBuilder() throws Exception {
+    StringBuilder streamed = new StringBuilder();
+    GraphMlWriter writer =
+        new GraphMlWriter(
+            streamed,
+            WitnessType.CORRECTNESS_WITNESS,
+            "test.c",
+            cfa,
+            metaData,
+            ImmutableSet.of(KeyDef.INVARIANT, KeyDef.NODETYPE));
+    writer.writeNode("N0", NodeType.ONPATH, ImmutableList.of(Pair.of(KeyDef.INVARIANT, "x > 0")));
+    writer.writeNode("N1", NodeType.ANNOTATION, ImmutableList.of());
+    writer.writeEdge("N0", "N1", ImmutableList.of());
+    writer.finish();
+
+    GraphMlBuilder builder =
+        new GraphMlBuilder(WitnessType.CORRECTNESS_WITNESS, "test.c", cfa, metaData);
+    builder.addDataElementChild(
+        builder.createNodeElement("N0", NodeType.ONPATH), KeyDef.INVARIANT, "x > 0");
+    builder.createNodeElement("N1", NodeType.ANNOTATION);
+    builder.createEdgeElement("N0", "N1");
+    StringBuilder built = new StringBuilder();
+    builder.appendTo(built);
+
+    assertThat(describe(parse(streamed.toString()))).isEqualTo(describe(parse(built.toString())));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGraphMlWriterUndeclaredKey() throws Exception {
+    GraphMlWriter writer =
+        new GraphMlWriter(
+            new StringBuilder(),
+            WitnessType.VIOLATION_WITNESS,
+            null,
+            cfa,
+            metaData,
+            ImmutableSet.of());
+    writer.writeNode("N0", NodeType.ONPATH, ImmutableList.of(Pair.of(KeyDef.INVARIANT, "x > 0")));
+  }
+
+  /** Lists the nodes and edges of a witness with their data, except the creation time. */
+  private static List<String> describe(Document pDoc) {
+    List<String> result = new ArrayList<>();
+    for (String tag : ImmutableList.of("node", "edge")) {
+      for (Element element : getElements(pDoc, tag)) {
+        StringBuilder description = new StringBuilder(tag);
+        description.append(' ').append(element.getAttribute("id"));
+        description.append(' ').append(element.getAttribute("source"));
+        description.append(' ').append(element.getAttribute("target"));
+        for (Element data : getElements(element, "data")) {
+          description.append(' ').append(data.getAttribute("key"));
+          description.append('=').append(data.getTextContent());
+        }
+        result.add(description.toString());
+      }
+    }
+    return result;
+  }
+
+  private static Document parse(String pXml) throws Exception {
+    return DocumentBuilderFactory.newInstance()
+        .newDocumentBuilder()
+        .parse(new ByteArrayInputStream(pXml.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static List<Element> getElements(Node pParent, String pTag) {
+    NodeList nodes =
+        pParent instanceof Document
+            ? ((Document) pParent).getElementsByTagName(pTag)
+            : ((Element) pParent).getElementsByTagName(pTag);
+    List<Element> result = new ArrayList<>(nodes.getLength());
+    for (int i = 0; i < nodes.getLength(); i++) {
+      result.add((Element) nodes.item(i));
+    }
+    return result;
+  }
+
+  private static List<String> getData(Element pElement, KeyDef pKey) {
+    List<String> result = new ArrayList<>();
+    for (Element data : getElements(pElement, "data")) {
+      if (data.getAttribute("key").equals(pKey.id)) {
+        result.add(data.getTextContent());
+      }
+    }
+    return result;
+  }
+}
@@ -23,7 +23,11 @@
  */
 package org.sosy_lab.cpachecker.util.globalinfo;
 
+import static com.google.common.base.Preconditions.checkState;
+
 import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cpa.location.LocationStateFactory;
@@ -33,6 +37,12 @@ public class CFAInfo {
   private LocationStateFactory locationStateFactory;
   private final CFA cfa;
 
+  /**
+   * translation of node numbers from a different version of the CFA into node numbers of this CFA,
+   * used while deserializing data of the current thread.
+   */
+  private final ThreadLocal<Map<Integer, Integer>> nodeNumberTranslation = new ThreadLocal<>();
+
   CFAInfo(CFA cfa) {
     ImmutableMap.Builder<Integer, CFANode> nodeNumberToNode0 = ImmutableMap.builder();
     for (CFANode node : cfa.getAllNodes()) {
@@ -43,9 +53,29 @@ public class CFAInfo {
   }
 
   public CFANode getNodeByNodeNumber(int nodeNumber) {
+    Map<Integer, Integer> translation = nodeNumberTranslation.get();
+    if (translation != null) {
+      Integer translated = translation.get(nodeNumber);
+      checkState(translated != null, "Node number %s can not be translated", nodeNumber);
+      nodeNumber = translated;
+    }
     return nodeNumberToNode.get(nodeNumber);
   }
 
+  /**
+   * Set a translation of node numbers for the current thread, such that data written for a
+   * different version of the CFA (e.g., with shifted node numbers) can be deserialized. While a
+   * translation is set, {@link #getNodeByNodeNumber(int)} fails for node numbers that are not part
+   * of the translation. Pass NULL to remove the translation.
+   */
+  public void setNodeNumberTranslation(@Nullable Map<Integer, Integer> pTranslation) {
+    if (pTranslation == null) {
+      nodeNumberTranslation.remove();
+    } else {
+      nodeNumberTranslation.set(pTranslation);
+    }
+  }
+
   public void storeLocationStateFactory(LocationStateFactory pElementFactory) {
     locationStateFactory = pElementFactory;
   }
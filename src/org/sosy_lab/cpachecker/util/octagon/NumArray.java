@@ -23,18 +23,39 @@
  */
 package org.sosy_lab.cpachecker.util.octagon;
 
+import static com.google.common.base.Preconditions.checkState;
+
+import javax.annotation.Nullable;
+
 public class NumArray {
 
   private final long array;
+  private final @Nullable double[] values;
 
   NumArray(long l) {
     array = l;
+    values = null;
+  }
+
+  /**
+   * Creates a num array that lives on the Java heap,
+   * infinite numbers are stored as {@link Double#POSITIVE_INFINITY}.
+   */
+  NumArray(double[] pValues) {
+    array = 0;
+    values = pValues;
   }
 
   long getArray() {
+    checkState(values == null, "num array is not managed by the native library");
     return array;
   }
 
+  double[] getValues() {
+    checkState(values != null, "num array is managed by the native library");
+    return values;
+  }
+
   @Override
   public String toString() {
     // TODO
@@ -47,11 +68,17 @@ public class NumArray {
       return false;
     }
     NumArray otherArr = (NumArray) pObj;
+    if (values != null) {
+      return this.values == otherArr.values;
+    }
     return this.array == otherArr.array;
   }
 
   @Override
   public int hashCode() {
+    if (values != null) {
+      return System.identityHashCode(values);
+    }
     return (int)array;
   }
 }
\ No newline at end of file
@@ -23,27 +23,43 @@
  */
 package org.sosy_lab.cpachecker.util.octagon;
 
+import static com.google.common.base.Preconditions.checkState;
+
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 
 public class Octagon {
 
   private final long octId;
+  private final @Nullable OctagonMatrix matrix;
   private final OctagonManager manager;
   private static List<OctagonPhantomReference> phantomReferences = new ArrayList<>();
   private static ReferenceQueue<Octagon> referenceQueue = new ReferenceQueue<>();
 
-  Octagon(long l, OctagonManager manager) {
+  Octagon(long l, NativeOctagonManager manager) {
     octId = l;
+    matrix = null;
+    this.manager = manager;
+    registerPhantomReference(this, manager);
+  }
+
+  /**
+   * Creates an octagon that lives on the Java heap,
+   * so it does not need to be freed explicitly.
+   */
+  Octagon(OctagonMatrix pMatrix, OctagonJavaManager manager) {
+    octId = 0;
+    matrix = pMatrix;
     this.manager = manager;
-    registerPhantomReference(this);
   }
 
-  private static void registerPhantomReference(Octagon oct) {
-    phantomReferences.add(new OctagonPhantomReference(oct, referenceQueue));
+  private static void registerPhantomReference(Octagon oct, NativeOctagonManager manager) {
+    phantomReferences.add(new OctagonPhantomReference(oct, manager, referenceQueue));
   }
 
   public static void removePhantomReferences() {
@@ -54,15 +70,24 @@ public class Octagon {
   }
 
   long getOctId() {
+    checkState(matrix == null, "octagon is not managed by the native library");
     return octId;
   }
 
+  OctagonMatrix getMatrix() {
+    checkState(matrix != null, "octagon is managed by the native library");
+    return matrix;
+  }
+
   public OctagonManager getManager() {
     return manager;
   }
 
   @Override
   public int hashCode() {
+    if (matrix != null) {
+      return System.identityHashCode(matrix);
+    }
     return (int)octId;
   }
 
@@ -78,6 +103,9 @@ public class Octagon {
 
   @Override
   public String toString() {
+    if (matrix != null) {
+      return "octagon with dimension: " + matrix.getDimension();
+    }
     return "octagon with id: " + octId;
   }
 }
\ No newline at end of file
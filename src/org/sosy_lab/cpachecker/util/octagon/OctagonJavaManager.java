@@ -0,0 +1,391 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import java.util.Arrays;
+
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonDoubleValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonIntValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+import com.google.common.collect.BiMap;
+
+/**
+ * Pure-Java implementation of the octagon operations, which does not need the native
+ * octagon library and keeps all octagons on the Java heap (see {@link OctagonMatrix}).
+ * It follows the semantics of the native library, both for the integer and the
+ * floating-point version of it, and its results are sound in the same way.
+ * They are not necessarily identical, however: for example, assignments of general
+ * linear expressions can yield tighter bounds than with the native library.
+ */
+public class OctagonJavaManager extends OctagonManager {
+
+  private final boolean integers;
+
+  /**
+   * @param pIntegers whether numbers should be integers (like in the library JOct_int)
+   * or floating-point numbers (like in the library JOct_float)
+   */
+  public OctagonJavaManager(boolean pIntegers) {
+    integers = pIntegers;
+  }
+
+  private Octagon wrap(OctagonMatrix matrix) {
+    return new Octagon(matrix, this);
+  }
+
+  /* num handling function*/
+
+  @Override
+  public NumArray init_num_t(int n) {
+    return new NumArray(new double[n]);
+  }
+
+  @Override
+  public void num_set(NumArray n1, NumArray n2) {
+    n1.getValues()[0] = n2.getValues()[0];
+  }
+
+  /**
+   * Like the native library, this sets the variable to the range
+   * [-upper[0], lower[0]] (i.e., the parameter names are swapped).
+   */
+  @Override
+  public Octagon set_bounds(Octagon oct, int pos, NumArray lower, NumArray upper) {
+    return wrap(oct.getMatrix().setBounds(pos, lower.getValues()[0], upper.getValues()[0]));
+  }
+
+  @Override
+  public void num_set_int(NumArray n, int pos, long i) {
+    // the native library uses ints here
+    n.getValues()[pos] = (int) i;
+  }
+
+  @Override
+  public void num_set_float(NumArray n, int pos, double d) {
+    n.getValues()[pos] = integers ? Math.ceil(d) : d;
+  }
+
+  @Override
+  public void num_set_inf(NumArray n, int pos) {
+    n.getValues()[pos] = Double.POSITIVE_INFINITY;
+  }
+
+  @Override
+  public long num_get_int(NumArray n, int pos) {
+    return (long) n.getValues()[pos];
+  }
+
+  @Override
+  public double num_get_float(NumArray n, int pos) {
+    return n.getValues()[pos];
+  }
+
+  @Override
+  public boolean num_infty(NumArray n, int pos) {
+    return n.getValues()[pos] == Double.POSITIVE_INFINITY;
+  }
+
+  @Override
+  public void num_clear_n(NumArray n, int size) {
+    // nothing to free
+  }
+
+  /* Octagon Creation */
+
+  @Override
+  public Octagon empty(int n) {
+    return wrap(OctagonMatrix.empty(n, integers));
+  }
+
+  @Override
+  public Octagon universe(int n) {
+    return wrap(OctagonMatrix.universe(n, integers));
+  }
+
+  @Override
+  public Octagon copy(Octagon oct) {
+    // matrices are immutable
+    return wrap(oct.getMatrix());
+  }
+
+  @Override
+  public Octagon full_copy(Octagon oct) {
+    return wrap(oct.getMatrix());
+  }
+
+  /* Query Functions */
+
+  @Override
+  public int dimension(Octagon oct) {
+    return oct.getMatrix().getDimension();
+  }
+
+  @Override
+  public int nbconstraints(Octagon oct) {
+    return oct.getMatrix().getNumberOfConstraints();
+  }
+
+  /* Test Functions */
+
+  @Override
+  public boolean isEmpty(Octagon oct) {
+    return oct.getMatrix().isEmpty();
+  }
+
+  @Override
+  public int isEmptyLazy(Octagon oct) {
+    return oct.getMatrix().isEmptyLazy();
+  }
+
+  @Override
+  public boolean isUniverse(Octagon oct) {
+    return oct.getMatrix().isUniverse();
+  }
+
+  @Override
+  public boolean isIncludedIn(Octagon oct1, Octagon oct2) {
+    return oct1.getMatrix().isIncludedIn(oct2.getMatrix());
+  }
+
+  @Override
+  public int isIncludedInLazy(Octagon oct1, Octagon oct2) {
+    return oct1.getMatrix().isIncludedInLazy(oct2.getMatrix());
+  }
+
+  @Override
+  public boolean isEqual(Octagon oct1, Octagon oct2) {
+    return oct1.getMatrix().isEqual(oct2.getMatrix());
+  }
+
+  @Override
+  public int isEqualLazy(Octagon oct1, Octagon oct2) {
+    return oct1.getMatrix().isEqualLazy(oct2.getMatrix());
+  }
+
+  @Override
+  public boolean isIn(Octagon oct1, NumArray array) {
+    return oct1.getMatrix().contains(array.getValues());
+  }
+
+  /* Operators */
+
+  @Override
+  public Octagon intersection(Octagon oct1, Octagon oct2) {
+    return wrap(oct1.getMatrix().intersection(oct2.getMatrix()));
+  }
+
+  @Override
+  public Octagon union(Octagon oct1, Octagon oct2) {
+    return wrap(oct1.getMatrix().union(oct2.getMatrix()));
+  }
+
+  @Override
+  public Octagon widening(Octagon oct1, Octagon oct2) {
+    return wrap(oct1.getMatrix().widening(oct2.getMatrix()));
+  }
+
+  @Override
+  public Octagon narrowing(Octagon oct1, Octagon oct2) {
+    return wrap(oct1.getMatrix().narrowing(oct2.getMatrix()));
+  }
+
+  /* Transfer Functions */
+
+  @Override
+  public Octagon forget(Octagon oct, int k) {
+    return wrap(oct.getMatrix().forget(k));
+  }
+
+  @Override
+  public Octagon assingVar(Octagon oct, int k, NumArray array) {
+    OctagonMatrix matrix = oct.getMatrix();
+    double[] tab = array.getValues();
+    return wrap(matrix.assign(k, simpleCoefficients(tab, matrix), negate(tab, matrix)));
+  }
+
+  @Override
+  public Octagon addBinConstraint(Octagon oct, int noOfConstraints, NumArray array) {
+    return wrap(oct.getMatrix().addBinaryConstraints(noOfConstraints, array.getValues()));
+  }
+
+  @Override
+  public Octagon substituteVar(Octagon oct, int x, NumArray array) {
+    OctagonMatrix matrix = oct.getMatrix();
+    double[] tab = array.getValues();
+    return wrap(matrix.substitute(x, simpleCoefficients(tab, matrix), negate(tab, matrix)));
+  }
+
+  @Override
+  public Octagon addConstraint(Octagon oct, NumArray array) {
+    OctagonMatrix matrix = oct.getMatrix();
+    double[] tab = array.getValues();
+    return wrap(matrix.addLinearConstraint(simpleCoefficients(tab, matrix), negate(tab, matrix)));
+  }
+
+  @Override
+  public Octagon intervAssingVar(Octagon oct, int k, NumArray array) {
+    OctagonMatrix matrix = oct.getMatrix();
+    double[] tab = array.getValues();
+    return wrap(matrix.assign(k, intervalUpper(tab, matrix), intervalNegLower(tab, matrix)));
+  }
+
+  @Override
+  public Octagon intervSubstituteVar(Octagon oct, int x, NumArray array) {
+    OctagonMatrix matrix = oct.getMatrix();
+    double[] tab = array.getValues();
+    return wrap(matrix.substitute(x, intervalUpper(tab, matrix), intervalNegLower(tab, matrix)));
+  }
+
+  @Override
+  public Octagon intervAddConstraint(Octagon oct, NumArray array) {
+    OctagonMatrix matrix = oct.getMatrix();
+    double[] tab = array.getValues();
+    return wrap(matrix.addLinearConstraint(
+        intervalUpper(tab, matrix), intervalNegLower(tab, matrix)));
+  }
+
+  /** The coefficients of a linear expression, given as n+1 numbers. */
+  private static double[] simpleCoefficients(double[] tab, OctagonMatrix matrix) {
+    return Arrays.copyOf(tab, matrix.getDimension() + 1);
+  }
+
+  private static double[] negate(double[] tab, OctagonMatrix matrix) {
+    double[] result = new double[matrix.getDimension() + 1];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = -tab[i];
+    }
+    return result;
+  }
+
+  /**
+   * The upper bounds of the coefficients of a linear expression with interval coefficients,
+   * given as 2(n+1) numbers (upper bound and negated lower bound of each coefficient).
+   */
+  private static double[] intervalUpper(double[] tab, OctagonMatrix matrix) {
+    double[] result = new double[matrix.getDimension() + 1];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = tab[2 * i];
+    }
+    return result;
+  }
+
+  private static double[] intervalNegLower(double[] tab, OctagonMatrix matrix) {
+    double[] result = new double[matrix.getDimension() + 1];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = tab[2 * i + 1];
+    }
+    return result;
+  }
+
+  /* change of dimensions */
+
+  @Override
+  public Octagon addDimensionAndEmbed(Octagon oct, int k) {
+    return wrap(oct.getMatrix().addDimensionsAndEmbed(k));
+  }
+
+  @Override
+  public Octagon addDimensionAndProject(Octagon oct, int k) {
+    return wrap(oct.getMatrix().addDimensionsAndProject(k));
+  }
+
+  @Override
+  public Octagon removeDimension(Octagon oct, int k) {
+    return wrap(oct.getMatrix().removeDimensions(k));
+  }
+
+  @Override
+  public void printNum(NumArray arr, int size) {
+    StringBuilder str = new StringBuilder();
+    for (int i = 0; i < size; i++) {
+      str.append(formatNumber(arr.getValues()[i])).append(' ');
+    }
+    System.out.println(str);
+  }
+
+  @Override
+  public void printOct(Octagon oct) {
+    System.out.println(oct.getMatrix());
+  }
+
+  private String formatNumber(double d) {
+    if (d == Double.POSITIVE_INFINITY) {
+      return "+oo";
+    }
+    return integers ? Long.toString((long) d) : Double.toString(d);
+  }
+
+  @Override
+  public String print(Octagon oct, BiMap<Integer, MemoryLocation> map) {
+    StringBuilder str = new StringBuilder();
+    int dimension = dimension(oct);
+    str.append("Octagon (dimension: " + dimension + ")\n");
+    if (isEmpty(oct)) {
+      str.append("[Empty]\n");
+      return str.toString();
+    }
+
+    OctagonMatrix matrix = oct.getMatrix();
+    for (int i = 0; i < map.size(); i++) {
+      str.append(" ").append(map.get(i)).append(" -> [");
+      double negLower = matrix.getNegatedLowerBound(i);
+      if (negLower == Double.POSITIVE_INFINITY) {
+        str.append("-INFINITY, ");
+      } else {
+        str.append(formatNumber(-negLower)).append(", ");
+      }
+      double upper = matrix.getUpperBound(i);
+      if (upper == Double.POSITIVE_INFINITY) {
+        str.append("INFINITY]\n");
+      } else {
+        str.append(formatNumber(upper)).append("]\n");
+      }
+    }
+    return str.toString();
+  }
+
+  @Override
+  public OctagonInterval getVariableBounds(Octagon oct, int id) {
+    OctagonMatrix matrix = oct.getMatrix();
+    assert id < matrix.getDimension();
+    double negLower = matrix.getNegatedLowerBound(id);
+    double upper = matrix.getUpperBound(id);
+    boolean lowerInfinite = negLower == Double.POSITIVE_INFINITY;
+    boolean upperInfinite = upper == Double.POSITIVE_INFINITY;
+
+    if (!integers || (lowerInfinite && upperInfinite)) {
+      return new OctagonInterval(-negLower, upper);
+    } else if (lowerInfinite) {
+      return new OctagonInterval(new OctagonDoubleValue(Double.NEGATIVE_INFINITY),
+                                 OctagonIntValue.of((long) upper));
+    } else if (upperInfinite) {
+      return new OctagonInterval(OctagonIntValue.of((long) -negLower),
+                                 new OctagonDoubleValue(Double.POSITIVE_INFINITY));
+    } else {
+      return new OctagonInterval((long) -negLower, (long) upper);
+    }
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
+
+
+public class OctagonJavaManagerTest {
+
+  private OctagonManager manager;
+  private OctagonManager floatManager;
+
+  @Before
+  public void setUp() {
+    manager = new OctagonJavaManager(true);
+    floatManager = new OctagonJavaManager(false);
+  }
+
+  private NumArray numbers(long... values) {
+    NumArray num = manager.init_num_t(values.length);
+    for (int i = 0; i < values.length; i++) {
+      manager.num_set_int(num, i, values[i]);
+    }
+    return num;
+  }
+
+  /** Adds a constraint of the given type (see {@link OctagonMatrix#addBinaryConstraints}). */
+  private Octagon addConstraint(Octagon oct, int type, int x, int y, long c) {
+    return manager.addBinConstraint(oct, 1, numbers(type, x, y, c));
+  }
+
+  private void assertBounds(Octagon oct, int var, long lower, long upper) {
+    OctagonInterval bounds = manager.getVariableBounds(oct, var);
+    Assert.assertEquals(lower, bounds.getLow().getValue().longValue());
+    Assert.assertEquals(upper, bounds.getHigh().getValue().longValue());
+  }
+
+  private NumArray floats(double... values) {
+    NumArray num = floatManager.init_num_t(values.length);
+    for (int i = 0; i < values.length; i++) {
+      floatManager.num_set_float(num, i, values[i]);
+    }
+    return num;
+  }
+
+  private Octagon addFloatConstraint(Octagon oct, int type, int x, int y, double c) {
+    return floatManager.addBinConstraint(oct, 1, floats(type, x, y, c));
+  }
+
+  private void assertFloatBounds(Octagon oct, int var, double lower, double upper) {
+    OctagonInterval bounds = floatManager.getVariableBounds(oct, var);
+    Assert.assertEquals(lower, bounds.getLow().getValue().doubleValue(), 0);
+    Assert.assertEquals(upper, bounds.getHigh().getValue().doubleValue(), 0);
+  }
+
+  @Test
+  public void testNum() {
+    NumArray num = manager.init_num_t(2);
+    manager.num_set_float(num, 0, 3.3);
+    manager.num_set_inf(num, 1);
+    Assert.assertEquals(4, manager.num_get_int(num, 0));
+    Assert.assertFalse(manager.num_infty(num, 0));
+    Assert.assertTrue(manager.num_infty(num, 1));
+  }
+
+  @Test
+  public void testClosure() {
+    Octagon oct = manager.universe(3);
+    oct = addConstraint(oct, 0, 0, 0, 5); // x <= 5
+    oct = addConstraint(oct, 1, 0, 0, 1); // -x <= 1
+    oct = addConstraint(oct, 3, 1, 0, 2); // y - x <= 2
+    oct = addConstraint(oct, 5, 1, 2, -3); // -y - z <= -3
+    Assert.assertFalse(manager.isEmpty(oct));
+    assertBounds(oct, 0, -1, 5);
+    Assert.assertTrue(manager.getVariableBounds(oct, 1).getLow().isInfinite());
+    Assert.assertEquals(7, manager.getVariableBounds(oct, 1).getHigh().getValue().longValue());
+    Assert.assertEquals(-4, manager.getVariableBounds(oct, 2).getLow().getValue().longValue());
+
+    oct = addConstraint(oct, 1, 1, 0, -8); // -y <= -8
+    Assert.assertTrue(manager.isEmpty(oct));
+  }
+
+  @Test
+  public void testAssignment() {
+    Octagon oct = manager.universe(3);
+    oct = addConstraint(oct, 0, 0, 0, 5); // x <= 5
+    oct = addConstraint(oct, 1, 0, 0, -2); // -x <= -2
+    oct = manager.assingVar(oct, 1, numbers(-1, 0, 0, 3)); // y := -x + 3
+    assertBounds(oct, 1, -2, 1);
+
+    oct = manager.assingVar(oct, 2, numbers(2, 1, 0, 0)); // z := 2x + y
+    // z = x + 3, but the assignment is not exact
+    assertBounds(oct, 2, 3, 10);
+    Assert.assertFalse(manager.isIn(oct, numbers(2, 1, 0)));
+    Assert.assertTrue(manager.isIn(oct, numbers(2, 1, 5)));
+
+    // z - x <= 6 is derived from the bounds of e - x = x + y
+    oct = addConstraint(oct, 3, 0, 2, -6); // x - z <= -6
+    Assert.assertFalse(manager.isEmpty(oct));
+    oct = addConstraint(oct, 3, 0, 2, -7); // x - z <= -7
+    Assert.assertTrue(manager.isEmpty(oct));
+  }
+
+  @Test
+  public void testLattice() {
+    Octagon universe = manager.universe(2);
+    Octagon a = addConstraint(addConstraint(universe, 0, 0, 0, 1), 1, 0, 0, 0); // 0 <= x <= 1
+    Octagon b = addConstraint(addConstraint(universe, 0, 0, 0, 3), 1, 0, 0, -2); // 2 <= x <= 3
+    Octagon union = manager.union(a, b);
+    assertBounds(union, 0, 0, 3);
+    Assert.assertTrue(manager.isIncludedIn(a, union));
+    Assert.assertFalse(manager.isIncludedIn(union, a));
+    Assert.assertTrue(manager.isEmpty(manager.intersection(a, b)));
+
+    Octagon widened = manager.widening(a, union);
+    Assert.assertTrue(manager.isIncludedIn(union, widened));
+    Assert.assertTrue(manager.getVariableBounds(widened, 0).getHigh().isInfinite());
+    Assert.assertEquals(0, manager.getVariableBounds(widened, 0).getLow().getValue().longValue());
+  }
+
+  @Test
+  public void testDimensions() {
+    Octagon oct = addConstraint(manager.universe(1), 0, 0, 0, 4); // x <= 4
+    oct = manager.addDimensionAndProject(oct, 2);
+    Assert.assertEquals(3, manager.dimension(oct));
+    assertBounds(oct, 2, 0, 0);
+    oct = addConstraint(oct, 3, 1, 0, 0); // y - x <= 0
+    oct = manager.removeDimension(oct, 1);
+    Assert.assertEquals(2, manager.dimension(oct));
+    assertBounds(oct, 0, 0, 4);
+  }
+
+  @Test
+  public void testFloatNum() {
+    NumArray num = floatManager.init_num_t(2);
+    floatManager.num_set_float(num, 0, 3.3);
+    floatManager.num_set_inf(num, 1);
+    Assert.assertEquals(3.3, floatManager.num_get_float(num, 0), 0);
+    Assert.assertFalse(floatManager.num_infty(num, 0));
+    Assert.assertTrue(floatManager.num_infty(num, 1));
+  }
+
+  @Test
+  public void testFloatClosure() {
+    Octagon oct = floatManager.universe(3);
+    oct = addFloatConstraint(oct, 0, 0, 0, 2.5); // x <= 2.5
+    oct = addFloatConstraint(oct, 1, 0, 0, 1.5); // -x <= 1.5
+    oct = addFloatConstraint(oct, 3, 1, 0, 0.25); // y - x <= 0.25
+    oct = addFloatConstraint(oct, 5, 1, 2, -0.5); // -y - z <= -0.5
+    Assert.assertFalse(floatManager.isEmpty(oct));
+    assertFloatBounds(oct, 0, -1.5, 2.5);
+    Assert.assertTrue(floatManager.getVariableBounds(oct, 1).getLow().isInfinite());
+    Assert.assertEquals(
+        2.75, floatManager.getVariableBounds(oct, 1).getHigh().getValue().doubleValue(), 0);
+    Assert.assertEquals(
+        -2.25, floatManager.getVariableBounds(oct, 2).getLow().getValue().doubleValue(), 0);
+
+    oct = addFloatConstraint(oct, 1, 1, 0, -2.8); // -y <= -2.8
+    Assert.assertTrue(floatManager.isEmpty(oct));
+  }
+
+  @Test
+  public void testFloatStrengthening() {
+    // x + y <= 3 and x - y <= 0 imply 2x <= 3, whose half is only rounded up for integers
+    Octagon oct = floatManager.universe(2);
+    oct = addFloatConstraint(oct, 2, 0, 1, 3); // x + y <= 3
+    oct = addFloatConstraint(oct, 3, 0, 1, 0); // x - y <= 0
+    Assert.assertEquals(
+        1.5, floatManager.getVariableBounds(oct, 0).getHigh().getValue().doubleValue(), 0);
+
+    Octagon intOct = manager.universe(2);
+    intOct = addConstraint(intOct, 2, 0, 1, 3); // x + y <= 3
+    intOct = addConstraint(intOct, 3, 0, 1, 0); // x - y <= 0
+    Assert.assertEquals(2, manager.getVariableBounds(intOct, 0).getHigh().getValue().longValue());
+  }
+
+  @Test
+  public void testFloatAssignment() {
+    Octagon oct = floatManager.universe(2);
+    oct = addFloatConstraint(oct, 0, 0, 0, 3); // x <= 3
+    oct = addFloatConstraint(oct, 1, 0, 0, -1); // -x <= -1
+    oct = floatManager.assingVar(oct, 1, floats(0.5, 0, 0.25)); // y := 0.5x + 0.25
+    assertFloatBounds(oct, 1, 0.75, 1.75);
+    Assert.assertTrue(floatManager.isIn(oct, floats(2, 1.25)));
+    Assert.assertFalse(floatManager.isIn(oct, floats(2, 2)));
+
+    oct = floatManager.forget(oct, 0);
+    Assert.assertTrue(floatManager.getVariableBounds(oct, 0).getHigh().isInfinite());
+    assertFloatBounds(oct, 1, 0.75, 1.75);
+  }
+}
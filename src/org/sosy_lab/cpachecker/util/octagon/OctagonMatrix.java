@@ -0,0 +1,1081 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * The constraints of an octagon as a difference bound matrix (DBM),
+ * following Antoine Mine, "The octagon abstract domain" (HOSC 2006).
+ *
+ * <p>An octagon over the variables v_0..v_{n-1} is represented by a DBM over
+ * 2n variables with V_2k = v_k and V_2k+1 = -v_k, where the entry (i,j) is an
+ * upper bound for V_j - V_i. Because of the coherence (i,j) = (j^1,i^1), only the
+ * entries with j <= (i|1) are stored, row by row in one flat array.
+ * This layout has the useful property that the matrix of the first k variables
+ * is a prefix of the matrix for all variables.
+ * Missing bounds are stored as {@link Double#POSITIVE_INFINITY}, so the usual
+ * floating-point arithmetic handles them without special cases.
+ *
+ * <p>In integer mode, all stored bounds are integral and divisions by two
+ * round upwards, exactly as in the integer version of the native library.
+ *
+ * <p>Matrices are immutable once they are handed out, only the closure is cached.
+ */
+final class OctagonMatrix {
+
+  private static final double INF = Double.POSITIVE_INFINITY;
+
+  private final int n;
+  private final boolean integers;
+
+  /** The bounds, or null if this octagon is known to be empty. */
+  private final @Nullable double[] m;
+
+  /** Whether the bounds are known to be strongly closed. */
+  private final boolean closed;
+
+  /** The closure of this matrix, computed lazily (this if already closed). */
+  private @Nullable OctagonMatrix closure;
+
+  private OctagonMatrix(int pN, boolean pIntegers, @Nullable double[] pM, boolean pClosed) {
+    n = pN;
+    integers = pIntegers;
+    m = pM;
+    closed = pClosed || pM == null;
+    if (closed) {
+      closure = this;
+    }
+  }
+
+  static OctagonMatrix empty(int n, boolean integers) {
+    return new OctagonMatrix(n, integers, null, true);
+  }
+
+  static OctagonMatrix universe(int n, boolean integers) {
+    double[] m = new double[matsize(n)];
+    Arrays.fill(m, INF);
+    for (int i = 0; i < 2 * n; i++) {
+      m[matpos(i, i)] = 0;
+    }
+    return new OctagonMatrix(n, integers, m, true);
+  }
+
+  /** Position of entry (i,j) with j <= (i|1) in the flat array. */
+  static int matpos(int i, int j) {
+    return j + ((i + 1) * (i + 1)) / 2;
+  }
+
+  /** Position of an arbitrary entry (i,j) in the flat array. */
+  static int matpos2(int i, int j) {
+    return j > (i | 1) ? matpos(j ^ 1, i ^ 1) : matpos(i, j);
+  }
+
+  /** Number of stored entries of the matrix for n variables. */
+  static int matsize(int n) {
+    return 2 * n * (n + 1);
+  }
+
+  int getDimension() {
+    return n;
+  }
+
+  boolean isIntegers() {
+    return integers;
+  }
+
+  /**
+   * Returns the entry (i,j) of the closed matrix.
+   * Must not be called on empty octagons.
+   */
+  double get(int i, int j) {
+    return getClosure().m[matpos2(i, j)];
+  }
+
+  /** Divides by two, rounding upwards in integer mode. */
+  private static double half(double d, boolean integers) {
+    // adding zero turns -0.0 into 0.0
+    return integers ? Math.ceil(d / 2) + 0.0 : d / 2;
+  }
+
+  /** Upper bound of variable k, must not be called on empty octagons. */
+  double getUpperBound(int k) {
+    return half(get(2 * k + 1, 2 * k), integers);
+  }
+
+  /** Negated lower bound of variable k, must not be called on empty octagons. */
+  double getNegatedLowerBound(int k) {
+    return half(get(2 * k, 2 * k + 1), integers);
+  }
+
+  /* closure */
+
+  OctagonMatrix getClosure() {
+    if (closure == null) {
+      double[] c = m.clone();
+      closure = close(c, n, integers)
+          ? new OctagonMatrix(n, integers, c, true)
+          : empty(n, integers);
+    }
+    return closure;
+  }
+
+  boolean isEmpty() {
+    return getClosure().m == null;
+  }
+
+  /**
+   * Whether this octagon is known to be empty without computing the closure.
+   * Returns 1 (true), 2 (false), or 3 (unknown), like the native library.
+   */
+  int isEmptyLazy() {
+    if (closure != null) {
+      return closure.m == null ? 1 : 2;
+    }
+    return 3;
+  }
+
+  /**
+   * Computes the strong closure of the given matrix in place.
+   * Returns false if the octagon is empty.
+   *
+   * <p>This is the Floyd-Warshall-like algorithm by Mine, with the strengthening
+   * step done only once at the end (cf. Bagnara et al., "Weakly-relational shapes
+   * for numeric abstractions", FMSD 2009). In each round the two rows of the
+   * pivot are copied into small arrays first, so that the innermost loop
+   * runs over consecutive entries of one row without any index computation.
+   */
+  private static boolean close(double[] m, int n, boolean integers) {
+    final double[][] buffers = new double[4][2 * n];
+    for (int k = 0; k < n; k++) {
+      pivot(m, n, k, buffers);
+      if (m[matpos(2 * k, 2 * k)] < 0 || m[matpos(2 * k + 1, 2 * k + 1)] < 0) {
+        return false;
+      }
+    }
+    return strengthen(m, n, integers);
+  }
+
+  /**
+   * One round of the closure: updates all entries with the paths over
+   * V_2k and V_2k+1.
+   */
+  private static void pivot(double[] m, int n, int k, double[][] buffers) {
+    final int size = 2 * n;
+    final int k2 = 2 * k;
+    final double[] rowK = buffers[0];
+    final double[] rowK1 = buffers[1];
+    final double[] colK = buffers[2];
+    final double[] colK1 = buffers[3];
+    final double kk1 = m[matpos(k2, k2 + 1)];
+    final double k1k = m[matpos(k2 + 1, k2)];
+    for (int i = 0; i < size; i++) {
+      final double kj = m[matpos2(k2, i)];
+      final double k1j = m[matpos2(k2 + 1, i)];
+      rowK[i] = min(kj, kk1 + k1j);
+      rowK1[i] = min(k1j, k1k + kj);
+      colK[i] = m[matpos2(i, k2)];
+      colK1[i] = m[matpos2(i, k2 + 1)];
+    }
+
+    for (int i = 0; i < size; i++) {
+      final double ik = colK[i];
+      final double ik1 = colK1[i];
+      if (ik == INF && ik1 == INF) {
+        continue;
+      }
+      final int base = matpos(i, 0);
+      final int end = i | 1;
+      for (int j = 0; j <= end; j++) {
+        double v = m[base + j];
+        final double a = ik + rowK[j];
+        final double b = ik1 + rowK1[j];
+        v = a < v ? a : v;
+        v = b < v ? b : v;
+        m[base + j] = v;
+      }
+    }
+  }
+
+  /**
+   * Restores the closure of a matrix in place, after only the constraints
+   * involving variable k were changed in a closed matrix.
+   * This needs quadratic time: first the two rows of k are closed with respect
+   * to the other (already closed) entries, then one round of the closure with
+   * k as pivot adds all paths over k to the other entries.
+   * Returns false if the octagon is empty.
+   */
+  private static boolean closeIncrementally(double[] m, int n, boolean integers, int k) {
+    final int size = 2 * n;
+    final int k2 = 2 * k;
+    final double[] row0 = new double[size];
+    final double[] row1 = new double[size];
+    for (int j = 0; j < size; j++) {
+      row0[j] = m[matpos2(k2, j)];
+      row1[j] = m[matpos2(k2 + 1, j)];
+    }
+    for (int l = 0; l < size; l++) {
+      if (l == k2 || l == k2 + 1) {
+        continue;
+      }
+      final double r0l = row0[l];
+      final double r1l = row1[l];
+      if (r0l == INF && r1l == INF) {
+        continue;
+      }
+      for (int j = 0; j < size; j++) {
+        final double lj = m[matpos2(l, j)];
+        row0[j] = min(row0[j], r0l + lj);
+        row1[j] = min(row1[j], r1l + lj);
+      }
+    }
+    for (int j = 0; j < size; j++) {
+      m[matpos2(k2, j)] = row0[j];
+      m[matpos2(k2 + 1, j)] = row1[j];
+    }
+    if (m[matpos(k2, k2)] < 0 || m[matpos(k2 + 1, k2 + 1)] < 0) {
+      return false;
+    }
+
+    pivot(m, n, k, new double[4][size]);
+    return strengthen(m, n, integers);
+  }
+
+  /**
+   * Strengthening step of the closure: V_j - V_i <= (V_i^1 - V_i + V_j - V_j^1) / 2.
+   * Also checks for emptiness and resets the diagonal.
+   * Returns false if the octagon is empty.
+   */
+  private static boolean strengthen(double[] m, int n, boolean integers) {
+    final int size = 2 * n;
+    final double[] unary = new double[size];
+    for (int i = 0; i < size; i++) {
+      unary[i] = m[matpos(i, i ^ 1)];
+    }
+    for (int i = 0; i < size; i++) {
+      final double ii1 = unary[i];
+      if (ii1 == INF) {
+        continue;
+      }
+      final int base = matpos(i, 0);
+      final int end = i | 1;
+      for (int j = 0; j <= end; j++) {
+        final double s = half(ii1 + unary[j ^ 1], integers);
+        final double v = m[base + j];
+        m[base + j] = s < v ? s : v;
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      final int pos = matpos(i, i);
+      if (m[pos] < 0) {
+        return false;
+      }
+      m[pos] = 0;
+    }
+    return true;
+  }
+
+  /**
+   * Adds the constraint V_j - V_i <= c to a closed matrix in place, and restores
+   * the closure in quadratic time (cf. Chawdhary et al., "Simple and efficient
+   * algorithms for octagons", APLAS 2014).
+   * Returns false if the octagon becomes empty.
+   */
+  private static boolean addAndCloseIncrementally(double[] m, int n, boolean integers,
+      int i0, int j0, double c) {
+    if (c >= m[matpos2(i0, j0)]) {
+      return true;
+    }
+    if (c + m[matpos2(j0, i0)] < 0) {
+      return false;
+    }
+    final int size = 2 * n;
+    final int ni0 = i0 ^ 1;
+    final int nj0 = j0 ^ 1;
+    // paths over the new edge i0->j0 and over its coherent twin j0^1->i0^1
+    final double viaBoth1 = c + m[matpos2(j0, nj0)] + c;
+    final double viaBoth2 = c + m[matpos2(ni0, i0)] + c;
+    final double[] toI0 = new double[size];
+    final double[] toNj0 = new double[size];
+    final double[] fromJ0 = new double[size];
+    final double[] fromNi0 = new double[size];
+    for (int k = 0; k < size; k++) {
+      toI0[k] = m[matpos2(k, i0)];
+      toNj0[k] = m[matpos2(k, nj0)];
+      fromJ0[k] = m[matpos2(j0, k)];
+      fromNi0[k] = m[matpos2(ni0, k)];
+    }
+    for (int i = 0; i < size; i++) {
+      final double a = toI0[i];
+      final double b = toNj0[i];
+      if (a == INF && b == INF) {
+        continue;
+      }
+      final int base = matpos(i, 0);
+      final int end = i | 1;
+      for (int j = 0; j <= end; j++) {
+        double v = m[base + j];
+        final double p1 = a + c + fromJ0[j];
+        final double p2 = b + c + fromNi0[j];
+        final double p3 = a + viaBoth1 + fromNi0[j];
+        final double p4 = b + viaBoth2 + fromJ0[j];
+        v = p1 < v ? p1 : v;
+        v = p2 < v ? p2 : v;
+        v = p3 < v ? p3 : v;
+        v = p4 < v ? p4 : v;
+        m[base + j] = v;
+      }
+    }
+    return strengthen(m, n, integers);
+  }
+
+  private static double min(double a, double b) {
+    return a < b ? a : b;
+  }
+
+  private static double max(double a, double b) {
+    return a > b ? a : b;
+  }
+
+  /* creation of new matrices */
+
+  OctagonMatrix addDimensionsAndEmbed(int k) {
+    checkArgument(k >= 0);
+    if (m == null) {
+      return empty(n + k, integers);
+    }
+    return new OctagonMatrix(n + k, integers, embed(m, n + k), closed);
+  }
+
+  /** Adds k variables which are all zero. */
+  OctagonMatrix addDimensionsAndProject(int k) {
+    checkArgument(k >= 0);
+    if (m == null) {
+      return empty(n + k, integers);
+    }
+    double[] result = embed(m, n + k);
+    for (int i = 2 * n; i < 2 * (n + k); i += 2) {
+      result[matpos(i, i + 1)] = 0;
+      result[matpos(i + 1, i)] = 0;
+    }
+    return new OctagonMatrix(n + k, integers, result, false);
+  }
+
+  private double[] embed(double[] pM, int newN) {
+    double[] result = Arrays.copyOf(pM, matsize(newN));
+    Arrays.fill(result, pM.length, result.length, INF);
+    for (int i = 2 * n; i < 2 * newN; i++) {
+      result[matpos(i, i)] = 0;
+    }
+    return result;
+  }
+
+  /** Removes the last k variables. */
+  OctagonMatrix removeDimensions(int k) {
+    checkArgument(k >= 0 && k <= n);
+    OctagonMatrix c = getClosure();
+    if (c.m == null) {
+      return empty(n - k, integers);
+    }
+    return new OctagonMatrix(n - k, integers, Arrays.copyOf(c.m, matsize(n - k)), true);
+  }
+
+  /** Removes all constraints on variable k. */
+  OctagonMatrix forget(int k) {
+    OctagonMatrix c = getClosure();
+    if (c.m == null) {
+      return c;
+    }
+    double[] result = c.m.clone();
+    forget(result, k);
+    return new OctagonMatrix(n, integers, result, true);
+  }
+
+  private void forget(double[] pM, int k) {
+    final int k2 = 2 * k;
+    for (int i = 0; i < 2 * n; i++) {
+      pM[matpos2(i, k2)] = INF;
+      pM[matpos2(i, k2 + 1)] = INF;
+    }
+    pM[matpos(k2, k2)] = 0;
+    pM[matpos(k2 + 1, k2 + 1)] = 0;
+  }
+
+  OctagonMatrix intersection(OctagonMatrix other) {
+    checkArgument(n == other.n);
+    if (m == null || other.m == null) {
+      return empty(n, integers);
+    }
+    double[] result = new double[m.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = min(m[i], other.m[i]);
+    }
+    return new OctagonMatrix(n, integers, result, false);
+  }
+
+  /** The convex hull of two octagons, which is closed. */
+  OctagonMatrix union(OctagonMatrix other) {
+    checkArgument(n == other.n);
+    OctagonMatrix a = getClosure();
+    OctagonMatrix b = other.getClosure();
+    if (a.m == null) {
+      return other;
+    } else if (b.m == null) {
+      return this;
+    }
+    double[] result = new double[a.m.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = max(a.m[i], b.m[i]);
+    }
+    return new OctagonMatrix(n, integers, result, true);
+  }
+
+  /**
+   * Widening with threshold zero: unstable bounds are first widened to zero,
+   * and only then to infinity. As in the native library, the bounds of this
+   * octagon are used without closing it, which is necessary for termination.
+   */
+  OctagonMatrix widening(OctagonMatrix other) {
+    checkArgument(n == other.n);
+    if (isEmpty()) {
+      return other;
+    }
+    OctagonMatrix b = other.getClosure();
+    if (b.m == null) {
+      return this;
+    }
+    double[] result = new double[m.length];
+    for (int i = 0; i < result.length; i++) {
+      final double c = m[i];
+      final double d = b.m[i];
+      if (c >= d) {
+        result[i] = c;
+      } else if (d <= 0) {
+        result[i] = 0;
+      } else {
+        result[i] = INF;
+      }
+    }
+    return new OctagonMatrix(n, integers, result, false);
+  }
+
+  OctagonMatrix narrowing(OctagonMatrix other) {
+    checkArgument(n == other.n);
+    OctagonMatrix a = getClosure();
+    OctagonMatrix b = other.getClosure();
+    if (a.m == null || b.m == null) {
+      return empty(n, integers);
+    }
+    double[] result = new double[a.m.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = a.m[i] == INF ? b.m[i] : a.m[i];
+    }
+    return new OctagonMatrix(n, integers, result, false);
+  }
+
+  /* tests */
+
+  boolean isUniverse() {
+    if (m == null) {
+      return false;
+    }
+    for (int i = 0; i < 2 * n; i++) {
+      final int base = matpos(i, 0);
+      for (int j = 0; j <= (i | 1); j++) {
+        if (i != j && m[base + j] != INF) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  boolean isIncludedIn(OctagonMatrix other) {
+    checkArgument(n == other.n);
+    OctagonMatrix a = getClosure();
+    if (a.m == null) {
+      return true;
+    }
+    if (other.isEmpty()) {
+      return false;
+    }
+    return isPointwiseLessOrEqual(a.m, other.m);
+  }
+
+  /**
+   * Checks inclusion without computing closures.
+   * Returns 1 (true), 2 (false), or 3 (unknown), like the native library.
+   */
+  int isIncludedInLazy(OctagonMatrix other) {
+    checkArgument(n == other.n);
+    OctagonMatrix a = closure != null ? closure : this;
+    if (a.m == null) {
+      return 1;
+    }
+    if (other.m == null) {
+      return a.closed ? 2 : 3;
+    }
+    if (isPointwiseLessOrEqual(a.m, other.m)) {
+      return 1;
+    }
+    return a.closed ? 2 : 3;
+  }
+
+  private static boolean isPointwiseLessOrEqual(double[] a, double[] b) {
+    for (int i = 0; i < a.length; i++) {
+      if (a[i] > b[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Unlike {@link Arrays#equals(double[], double[])}, this treats 0.0 and -0.0 as equal. */
+  private static boolean isPointwiseEqual(double[] a, double[] b) {
+    for (int i = 0; i < a.length; i++) {
+      if (a[i] != b[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  boolean isEqual(OctagonMatrix other) {
+    checkArgument(n == other.n);
+    OctagonMatrix a = getClosure();
+    OctagonMatrix b = other.getClosure();
+    if (a.m == null || b.m == null) {
+      return a.m == b.m;
+    }
+    return isPointwiseEqual(a.m, b.m);
+  }
+
+  /**
+   * Checks equality without computing closures.
+   * Returns 1 (true), 2 (false), or 3 (unknown), like the native library.
+   */
+  int isEqualLazy(OctagonMatrix other) {
+    checkArgument(n == other.n);
+    OctagonMatrix a = closure != null ? closure : this;
+    OctagonMatrix b = other.closure != null ? other.closure : other;
+    if (a.m == null || b.m == null) {
+      if (a.m == b.m) {
+        return 1;
+      }
+      return a.closed && b.closed ? 2 : 3;
+    }
+    if (isPointwiseEqual(a.m, b.m)) {
+      return 1;
+    }
+    return a.closed && b.closed ? 2 : 3;
+  }
+
+  /** Whether the point v_0..v_{n-1} is in the octagon. */
+  boolean contains(double[] point) {
+    if (m == null) {
+      return false;
+    }
+    for (int i = 0; i < 2 * n; i++) {
+      final double vi = (i & 1) == 0 ? point[i / 2] : -point[i / 2];
+      final int base = matpos(i, 0);
+      for (int j = 0; j <= (i | 1); j++) {
+        final double vj = (j & 1) == 0 ? point[j / 2] : -point[j / 2];
+        if (vj - vi > m[base + j]) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  int getNumberOfConstraints() {
+    if (m == null) {
+      return 0;
+    }
+    int count = 0;
+    for (int i = 0; i < 2 * n; i++) {
+      final int base = matpos(i, 0);
+      for (int j = 0; j <= (i | 1); j++) {
+        if (i != j && m[base + j] != INF) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public String toString() {
+    if (m == null) {
+      return "[Empty]";
+    }
+    StringBuilder str = new StringBuilder();
+    for (int i = 0; i < 2 * n; i++) {
+      final int base = matpos(i, 0);
+      for (int j = 0; j <= (i | 1); j++) {
+        str.append(m[base + j] == INF ? "+oo" : m[base + j]).append(' ');
+      }
+      str.append('\n');
+    }
+    return str.toString();
+  }
+
+  /* transfer functions */
+
+  /**
+   * Adds constraints in the format of the native library: for each constraint
+   * four numbers (type, x, y, c), where type is one of
+   * x <= c, -x <= c, x+y <= c, x-y <= c, -x+y <= c, -x-y <= c.
+   */
+  OctagonMatrix addBinaryConstraints(int count, double[] constraints) {
+    if (m == null) {
+      return this;
+    }
+    double[] result = m.clone();
+    for (int c = 0; c < count; c++) {
+      final int type = (int) constraints[4 * c];
+      final int x = (int) constraints[4 * c + 1];
+      final int y = (int) constraints[4 * c + 2];
+      final double bound = constraints[4 * c + 3];
+      final int i;
+      final int j;
+      final double b;
+      switch (type) {
+        case 0: // x <= c
+          i = 2 * x + 1; j = 2 * x; b = 2 * bound;
+          break;
+        case 1: // -x <= c
+          i = 2 * x; j = 2 * x + 1; b = 2 * bound;
+          break;
+        case 2: // x+y <= c
+          i = 2 * y + 1; j = 2 * x; b = bound;
+          break;
+        case 3: // x-y <= c
+          i = 2 * y; j = 2 * x; b = bound;
+          break;
+        case 4: // -x+y <= c
+          i = 2 * x; j = 2 * y; b = bound;
+          break;
+        case 5: // -x-y <= c
+          i = 2 * y; j = 2 * x + 1; b = bound;
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown constraint type " + type);
+      }
+      if (!addConstraint(result, i, j, b)) {
+        return empty(n, integers);
+      }
+    }
+    return new OctagonMatrix(n, integers, result, closed);
+  }
+
+  /**
+   * Adds V_j - V_i <= c to the given copy of the bounds of this matrix. If this matrix
+   * is closed, the closure is restored incrementally, otherwise the result is not closed
+   * (like the native library, we do not close matrices eagerly).
+   * Returns false if the octagon is known to be empty afterwards.
+   */
+  private boolean addConstraint(double[] pM, int i, int j, double c) {
+    if (closed) {
+      return addAndCloseIncrementally(pM, n, integers, i, j, c);
+    }
+    final int pos = matpos2(i, j);
+    pM[pos] = min(pM[pos], c);
+    return true;
+  }
+
+  /* assignments */
+
+  /**
+   * Assigns x := [a_0,b_0] v_0 + ... + [a_{n-1},b_{n-1}] v_{n-1} + [a_n,b_n].
+   * The coefficients are given as the upper bounds b_i and the negated lower bounds -a_i,
+   * like in the native library.
+   *
+   * <p>Assignments of the form x := +-y + [c,d] are exact. Otherwise the bounds of the
+   * expressions e and e +- v_i are computed with interval arithmetic, which gives
+   * the bounds of x and its relations to the variables v_i occurring in e.
+   * For variables with coefficient 1 or -1 this amounts to leaving out their contribution
+   * to the bounds (Mine's "Pb/Mb" technique), which is exact.
+   */
+  OctagonMatrix assign(int x, double[] sup, double[] negInf) {
+    checkArgument(x >= 0 && x < n);
+    OctagonMatrix c = getClosure();
+    if (c.m == null) {
+      return c;
+    }
+    int nonZero = 0;
+    int var = -1;
+    boolean allUnit = true;
+    for (int i = 0; i < n; i++) {
+      if (sup[i] != 0 || negInf[i] != 0) {
+        nonZero++;
+        var = i;
+        allUnit &= isUnit(sup[i], negInf[i]);
+      }
+    }
+
+    if (nonZero == 0) {
+      double[] result = c.m.clone();
+      forget(result, x);
+      result[matpos(2 * x + 1, 2 * x)] = 2 * sup[n];
+      result[matpos(2 * x, 2 * x + 1)] = 2 * negInf[n];
+      return closeIncrementally(result, n, integers, x)
+          ? new OctagonMatrix(n, integers, result, true)
+          : empty(n, integers);
+
+    } else if (nonZero == 1 && allUnit) {
+      return c.assignExactly(x, var, sup[var] > 0, sup[n], negInf[n]);
+    }
+
+    LinearBounds bounds = c.new LinearBounds(sup, negInf);
+    double upper = bounds.unboundedUpper == 0 ? bounds.upper : INF;
+    double lower = bounds.unboundedLower == 0 ? bounds.lower : INF;
+    if (nonZero == 2 && allUnit) {
+      // +-v_i +-v_j is bounded by the matrix itself, which is more precise
+      final int i = firstNonZero(sup, negInf);
+      final int pi = sup[i] > 0 ? 2 * i : 2 * i + 1;
+      final int pj = sup[var] > 0 ? 2 * var : 2 * var + 1;
+      upper = min(upper, 2 * (c.m[matpos2(pi ^ 1, pj)] + sup[n]));
+      lower = min(lower, 2 * (c.m[matpos2(pi, pj ^ 1)] + negInf[n]));
+    }
+    double[] result = c.m.clone();
+    forget(result, x);
+    result[matpos(2 * x + 1, 2 * x)] = upper;
+    result[matpos(2 * x, 2 * x + 1)] = lower;
+    for (int i = 0; i < n; i++) {
+      if (i == x || (sup[i] == 0 && negInf[i] == 0)) {
+        continue;
+      }
+      for (int p = 2 * i; p <= 2 * i + 1; p++) {
+        final double sign = p == 2 * i ? 1 : -1;
+        // x - V_p <= sup(e - V_p)
+        final double upperShifted = bounds.getUpperShifted(i, sign);
+        if (upperShifted != INF) {
+          result[matpos2(p, 2 * x)] = half(upperShifted, integers);
+        }
+        // V_p - x <= sup(-e + V_p)
+        final double lowerShifted = bounds.getLowerShifted(i, sign);
+        if (lowerShifted != INF) {
+          result[matpos2(2 * x, p)] = half(lowerShifted, integers);
+        }
+      }
+    }
+
+    if (allUnit) {
+      return new OctagonMatrix(n, integers, result, false);
+    }
+    return closeIncrementally(result, n, integers, x)
+        ? new OctagonMatrix(n, integers, result, true)
+        : empty(n, integers);
+  }
+
+  /**
+   * Sets the bounds of variable k to -negLower <= v_k <= upper,
+   * removing all other constraints on it.
+   */
+  OctagonMatrix setBounds(int k, double upper, double negLower) {
+    OctagonMatrix c = getClosure();
+    if (c.m == null) {
+      return c;
+    }
+    double[] result = c.m.clone();
+    forget(result, k);
+    result[matpos(2 * k + 1, 2 * k)] = 2 * upper;
+    result[matpos(2 * k, 2 * k + 1)] = 2 * negLower;
+    return closeIncrementally(result, n, integers, k)
+        ? new OctagonMatrix(n, integers, result, true)
+        : empty(n, integers);
+  }
+
+  /**
+   * Adds the constraint [a_0,b_0] v_0 + ... + [a_{n-1},b_{n-1}] v_{n-1} + [a_n,b_n] >= 0,
+   * with the coefficients given like for {@link #assign(int, double[], double[])}.
+   * For a variable or a pair of variables with coefficients 1 or -1, the octagonal
+   * constraint implied by the upper bound of the rest of the expression is added,
+   * which is exact for octagonal constraints.
+   */
+  OctagonMatrix addLinearConstraint(double[] sup, double[] negInf) {
+    OctagonMatrix c = getClosure();
+    if (c.m == null) {
+      return c;
+    }
+    LinearBounds bounds = c.new LinearBounds(sup, negInf);
+    if (bounds.unboundedUpper == 0 && bounds.upper < 0) {
+      return empty(n, integers);
+    }
+    double[] result = m.clone();
+    for (int i = 0; i < n; i++) {
+      if (!isUnit(sup[i], negInf[i])) {
+        continue;
+      }
+      final int pi = sup[i] > 0 ? 2 * i : 2 * i + 1;
+      // -(+-v_i) <= sup(rest)
+      final double upperWithoutI = bounds.getUpperWithout(i);
+      if (upperWithoutI != INF && !addConstraint(result, pi, pi ^ 1, upperWithoutI)) {
+        return empty(n, integers);
+      }
+      for (int j = 0; j < i; j++) {
+        if (!isUnit(sup[j], negInf[j])) {
+          continue;
+        }
+        final int pj = sup[j] > 0 ? 2 * j : 2 * j + 1;
+        // -(+-v_i) - (+-v_j) <= sup(rest)
+        final double upperWithoutIJ = bounds.getUpperWithout(i, j);
+        if (upperWithoutIJ != INF
+            && !addConstraint(result, pj, pi ^ 1, half(upperWithoutIJ, integers))) {
+          return empty(n, integers);
+        }
+      }
+    }
+    return new OctagonMatrix(n, integers, result, closed);
+  }
+
+  /**
+   * Substitutes x by [a_0,b_0] v_0 + ... + [a_{n-1},b_{n-1}] v_{n-1} + [a_n,b_n],
+   * i.e., computes the states before the assignment of this expression to x.
+   * The coefficients are given like for {@link #assign(int, double[], double[])}.
+   */
+  OctagonMatrix substitute(int x, double[] sup, double[] negInf) {
+    checkArgument(x >= 0 && x < n);
+    if (isUnit(sup[x], negInf[x])) {
+      boolean onlyX = true;
+      for (int i = 0; i < n; i++) {
+        onlyX &= i == x || (sup[i] == 0 && negInf[i] == 0);
+      }
+      if (onlyX) {
+        // x := x + [c,d] is reversed by x := x - [c,d], x := -x + [c,d] by itself
+        double[] inverseSup = new double[n + 1];
+        double[] inverseNegInf = new double[n + 1];
+        inverseSup[x] = sup[x];
+        inverseNegInf[x] = negInf[x];
+        if (sup[x] > 0) {
+          inverseSup[n] = negInf[n];
+          inverseNegInf[n] = sup[n];
+        } else {
+          inverseSup[n] = sup[n];
+          inverseNegInf[n] = negInf[n];
+        }
+        return assign(x, inverseSup, inverseNegInf);
+      }
+    }
+
+    if (sup[x] == 0 && negInf[x] == 0) {
+      // x = e, i.e., x - e >= 0 and e - x >= 0
+      double[] diffSup = negInf.clone();
+      double[] diffNegInf = sup.clone();
+      diffSup[x] = 1;
+      diffNegInf[x] = -1;
+      OctagonMatrix result = addLinearConstraint(diffSup, diffNegInf);
+      diffSup = sup.clone();
+      diffNegInf = negInf.clone();
+      diffSup[x] = -1;
+      diffNegInf[x] = 1;
+      return result.addLinearConstraint(diffSup, diffNegInf).forget(x);
+    }
+
+    // e depends on the old value of x, so we only know that it is within the old bounds of x
+    if (isEmpty()) {
+      return this;
+    }
+    final double upper = getUpperBound(x);
+    final double negLower = getNegatedLowerBound(x);
+    OctagonMatrix result = forget(x);
+    if (negLower != INF) {
+      // e - lower >= 0
+      double[] diffSup = sup.clone();
+      double[] diffNegInf = negInf.clone();
+      diffSup[n] += negLower;
+      diffNegInf[n] -= negLower;
+      result = result.addLinearConstraint(diffSup, diffNegInf);
+    }
+    if (upper != INF) {
+      // upper - e >= 0
+      double[] diffSup = negInf.clone();
+      double[] diffNegInf = sup.clone();
+      diffSup[n] += upper;
+      diffNegInf[n] -= upper;
+      result = result.addLinearConstraint(diffSup, diffNegInf);
+    }
+    return result;
+  }
+
+  private int firstNonZero(double[] sup, double[] negInf) {
+    for (int i = 0; i < n; i++) {
+      if (sup[i] != 0 || negInf[i] != 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isUnit(double sup, double negInf) {
+    return (sup == 1 && negInf == -1) || (sup == -1 && negInf == 1);
+  }
+
+  /**
+   * Assigns x := v + [c,d] or x := -v + [c,d] exactly (v may be x itself).
+   * Each V_p of the result equals some V_src(p) of the old matrix plus an offset,
+   * so the new bounds are just shifted old bounds, and the result is closed.
+   */
+  private OctagonMatrix assignExactly(int x, int v, boolean positive, double d, double negC) {
+    final int size = 2 * n;
+    final int[] src = new int[size];
+    // upper bound of the offset of V_p, and upper bound of its negation
+    final double[] up = new double[size];
+    final double[] down = new double[size];
+    for (int p = 0; p < size; p++) {
+      src[p] = p;
+    }
+    src[2 * x] = positive ? 2 * v : 2 * v + 1;
+    src[2 * x + 1] = src[2 * x] ^ 1;
+    up[2 * x] = d;
+    down[2 * x] = negC;
+    up[2 * x + 1] = negC;
+    down[2 * x + 1] = d;
+
+    double[] result = new double[m.length];
+    for (int i = 0; i < size; i++) {
+      final int base = matpos(i, 0);
+      for (int j = 0; j <= (i | 1); j++) {
+        result[base + j] = i == j ? 0 : m[matpos2(src[i], src[j])] + up[j] + down[i];
+      }
+    }
+    return new OctagonMatrix(n, integers, result, true);
+  }
+
+  /**
+   * Bounds of a linear expression with interval coefficients, computed with interval
+   * arithmetic from the bounds of the variables in a closed matrix.
+   * All values are doubled, like the unary bounds in the matrix, so that no rounding occurs.
+   * Infinite contributions are counted, so that the bounds of the expression without
+   * one of the variables can be computed even if this variable is unbounded.
+   */
+  private final class LinearBounds {
+
+    private final double[] sup;
+    private final double[] negInf;
+    private final double[] upperContribution;
+    private final double[] lowerContribution;
+
+    /** twice the upper bound of the expression, without infinite contributions */
+    private double upper;
+    /** twice the negated lower bound of the expression, without infinite contributions */
+    private double lower;
+    private int unboundedUpper = 0;
+    private int unboundedLower = 0;
+
+    private LinearBounds(double[] pSup, double[] pNegInf) {
+      sup = pSup;
+      negInf = pNegInf;
+      upperContribution = new double[n];
+      lowerContribution = new double[n];
+      upper = 2 * sup[n];
+      lower = 2 * negInf[n];
+      for (int i = 0; i < n; i++) {
+        if (sup[i] == 0 && negInf[i] == 0) {
+          continue;
+        }
+        final double varUpper = m[matpos(2 * i + 1, 2 * i)];
+        final double varNegLower = m[matpos(2 * i, 2 * i + 1)];
+        // [a,b] * [l,u] with a = -negInf, b = sup, l = -varNegLower, u = varUpper
+        final double up = maxProduct(sup[i], negInf[i], varUpper, varNegLower);
+        final double low = maxProduct(negInf[i], sup[i], varUpper, varNegLower);
+        upperContribution[i] = up;
+        lowerContribution[i] = low;
+        if (up == INF) {
+          unboundedUpper++;
+        } else {
+          upper += up;
+        }
+        if (low == INF) {
+          unboundedLower++;
+        } else {
+          lower += low;
+        }
+      }
+    }
+
+    /**
+     * Returns the maximum of [-negA, b] * [-negL, u], where 0 * infinity is 0.
+     */
+    private double maxProduct(double b, double negA, double u, double negL) {
+      double result = Math.max(mul(b, u), mul(negA, negL));
+      result = Math.max(result, -mul(b, negL));
+      return Math.max(result, -mul(negA, u));
+    }
+
+    private double mul(double a, double b) {
+      return a == 0 || b == 0 ? 0 : a * b;
+    }
+
+    /** Twice the upper bound of the expression without variable i, or infinity. */
+    private double getUpperWithout(int i) {
+      if (unboundedUpper == 0) {
+        return upper - upperContribution[i];
+      } else if (unboundedUpper == 1 && upperContribution[i] == INF) {
+        return upper;
+      }
+      return INF;
+    }
+
+    /** Twice the upper bound of the expression without variables i and j, or infinity. */
+    private double getUpperWithout(int i, int j) {
+      final double ci = upperContribution[i];
+      final double cj = upperContribution[j];
+      final int unboundedIJ = (ci == INF ? 1 : 0) + (cj == INF ? 1 : 0);
+      if (unboundedUpper != unboundedIJ) {
+        return INF;
+      }
+      return upper - (ci == INF ? 0 : ci) - (cj == INF ? 0 : cj);
+    }
+
+    /** Twice the upper bound of the expression minus sign * v_i, or infinity. */
+    private double getUpperShifted(int i, double sign) {
+      final double rest = getUpperWithout(i);
+      return rest + maxProduct(sup[i] - sign, negInf[i] + sign,
+          m[matpos(2 * i + 1, 2 * i)], m[matpos(2 * i, 2 * i + 1)]);
+    }
+
+    /** Twice the negated lower bound of the expression minus sign * v_i, or infinity. */
+    private double getLowerShifted(int i, double sign) {
+      final double rest = getLowerWithout(i);
+      return rest + maxProduct(negInf[i] + sign, sup[i] - sign,
+          m[matpos(2 * i + 1, 2 * i)], m[matpos(2 * i, 2 * i + 1)]);
+    }
+
+    /** Twice the negated lower bound of the expression without variable i, or infinity. */
+    private double getLowerWithout(int i) {
+      if (unboundedLower == 0) {
+        return lower - lowerContribution[i];
+      } else if (unboundedLower == 1 && lowerContribution[i] == INF) {
+        return lower;
+      }
+      return INF;
+    }
+  }
+}
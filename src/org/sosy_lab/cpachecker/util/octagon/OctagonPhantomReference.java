@@ -29,12 +29,13 @@ import java.lang.ref.ReferenceQueue;
 public class OctagonPhantomReference extends PhantomReference<Octagon> {
 
   private Long octRef;
-  private OctagonManager manager;
+  private NativeOctagonManager manager;
 
-  public OctagonPhantomReference(Octagon reference, ReferenceQueue<? super Octagon> queue) {
+  public OctagonPhantomReference(Octagon reference, NativeOctagonManager pManager,
+      ReferenceQueue<? super Octagon> queue) {
     super(reference, queue);
     octRef = reference.getOctId();
-    manager = reference.getManager();
+    manager = pManager;
   }
 
   public void cleanup() {
@@ -22,6 +22,7 @@
  *    http://cpachecker.sosy-lab.org
  */
 /**
- * Wrapper around libJoct, Antoine Mine pre-APRON octagon library.
+ * Wrapper around libJoct, Antoine Mine pre-APRON octagon library,
+ * and a pure-Java implementation of the same operations.
  */
 package org.sosy_lab.cpachecker.util.octagon;
\ No newline at end of file
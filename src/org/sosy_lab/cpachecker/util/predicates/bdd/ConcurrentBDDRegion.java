@@ -0,0 +1,100 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.bdd;
+
+import org.sosy_lab.cpachecker.util.predicates.regions.Region;
+
+/**
+ * Regions represented using BDDs from {@link ConcurrentBDDRegionManager}.
+ *
+ * <p>The node that represents the BDD may be moved by the garbage collection of the manager, so
+ * the node index is only meaningful while holding the lock of the manager. The hash code is
+ * derived from the structure of the BDD and thus stays the same.
+ */
+class ConcurrentBDDRegion implements Region {
+
+  private final ConcurrentBDDRegionManager manager;
+
+  // guarded by the lock of the manager, updated by its garbage collection
+  private int node;
+
+  private final int hash;
+
+  ConcurrentBDDRegion(ConcurrentBDDRegionManager pManager, int pNode, int pHash) {
+    manager = pManager;
+    node = pNode;
+    hash = pHash;
+  }
+
+  @Override
+  public boolean isTrue() {
+    // terminal nodes are never moved
+    return node == ConcurrentBDDRegionManager.TRUE;
+  }
+
+  @Override
+  public boolean isFalse() {
+    return node == ConcurrentBDDRegionManager.FALSE;
+  }
+
+  ConcurrentBDDRegionManager getManager() {
+    return manager;
+  }
+
+  int getNode() {
+    return node;
+  }
+
+  void setNode(int pNode) {
+    node = pNode;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o instanceof ConcurrentBDDRegion) {
+      ConcurrentBDDRegion other = (ConcurrentBDDRegion) o;
+      return hash == other.hash && manager == other.manager && manager.isSameNode(this, other);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    if (isTrue()) {
+      return "true";
+    } else if (isFalse()) {
+      return "false";
+    } else {
+      return "BDD@" + Integer.toHexString(hash);
+    }
+  }
+}
@@ -0,0 +1,942 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.bdd;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsWriter.writingStatisticsTo;
+
+import com.google.common.math.IntMath;
+import java.io.PrintStream;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.cpachecker.util.Triple;
+import org.sosy_lab.cpachecker.util.predicates.PredicateOrderingStrategy;
+import org.sosy_lab.cpachecker.util.predicates.regions.Region;
+import org.sosy_lab.cpachecker.util.predicates.regions.RegionManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FunctionDeclaration;
+import org.sosy_lab.java_smt.api.QuantifiedFormulaManager.Quantifier;
+import org.sosy_lab.java_smt.api.visitors.BooleanFormulaVisitor;
+
+/**
+ * A BDD package written in pure Java that can be used by several threads concurrently.
+ *
+ * <p>All nodes are stored in a single <code>int[]</code> (variable, low child, high child, and a
+ * hash of the structure of the node). New nodes are published through a lock-free unique table,
+ * and results of operations are stored in a lossy operation cache that is shared by all threads.
+ * Operations on the top levels of the BDDs are split into tasks for a fork-join pool.
+ *
+ * <p>When the node table is full, the garbage collection stops all operations, marks all nodes
+ * that are reachable from regions still referenced by Java, and compacts the node table (growing
+ * it if necessary). Operations that were interrupted by a full node table are then restarted.
+ *
+ * <p>The variable order is the order of creation, reordering is not supported.
+ */
+@Options(prefix = "bdd.concurrent")
+class ConcurrentBDDRegionManager implements RegionManager {
+
+  static final int FALSE = 0;
+  static final int TRUE = 1;
+
+  // Layout of a node in the node table
+  private static final int NODE_SIZE = 4;
+  private static final int VAR = 0;
+  private static final int LOW = 1;
+  private static final int HIGH = 2;
+  private static final int HASH = 3;
+
+  private static final int TERMINAL_VAR = Integer.MAX_VALUE;
+  private static final int MAX_NODES = (Integer.MAX_VALUE - 8) / NODE_SIZE;
+
+  // Operations
+  private static final int AND = 0;
+  private static final int OR = 1;
+  private static final int XOR = 2;
+  private static final int NOT = 3;
+  private static final int EXISTS = 4;
+
+  @Option(secure = true, description = "Initial number of nodes in the BDD node table.")
+  @IntegerOption(min = 16, max = MAX_NODES)
+  private int initTableSize = 1 << 18;
+
+  @Option(secure = true, description = "Number of entries in the BDD operation cache.")
+  @IntegerOption(min = 1, max = 1 << 30)
+  private int cacheSize = 1 << 18;
+
+  @Option(secure = true, description = "Number of worker threads, 0 for automatic.")
+  @IntegerOption(min = 0)
+  private int threads = 0;
+
+  @Option(
+    secure = true,
+    description =
+        "Number of BDD levels from the top on which operations are split into parallel tasks."
+  )
+  @IntegerOption(min = 0)
+  private int parallelDepth = 4;
+
+  // Statistics
+  @GuardedBy("lock")
+  private final StatTimer gcTimer = new StatTimer("Time for BDD garbage collection");
+  private final LongAdder cacheLookups = new LongAdder();
+  private final LongAdder cacheHits = new LongAdder();
+
+  /**
+   * Operations hold the read lock, the garbage collection holds the write lock. Tasks forked by
+   * an operation do not acquire the lock themselves, they run while the operation holds it.
+   */
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  @GuardedBy("lock")
+  private int[] nodes;
+
+  @GuardedBy("lock")
+  private AtomicIntegerArray uniqueTable;
+
+  @GuardedBy("lock")
+  private AtomicReferenceArray<CacheEntry> cache;
+
+  @GuardedBy("lock")
+  private int garbageCollections = 0;
+
+  private final AtomicInteger nextNode = new AtomicInteger(TRUE + 1);
+  private final AtomicInteger nextVar = new AtomicInteger(0);
+
+  // The regions that may still be referenced, i.e., the roots for the garbage collection.
+  private final ReferenceQueue<ConcurrentBDDRegion> referenceQueue = new ReferenceQueue<>();
+  private final Set<Reference<ConcurrentBDDRegion>> liveRegions = ConcurrentHashMap.newKeySet();
+
+  private final @Nullable ForkJoinPool pool;
+
+  private final ConcurrentBDDRegion trueFormula;
+  private final ConcurrentBDDRegion falseFormula;
+
+  ConcurrentBDDRegionManager(Configuration pConfig) throws InvalidConfigurationException {
+    pConfig.inject(this);
+    if (threads == 0) {
+      threads = Runtime.getRuntime().availableProcessors();
+    }
+
+    nodes = new int[initTableSize * NODE_SIZE];
+    initTerminal(FALSE, 0x2545F491);
+    initTerminal(TRUE, 0x1B873593);
+    uniqueTable = new AtomicIntegerArray(uniqueTableSizeFor(initTableSize));
+    cache = new AtomicReferenceArray<>(IntMath.ceilingPowerOfTwo(cacheSize));
+
+    pool = (threads > 1 && parallelDepth > 0) ? new ForkJoinPool(threads) : null;
+
+    trueFormula = new ConcurrentBDDRegion(this, TRUE, nodes[TRUE * NODE_SIZE + HASH]);
+    falseFormula = new ConcurrentBDDRegion(this, FALSE, nodes[FALSE * NODE_SIZE + HASH]);
+  }
+
+  private void initTerminal(int pNode, int pHash) {
+    int base = pNode * NODE_SIZE;
+    nodes[base + VAR] = TERMINAL_VAR;
+    nodes[base + LOW] = pNode;
+    nodes[base + HIGH] = pNode;
+    nodes[base + HASH] = pHash;
+  }
+
+  private static int uniqueTableSizeFor(int pCapacity) {
+    // keep the load factor of the unique table below 0.5
+    return IntMath.ceilingPowerOfTwo(2 * pCapacity);
+  }
+
+  private static int hash(int a, int b, int c) {
+    int h = a * 0x9E3779B9 + b;
+    h = h * 0x85EBCA6B + c;
+    h ^= h >>> 16;
+    h *= 0xC2B2AE35;
+    return h ^ (h >>> 15);
+  }
+
+  // Operations and garbage collection
+
+  /** Signals that the node table is full and the current operation needs to be restarted. */
+  private static final class NodeTableFullException extends RuntimeException {
+
+    private static final long serialVersionUID = -3196046395376547632L;
+
+    /** The number of garbage collections before the node table was full. */
+    private final int garbageCollections;
+
+    private NodeTableFullException(int pGarbageCollections) {
+      super("BDD node table is full", null, false, false);
+      garbageCollections = pGarbageCollections;
+    }
+  }
+
+  @FunctionalInterface
+  private interface Operation<T> {
+    T apply();
+  }
+
+  /**
+   * Executes the given operation while holding the read lock, and restarts it after a garbage
+   * collection if the node table is full.
+   */
+  private <T> T execute(Operation<T> pOperation) {
+    while (true) {
+      int collections;
+      lock.readLock().lock();
+      try {
+        return pOperation.apply();
+      } catch (NodeTableFullException e) {
+        collections = e.garbageCollections;
+      } finally {
+        lock.readLock().unlock();
+      }
+      collectGarbage(collections);
+    }
+  }
+
+  /**
+   * Removes all nodes that are not reachable from a region that is still referenced, compacts the
+   * node table, and grows it if it is still more than half full.
+   *
+   * @param pCollections the number of garbage collections observed by the caller: if another
+   *     thread has collected garbage in the meantime, nothing needs to be done.
+   */
+  private void collectGarbage(int pCollections) {
+    lock.writeLock().lock();
+    try {
+      if (garbageCollections != pCollections) {
+        return;
+      }
+      gcTimer.start();
+      try {
+        compact();
+      } finally {
+        gcTimer.stop();
+      }
+      garbageCollections++;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @GuardedBy("lock")
+  private void compact() {
+    int[] n = nodes;
+    int capacity = n.length / NODE_SIZE;
+    int used = Math.min(nextNode.get(), capacity);
+
+    // Mark
+    cleanupReferences();
+    List<ConcurrentBDDRegion> roots = new ArrayList<>(liveRegions.size());
+    boolean[] marked = new boolean[used];
+    marked[FALSE] = true;
+    marked[TRUE] = true;
+    int[] stack = new int[64];
+    for (Reference<ConcurrentBDDRegion> reference : liveRegions) {
+      ConcurrentBDDRegion region = reference.get();
+      if (region == null) {
+        continue;
+      }
+      roots.add(region);
+      int size = 0;
+      stack[size++] = region.getNode();
+      while (size > 0) {
+        int node = stack[--size];
+        if (marked[node]) {
+          continue;
+        }
+        marked[node] = true;
+        if (size + 2 > stack.length) {
+          stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[size++] = n[node * NODE_SIZE + LOW];
+        stack[size++] = n[node * NODE_SIZE + HIGH];
+      }
+    }
+
+    // Compact: children are always created before their parents,
+    // so they have a smaller index and are moved first.
+    int[] forward = new int[used];
+    forward[FALSE] = FALSE;
+    forward[TRUE] = TRUE;
+    int live = TRUE + 1;
+    for (int node = TRUE + 1; node < used; node++) {
+      if (marked[node]) {
+        int src = node * NODE_SIZE;
+        int low = n[src + LOW];
+        int high = n[src + HIGH];
+        assert low < node && high < node;
+        int dst = live * NODE_SIZE;
+        n[dst + VAR] = n[src + VAR];
+        n[dst + LOW] = forward[low];
+        n[dst + HIGH] = forward[high];
+        n[dst + HASH] = n[src + HASH];
+        forward[node] = live++;
+      }
+    }
+    for (ConcurrentBDDRegion region : roots) {
+      region.setNode(forward[region.getNode()]);
+    }
+
+    if (live > capacity / 2 && capacity < MAX_NODES) {
+      capacity = (int) Math.min(2L * capacity, MAX_NODES);
+      n = Arrays.copyOf(n, capacity * NODE_SIZE);
+      nodes = n;
+    } else if (live >= capacity) {
+      throw new OutOfMemoryError("BDD node table is full");
+    }
+    nextNode.set(live);
+
+    // Rebuild the unique table and invalidate the cache
+    AtomicIntegerArray table = new AtomicIntegerArray(uniqueTableSizeFor(capacity));
+    int mask = table.length() - 1;
+    for (int node = TRUE + 1; node < live; node++) {
+      int slot = n[node * NODE_SIZE + HASH] & mask;
+      while (table.get(slot) != FALSE) {
+        slot = (slot + 1) & mask;
+      }
+      table.set(slot, node);
+    }
+    uniqueTable = table;
+    cache = new AtomicReferenceArray<>(cache.length());
+  }
+
+  /** Forget the regions that were garbage collected by Java. */
+  private void cleanupReferences() {
+    Reference<? extends ConcurrentBDDRegion> ref;
+    while ((ref = referenceQueue.poll()) != null) {
+      liveRegions.remove(ref);
+    }
+  }
+
+  /** Wrap a node in a region and register the region as a root for the garbage collection. */
+  @GuardedBy("lock")
+  private ConcurrentBDDRegion wrap(int pNode) {
+    if (pNode == TRUE) {
+      return trueFormula;
+    } else if (pNode == FALSE) {
+      return falseFormula;
+    }
+    cleanupReferences();
+    ConcurrentBDDRegion region =
+        new ConcurrentBDDRegion(this, pNode, nodes[pNode * NODE_SIZE + HASH]);
+    liveRegions.add(new WeakReference<>(region, referenceQueue));
+    return region;
+  }
+
+  private ConcurrentBDDRegion unwrap(Region pRegion) {
+    ConcurrentBDDRegion region = (ConcurrentBDDRegion) pRegion;
+    checkArgument(region.getManager() == this, "Region belongs to a different BDD manager.");
+    return region;
+  }
+
+  boolean isSameNode(ConcurrentBDDRegion pRegion1, ConcurrentBDDRegion pRegion2) {
+    lock.readLock().lock();
+    try {
+      return pRegion1.getNode() == pRegion2.getNode();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Returns the unique node with the given variable and children, creating it if necessary. */
+  @GuardedBy("lock")
+  private int makeNode(int pVar, int pLow, int pHigh) {
+    if (pLow == pHigh) {
+      return pLow;
+    }
+    int[] n = nodes;
+    AtomicIntegerArray table = uniqueTable;
+    int hash = hash(pVar, n[pLow * NODE_SIZE + HASH], n[pHigh * NODE_SIZE + HASH]);
+    int mask = table.length() - 1;
+    int newNode = FALSE;
+    for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+      int node = table.get(slot);
+      if (node == FALSE) {
+        if (newNode == FALSE) {
+          // The fields of the node are written before it is published in the unique table.
+          newNode = nextNode.getAndIncrement();
+          if (newNode >= n.length / NODE_SIZE) {
+            throw new NodeTableFullException(garbageCollections);
+          }
+          int base = newNode * NODE_SIZE;
+          n[base + VAR] = pVar;
+          n[base + LOW] = pLow;
+          n[base + HIGH] = pHigh;
+          n[base + HASH] = hash;
+        }
+        if (table.compareAndSet(slot, FALSE, newNode)) {
+          return newNode;
+        }
+        node = table.get(slot);
+      }
+      int base = node * NODE_SIZE;
+      if (n[base + VAR] == pVar && n[base + LOW] == pLow && n[base + HIGH] == pHigh) {
+        // If we allocated a node ourselves, it is garbage now and will be collected.
+        return node;
+      }
+    }
+  }
+
+  /**
+   * Entries of the operation cache. The cache is an {@link AtomicReferenceArray}, because the
+   * result of an entry may be a node that another thread created: the volatile write of the entry
+   * happens after that thread wrote or read the fields of the node, thus a thread that reads the
+   * entry also sees these fields. Concurrent writes to the same slot may lose an entry, which only
+   * costs a recomputation.
+   */
+  private static final class CacheEntry {
+    private final int op;
+    private final int f;
+    private final int g;
+    private final int result;
+
+    private CacheEntry(int pOp, int pF, int pG, int pResult) {
+      op = pOp;
+      f = pF;
+      g = pG;
+      result = pResult;
+    }
+  }
+
+  /** Computes the given operation, using the fork-join pool if available. */
+  @GuardedBy("lock")
+  private int compute(int pOp, int pF, int pG) {
+    if (pool != null) {
+      return pool.invoke(new ApplyTask(pOp, pF, pG, 0));
+    }
+    return apply(pOp, pF, pG, parallelDepth);
+  }
+
+  private final class ApplyTask extends RecursiveTask<Integer> {
+
+    private static final long serialVersionUID = 4436209867417264419L;
+
+    private final int op;
+    private final int f;
+    private final int g;
+    private final int depth;
+
+    private ApplyTask(int pOp, int pF, int pG, int pDepth) {
+      op = pOp;
+      f = pF;
+      g = pG;
+      depth = pDepth;
+    }
+
+    @Override
+    protected Integer compute() {
+      return apply(op, f, g, depth);
+    }
+  }
+
+  @SuppressWarnings("GuardedBy") // called by the operation holding the lock or its forked tasks
+  private int apply(int pOp, int pF, int pG, int pDepth) {
+    int f = pF;
+    int g = pG;
+    switch (pOp) {
+      case AND:
+        if (f == FALSE || g == FALSE) {
+          return FALSE;
+        } else if (f == TRUE) {
+          return g;
+        } else if (g == TRUE || f == g) {
+          return f;
+        }
+        break;
+      case OR:
+        if (f == TRUE || g == TRUE) {
+          return TRUE;
+        } else if (f == FALSE) {
+          return g;
+        } else if (g == FALSE || f == g) {
+          return f;
+        }
+        break;
+      case XOR:
+        if (f == g) {
+          return FALSE;
+        } else if (f == FALSE) {
+          return g;
+        } else if (g == FALSE) {
+          return f;
+        } else if (f == TRUE) {
+          return apply(NOT, g, FALSE, pDepth);
+        } else if (g == TRUE) {
+          return apply(NOT, f, FALSE, pDepth);
+        }
+        break;
+      case NOT:
+        if (f <= TRUE) {
+          return f == TRUE ? FALSE : TRUE;
+        }
+        break;
+      case EXISTS:
+        if (f <= TRUE) {
+          return f;
+        }
+        break;
+      default:
+        throw new AssertionError("Unknown BDD operation " + pOp);
+    }
+
+    int[] n = nodes;
+    int fVar = n[f * NODE_SIZE + VAR];
+    if (pOp == EXISTS) {
+      // skip the quantified variables that do not occur in f
+      while (n[g * NODE_SIZE + VAR] < fVar) {
+        g = n[g * NODE_SIZE + HIGH];
+      }
+      if (g == TRUE) {
+        return f;
+      }
+    } else if (pOp != NOT && f > g) {
+      // normalize commutative operations for the cache
+      int tmp = f;
+      f = g;
+      g = tmp;
+      fVar = n[f * NODE_SIZE + VAR];
+    }
+
+    AtomicReferenceArray<CacheEntry> c = cache;
+    int cacheSlot = hash(pOp, f, g) & (c.length() - 1);
+    CacheEntry entry = c.get(cacheSlot);
+    cacheLookups.increment();
+    if (entry != null && entry.op == pOp && entry.f == f && entry.g == g) {
+      cacheHits.increment();
+      return entry.result;
+    }
+
+    int gVar = pOp == NOT ? TERMINAL_VAR : n[g * NODE_SIZE + VAR];
+    int var = Math.min(fVar, gVar);
+    int f0 = fVar == var ? n[f * NODE_SIZE + LOW] : f;
+    int f1 = fVar == var ? n[f * NODE_SIZE + HIGH] : f;
+    int g0 = g;
+    int g1 = g;
+    if (pOp == EXISTS) {
+      // the cube is not split, but its first variable is consumed if it is the one of f
+      if (gVar == var) {
+        g0 = n[g * NODE_SIZE + HIGH];
+        g1 = g0;
+      }
+    } else if (gVar == var) {
+      g0 = n[g * NODE_SIZE + LOW];
+      g1 = n[g * NODE_SIZE + HIGH];
+    }
+
+    int r0;
+    int r1;
+    if (pDepth < parallelDepth && ForkJoinTask.inForkJoinPool()) {
+      ApplyTask highTask = new ApplyTask(pOp, f1, g1, pDepth + 1);
+      highTask.fork();
+      try {
+        r0 = apply(pOp, f0, g0, pDepth + 1);
+      } catch (RuntimeException | Error e) {
+        // The forked task must not outlive the operation that holds the lock.
+        highTask.quietlyJoin();
+        throw e;
+      }
+      r1 = highTask.join();
+    } else {
+      r0 = apply(pOp, f0, g0, pDepth + 1);
+      r1 = apply(pOp, f1, g1, pDepth + 1);
+    }
+
+    int result;
+    if (pOp == EXISTS && gVar == var) {
+      result = apply(OR, r0, r1, pDepth + 1);
+    } else {
+      result = makeNode(var, r0, r1);
+    }
+
+    c.set(cacheSlot, new CacheEntry(pOp, f, g, result));
+    return result;
+  }
+
+  // Implementation of RegionManager
+
+  @Override
+  public Region createPredicate() {
+    int var = nextVar.getAndIncrement();
+    return execute(() -> wrap(makeNode(var, FALSE, TRUE)));
+  }
+
+  @Override
+  public boolean entails(Region pF1, Region pF2) {
+    // f1 => f2 iff (f1 & !f2) is false
+    ConcurrentBDDRegion f1 = unwrap(pF1);
+    ConcurrentBDDRegion f2 = unwrap(pF2);
+    return execute(
+        () -> compute(AND, f1.getNode(), compute(NOT, f2.getNode(), FALSE)) == FALSE);
+  }
+
+  @Override
+  public Region makeTrue() {
+    return trueFormula;
+  }
+
+  @Override
+  public Region makeFalse() {
+    return falseFormula;
+  }
+
+  @Override
+  public Region makeNot(Region pF) {
+    ConcurrentBDDRegion f = unwrap(pF);
+    return execute(() -> wrap(compute(NOT, f.getNode(), FALSE)));
+  }
+
+  @Override
+  public Region makeAnd(Region pF1, Region pF2) {
+    return makeBinary(AND, pF1, pF2);
+  }
+
+  @Override
+  public Region makeOr(Region pF1, Region pF2) {
+    return makeBinary(OR, pF1, pF2);
+  }
+
+  @Override
+  public Region makeEqual(Region pF1, Region pF2) {
+    ConcurrentBDDRegion f1 = unwrap(pF1);
+    ConcurrentBDDRegion f2 = unwrap(pF2);
+    return execute(
+        () -> wrap(compute(NOT, compute(XOR, f1.getNode(), f2.getNode()), FALSE)));
+  }
+
+  @Override
+  public Region makeUnequal(Region pF1, Region pF2) {
+    return makeBinary(XOR, pF1, pF2);
+  }
+
+  private Region makeBinary(int pOp, Region pF1, Region pF2) {
+    ConcurrentBDDRegion f1 = unwrap(pF1);
+    ConcurrentBDDRegion f2 = unwrap(pF2);
+    return execute(() -> wrap(compute(pOp, f1.getNode(), f2.getNode())));
+  }
+
+  @Override
+  public Region makeIte(Region pF1, Region pF2, Region pF3) {
+    ConcurrentBDDRegion f1 = unwrap(pF1);
+    ConcurrentBDDRegion f2 = unwrap(pF2);
+    ConcurrentBDDRegion f3 = unwrap(pF3);
+    return execute(
+        () -> {
+          int condition = f1.getNode();
+          int thenPart = compute(AND, condition, f2.getNode());
+          int elsePart = compute(AND, compute(NOT, condition, FALSE), f3.getNode());
+          return wrap(compute(OR, thenPart, elsePart));
+        });
+  }
+
+  @Override
+  public Region makeExists(Region pF1, Region... pF2) {
+    if (pF2.length == 0 || pF1.isTrue() || pF1.isFalse()) {
+      return pF1;
+    }
+    ConcurrentBDDRegion f = unwrap(pF1);
+    List<ConcurrentBDDRegion> variables = new ArrayList<>(pF2.length);
+    for (Region variable : pF2) {
+      variables.add(unwrap(variable));
+    }
+    return execute(
+        () -> {
+          int cube = TRUE;
+          for (ConcurrentBDDRegion variable : variables) {
+            cube = compute(AND, cube, variable.getNode());
+          }
+          return wrap(compute(EXISTS, f.getNode(), cube));
+        });
+  }
+
+  @Override
+  public Triple<Region, Region, Region> getIfThenElse(Region pF) {
+    ConcurrentBDDRegion f = unwrap(pF);
+    return execute(
+        () -> {
+          int node = f.getNode();
+          checkArgument(node > TRUE, "Cannot decompose a constant region.");
+          int base = node * NODE_SIZE;
+          int high = nodes[base + HIGH];
+          int low = nodes[base + LOW];
+          Region predicate = wrap(makeNode(nodes[base + VAR], FALSE, TRUE));
+          return Triple.of(predicate, wrap(high), wrap(low));
+        });
+  }
+
+  @Override
+  public RegionBuilder builder(ShutdownNotifier pShutdownNotifier) {
+    return new ConcurrentBDDRegionBuilder(pShutdownNotifier);
+  }
+
+  @Override
+  public Region fromFormula(
+      BooleanFormula pF, FormulaManagerView fmgr, Function<BooleanFormula, Region> atomToRegion) {
+    BooleanFormulaManagerView bfmgr = fmgr.getBooleanFormulaManager();
+    if (bfmgr.isFalse(pF)) {
+      return makeFalse();
+    }
+
+    if (bfmgr.isTrue(pF)) {
+      return makeTrue();
+    }
+
+    return bfmgr.visit(pF, new FormulaToRegionConverter(fmgr, atomToRegion));
+  }
+
+  @Override
+  public void printStatistics(PrintStream out) {
+    lock.readLock().lock();
+    try {
+      long lookups = cacheLookups.sum();
+      writingStatisticsTo(out)
+          .put(
+              "Number of BDD nodes",
+              Math.min(nextNode.get(), nodes.length / NODE_SIZE))
+          .put("Size of BDD node table", nodes.length / NODE_SIZE)
+          .put("Size of BDD cache", cache.length())
+          .putIf(
+              lookups > 0,
+              "BDD cache hits",
+              String.format("%d of %d lookups", cacheHits.sum(), lookups))
+          .put("Number of BDD garbage collections", garbageCollections)
+          .putIfUpdatedAtLeastOnce(gcTimer);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public String getVersion() {
+    return String.format("Concurrent BDD package (%d threads)", pool == null ? 1 : threads);
+  }
+
+  @Override
+  public void setVarOrder(ArrayList<Integer> pOrder) {}
+
+  @Override
+  public void reorder(PredicateOrderingStrategy strategy) {}
+
+  private class ConcurrentBDDRegionBuilder implements RegionBuilder {
+
+    private final ShutdownNotifier shutdownNotifier;
+
+    // Invariants:
+    // cubes contains a number of BDDs, whose disjunction makes up the result.
+    // cubes may also contain null values, which are to be ignored,
+    // but there is always at least one non-null value (if the list is not empty).
+    // The cube at index i is one built from 2^i models.
+    // This is used to create balanced disjunctions
+    // instead of using a single growing BDD,
+    // while at the same time limiting the number of stored BDDs
+    // (log(numOfCubes) many).
+    private final List<Region> cubes = new ArrayList<>();
+    private @Nullable Region currentCube = null;
+
+    private ConcurrentBDDRegionBuilder(ShutdownNotifier pShutdownNotifier) {
+      shutdownNotifier = pShutdownNotifier;
+    }
+
+    @Override
+    public void startNewConjunction() {
+      checkState(currentCube == null);
+      currentCube = trueFormula;
+    }
+
+    @Override
+    public void addPositiveRegion(Region r) {
+      checkState(currentCube != null);
+      currentCube = makeAnd(currentCube, r);
+    }
+
+    @Override
+    public void addNegativeRegion(Region r) {
+      checkState(currentCube != null);
+      currentCube = makeAnd(currentCube, makeNot(r));
+    }
+
+    @Override
+    public void finishConjunction() {
+      checkState(currentCube != null);
+
+      for (int i = 0; i < cubes.size(); i++) {
+        Region cubeAtI = cubes.get(i);
+
+        if (cubeAtI == null) {
+          cubes.set(i, currentCube);
+          currentCube = null;
+          return;
+        } else {
+          currentCube = makeOr(currentCube, cubeAtI);
+          cubes.set(i, null);
+        }
+      }
+
+      if (currentCube != null) {
+        cubes.add(currentCube);
+        currentCube = null;
+      }
+    }
+
+    @Override
+    public Region getResult() throws InterruptedException {
+      checkState(currentCube == null);
+      Region result = falseFormula;
+      for (Region cube : cubes) {
+        if (cube != null) {
+          shutdownNotifier.shutdownIfNecessary();
+          result = makeOr(result, cube);
+        }
+      }
+      cubes.clear();
+      if (!result.isFalse()) {
+        cubes.add(result);
+      }
+      return result;
+    }
+
+    @Override
+    public void close() {
+      checkState(currentCube == null);
+      cubes.clear();
+    }
+  }
+
+  /** Class for creating BDDs out of a formula. */
+  private class FormulaToRegionConverter implements BooleanFormulaVisitor<Region> {
+
+    private final Function<BooleanFormula, Region> atomToRegion;
+    private final BooleanFormulaManager bfmgr;
+    private final Map<BooleanFormula, Region> cache = new HashMap<>();
+
+    FormulaToRegionConverter(
+        FormulaManagerView pFmgr, Function<BooleanFormula, Region> pAtomToRegion) {
+      atomToRegion = pAtomToRegion;
+      bfmgr = pFmgr.getBooleanFormulaManager();
+    }
+
+    // Convert one BooleanFormula (recursively)
+    private Region convert(BooleanFormula pOperand) {
+      Region operand = cache.get(pOperand);
+      if (operand == null) {
+        operand = bfmgr.visit(pOperand, this);
+        cache.put(pOperand, operand);
+      }
+      return operand;
+    }
+
+    @Override
+    public Region visitConstant(boolean value) {
+      return value ? trueFormula : falseFormula;
+    }
+
+    @Override
+    public Region visitBoundVar(BooleanFormula var, int deBruijnIdx) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Region visitAtom(BooleanFormula pAtom, FunctionDeclaration<BooleanFormula> decl) {
+      return atomToRegion.apply(pAtom);
+    }
+
+    @Override
+    public Region visitNot(BooleanFormula pOperand) {
+      return makeNot(convert(pOperand));
+    }
+
+    @Override
+    public Region visitAnd(List<BooleanFormula> pOperands) {
+      Region result = trueFormula;
+      for (BooleanFormula f : pOperands) {
+        result = makeAnd(result, convert(f));
+      }
+      return result;
+    }
+
+    @Override
+    public Region visitOr(List<BooleanFormula> pOperands) {
+      Region result = falseFormula;
+      for (BooleanFormula f : pOperands) {
+        result = makeOr(result, convert(f));
+      }
+      return result;
+    }
+
+    @Override
+    public Region visitXor(BooleanFormula operand1, BooleanFormula operand2) {
+      return makeUnequal(convert(operand1), convert(operand2));
+    }
+
+    @Override
+    public Region visitEquivalence(BooleanFormula pOperand1, BooleanFormula pOperand2) {
+      return makeEqual(convert(pOperand1), convert(pOperand2));
+    }
+
+    @Override
+    public Region visitImplication(BooleanFormula pOperand1, BooleanFormula pOperand2) {
+      return makeOr(makeNot(convert(pOperand1)), convert(pOperand2));
+    }
+
+    @Override
+    public Region visitIfThenElse(
+        BooleanFormula pCondition, BooleanFormula pThenFormula, BooleanFormula pElseFormula) {
+      return makeIte(convert(pCondition), convert(pThenFormula), convert(pElseFormula));
+    }
+
+    @Override
+    public Region visitQuantifier(
+        Quantifier q, BooleanFormula quantifiedAST, List<Formula> boundVars, BooleanFormula pBody) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
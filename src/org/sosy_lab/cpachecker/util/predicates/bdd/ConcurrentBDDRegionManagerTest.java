@@ -0,0 +1,194 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.bdd;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.cpachecker.util.Triple;
+import org.sosy_lab.cpachecker.util.predicates.regions.Region;
+import org.sosy_lab.cpachecker.util.predicates.regions.RegionManager;
+
+public class ConcurrentBDDRegionManagerTest {
+
+  private static final int VARIABLES = 8;
+
+  private static RegionManager createManager(int pTableSize, int pThreads)
+      throws InvalidConfigurationException {
+    Configuration config =
+        Configuration.builder()
+            .setOption("bdd.concurrent.initTableSize", Integer.toString(pTableSize))
+            .setOption("bdd.concurrent.cacheSize", "64")
+            .setOption("bdd.concurrent.threads", Integer.toString(pThreads))
+            .build();
+    return new ConcurrentBDDRegionManager(config);
+  }
+
+  private static List<Region> createPredicates(RegionManager pRmgr) {
+    List<Region> predicates = new ArrayList<>();
+    for (int i = 0; i < VARIABLES; i++) {
+      predicates.add(pRmgr.createPredicate());
+    }
+    return predicates;
+  }
+
+  /** Builds a random disjunction of cubes, determined by the seed. */
+  private static Region buildRandomRegion(
+      RegionManager pRmgr, List<Region> pPredicates, long pSeed) {
+    Random random = new Random(pSeed);
+    Region result = pRmgr.makeFalse();
+    for (int i = 0; i < 40; i++) {
+      Region cube = pRmgr.makeTrue();
+      for (Region predicate : pPredicates) {
+        switch (random.nextInt(3)) {
+          case 0:
+            cube = pRmgr.makeAnd(cube, predicate);
+            break;
+          case 1:
+            cube = pRmgr.makeAnd(cube, pRmgr.makeNot(predicate));
+            break;
+          default:
+            break;
+        }
+      }
+      result = pRmgr.makeOr(result, cube);
+    }
+    return result;
+  }
+
+  /** Evaluates the region under the assignment given by the bits of the number. */
+  private static boolean evaluate(
+      RegionManager pRmgr, List<Region> pPredicates, Region pRegion, int pAssignment) {
+    Region region = pRegion;
+    while (!region.isTrue() && !region.isFalse()) {
+      Triple<Region, Region, Region> ite = pRmgr.getIfThenElse(region);
+      int variable = pPredicates.indexOf(ite.getFirst());
+      region = (pAssignment & (1 << variable)) != 0 ? ite.getSecond() : ite.getThird();
+    }
+    return region.isTrue();
+  }
+
+  @Test
+  public void testCanonicity() throws Exception {
+    RegionManager rmgr = createManager(1024, 1);
+    List<Region> p = createPredicates(rmgr);
+    Region a = p.get(0);
+    Region b = p.get(1);
+    Region c = p.get(2);
+
+    Region distributed = rmgr.makeOr(rmgr.makeAnd(a, b), rmgr.makeAnd(a, c));
+    Region factored = rmgr.makeAnd(a, rmgr.makeOr(b, c));
+    assertThat(distributed).isEqualTo(factored);
+    assertThat(distributed.hashCode()).isEqualTo(factored.hashCode());
+
+    Region deMorgan = rmgr.makeNot(rmgr.makeAnd(a, b));
+    assertThat(deMorgan).isEqualTo(rmgr.makeOr(rmgr.makeNot(a), rmgr.makeNot(b)));
+    assertThat(rmgr.makeEqual(a, b)).isEqualTo(rmgr.makeNot(rmgr.makeUnequal(a, b)));
+    assertThat(rmgr.makeIte(a, b, c))
+        .isEqualTo(rmgr.makeOr(rmgr.makeAnd(a, b), rmgr.makeAnd(rmgr.makeNot(a), c)));
+    assertThat(rmgr.makeAnd(a, rmgr.makeNot(a)).isFalse()).isTrue();
+    assertThat(rmgr.makeOr(a, rmgr.makeNot(a)).isTrue()).isTrue();
+
+    assertThat(rmgr.entails(rmgr.makeAnd(a, b), a)).isTrue();
+    assertThat(rmgr.entails(a, rmgr.makeAnd(a, b))).isFalse();
+    assertThat(rmgr.makeExists(rmgr.makeAnd(a, rmgr.makeAnd(b, c)), b, c)).isEqualTo(a);
+  }
+
+  @Test
+  public void testAgainstTruthTable() throws InvalidConfigurationException {
+    RegionManager rmgr = createManager(1024, 1);
+    List<Region> p = createPredicates(rmgr);
+    Region f = buildRandomRegion(rmgr, p, 1);
+    Region g = buildRandomRegion(rmgr, p, 2);
+    Region and = rmgr.makeAnd(f, g);
+    Region xor = rmgr.makeUnequal(f, g);
+    Region exists = rmgr.makeExists(f, p.get(0), p.get(3));
+
+    for (int assignment = 0; assignment < (1 << VARIABLES); assignment++) {
+      boolean fValue = evaluate(rmgr, p, f, assignment);
+      boolean gValue = evaluate(rmgr, p, g, assignment);
+      assertThat(evaluate(rmgr, p, and, assignment)).isEqualTo(fValue && gValue);
+      assertThat(evaluate(rmgr, p, xor, assignment)).isEqualTo(fValue != gValue);
+
+      boolean existsValue = false;
+      for (int quantified : new int[] {0, 1, 8, 9}) {
+        existsValue |= evaluate(rmgr, p, f, (assignment & ~9) | quantified);
+      }
+      assertThat(evaluate(rmgr, p, exists, assignment)).isEqualTo(existsValue);
+    }
+  }
+
+  @Test
+  public void testGarbageCollection() throws InvalidConfigurationException {
+    // the node table is too small for the regions, so nodes need to be collected and moved
+    RegionManager rmgr = createManager(16, 1);
+    List<Region> p = createPredicates(rmgr);
+    List<Region> regions = new ArrayList<>();
+    List<Integer> hashCodes = new ArrayList<>();
+    for (int seed = 0; seed < 20; seed++) {
+      Region region = buildRandomRegion(rmgr, p, seed);
+      regions.add(region);
+      hashCodes.add(region.hashCode());
+    }
+    for (int seed = 0; seed < 20; seed++) {
+      Region region = buildRandomRegion(rmgr, p, seed);
+      assertThat(region).isEqualTo(regions.get(seed));
+      assertThat(region.hashCode()).isEqualTo(hashCodes.get(seed));
+    }
+  }
+
+  @Test
+  public void testConcurrentUse() throws Exception {
+    RegionManager rmgr = createManager(64, 4);
+    List<Region> p = createPredicates(rmgr);
+    Region expected = buildRandomRegion(rmgr, p, 42);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Region>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(
+            executor.submit(
+                () -> {
+                  // create garbage in parallel to force concurrent garbage collections
+                  buildRandomRegion(rmgr, p, Thread.currentThread().getId());
+                  return buildRandomRegion(rmgr, p, 42);
+                }));
+      }
+      for (Future<Region> result : results) {
+        assertThat(result.get()).isEqualTo(expected);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -28,29 +28,41 @@ import static com.google.common.collect.FluentIterable.from;
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.div;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.EnumMultiset;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultiset;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Multiset;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownManager;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -88,7 +100,7 @@ import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
 
 @Options(prefix="cpa.predicate.refinement")
-public final class InterpolationManager {
+public final class InterpolationManager implements AutoCloseable {
 
   private final Timer cexAnalysisTimer = new Timer();
   private final Timer satCheckTimer = new Timer();
@@ -96,6 +108,10 @@ public final class InterpolationManager {
   private final Timer cexAnalysisGetUsefulBlocksTimer = new Timer();
   private final Timer interpolantVerificationTimer = new Timer();
   private int reusedFormulasOnSolverStack = 0;
+  private final Timer parallelInterpolationTimer = new Timer();
+  private final Multiset<InterpolationStrategy> parallelInterpolationWins =
+      EnumMultiset.create(InterpolationStrategy.class);
+  private int parallelInterpolationFailures = 0;
 
   public void printStatistics(StatisticsWriter w0) {
     w0.put("Counterexample analysis", cexAnalysisTimer + " (Max: " + cexAnalysisTimer.getMaxTime().formatAs(TimeUnit.SECONDS) + ", Calls: " + cexAnalysisTimer.getNumberOfIntervals() + ")");
@@ -111,6 +127,14 @@ public final class InterpolationManager {
     if (interpolantVerificationTimer.getNumberOfIntervals() > 0) {
       w1.put("Interpolant verification", interpolantVerificationTimer);
     }
+    if (parallelInterpolationTimer.getNumberOfIntervals() > 0) {
+      w1.put("Parallel interpolation", parallelInterpolationTimer);
+      StatisticsWriter w2 = w1.beginLevel();
+      for (InterpolationStrategy s : parallelStrategies) {
+        w2.put("Results from " + s, parallelInterpolationWins.count(s));
+      }
+      w2.put("Failed interpolation attempts", parallelInterpolationFailures);
+    }
   }
 
 
@@ -183,7 +207,29 @@ public final class InterpolationManager {
   @Option(secure=true, description="Use a single SMT solver environment for several interpolation queries")
   private boolean reuseInterpolationEnvironment = false;
 
+  @Option(
+    secure = true,
+    name = "parallelInterpolation.strategies",
+    description =
+        "Interpolation strategies that are run in parallel for each counterexample,"
+            + " each with its own solver instance. The interpolants of the first strategy"
+            + " that succeeds are used and the other computations are cancelled."
+            + " If empty, only the strategy given by cpa.predicate.refinement.strategy is used."
+  )
+  private List<InterpolationStrategy> parallelStrategies = ImmutableList.of();
+
+  @Option(
+    secure = true,
+    name = "parallelInterpolation.threads",
+    description =
+        "Maximum number of threads for parallel interpolation (0 for one thread per strategy)."
+  )
+  @IntegerOption(min = 0)
+  private int parallelThreads = 0;
+
   private final ExecutorService executor;
+  private final @Nullable ExecutorService parallelExecutor;
+  private final ImmutableList<InterpolationWorker> workers;
   private final LoopStructure loopStructure;
   private final VariableClassification variableClassification;
 
@@ -192,10 +238,10 @@ public final class InterpolationManager {
       Solver pSolver,
       Optional<LoopStructure> pLoopStructure,
       Optional<VariableClassification> pVarClassification,
-      Configuration config,
+      Configuration pConfig,
       ShutdownNotifier pShutdownNotifier,
       LogManager pLogger) throws InvalidConfigurationException {
-    config.inject(this, InterpolationManager.class);
+    pConfig.inject(this, InterpolationManager.class);
 
     logger = pLogger;
     shutdownNotifier = pShutdownNotifier;
@@ -219,6 +265,82 @@ public final class InterpolationManager {
     } else {
       interpolator = null;
     }
+
+    if (parallelStrategies.isEmpty()) {
+      parallelExecutor = null;
+      workers = ImmutableList.of();
+    } else {
+      int threads = parallelThreads > 0 ? parallelThreads : parallelStrategies.size();
+      // daemon threads in case this instance is never closed
+      parallelExecutor =
+          Executors.newFixedThreadPool(
+              threads,
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("Interpolation-worker-%d")
+                  .build());
+      // The solvers are reused for all counterexamples until their computation is cancelled.
+      ImmutableList.Builder<InterpolationWorker> workerBuilder = ImmutableList.builder();
+      for (InterpolationStrategy s : parallelStrategies) {
+        workerBuilder.add(new InterpolationWorker(s, pConfig));
+      }
+      workers = workerBuilder.build();
+    }
+  }
+
+  /**
+   * Create an instance for computing interpolants with a given strategy on a separate solver. The
+   * options are copied from the parent instance.
+   */
+  private InterpolationManager(
+      InterpolationManager pParent,
+      Solver pSolver,
+      InterpolationStrategy pStrategy,
+      ShutdownNotifier pShutdownNotifier) {
+    logger = pParent.logger;
+    shutdownNotifier = pShutdownNotifier;
+    fmgr = pSolver.getFormulaManager();
+    bfmgr = fmgr.getBooleanFormulaManager();
+    // only used for extracting the branching predicates from a model,
+    // which does not depend on the solver
+    pmgr = pParent.pmgr;
+    solver = pSolver;
+    loopStructure = pParent.loopStructure;
+    variableClassification = pParent.variableClassification;
+
+    getUsefulBlocks = pParent.getUsefulBlocks;
+    incrementalCheck = pParent.incrementalCheck;
+    direction = pParent.direction;
+    strategy = pStrategy;
+    sequentialStrategy = pParent.sequentialStrategy;
+    verifyInterpolants = pParent.verifyInterpolants;
+
+    executor = null;
+    interpolator = null;
+    parallelExecutor = null;
+    workers = ImmutableList.of();
+  }
+
+  /**
+   * Release the threads and solvers used for parallel interpolation, and the interpolation
+   * environment if it is reused. The solver given to the constructor is not closed. This instance
+   * must not be used afterwards.
+   */
+  @Override
+  public void close() {
+    if (parallelExecutor != null) {
+      // no tasks are running between two counterexamples, so this terminates quickly
+      MoreExecutors.shutdownAndAwaitTermination(parallelExecutor, 10, TimeUnit.SECONDS);
+    }
+    for (InterpolationWorker worker : workers) {
+      worker.close();
+    }
+    if (interpolator != null) {
+      interpolator.close();
+    }
+    if (executor != null) {
+      executor.shutdownNow();
+    }
   }
 
   /**
@@ -263,6 +385,7 @@ public final class InterpolationManager {
       return future.get(itpTimeLimit.asNanos(), TimeUnit.NANOSECONDS);
 
     } catch (TimeoutException e) {
+      logger.logDebugException(e);
       logger.log(Level.SEVERE, "SMT-solver timed out during interpolation process");
       throw new RefinementFailedException(Reason.TIMEOUT, null);
 
@@ -288,6 +411,14 @@ public final class InterpolationManager {
     try {
       final BlockFormulas f = prepareCounterexampleFormulas(pFormulas);
 
+      if (!workers.isEmpty()) {
+        Optional<CounterexampleTraceInfo> result = interpolateInParallel(f, pAbstractionStates);
+        if (result.isPresent()) {
+          return result.get();
+        }
+        // no strategy succeeded, the sequential analysis below handles the failure
+      }
+
       final Interpolator<?> currentInterpolator;
       if (reuseInterpolationEnvironment) {
         currentInterpolator = checkNotNull(interpolator);
@@ -317,6 +448,221 @@ public final class InterpolationManager {
     }
   }
 
+  /**
+   * Check a counterexample with the strategies from {@link #parallelStrategies} concurrently, each
+   * on its own solver, and return the result of the first strategy that succeeds. The other
+   * strategies are cancelled. For a feasible counterexample, the error path is computed again with
+   * the main solver, because the model of a worker belongs to the worker's solver.
+   *
+   * <p>All strategies are started for each counterexample, and this method returns only after all
+   * of them have terminated. Thus the solvers of the workers are never accessed concurrently.
+   *
+   * @return The result, or an empty Optional if no strategy succeeded.
+   */
+  private Optional<CounterexampleTraceInfo> interpolateInParallel(
+      final BlockFormulas pFormulas, final List<AbstractState> pAbstractionStates)
+      throws CPAException, InterruptedException {
+    assert parallelExecutor != null;
+    parallelInterpolationTimer.start();
+    final Map<Future<WorkerResult>, InterpolationWorker> futures = new HashMap<>();
+    try {
+      // The formulas are moved between the solvers as SMT-LIB strings. Each solver is only accessed
+      // by the thread that owns it: the main solver by this thread, a worker solver by its task.
+      final List<String> formulas = new ArrayList<>(pFormulas.getSize());
+      for (BooleanFormula f : pFormulas.getFormulas()) {
+        formulas.add(fmgr.dumpFormula(f).toString());
+      }
+      final @Nullable String branchingFormula =
+          pFormulas.hasBranchingFormula()
+              ? fmgr.dumpFormula(pFormulas.getBranchingFormula()).toString()
+              : null;
+      final ImmutableList<AbstractState> abstractionStates =
+          ImmutableList.copyOf(pAbstractionStates);
+
+      shutdownNotifier.shutdownIfNecessary();
+      final CompletionService<WorkerResult> completionService =
+          new ExecutorCompletionService<>(parallelExecutor);
+      for (InterpolationWorker worker : workers) {
+        worker.prepare();
+        futures.put(
+            completionService.submit(
+                () -> worker.analyze(formulas, branchingFormula, abstractionStates)),
+            worker);
+      }
+
+      for (int i = 0; i < futures.size(); i++) {
+        Future<WorkerResult> future = completionService.take();
+        InterpolationWorker worker = futures.get(future);
+
+        final WorkerResult result;
+        try {
+          result = future.get();
+        } catch (ExecutionException e) {
+          Throwable t = e.getCause();
+          if (t instanceof SolverException
+              || (t instanceof InterruptedException && !shutdownNotifier.shouldShutdown())) {
+            logger.logDebugException(
+                t, "Interpolation with strategy " + worker.itpStrategy + " failed");
+            parallelInterpolationFailures++;
+            continue;
+          }
+          Throwables.propagateIfPossible(t, CPAException.class, InterruptedException.class);
+          throw new UnexpectedCheckedException("interpolation", t);
+        }
+
+        logger.log(Level.FINEST, "Using result from strategy", worker.itpStrategy);
+        parallelInterpolationWins.add(worker.itpStrategy);
+        cancelWorkers(futures);
+        if (!result.info.isSpurious()) {
+          // all strategies agree on this, we only need the error path in our own solver context
+          return solveCounterexampleAfterParallelInterpolation(pFormulas);
+        }
+        List<BooleanFormula> interpolants = new ArrayList<>(result.interpolants.size());
+        for (String itp : result.interpolants) {
+          interpolants.add(fmgr.parse(itp));
+        }
+        return Optional.of(CounterexampleTraceInfo.infeasible(interpolants));
+      }
+      return Optional.empty();
+
+    } finally {
+      // also stop all strategies if we return because of an exception
+      cancelWorkers(futures);
+      for (Future<WorkerResult> future : futures.keySet()) {
+        try {
+          Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException e) {
+          // already handled above, or the result is no longer needed
+        }
+      }
+      parallelInterpolationTimer.stop();
+    }
+  }
+
+  /** Request the shutdown of all workers whose tasks are still running. */
+  private void cancelWorkers(Map<Future<WorkerResult>, InterpolationWorker> pFutures) {
+    for (Entry<Future<WorkerResult>, InterpolationWorker> entry : pFutures.entrySet()) {
+      if (!entry.getKey().isDone()) {
+        entry.getValue().cancel();
+      }
+    }
+  }
+
+  /**
+   * Compute the error path of a counterexample that a worker found to be feasible. If our solver
+   * fails on it, the sequential analysis has to handle the counterexample.
+   */
+  private Optional<CounterexampleTraceInfo> solveCounterexampleAfterParallelInterpolation(
+      BlockFormulas pFormulas) throws InterruptedException {
+    try {
+      CounterexampleTraceInfo info = solveCounterexample(pFormulas);
+      if (!info.isSpurious()) {
+        return Optional.of(info);
+      }
+      logger.log(Level.WARNING, "Solvers disagree about feasibility of counterexample");
+    } catch (SolverException e) {
+      logger.logDebugException(e, "Computing the error path of a feasible counterexample failed");
+    }
+    return Optional.empty();
+  }
+
+  /** The result of a worker, with the interpolants as SMT-LIB strings. */
+  private static class WorkerResult {
+
+    private final CounterexampleTraceInfo info;
+    private final List<String> interpolants;
+
+    private WorkerResult(CounterexampleTraceInfo pInfo, List<String> pInterpolants) {
+      info = pInfo;
+      interpolants = pInterpolants;
+    }
+  }
+
+  /**
+   * A computation of interpolants with one strategy on a separate solver instance. The solver is
+   * only used by one task at a time and reused for the next counterexample. Each solver is bound to
+   * its own child of our {@link ShutdownManager}, such that the task can be cancelled. A solver
+   * whose computation was cancelled can not be used anymore and is replaced before the next task.
+   */
+  private class InterpolationWorker {
+
+    private final InterpolationStrategy itpStrategy;
+    private final Configuration config;
+
+    private ShutdownManager shutdownManager;
+    private Solver solver;
+    private InterpolationManager worker;
+
+    private InterpolationWorker(InterpolationStrategy pStrategy, Configuration pConfig)
+        throws InvalidConfigurationException {
+      itpStrategy = pStrategy;
+      config = pConfig;
+      createSolver();
+    }
+
+    private void createSolver() throws InvalidConfigurationException {
+      shutdownManager = ShutdownManager.createWithParent(shutdownNotifier);
+      solver = Solver.create(config, logger, shutdownManager.getNotifier());
+      worker =
+          new InterpolationManager(
+              InterpolationManager.this, solver, itpStrategy, shutdownManager.getNotifier());
+    }
+
+    /** Replace the solver if it was shut down. Must not be called while a task is running. */
+    private void prepare() {
+      if (shutdownManager.getNotifier().shouldShutdown()) {
+        solver.close();
+        try {
+          createSolver();
+        } catch (InvalidConfigurationException e) {
+          throw new AssertionError("Solver configuration was valid before", e);
+        }
+      }
+    }
+
+    private void cancel() {
+      shutdownManager.requestShutdown("Interpolants were computed by another strategy");
+    }
+
+    /** Close the solver. Must not be called while a task is running. */
+    private void close() {
+      worker.close();
+      solver.close();
+    }
+
+    private WorkerResult analyze(
+        List<String> pFormulas,
+        @Nullable String pBranchingFormula,
+        List<AbstractState> pAbstractionStates)
+        throws SolverException, InterruptedException {
+      FormulaManagerView workerFmgr = worker.fmgr;
+      List<BooleanFormula> workerFormulas = new ArrayList<>(pFormulas.size());
+      for (String f : pFormulas) {
+        workerFormulas.add(workerFmgr.parse(f));
+      }
+      BlockFormulas formulas =
+          pBranchingFormula == null
+              ? new BlockFormulas(workerFormulas)
+              : new BlockFormulas(workerFormulas, workerFmgr.parse(pBranchingFormula));
+
+      CounterexampleTraceInfo info;
+      Interpolator<?> workerInterpolator = worker.new Interpolator<>();
+      try {
+        info = workerInterpolator.buildCounterexampleTrace(formulas, pAbstractionStates);
+      } finally {
+        workerInterpolator.close();
+      }
+
+      List<String> interpolants = new ArrayList<>();
+      if (info.isSpurious()) {
+        for (BooleanFormula itp : info.getInterpolants()) {
+          interpolants.add(workerFmgr.dumpFormula(itp).toString());
+        }
+      }
+      return new WorkerResult(info, interpolants);
+    }
+  }
+
   /**
    * Counterexample analysis without interpolation. Use this method if you want to check a
    * counterexample for feasibility and in case of a feasible counterexample want the proper path
@@ -0,0 +1,95 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.interpolation;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableList;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.cpachecker.cpa.predicate.BlockFormulaStrategy.BlockFormulas;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.SolverViewBasedTest0;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+
+@SuppressFBWarnings("NP_NONNULL_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR")
+public class InterpolationManagerTest extends SolverViewBasedTest0 {
+
+  private static final String WORKER_THREAD_PREFIX = "Interpolation-worker-";
+
+  @Override
+  protected ConfigurationBuilder createTestConfigBuilder() {
+    return super.createTestConfigBuilder()
+        // the workers create their own solvers from the configuration
+        .setOption("solver.solver", solverToUse().toString())
+        .setOption(
+            "cpa.predicate.refinement.parallelInterpolation.strategies", "SEQ_CPACHECKER, SEQ");
+  }
+
+  @Test
+  public void testCloseReleasesWorkers() throws Exception {
+    IntegerFormula x = imgrv.makeVariable("x");
+    BlockFormulas formulas =
+        new BlockFormulas(
+            ImmutableList.of(
+                imgrv.equal(x, imgrv.makeNumber(0)), imgrv.equal(x, imgrv.makeNumber(1))));
+
+    for (int i = 0; i < 3; i++) {
+      try (InterpolationManager imgr =
+          new InterpolationManager(
+              mock(PathFormulaManager.class),
+              solver,
+              Optional.empty(),
+              Optional.empty(),
+              config,
+              ShutdownNotifier.createDummy(),
+              logger)) {
+        CounterexampleTraceInfo info = imgr.buildCounterexampleTrace(formulas);
+        assertThat(info.isSpurious()).isTrue();
+        assertThat(getWorkerThreads()).isNotEmpty();
+      }
+    }
+
+    // close() waits for the thread pool to terminate, but a thread may still be exiting
+    for (Thread thread : getWorkerThreads()) {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+    assertThat(getWorkerThreads()).isEmpty();
+  }
+
+  private static List<Thread> getWorkerThreads() {
+    return Thread.getAllStackTraces()
+        .keySet()
+        .stream()
+        .filter(t -> t.isAlive() && t.getName().startsWith(WORKER_THREAD_PREFIX))
+        .collect(Collectors.toList());
+  }
+}
@@ -28,10 +28,13 @@ import static com.google.common.truth.Truth.assertThat;
 import com.google.common.testing.ClassSanityTester;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.sosy_lab.common.collect.MapsDifference;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentLinkedList;
 import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
@@ -173,4 +176,45 @@ public class PathFormulaTest {
     thrown.expect(IllegalArgumentException.class);
     builder.setIndex("a", CNumericTypes.INT, 1);
   }
+
+  @Test
+  public void testSSAMergeOfEqualMaps() {
+    SSAMap ssa1 = builder.setIndex("a", CNumericTypes.INT, 2).build();
+    SSAMap ssa2 =
+        SSAMap.emptySSAMap()
+            .builder()
+            .setIndex("a", CNumericTypes.INT, 1)
+            .setIndex("a", CNumericTypes.INT, 2)
+            .build();
+    assertThat(ssa2).isEqualTo(ssa1);
+
+    List<String> differences = new ArrayList<>();
+    SSAMap merged = SSAMap.merge(ssa1, ssa2, collectKeys(differences));
+    assertThat(merged).isEqualTo(ssa1);
+    assertThat(differences).isEmpty();
+
+    SSAMap ssa3 = ssa2.builder().setIndex("b", CNumericTypes.INT, 1).build();
+    merged = SSAMap.merge(ssa1, ssa3, collectKeys(differences));
+    assertThat(merged).isEqualTo(ssa3);
+    assertThat(differences).containsExactly("b");
+  }
+
+  private static MapsDifference.Visitor<String, Integer> collectKeys(List<String> keys) {
+    return new MapsDifference.Visitor<String, Integer>() {
+      @Override
+      public void leftValueOnly(String pKey, Integer pLeftValue) {
+        keys.add(pKey);
+      }
+
+      @Override
+      public void rightValueOnly(String pKey, Integer pRightValue) {
+        keys.add(pKey);
+      }
+
+      @Override
+      public void differingValues(String pKey, Integer pLeftValue, Integer pRightValue) {
+        keys.add(pKey);
+      }
+    };
+  }
 }
@@ -28,6 +28,8 @@ import static com.google.common.base.Preconditions.checkArgument;
 import com.google.common.base.Equivalence;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import java.io.Serializable;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Map;
@@ -48,10 +50,14 @@ import org.sosy_lab.cpachecker.cfa.types.c.CTypes;
 /**
  * Maps a variable name to its latest "SSA index", that should be used when
  * referring to that variable.
+ *
+ * The maps from variables to indices are hash-consed:
+ * all SSAMaps with equal variable indices share the same (interned) map instance,
+ * such that comparing and merging them only needs a reference check.
  */
 public class SSAMap implements Serializable {
 
-  private static final long serialVersionUID = 7618801653203679876L;
+  private static final long serialVersionUID = -4829018624178734452L;
 
   // Default value for the default value
   private static final int DEFAULT_DEFAULT_IDX = -1;
@@ -108,11 +114,11 @@ public class SSAMap implements Serializable {
 
     private SSAMapBuilder(SSAMap ssa) {
       this.ssa = ssa;
-      this.vars = ssa.vars;
+      this.vars = ssa.vars.map;
       this.freshValueProvider = ssa.freshValueProvider;
 
       this.varTypes = ssa.varTypes;
-      this.varsHashCode = ssa.varsHashCode;
+      this.varsHashCode = ssa.vars.hashCode;
     }
 
     public int getIndex(String variable) {
@@ -177,11 +183,15 @@ public class SSAMap implements Serializable {
      * Returns an immutable SSAMap with all the changes made to the builder.
      */
     public SSAMap build() {
-      if (vars == ssa.vars && freshValueProvider == ssa.freshValueProvider) {
+      if (vars == ssa.vars.map && freshValueProvider == ssa.freshValueProvider) {
         return ssa;
       }
 
-      ssa = new SSAMap(vars, freshValueProvider, varsHashCode, varTypes, ssa.defaultValue);
+      Vars internedVars = Vars.intern(vars, varsHashCode);
+      ssa = new SSAMap(internedVars, freshValueProvider, varTypes, ssa.defaultValue);
+
+      // continue with the interned instance to benefit from the fast path above
+      vars = internedVars.map;
       return ssa;
     }
 
@@ -194,11 +204,62 @@ public class SSAMap implements Serializable {
     }
   }
 
-  private static final SSAMap EMPTY_SSA_MAP = new SSAMap(
-      PathCopyingPersistentTreeMap.of(),
-      new FreshValueProvider(),
-      0,
-      PathCopyingPersistentTreeMap.of());
+  /**
+   * Interned map from variables to indices together with its (cached) hash code.
+   * All instances of this class are interned, so they can be compared with ==.
+   */
+  private static final class Vars implements Serializable {
+
+    private static final long serialVersionUID = 2286187424950163186L;
+
+    private static final Interner<Vars> INTERNER = Interners.newWeakInterner();
+
+    private final PersistentSortedMap<String, Integer> map;
+    private final int hashCode;
+
+    private Vars(PersistentSortedMap<String, Integer> pMap, int pHashCode) {
+      map = pMap;
+      hashCode = pHashCode;
+      assert hashCode == map.hashCode();
+    }
+
+    private static Vars intern(PersistentSortedMap<String, Integer> pMap, int pHashCode) {
+      return INTERNER.intern(new Vars(pMap, pHashCode));
+    }
+
+    private static Vars intern(PersistentSortedMap<String, Integer> pMap) {
+      return intern(pMap, pMap.hashCode());
+    }
+
+    private Object readResolve() {
+      return INTERNER.intern(this);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      // This is only used for interning, afterwards instances are compared with ==.
+      if (this == obj) {
+        return true;
+      } else if (!(obj instanceof Vars)) {
+        return false;
+      } else {
+        Vars other = (Vars) obj;
+        return hashCode == other.hashCode && map.equals(other.map);
+      }
+    }
+  }
+
+  private static final SSAMap EMPTY_SSA_MAP =
+      new SSAMap(
+          Vars.intern(PathCopyingPersistentTreeMap.of()),
+          new FreshValueProvider(),
+          PathCopyingPersistentTreeMap.of(),
+          DEFAULT_DEFAULT_IDX);
 
   /**
    * Returns an empty immutable SSAMap.
@@ -208,7 +269,7 @@ public class SSAMap implements Serializable {
   }
 
   public SSAMap withDefault(final int pDefaultValue) {
-    return new SSAMap(this.vars, this.freshValueProvider, this.varsHashCode, this.varTypes, pDefaultValue);
+    return new SSAMap(this.vars, this.freshValueProvider, this.varTypes, pDefaultValue);
   }
 
   /**
@@ -220,31 +281,36 @@ public class SSAMap implements Serializable {
   public static SSAMap merge(
       SSAMap s1, SSAMap s2, MapsDifference.Visitor<String, Integer> collectDifferences) {
     // This method uses some optimizations to avoid work when parts of both SSAMaps
-    // are equal. These checks use == instead of equals() because it is much faster
-    // and we create sets lazily (so when they are not identical, they are
+    // are equal. These checks use == instead of equals() because it is much faster.
+    // For the variable indices this is exact because they are interned,
+    // for the other parts we create sets lazily (so when they are not identical, they are
     // probably not equal, too).
     // We don't bother checking the vars set for emptiness, because this will
     // probably never be the case on a merge.
 
     checkArgument(s1.defaultValue == s2.defaultValue);
-    PersistentSortedMap<String, Integer> vars;
-    FreshValueProvider freshValueProvider;
-    int defaultIndex;
-    if (s1.vars == s2.vars && s1.freshValueProvider == s2.freshValueProvider) {
-      // both are absolutely identical
-      return s1;
+    final Vars vars;
+    final FreshValueProvider freshValueProvider;
+    final int defaultIndex = s1.defaultValue;
+    if (s1.vars == s2.vars) {
+      if (s1.freshValueProvider == s2.freshValueProvider) {
+        // both are absolutely identical
+        return s1;
+      }
+      // equal indices, so there are no differences to report
+      vars = s1.vars;
 
     } else {
       vars =
-          PersistentSortedMaps.merge(
-              s1.vars,
-              s2.vars,
-              Equivalence.equals(),
-              PersistentSortedMaps.getMaximumMergeConflictHandler(),
-              collectDifferences);
-      freshValueProvider = s1.freshValueProvider.merge(s2.freshValueProvider);
-      defaultIndex = s1.defaultValue;
+          Vars.intern(
+              PersistentSortedMaps.merge(
+                  s1.vars.map,
+                  s2.vars.map,
+                  Equivalence.equals(),
+                  PersistentSortedMaps.getMaximumMergeConflictHandler(),
+                  collectDifferences));
     }
+    freshValueProvider = s1.freshValueProvider.merge(s2.freshValueProvider);
 
     PersistentSortedMap<String, CType> varTypes =
         PersistentSortedMaps.merge(
@@ -254,42 +320,24 @@ public class SSAMap implements Serializable {
             TYPE_CONFLICT_CHECKER,
             MapsDifference.ignoreMapsDifference());
 
-    return new SSAMap(vars, freshValueProvider, 0, varTypes, defaultIndex);
+    return new SSAMap(vars, freshValueProvider, varTypes, defaultIndex);
   }
 
-  private final PersistentSortedMap<String, Integer> vars;
+  // interned, caches hashCode of potentially big map
+  private final Vars vars;
   private final FreshValueProvider freshValueProvider;
   private final PersistentSortedMap<String, CType> varTypes;
 
-  // Cache hashCode of potentially big map
-  private final int varsHashCode;
-
-  private SSAMap(PersistentSortedMap<String, Integer> vars,
+  private SSAMap(Vars vars,
                  FreshValueProvider freshValueProvider,
-                 int varsHashCode,
                  PersistentSortedMap<String, CType> varTypes,
                  int defaultSSAIdx) {
     this.vars = vars;
     this.freshValueProvider = freshValueProvider;
     this.varTypes = varTypes;
-
-    if (varsHashCode == 0) {
-      this.varsHashCode = vars.hashCode();
-    } else {
-      this.varsHashCode = varsHashCode;
-      assert varsHashCode == vars.hashCode();
-    }
-
     defaultValue = defaultSSAIdx;
   }
 
-  private SSAMap(PersistentSortedMap<String, Integer> vars,
-                 FreshValueProvider freshValueProvider,
-                 int varsHashCode,
-                 PersistentSortedMap<String, CType> varTypes) {
-    this(vars, freshValueProvider, varsHashCode, varTypes, DEFAULT_DEFAULT_IDX);
-  }
-
   /**
    * Returns a SSAMapBuilder that is initialized with the current SSAMap.
    */
@@ -310,11 +358,11 @@ public class SSAMap implements Serializable {
    * or the [defaultValue].
    */
   public int getIndex(String variable) {
-    return getIndex(variable, vars, defaultValue);
+    return getIndex(variable, vars.map, defaultValue);
   }
 
   public boolean containsVariable(String variable) {
-    return vars.containsKey(variable);
+    return vars.map.containsKey(variable);
   }
 
   public CType getType(String name) {
@@ -322,19 +370,19 @@ public class SSAMap implements Serializable {
   }
 
   public NavigableSet<String> allVariables() {
-    return vars.keySet();
+    return vars.map.keySet();
   }
 
   private static final Joiner joiner = Joiner.on(" ");
 
   @Override
   public String toString() {
-    return joiner.join(vars.entrySet());
+    return joiner.join(vars.map.entrySet());
   }
 
   @Override
   public int hashCode() {
-    return varsHashCode;
+    return vars.hashCode;
   }
 
   @Override
@@ -345,9 +393,8 @@ public class SSAMap implements Serializable {
       return false;
     } else {
       SSAMap other = (SSAMap)obj;
-      // Do a few cheap checks before the expensive ones.
-      return varsHashCode == other.varsHashCode
-          && vars.equals(other.vars)
+      // vars are interned
+      return vars == other.vars
           && freshValueProvider.equals(other.freshValueProvider);
     }
   }
@@ -0,0 +1,97 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * Process-wide cache for results of satisfiability checks that can be shared by several {@link
+ * Solver} instances, e.g., by the analyses of a parallel portfolio, which all use their own solver.
+ *
+ * <p>Formulas of different solver instances can not be compared directly, thus we identify a
+ * formula by a hash of its SMT-LIB representation. The cache is bounded, least recently used
+ * entries are removed first. Access is thread-safe, the cache is split into several segments with
+ * separate locks.
+ *
+ * <p>Only solvers with the same semantics of satisfiability checks may share a cache, thus each
+ * cache belongs to a group (e.g., solvers with and without checking of UFs are in different
+ * groups).
+ */
+final class SharedSatCache {
+
+  /** number of segments of the cache, each with its own lock. */
+  private static final int CONCURRENCY_LEVEL = 16;
+
+  private static final ConcurrentMap<String, SharedSatCache> instances =
+      new ConcurrentHashMap<>();
+
+  /** maps the hash of a formula to whether it is unsatisfiable. */
+  private final Cache<HashCode, Boolean> cache;
+
+  private SharedSatCache(long pMaximumSize) {
+    cache =
+        CacheBuilder.newBuilder()
+            .maximumSize(pMaximumSize)
+            .concurrencyLevel(CONCURRENCY_LEVEL)
+            .recordStats()
+            .build();
+  }
+
+  /**
+   * Return the cache for the given group. The size of the cache is determined by the first
+   * request for the group.
+   */
+  static SharedSatCache getInstance(String pGroup, long pMaximumSize) {
+    return instances.computeIfAbsent(pGroup, k -> new SharedSatCache(pMaximumSize));
+  }
+
+  /** Compute a solver-independent key for the formula. */
+  static HashCode getKey(FormulaManagerView pFmgr, BooleanFormula pFormula) {
+    return Hashing.sha256()
+        .hashString(pFmgr.dumpFormula(pFormula).toString(), StandardCharsets.UTF_8);
+  }
+
+  /** Return whether the formula is unsatisfiable, or NULL if the formula is not cached. */
+  @Nullable
+  Boolean isUnsat(HashCode pKey) {
+    return cache.getIfPresent(pKey);
+  }
+
+  void put(HashCode pKey, boolean pIsUnsat) {
+    cache.put(pKey, pIsUnsat);
+  }
+
+  CacheStats getStatistics() {
+    return cache.stats();
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.SolverException;
+
+@SuppressFBWarnings("NP_NONNULL_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR")
+public class SharedSatCacheTest extends SolverViewBasedTest0 {
+
+  @Override
+  protected ConfigurationBuilder createTestConfigBuilder() {
+    return super.createTestConfigBuilder().setOption("solver.useSharedSatCache", "true");
+  }
+
+  private static BooleanFormula makeUnsatFormula(FormulaManagerView pFmgr, String pVar) {
+    IntegerFormulaManagerView ifmgr = pFmgr.getIntegerFormulaManager();
+    IntegerFormula x = ifmgr.makeVariable(pVar);
+    return pFmgr
+        .getBooleanFormulaManager()
+        .and(ifmgr.greaterThan(x, ifmgr.makeNumber(1)), ifmgr.lessThan(x, ifmgr.makeNumber(0)));
+  }
+
+  @Test
+  public void testSharedBetweenSolvers()
+      throws InvalidConfigurationException, SolverException, InterruptedException {
+    try (Solver otherSolver =
+        new Solver(
+            factory, solverToUse(), factory.generateContext(solverToUse()), config, logger)) {
+
+      assertThat(solver.isUnsat(makeUnsatFormula(mgrv, "shared_x"))).isTrue();
+      assertThat(solver.sharedCachedSatChecks).isEqualTo(0);
+
+      // the formula is created independently in another solver context
+      BooleanFormula f = makeUnsatFormula(otherSolver.getFormulaManager(), "shared_x");
+      assertThat(otherSolver.isUnsat(f)).isTrue();
+      assertThat(otherSolver.sharedCachedSatChecks).isEqualTo(1);
+    }
+  }
+
+  @Test
+  public void testDifferentFormulas()
+      throws InvalidConfigurationException, SolverException, InterruptedException {
+    try (Solver otherSolver =
+        new Solver(
+            factory, solverToUse(), factory.generateContext(solverToUse()), config, logger)) {
+
+      assertThat(solver.isUnsat(makeUnsatFormula(mgrv, "different_x"))).isTrue();
+
+      FormulaManagerView otherFmgr = otherSolver.getFormulaManager();
+      IntegerFormulaManagerView ifmgr = otherFmgr.getIntegerFormulaManager();
+      BooleanFormula f = ifmgr.greaterThan(ifmgr.makeVariable("different_x"), ifmgr.makeNumber(1));
+      assertThat(otherSolver.isUnsat(f)).isFalse();
+      assertThat(otherSolver.sharedCachedSatChecks).isEqualTo(0);
+    }
+  }
+
+  @Test
+  public void testNotSharedBetweenEncodings()
+      throws InvalidConfigurationException, SolverException, InterruptedException {
+    Configuration otherConfig =
+        createTestConfigBuilder().setOption("cpa.predicate.encodeBitvectorAs", "INTEGER").build();
+    try (Solver otherSolver =
+        new Solver(
+            factory, solverToUse(), factory.generateContext(solverToUse()), otherConfig, logger)) {
+
+      assertThat(solver.isUnsat(makeUnsatFormula(mgrv, "encoding_x"))).isTrue();
+
+      BooleanFormula f = makeUnsatFormula(otherSolver.getFormulaManager(), "encoding_x");
+      assertThat(otherSolver.isUnsat(f)).isTrue();
+      assertThat(otherSolver.sharedCachedSatChecks).isEqualTo(0);
+    }
+  }
+}
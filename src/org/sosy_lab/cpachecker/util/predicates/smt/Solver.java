@@ -27,10 +27,14 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_UNSAT_CORE;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
 import com.google.common.base.Verify;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.util.HashMap;
 import java.util.List;
@@ -40,6 +44,7 @@ import java.util.Set;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -77,6 +82,18 @@ public final class Solver implements AutoCloseable {
 
   private static final String SOLVER_OPTION_NON_LINEAR_ARITHMETIC = "solver.nonLinearArithmetic";
 
+  /**
+   * Options with these prefixes configure the solver backend or the encoding of programs as
+   * formulas (e.g., integers vs. bitvectors, floats, memory model), and thus the meaning of a
+   * formula for the shared satisfiability cache.
+   */
+  private static final ImmutableList<String> SHARED_SAT_CACHE_RELEVANT_OPTION_PREFIXES =
+      ImmutableList.of("analysis.machineModel", "cpa.predicate.", "solver.");
+
+  /** Options with these prefixes do not influence satisfiability although they match the above. */
+  private static final ImmutableList<String> SHARED_SAT_CACHE_IRRELEVANT_OPTION_PREFIXES =
+      ImmutableList.of("solver.useSharedSatCache", "solver.sharedSatCacheSize");
+
   @Option(secure=true, name="checkUFs",
       description="improve sat-checks with additional constraints for UFs")
   private boolean checkUFs = false;
@@ -96,6 +113,24 @@ public final class Solver implements AutoCloseable {
   description="Extract and cache unsat cores for satisfiability checking")
   private boolean cacheUnsatCores = true;
 
+  @Option(
+    secure = true,
+    description =
+        "Share the results of satisfiability checks between all solver instances "
+            + "in the same process (e.g., of parallel analyses). "
+            + "Formulas are identified by a hash of their SMT-LIB representation."
+  )
+  private boolean useSharedSatCache = false;
+
+  @Option(
+    secure = true,
+    description = "maximum number of formulas in the shared cache for satisfiability checks"
+  )
+  @IntegerOption(min = 1)
+  private int sharedSatCacheSize = 100000;
+
+  private final @Nullable SharedSatCache sharedSatCache;
+
   private final @Nullable UFCheckingProverOptions ufCheckingProverOptions;
 
   private final FormulaManagerView fmgr;
@@ -126,6 +161,7 @@ public final class Solver implements AutoCloseable {
   public int satChecks = 0;
   public int trivialSatChecks = 0;
   public int cachedSatChecks = 0;
+  public int sharedCachedSatChecks = 0;
 
   private Solver(SolverContextFactory pSolverFactory, Configuration config, LogManager pLogger)
       throws InvalidConfigurationException {
@@ -159,6 +195,7 @@ public final class Solver implements AutoCloseable {
     } else {
       ufCheckingProverOptions = null;
     }
+    sharedSatCache = createSharedSatCache(config);
   }
 
   /**
@@ -204,6 +241,26 @@ public final class Solver implements AutoCloseable {
     } else {
       ufCheckingProverOptions = null;
     }
+    sharedSatCache = createSharedSatCache(pConfig);
+  }
+
+  private @Nullable SharedSatCache createSharedSatCache(Configuration pConfig) {
+    if (!useSharedSatCache) {
+      return null;
+    }
+    // Only solvers that use the same backend and encode programs in the same way may share
+    // results, thus the group contains all options that could influence this.
+    // The properties string is sorted and contains one option per line.
+    StringBuilder group = new StringBuilder();
+    group.append("solver=").append(solver).append('\n');
+    group.append("checkUFs=").append(checkUFs).append('\n');
+    for (String line : Splitter.on('\n').split(pConfig.asPropertiesString())) {
+      if (SHARED_SAT_CACHE_RELEVANT_OPTION_PREFIXES.stream().anyMatch(line::startsWith)
+          && SHARED_SAT_CACHE_IRRELEVANT_OPTION_PREFIXES.stream().noneMatch(line::startsWith)) {
+        group.append(line).append('\n');
+      }
+    }
+    return SharedSatCache.getInstance(group.toString(), sharedSatCacheSize);
   }
 
   /**
@@ -334,9 +391,23 @@ public final class Solver implements AutoCloseable {
 
     solverTime.start();
     try {
+      HashCode sharedKey = null;
+      if (sharedSatCache != null) {
+        sharedKey = SharedSatCache.getKey(fmgr, f);
+        result = sharedSatCache.isUnsat(sharedKey);
+        if (result != null) {
+          sharedCachedSatChecks++;
+          unsatCache.put(f, result);
+          return result;
+        }
+      }
+
       result = isUnsatUncached(f);
 
       unsatCache.put(f, result);
+      if (sharedSatCache != null) {
+        sharedSatCache.put(sharedKey, result);
+      }
       return result;
 
     } finally {
@@ -344,6 +415,14 @@ public final class Solver implements AutoCloseable {
     }
   }
 
+  /**
+   * Return the statistics of the cache for satisfiability checks that is shared between all
+   * solver instances, or NULL if the shared cache is disabled.
+   */
+  public @Nullable CacheStats getSharedSatCacheStatistics() {
+    return sharedSatCache == null ? null : sharedSatCache.getStatistics();
+  }
+
   /**
    * Unsatisfiability check with more complex cache look up,
    * optionally based on unsat core.
@@ -518,6 +597,14 @@ public final class Solver implements AutoCloseable {
     return interpolatingContext.getVersion();
   }
 
+  /**
+   * Whether several {@link ProverEnvironment}s of this solver may have non-empty stacks at the same
+   * time.
+   */
+  public boolean supportsParallelStacks() {
+    return solver != Solvers.SMTINTERPOL;
+  }
+
   /**
    * Populate the cache for unsatisfiability queries with a formula
    * that is known to be unsat.